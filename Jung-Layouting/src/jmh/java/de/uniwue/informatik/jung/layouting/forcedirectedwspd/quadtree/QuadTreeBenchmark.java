@@ -0,0 +1,107 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.quadtree;
+
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.quadtree.FRQuadtree;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.VertexTriple;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.UndirectedSparseGraph;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the pointer-based {@link QuadTree} with the {@link LinearQuadTree}:
+ * building the tree for n normally distributed points, and one iteration of {@link FRQuadtree} with either tree
+ * (see {@link FRQuadtree#setArrayBackedQuadtree(boolean)}) on a random sparse graph with n vertices.
+ * <p>
+ * Run with: mvn -P jmh -pl Jung-Layouting test-compile exec:exec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuadTreeBenchmark {
+
+	private static final long SEED = 1;
+	private static final double THETA = 1.0;
+
+	@Param({"10000", "100000"})
+	public int n;
+
+	private double[] x;
+	private double[] y;
+	private List<VertexTriple<Integer>> triples;
+	private LinearQuadTree linearQuadTree;
+	private FRQuadtree<Integer, Integer> frPointerQuadtree;
+	private FRQuadtree<Integer, Integer> frLinearQuadtree;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(SEED);
+		x = new double[n];
+		y = new double[n];
+		triples = new ArrayList<>(n);
+		for(int i=0; i<n; i++){
+			x[i] = random.nextGaussian()*1000;
+			y[i] = random.nextGaussian()*1000;
+			triples.add(new VertexTriple<>(i, new Point2D.Double(x[i], y[i])));
+		}
+		linearQuadTree = new LinearQuadTree();
+
+		//random tree plus n/2 further edges -> connected, average degree 3
+		Graph<Integer, Integer> graph = new UndirectedSparseGraph<>();
+		for(int i=0; i<n; i++){
+			graph.addVertex(i);
+		}
+		int edge = 0;
+		for(int i=1; i<n; i++){
+			graph.addEdge(edge++, i, random.nextInt(i));
+		}
+		for(int i=0; i<n/2; i++){
+			int u = random.nextInt(n);
+			int v = random.nextInt(n);
+			if(u!=v && graph.findEdge(u, v)==null){
+				graph.addEdge(edge++, u, v);
+			}
+		}
+		frPointerQuadtree = createLayout(graph, false);
+		frLinearQuadtree = createLayout(graph, true);
+	}
+
+	private static FRQuadtree<Integer, Integer> createLayout(Graph<Integer, Integer> graph, boolean arrayBacked) {
+		FRQuadtree<Integer, Integer> layout = new FRQuadtree<>(graph, THETA, new Dimension(1000, 1000), SEED);
+		layout.setArrayBackedQuadtree(arrayBacked);
+		layout.initialize();
+		return layout;
+	}
+
+	@Benchmark
+	public QuadTree<Integer> buildPointerQuadTree() {
+		return new QuadTree<>(triples);
+	}
+
+	@Benchmark
+	public LinearQuadTree buildLinearQuadTree() {
+		linearQuadTree.build(x, y, n);
+		return linearQuadTree;
+	}
+
+	@Benchmark
+	public void frIterationPointerQuadTree(Blackhole blackhole) {
+		frPointerQuadtree.step();
+		blackhole.consume(frPointerQuadtree.getComponentArrays());
+	}
+
+	@Benchmark
+	public void frIterationLinearQuadTree(Blackhole blackhole) {
+		frLinearQuadtree.step();
+		blackhole.consume(frLinearQuadtree.getComponentArrays());
+	}
+}
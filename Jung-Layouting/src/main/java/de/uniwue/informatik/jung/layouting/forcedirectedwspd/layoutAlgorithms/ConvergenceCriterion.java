@@ -0,0 +1,38 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms;
+
+import com.google.common.base.Function;
+
+/**
+ * This class implements the interface {@link Function}< {@link FRLayoutNoMapsNoFrame} , {@link Boolean} >
+ * in the variant com.google.common.base.Function.
+ * <br>
+ * Intended use is the use as function in {@link FRLayoutNoMapsNoFrame} to determine after the positions of an
+ * iteration are computed if the drawing has converged already.
+ * If it has converged then true is returned otherwise false is returned.
+ * The drawing is also done if every vertex moved by at most {@link FRLayoutNoMapsNoFrame#threshold}
+ * or after {@link FRLayoutNoMapsNoFrame#mMaxIterations} iterations.
+ * <p>
+ * Default is to return always false (no additional criterion).
+ * If that should be changed overwrite the {@link ConvergenceCriterion#apply(FRLayoutNoMapsNoFrame)}-method.
+ * In this overwriting properties of the {@link FRLayoutNoMapsNoFrame} can be read, e.g. the locations and forces
+ * in {@link FRLayoutNoMapsNoFrame#getComponentArrays()}.
+ * A criterion may store information of the previous iterations, so every layout needs its own instance.
+ * <p>
+ * Set a criterion to an algorithm by calling
+ * {@link FRLayoutNoMapsNoFrame#setConvergenceCriterion(ConvergenceCriterion)}.
+ */
+public class ConvergenceCriterion implements Function<FRLayoutNoMapsNoFrame<?,?>, Boolean> {
+
+	/**
+	 * Called when the layout is initialized (again).
+	 * Overwrite it to clear information of previous iterations.
+	 */
+	public void reset(){
+	}
+
+	//Default-Function is defined here. It is: Return always false
+	@Override
+	public Boolean apply(FRLayoutNoMapsNoFrame<?,?> layout) {
+		return false;
+	}
+}
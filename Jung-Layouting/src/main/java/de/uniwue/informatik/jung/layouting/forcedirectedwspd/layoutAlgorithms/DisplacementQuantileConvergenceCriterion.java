@@ -0,0 +1,61 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms;
+
+import java.util.Arrays;
+
+/**
+ * {@link ConvergenceCriterion} saying that the drawing has converged as soon as at least the fraction
+ * {@link DisplacementQuantileConvergenceCriterion#getQuantile()} of the vertices moved by at most
+ * {@link DisplacementQuantileConvergenceCriterion#getMaximumDisplacement()} in an iteration with repulsive forces.
+ * <p>
+ * With quantile 1 this is the criterion with {@link FRLayoutNoMapsNoFrame#threshold}, but with another bound.
+ * A smaller quantile ignores some vertices that are still moving (e.g. oscillating ones).
+ */
+public class DisplacementQuantileConvergenceCriterion extends ConvergenceCriterion {
+
+	private double quantile;
+	private double maximumDisplacement;
+
+	private double[] displacement = new double[0];
+
+	public DisplacementQuantileConvergenceCriterion(double quantile, double maximumDisplacement) {
+		super();
+		this.quantile = quantile;
+		this.maximumDisplacement = maximumDisplacement;
+	}
+
+	public double getQuantile() {
+		return quantile;
+	}
+
+	public double getMaximumDisplacement() {
+		return maximumDisplacement;
+	}
+
+	@Override
+	public Boolean apply(FRLayoutNoMapsNoFrame<?,?> layout) {
+		if(!layout.isIterationWithRepulsiveForces()){
+			return false;
+		}
+		int n = 0;
+		for(FRComponentArrays<?> component: layout.getComponentArrays()){
+			n += component.size;
+		}
+		if(displacement.length < n){
+			displacement = new double[n];
+		}
+		//as in FRLayoutNoMapsNoFrame.calcPositions(int, int) a vertex moves by at most the temperature
+		int k = 0;
+		for(FRComponentArrays<?> component: layout.getComponentArrays()){
+			for(int v=0; v<component.size; v++){
+				displacement[k++] = Math.min(Math.sqrt(component.dx[v]*component.dx[v] + component.dy[v]*component.dy[v]),
+						layout.getTemperature());
+			}
+		}
+		if(n == 0){
+			return true;
+		}
+		Arrays.sort(displacement, 0, n);
+		int indexOfTheQuantile = Math.min(n-1, Math.max(0, (int) Math.ceil(quantile * n) - 1));
+		return displacement[indexOfTheQuantile] <= maximumDisplacement;
+	}
+}
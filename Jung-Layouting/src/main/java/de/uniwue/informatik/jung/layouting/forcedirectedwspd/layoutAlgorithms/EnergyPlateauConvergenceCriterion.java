@@ -0,0 +1,54 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms;
+
+/**
+ * {@link ConvergenceCriterion} saying that the drawing has converged as soon as the energy
+ * ({@link FRLayoutNoMapsNoFrame#getEnergy()}) changed relatively by less than
+ * {@link EnergyPlateauConvergenceCriterion#getMaximumRelativeChange()} in
+ * {@link EnergyPlateauConvergenceCriterion#getIterations()} iterations in a row.
+ * Only iterations with repulsive forces are compared.
+ */
+public class EnergyPlateauConvergenceCriterion extends ConvergenceCriterion {
+
+	private double maximumRelativeChange;
+	private int iterations;
+
+	private double energyOfThePreviousIteration;
+	private int iterationsOnThePlateau;
+
+	public EnergyPlateauConvergenceCriterion(double maximumRelativeChange, int iterations) {
+		super();
+		this.maximumRelativeChange = maximumRelativeChange;
+		this.iterations = iterations;
+		reset();
+	}
+
+	public double getMaximumRelativeChange() {
+		return maximumRelativeChange;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	@Override
+	public void reset() {
+		energyOfThePreviousIteration = Double.NaN;
+		iterationsOnThePlateau = 0;
+	}
+
+	@Override
+	public Boolean apply(FRLayoutNoMapsNoFrame<?,?> layout) {
+		if(!layout.isIterationWithRepulsiveForces()){
+			return false;
+		}
+		double energy = layout.getEnergy();
+		if(Math.abs(energy - energyOfThePreviousIteration) <= maximumRelativeChange * energyOfThePreviousIteration){
+			++iterationsOnThePlateau;
+		}
+		else{
+			iterationsOnThePlateau = 0;
+		}
+		energyOfThePreviousIteration = energy;
+		return iterationsOnThePlateau >= iterations;
+	}
+}
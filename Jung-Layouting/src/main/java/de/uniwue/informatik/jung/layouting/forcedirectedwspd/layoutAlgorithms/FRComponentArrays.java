@@ -0,0 +1,117 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms;
+
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.EdgeTriple;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.VertexTriple;
+
+import java.util.List;
+
+/**
+ * Structure-of-arrays copy of one connected component as it is used in the iterations of
+ * {@link FRLayoutNoMapsNoFrame} and its subclasses.
+ * <p>
+ * The vertex with index v (see {@link VertexTriple#getIndex()}) of this component has its location at (x[v], y[v])
+ * and its displacement of the current iteration at (dx[v], dy[v]).
+ * The edges incident to v are stored in compressed sparse row format:
+ * the other endpoints of these edges are adjacentVertex[adjacencyStart[v]] to adjacentVertex[adjacencyStart[v+1]-1],
+ * in the order of the edges in the list of edges of the layout.
+ * isFirstEndpoint says if v is the first endpoint ({@link EdgeTriple#getVertexA()}) of that edge.
+ * A self-loop appears twice, first as first endpoint.
+ * <p>
+ * The {@link VertexTriple}s are the locations seen from outside.
+ * Copy between both via {@link FRComponentArrays#readLocations()} and {@link FRComponentArrays#writeLocations()}.
+ */
+public class FRComponentArrays<V> {
+
+	public final List<VertexTriple<V>> vertices;
+	public final int size;
+	public final double[] x;
+	public final double[] y;
+	public final double[] dx;
+	public final double[] dy;
+	public final int[] adjacencyStart;
+	public final int[] adjacentVertex;
+	public final boolean[] isFirstEndpoint;
+
+
+	private FRComponentArrays(List<VertexTriple<V>> vertices, int[] degree) {
+		this.vertices = vertices;
+		this.size = vertices.size();
+		this.x = new double[size];
+		this.y = new double[size];
+		this.dx = new double[size];
+		this.dy = new double[size];
+		this.adjacencyStart = new int[size+1];
+		for(int v=0; v<size; v++){
+			adjacencyStart[v+1] = adjacencyStart[v] + degree[v];
+		}
+		this.adjacentVertex = new int[adjacencyStart[size]];
+		this.isFirstEndpoint = new boolean[adjacencyStart[size]];
+	}
+
+	/**
+	 * Creates the arrays for all passed components in O(|V|+|E|).
+	 * The index of every {@link VertexTriple} is set to its position in the list of its component
+	 * and the locations are read from the {@link VertexTriple}s.
+	 *
+	 * @param components
+	 * @param edges
+	 * 	every edge must have both endpoints in the same component
+	 */
+	@SuppressWarnings("unchecked")
+	public static <V,E> FRComponentArrays<V>[] create(List<VertexTriple<V>>[] components, List<EdgeTriple<V,E>> edges){
+		int[][] degree = new int[components.length][];
+		for(int i=0; i<components.length; i++){
+			degree[i] = new int[components[i].size()];
+			for(int v=0; v<components[i].size(); v++){
+				VertexTriple<V> t = components[i].get(v);
+				t.setIndex(v);
+				t.setComponentIndex(i);
+			}
+		}
+		for(EdgeTriple<V,E> e: edges){
+			++degree[e.getVertexA().getComponentIndex()][e.getVertexA().getIndex()];
+			++degree[e.getVertexB().getComponentIndex()][e.getVertexB().getIndex()];
+		}
+
+		FRComponentArrays<V>[] arrays = new FRComponentArrays[components.length];
+		int[][] nextEntry = new int[components.length][];
+		for(int i=0; i<components.length; i++){
+			arrays[i] = new FRComponentArrays<V>(components[i], degree[i]);
+			nextEntry[i] = arrays[i].adjacencyStart.clone();
+			arrays[i].readLocations();
+		}
+		for(EdgeTriple<V,E> e: edges){
+			VertexTriple<V> a = e.getVertexA();
+			VertexTriple<V> b = e.getVertexB();
+			FRComponentArrays<V> component = arrays[a.getComponentIndex()];
+			int entryA = nextEntry[a.getComponentIndex()][a.getIndex()]++;
+			component.adjacentVertex[entryA] = b.getIndex();
+			component.isFirstEndpoint[entryA] = true;
+			int entryB = nextEntry[b.getComponentIndex()][b.getIndex()]++;
+			component.adjacentVertex[entryB] = a.getIndex();
+			component.isFirstEndpoint[entryB] = false;
+		}
+		return arrays;
+	}
+
+	/**
+	 * Copies the locations of the {@link VertexTriple}s into x and y
+	 */
+	public void readLocations(){
+		for(int v=0; v<size; v++){
+			x[v] = vertices.get(v).get2().getX();
+			y[v] = vertices.get(v).get2().getY();
+		}
+	}
+
+	/**
+	 * Copies x and y into the locations of the {@link VertexTriple}s
+	 * and dx and dy into their {@link VertexTriple#getDisplacementInOneIterationOfTheComputation()}
+	 */
+	public void writeLocations(){
+		for(int v=0; v<size; v++){
+			vertices.get(v).get2().setLocation(x[v], y[v]);
+			vertices.get(v).get3().setLocation(dx[v], dy[v]);
+		}
+	}
+}
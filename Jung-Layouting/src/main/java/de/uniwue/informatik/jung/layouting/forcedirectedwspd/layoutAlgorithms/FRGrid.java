@@ -2,13 +2,10 @@ package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms;
 
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.Constants;
 import edu.uci.ics.jung.graph.Graph;
-import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.VertexTriple;
 
 import java.awt.*;
 import java.awt.geom.Point2D;
-import java.util.ConcurrentModificationException;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * FR+Grid
@@ -33,12 +30,22 @@ public class FRGrid<V,E> extends FRLayoutNoMapsNoFrame<V,E> {
 	
 	/**
 	 * Grid from the FR-paper.
-	 * All {@link VertexTriple}s are stored acc. to their position in the last iteration.
+	 * All vertices are stored acc. to their position in the last iteration.
 	 * 
-	 * For every connected component its own grid after the scheme
-	 * grid[indexConnectedComponent][numberOfGridSquareInXDirection][numberOfGridSquareInYDirection]
+	 * For every connected component its own grid.
+	 * The grid-square (x, y) of component i has the number x*gridRows[i]+y and contains the vertices (indices in
+	 * {@link FRLayoutNoMapsNoFrame#componentArrays}) gridVertices[i][gridSquareStart[i][number]] to
+	 * gridVertices[i][gridSquareStart[i][number+1]-1] (in increasing order).
 	 */
-	private List<VertexTriple<V>>[][][] grid;
+	private int[] gridColumns;
+	private int[] gridRows;
+	private int[][] gridSquareStart;
+	private int[][] gridVertices;
+	/**
+	 * Grid-square of every vertex in x- and y-direction
+	 */
+	private int[][] xGridIndexOfVertex;
+	private int[][] yGridIndexOfVertex;
 	
 	
 	/*
@@ -53,7 +60,12 @@ public class FRGrid<V,E> extends FRLayoutNoMapsNoFrame<V,E> {
 		
 		//for every component an own one
 		k = new double[vertices.length];
-		grid = new List[vertices.length][0][0];
+		gridColumns = new int[vertices.length];
+		gridRows = new int[vertices.length];
+		gridSquareStart = new int[vertices.length][];
+		gridVertices = new int[vertices.length][];
+		xGridIndexOfVertex = new int[vertices.length][];
+		yGridIndexOfVertex = new int[vertices.length][];
 		computeGrid();
 	}
 	
@@ -70,137 +82,137 @@ public class FRGrid<V,E> extends FRLayoutNoMapsNoFrame<V,E> {
 	}
 	
 	protected void computeGrid(){
+		if(parallelForceComputation){
+			IntStream.range(0, componentArrays.length).parallel().forEach(this::computeGrid);
+		}
+		else{
+			for(int i=0; i<componentArrays.length; i++){
+				computeGrid(i);
+			}
+		}
+	}
+	
+	protected void computeGrid(int i){
 		//find min and max to determine the area and size of the grid
-		for(int i=0; i<vertices.length; i++){
-			double xMin = Double.POSITIVE_INFINITY;
-			double xMax = Double.NEGATIVE_INFINITY;
-			double yMin = Double.POSITIVE_INFINITY;
-			double yMax = Double.NEGATIVE_INFINITY;
-			for(VertexTriple<V> t: vertices[i]){
-				if(t.get2().getX()<xMin){
-					xMin = t.get2().getX();
-				}
-				if(t.get2().getX()>xMax){
-					xMax = t.get2().getX();
-				}
-				if(t.get2().getY()<yMin){
-					yMin = t.get2().getY();
-				}
-				if(t.get2().getY()>yMax){
-					yMax = t.get2().getY();
-				}
+		FRComponentArrays<V> component = componentArrays[i];
+		double xMin = Double.POSITIVE_INFINITY;
+		double xMax = Double.NEGATIVE_INFINITY;
+		double yMin = Double.POSITIVE_INFINITY;
+		double yMax = Double.NEGATIVE_INFINITY;
+		for(int v=0; v<component.size; v++){
+			if(component.x[v]<xMin){
+				xMin = component.x[v];
 			}
-			double width = xMax - xMin;
-			double height = yMax - yMin;
-			
-			/*
-			 * Catch case that width or height == 0.
-			 * Then take just a small value for width and height (here arbitrarily defined via
-			 * minDistanceToTheDrawingAreaOfTheNexComponent from FRLayoutNoMapsNoFrame)
-			 */
-			if(width==0){
-				width = Math.max(1, minDistanceToTheDrawingAreaOfTheNextComponent/2);
+			if(component.x[v]>xMax){
+				xMax = component.x[v];
 			}
-			if(height==0){
-				height = Math.max(1, minDistanceToTheDrawingAreaOfTheNextComponent/2);
+			if(component.y[v]<yMin){
+				yMin = component.y[v];
 			}
-			
-			k[i] = Math.sqrt(width*height/(double)numberOfVertices);
-			
-			/*
-			 * Use Math.floor +1, so that even if the value has been already a integral value, it is rounded to
-			 * the next integer value anyways.
-			 * In practice this is especially needed when the value 0 is "rounded up" to 1 as there would be an
-			 * array of length 0 being initialized 
-			 */
-			grid[i] = new List[(int)Math.floor(width/(2*k[i])) + 1][(int)Math.floor(height/(2*k[i])) + 1];
-			
-			//Go through all vertices and sort them in, in the grid-square they belong in
-			for(VertexTriple<V> t: vertices[i]){
-				int xIndex = (int) Math.floor((t.get2().getX()-xMin)/(2*k[i]));
-				int yIndex = (int) Math.floor((t.get2().getY()-yMin)/(2*k[i]));
-				
-				if(grid[i][xIndex][yIndex]==null){
-					grid[i][xIndex][yIndex] = new LinkedList<VertexTriple<V>>();
-				}
-				
-				grid[i][xIndex][yIndex].add(t);
+			if(component.y[v]>yMax){
+				yMax = component.y[v];
 			}
 		}
+		double width = xMax - xMin;
+		double height = yMax - yMin;
+		
+		/*
+		 * Catch case that width or height == 0.
+		 * Then take just a small value for width and height (here arbitrarily defined via
+		 * minDistanceToTheDrawingAreaOfTheNexComponent from FRLayoutNoMapsNoFrame)
+		 */
+		if(width==0){
+			width = Math.max(1, minDistanceToTheDrawingAreaOfTheNextComponent/2);
+		}
+		if(height==0){
+			height = Math.max(1, minDistanceToTheDrawingAreaOfTheNextComponent/2);
+		}
+		
+		k[i] = Math.sqrt(width*height/(double)numberOfVertices);
+		
+		/*
+		 * Use Math.floor +1, so that even if the value has been already a integral value, it is rounded to
+		 * the next integer value anyways.
+		 * In practice this is especially needed when the value 0 is "rounded up" to 1 as there would be an
+		 * array of length 0 being initialized 
+		 */
+		gridColumns[i] = (int)Math.floor(width/(2*k[i])) + 1;
+		gridRows[i] = (int)Math.floor(height/(2*k[i])) + 1;
+		
+		//Go through all vertices and sort them in, in the grid-square they belong in (counting sort)
+		xGridIndexOfVertex[i] = new int[component.size];
+		yGridIndexOfVertex[i] = new int[component.size];
+		int[] start = new int[gridColumns[i]*gridRows[i] + 1];
+		for(int v=0; v<component.size; v++){
+			xGridIndexOfVertex[i][v] = (int) Math.floor((component.x[v]-xMin)/(2*k[i]));
+			yGridIndexOfVertex[i][v] = (int) Math.floor((component.y[v]-yMin)/(2*k[i]));
+			++start[xGridIndexOfVertex[i][v]*gridRows[i] + yGridIndexOfVertex[i][v] + 1];
+		}
+		for(int square=0; square<start.length-1; square++){
+			start[square+1] += start[square];
+		}
+		int[] next = start.clone();
+		int[] verticesInGrid = new int[component.size];
+		for(int v=0; v<component.size; v++){
+			verticesInGrid[next[xGridIndexOfVertex[i][v]*gridRows[i] + yGridIndexOfVertex[i][v]]++] = v;
+		}
+		gridSquareStart[i] = start;
+		gridVertices[i] = verticesInGrid;
 	}
 	
 	@Override
 	protected void calcRepulsion() {
 		if(currentIteration%intervalForLeavingOutCalculationOfRepulsiveForces!=0){ //In some iteartions no repulsive forces are computed
-			//Individually done for every component, see calcRepulsion(t)
-	        for(int i=0; i<vertices.length; i++){
-//	        	if(converged[i]==true) continue;
-		        while(true) {
-		            try {
-		            	for(int j=0; j<grid[i].length; j++){
-		            		for(int k=0; k<grid[i][j].length; k++){
-		            			if(grid[i][j][k]==null) continue;
-		            			
-		            			for(VertexTriple<V> t: grid[i][j][k]){
-				                    calcRepulsion(t, i, j, k);
-		            			}
-		            		}
-		            	}
-		                break;
-		            } catch(ConcurrentModificationException cme) {}
-		        }
-	        }
+			//Individually done for every component, see calcRepulsion(v, i, xGridIndex, yGridIndex)
+			forEachVertex((v, i) -> calcRepulsion(v, i, xGridIndexOfVertex[i][v], yGridIndexOfVertex[i][v]));
         }
 	}
 	
-	protected void calcRepulsion(VertexTriple<V> v1, int indexConnectedComponent, int xGridIndex, int yGridIndex) {
-        FRVertexData fvd1 = getFRData(v1);
-        if(fvd1 == null)
-            return;
-        fvd1.setLocation(0, 0);
+	protected void calcRepulsion(int v1, int indexConnectedComponent, int xGridIndex, int yGridIndex) {
+		FRComponentArrays<V> component = componentArrays[indexConnectedComponent];
+		double x1 = component.x[v1];
+		double y1 = component.y[v1];
+		double xDisp = 0;
+		double yDisp = 0;
 
-        try {
-        	/*
-        	 * The 8 grid-squares that are around the considered grid-square (where v1 is in) and the considered one itsself
-        	 * (thus 9 grid-squares in total) are went through and the repulsive forces that act against v1
-        	 * if the points lie inside the ball (radius 2k), in which repulsive forces are calced, are calculated and
-        	 * added to v1.
-        	 */
-        	for(int i=xGridIndex-1; i<xGridIndex+1; i++){
-        		for(int j=yGridIndex-1; j<yGridIndex+1; j++){
-        			//Catch cases where not all 9 grid-squares are relevant
-        			//case: Considered square is not in the inner area of the grid -> no grid-squares further out
-        			if(i<0 || j<0 || i>=grid[indexConnectedComponent].length || j>=grid[indexConnectedComponent][i].length) continue;
-        			//case: No vertices in this grid-square
-        			if(grid[indexConnectedComponent][i][j] == null) continue;
-        			
-        			//Regular case: Go through vertices and check if distance is small enough to calc rep. forces
-        			for(VertexTriple<V> v2: grid[indexConnectedComponent][i][j]){
-        				if(Point2D.distance(v1.get2().getX(), v1.get2().getY(), v2.get2().getX(), v2.get2().getY())<=2*k[indexConnectedComponent]){
-        					if (v1 != v2) {
-        	                    Point2D p1 = apply(v1);
-        	                    Point2D p2 = apply(v2);
-        	                    if(p1 == null || p2 == null) continue;
-        	                    double xDelta = p1.getX() - p2.getX();
-        	                    double yDelta = p1.getY() - p2.getY();
+    	/*
+    	 * The 8 grid-squares that are around the considered grid-square (where v1 is in) and the considered one itsself
+    	 * (thus 9 grid-squares in total) are went through and the repulsive forces that act against v1
+    	 * if the points lie inside the ball (radius 2k), in which repulsive forces are calced, are calculated and
+    	 * added to v1.
+    	 */
+    	for(int i=xGridIndex-1; i<xGridIndex+1; i++){
+    		for(int j=yGridIndex-1; j<yGridIndex+1; j++){
+    			//Catch cases where not all 9 grid-squares are relevant
+    			//case: Considered square is not in the inner area of the grid -> no grid-squares further out
+    			if(i<0 || j<0 || i>=gridColumns[indexConnectedComponent] || j>=gridRows[indexConnectedComponent]) continue;
+    			
+    			//Regular case: Go through vertices and check if distance is small enough to calc rep. forces
+    			int square = i*gridRows[indexConnectedComponent] + j;
+    			for(int entry=gridSquareStart[indexConnectedComponent][square];
+    					entry<gridSquareStart[indexConnectedComponent][square+1]; entry++){
+    				int v2 = gridVertices[indexConnectedComponent][entry];
+    				if(Point2D.distance(x1, y1, component.x[v2], component.y[v2])<=2*k[indexConnectedComponent]){
+    					if (v1 != v2) {
+    	                    double xDelta = x1 - component.x[v2];
+    	                    double yDelta = y1 - component.y[v2];
 
-        	                    double deltaLength = Math.max(EPSILON, Math
-        	                            .sqrt((xDelta * xDelta) + (yDelta * yDelta)));
+    	                    double deltaLength = Math.max(EPSILON, Math
+    	                            .sqrt((xDelta * xDelta) + (yDelta * yDelta)));
 
-        	                    double force = (repulsion_constant * repulsion_constant) / deltaLength;
+    	                    double force = (repulsion_constant * repulsion_constant) / deltaLength;
 
-        	                    if (Double.isNaN(force)) { throw new RuntimeException(
-        	                    "Unexpected mathematical result in FRLayout:calcPositions [repulsion]"); }
+    	                    if (Double.isNaN(force)) { throw new RuntimeException(
+    	                    "Unexpected mathematical result in FRLayout:calcPositions [repulsion]"); }
 
-        	                    fvd1.offset((xDelta / deltaLength) * force,
-        	                            (yDelta / deltaLength) * force);
-        	                }
-        				}
-        			}
-        		}
-        	}
-        } catch(ConcurrentModificationException cme) {
-            calcRepulsion(v1);
-        }
+    	                    xDisp += (xDelta / deltaLength) * force;
+    	                    yDisp += (yDelta / deltaLength) * force;
+    	                }
+    				}
+    			}
+    		}
+    	}
+		component.dx[v1] = xDisp;
+		component.dy[v1] = yDisp;
     }
-}
\ No newline at end of file
+}
@@ -12,6 +12,9 @@ import java.awt.geom.Point2D;
 import java.lang.management.ManagementFactory;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * It is the class {@link FRLayoutNoMaps} with two modifications:
@@ -81,6 +84,11 @@ public class FRLayoutNoMapsNoFrame<V, E> extends FRLayoutNoMaps<V, E> implements
 	 * (As in {@link FRLayout})
 	 */
 	public static final int intervalForLeavingOutCalculationOfRepulsiveForces = 5;
+	/**
+	 * Number of iterations in a row with decreasing energy after which the temperature is increased again
+	 * if {@link FRLayoutNoMapsNoFrame#isAdaptiveCooling()}
+	 */
+	public static final int adaptiveCoolingProgressIterations = 5; //5; value from Hu (2005)
 	
 	
 	/**
@@ -116,6 +124,46 @@ public class FRLayoutNoMapsNoFrame<V, E> extends FRLayoutNoMaps<V, E> implements
 	 */
 	protected double[] subsizeOffset;
 	
+	/**
+	 * Locations, displacements and incident edges of the vertices of every component as arrays.
+	 * Each component has its arrays saved with the same index
+	 * as in {@link FRLayoutNoMapsNoFrame#vertices}.
+	 * <br>
+	 * All iterations work on these arrays only.
+	 * The locations in the {@link VertexTriple}s are read at the first iteration and written back when
+	 * {@link FRLayoutNoMapsNoFrame#done()} (or when {@link FRLayoutNoMapsNoFrame#writeLocationsToVertexTriples()} is called).
+	 * {@link FRLayoutNoMapsNoFrame#setLocation(VertexTriple, Point2D)} changes both.
+	 */
+	protected FRComponentArrays<V>[] componentArrays;
+	/**
+	 * If true, the {@link VertexTriple}s get the current locations after every iteration
+	 * (e.g. for showing the drawing while it is computed).
+	 * Default is false
+	 */
+	protected boolean writeLocationsToVertexTriplesEveryIteration = false;
+	/**
+	 * If true, the forces on the vertices are computed in parallel (on the common {@link ForkJoinPool}).
+	 * Every vertex gathers its forces itself, so the drawing is the same as with one thread.
+	 * Default is false
+	 */
+	protected boolean parallelForceComputation = false;
+	/**
+	 * see {@link FRLayoutNoMapsNoFrame#setConvergenceCriterion(ConvergenceCriterion)}
+	 */
+	protected ConvergenceCriterion convergenceCriterion = null;
+	/**
+	 * see {@link FRLayoutNoMapsNoFrame#setAdaptiveCooling(boolean)}
+	 */
+	protected boolean adaptiveCooling = false;
+	/**
+	 * Only used if {@link FRLayoutNoMapsNoFrame#adaptiveCooling}:
+	 * temperature at the beginning, energy of the last iteration with repulsive forces and
+	 * number of such iterations in a row with decreasing energy
+	 */
+	private double initialTemperature;
+	private double energyOfThePreviousIteration;
+	private int progress;
+	
 	/**
 	 * A value used for the drawing area (rectangle) of each component as margin to the inner area
 	 * where vertices may be placed.
@@ -221,6 +269,8 @@ public class FRLayoutNoMapsNoFrame<V, E> extends FRLayoutNoMaps<V, E> implements
 			allVertices.addAll(component);
 		}
 		this.graph = new TripleSetGraph<V, E>(allVertices, edges);
+		
+		componentArrays = FRComponentArrays.create(vertices, edges);
 	}
 
 	
@@ -257,6 +307,209 @@ public class FRLayoutNoMapsNoFrame<V, E> extends FRLayoutNoMaps<V, E> implements
 			boolean scaleToDrawingAreaAtTheEnd) {
 		this.scaleToDrawingAreaAtTheEnd = scaleToDrawingAreaAtTheEnd;
 	}
+	
+	public FRComponentArrays<V>[] getComponentArrays() {
+		return componentArrays;
+	}
+	
+	/**
+	 * Default is false
+	 * 
+	 * @return
+	 */
+	public boolean isWriteLocationsToVertexTriplesEveryIteration() {
+		return writeLocationsToVertexTriplesEveryIteration;
+	}
+	
+	/**
+	 * Default is false
+	 * 
+	 * @param writeLocationsToVertexTriplesEveryIteration
+	 */
+	public void setWriteLocationsToVertexTriplesEveryIteration(boolean writeLocationsToVertexTriplesEveryIteration) {
+		this.writeLocationsToVertexTriplesEveryIteration = writeLocationsToVertexTriplesEveryIteration;
+	}
+	
+	/**
+	 * Default is false
+	 * 
+	 * @return
+	 */
+	public boolean isParallelForceComputation() {
+		return parallelForceComputation;
+	}
+	
+	/**
+	 * Default is false
+	 * 
+	 * @param parallelForceComputation
+	 */
+	public void setParallelForceComputation(boolean parallelForceComputation) {
+		this.parallelForceComputation = parallelForceComputation;
+	}
+	
+	public ConvergenceCriterion getConvergenceCriterion() {
+		return convergenceCriterion;
+	}
+	
+	/**
+	 * If not null, the drawing is also {@link FRLayoutNoMapsNoFrame#done()} as soon as this criterion says
+	 * that it has converged (checked after the positions of every iteration are computed).
+	 * Default is null
+	 * 
+	 * @param convergenceCriterion
+	 */
+	public void setConvergenceCriterion(ConvergenceCriterion convergenceCriterion) {
+		this.convergenceCriterion = convergenceCriterion;
+		if(convergenceCriterion != null){
+			convergenceCriterion.reset();
+		}
+	}
+	
+	/**
+	 * Default is false
+	 * 
+	 * @return
+	 */
+	public boolean isAdaptiveCooling() {
+		return adaptiveCooling;
+	}
+	
+	/**
+	 * If true, the temperature is not decreased by {@link FRLayoutNoMapsNoFrame#coolDownFactorEachIteration}
+	 * in every iteration but adapted to the energy (see {@link FRLayoutNoMapsNoFrame#getEnergy()})
+	 * as proposed by Yifan Hu in "Efficient, High-Quality Force-Directed Graph Drawing" (2005):
+	 * It is decreased if the energy did not decrease and increased again (up to its initial value)
+	 * after {@link FRLayoutNoMapsNoFrame#adaptiveCoolingProgressIterations} iterations with decreasing energy.
+	 * As the temperature stays high while the drawing improves, this should be combined with a
+	 * {@link ConvergenceCriterion}.
+	 * Default is false
+	 * 
+	 * @param adaptiveCooling
+	 */
+	public void setAdaptiveCooling(boolean adaptiveCooling) {
+		this.adaptiveCooling = adaptiveCooling;
+	}
+	
+	public double getTemperature() {
+		return temperature;
+	}
+	
+	public int getCurrentIteration() {
+		return currentIteration;
+	}
+	
+	/**
+	 * @return
+	 * 		if repulsive forces are computed in the current iteration
+	 * 		(see {@link FRLayoutNoMapsNoFrame#intervalForLeavingOutCalculationOfRepulsiveForces})
+	 */
+	public boolean isIterationWithRepulsiveForces() {
+		return currentIteration%intervalForLeavingOutCalculationOfRepulsiveForces!=0;
+	}
+	
+	/**
+	 * @return
+	 * 		sum of the squared lengths of the forces on all vertices in the current iteration
+	 */
+	public double getEnergy() {
+		double energy = 0;
+		for(FRComponentArrays<V> component: componentArrays){
+			for(int v=0; v<component.size; v++){
+				energy += component.dx[v]*component.dx[v] + component.dy[v]*component.dy[v];
+			}
+		}
+		return energy;
+	}
+	
+	/**
+	 * Writes the current locations of the computation into the {@link VertexTriple}s.
+	 * This is done automatically when the drawing is {@link FRLayoutNoMapsNoFrame#done()}.
+	 */
+	public void writeLocationsToVertexTriples(){
+		for(FRComponentArrays<V> component: componentArrays){
+			component.writeLocations();
+		}
+	}
+	
+	protected void readLocationsFromVertexTriples(){
+		for(FRComponentArrays<V> component: componentArrays){
+			component.readLocations();
+		}
+	}
+	
+	/**
+	 * Operation on the vertex with index v in the component with index indexConnectedComponent.
+	 * It may only write values of this vertex.
+	 */
+	protected interface VertexOperation {
+		void apply(int v, int indexConnectedComponent);
+	}
+	
+	protected interface VertexPredicate {
+		boolean test(int v, int indexConnectedComponent);
+	}
+	
+	/**
+	 * Applies the operation to every vertex of every component,
+	 * in parallel if {@link FRLayoutNoMapsNoFrame#isParallelForceComputation()}
+	 * 
+	 * @param operation
+	 */
+	protected void forEachVertex(VertexOperation operation){
+		if(parallelForceComputation){
+			IntStream.range(0, componentArrays.length).parallel().forEach(i ->
+					IntStream.range(0, componentArrays[i].size).parallel().forEach(v -> operation.apply(v, i)));
+		}
+		else{
+			for(int i=0; i<componentArrays.length; i++){
+				for(int v=0; v<componentArrays[i].size; v++){
+					operation.apply(v, i);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Applies the operation to every index of a component,
+	 * concurrently if {@link FRLayoutNoMapsNoFrame#isParallelForceComputation()}
+	 * 
+	 * @param operation
+	 */
+	protected void forEachComponent(IntConsumer operation){
+		if(parallelForceComputation){
+			IntStream.range(0, vertices.length).parallel().forEach(operation);
+		}
+		else{
+			for(int i=0; i<vertices.length; i++){
+				operation.accept(i);
+			}
+		}
+	}
+	
+	/**
+	 * Tests every vertex of every component (none is left out),
+	 * in parallel if {@link FRLayoutNoMapsNoFrame#isParallelForceComputation()}
+	 * 
+	 * @param predicate
+	 * @return
+	 * 		number of vertices for which the predicate is true
+	 */
+	protected long countVertices(VertexPredicate predicate){
+		if(parallelForceComputation){
+			return IntStream.range(0, componentArrays.length).parallel().mapToLong(i ->
+					IntStream.range(0, componentArrays[i].size).parallel().filter(v -> predicate.test(v, i)).count()).sum();
+		}
+		long count = 0;
+		for(int i=0; i<componentArrays.length; i++){
+			for(int v=0; v<componentArrays[i].size; v++){
+				if(predicate.test(v, i)){
+					++count;
+				}
+			}
+		}
+		return count;
+	}
 
 	
 	
@@ -265,7 +518,7 @@ public class FRLayoutNoMapsNoFrame<V, E> extends FRLayoutNoMaps<V, E> implements
 
 	@Override
     public synchronized void step() {
-        currentIteration++;
+		startIteration();
 
         /**
          * Calculate repulsion
@@ -274,40 +527,13 @@ public class FRLayoutNoMapsNoFrame<V, E> extends FRLayoutNoMaps<V, E> implements
          */
         calcRepulsion();
         
-
-        /**
-         * Calculate attraction
-         */
-        while(true) {
-            try {
-                for(EdgeTriple<V,E> e : edges) {
-
-                    calcAttraction(e);
-                }
-                break;
-            } catch(ConcurrentModificationException cme) {}
-        }
-
-        /**
-         * Calculate positions
-         */
-        calcPositions();
-        
-        
-        cool();
-        
-        /*
-         * Newly inserted step to scale back to the assigned space/area
-         */
-        if(done() && scaleToDrawingAreaAtTheEnd){
-            scaleComponents(vertices, true);
-        }
+        finishIteration();
     }
 	
 
 	@Override
 	public synchronized long stepMeasureRepulsiveTime() {
-        currentIteration++;
+		startIteration();
 
         /**
          * Calculate repulsion
@@ -318,36 +544,51 @@ public class FRLayoutNoMapsNoFrame<V, E> extends FRLayoutNoMaps<V, E> implements
         calcRepulsion();
 		long endTime = ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime();
 
+        finishIteration();
+        
+        return endTime - startTime;
+	}
+	
+	private void startIteration(){
+		if(currentIteration == 0){
+			readLocationsFromVertexTriples();
+		}
+        currentIteration++;
+	}
+	
+	/**
+	 * Everything of one iteration after the repulsive forces
+	 */
+	private void finishIteration(){
         /**
          * Calculate attraction
          */
-        while(true) {
-            try {
-                for(EdgeTriple<V,E> e : edges) {
-
-                    calcAttraction(e);
-                }
-                break;
-            } catch(ConcurrentModificationException cme) {}
-        }
-        
+        calcAttraction();
 
         /**
          * Calculate positions
          */
         calcPositions();
         
+        if(!converged && convergenceCriterion != null && convergenceCriterion.apply(this)){
+        	converged = true;
+        }
         
         cool();
         
-        /*
-         * Newly inserted step to scale back to the assigned space/area
-         */
-        if(done() && scaleToDrawingAreaAtTheEnd){
-            scaleComponents(vertices, true);
+        if(done()){
+        	writeLocationsToVertexTriples();
+        	/*
+        	 * Newly inserted step to scale back to the assigned space/area
+        	 */
+        	if(scaleToDrawingAreaAtTheEnd){
+        		scaleComponents(vertices, true);
+        		readLocationsFromVertexTriples();
+        	}
+        }
+        else if(writeLocationsToVertexTriplesEveryIteration){
+        	writeLocationsToVertexTriples();
         }
-        
-        return endTime - startTime;
 	}
 	
 	/**
@@ -356,40 +597,62 @@ public class FRLayoutNoMapsNoFrame<V, E> extends FRLayoutNoMaps<V, E> implements
 	 */
 	protected void calcRepulsion(){
 		if(currentIteration%intervalForLeavingOutCalculationOfRepulsiveForces!=0){ //In some iteartions no repulsive forces are computed
-			//Individually done for every component, see calcRepulsion(t)
-	        for(int i=0; i<vertices.length; i++){
-//	        	if(converged[i]==true) continue;
-		        while(true) {
-		            try {
-		                for(VertexTriple<V> t : vertices[i]) {
-		                    calcRepulsion(t, i);
-		                }
-		                break;
-		            } catch(ConcurrentModificationException cme) {}
-		        }
-	        }
+			//Individually done for every component, see calcRepulsion(v, i)
+			forEachVertex(this::calcRepulsion);
         }
 	}
 	
+	/**
+	 * Attractive forces along all edges.
+	 * Every vertex gathers the forces of its incident edges in the order of {@link FRLayoutNoMaps#edges}
+	 * (see {@link FRComponentArrays}).
+	 */
+	protected void calcAttraction(){
+		forEachVertex(this::calcAttraction);
+	}
+	
+	protected void calcAttraction(int v, int indexConnectedComponent){
+		FRComponentArrays<V> component = componentArrays[indexConnectedComponent];
+		double xDisp = component.dx[v];
+		double yDisp = component.dy[v];
+		for(int entry=component.adjacencyStart[v]; entry<component.adjacencyStart[v+1]; entry++){
+			int w = component.adjacentVertex[entry];
+			int a = component.isFirstEndpoint[entry] ? v : w;
+			int b = component.isFirstEndpoint[entry] ? w : v;
+			//as in calcAttraction(EdgeTriple): delta from the first to the second endpoint of the edge
+			double xDelta = component.x[a] - component.x[b];
+			double yDelta = component.y[a] - component.y[b];
+			
+			double deltaLength = Math.max(EPSILON, Math.sqrt((xDelta * xDelta)
+	                + (yDelta * yDelta)));
+			
+			double force = (deltaLength * deltaLength) / attraction_constant;
+			
+			if (Double.isNaN(force)) { force = 1; }
+			if (Double.isInfinite(force)) { force = 1; }
+			
+			double dx = (xDelta / deltaLength) * force;
+			double dy = (yDelta / deltaLength) * force;
+			if(component.isFirstEndpoint[entry]){
+				xDisp += -dx;
+				yDisp += -dy;
+			}
+			else{
+				xDisp += dx;
+				yDisp += dy;
+			}
+		}
+		component.dx[v] = xDisp;
+		component.dy[v] = yDisp;
+	}
+	
 	
 	/**
 	 * Outtaken from the step()-method.
 	 * So that it can be overwritten easier.
 	 */
 	protected void calcPositions(){
-		converged = true;
-        for(int i=0; i<vertices.length; i++){
-//        	if(converged[i]==true) continue;
-        	while(true) {
-	            try {
-	                for(VertexTriple<V> t : vertices[i]) {
-//	                    if (isLocked(t)) continue;
-	                    calcPositions(t);
-	                }
-	                break;
-	            } catch(ConcurrentModificationException cme) {}
-	        }
-        }
+		converged = countVertices(this::calcPositions) == 0;
 	}
 	
 	/**
@@ -469,61 +732,57 @@ public class FRLayoutNoMapsNoFrame<V, E> extends FRLayoutNoMaps<V, E> implements
         }
 	}
 	
-	protected void calcRepulsion(VertexTriple<V> v1, int indexConnectedComponent) {
-        FRVertexData fvd1 = getFRData(v1);
-        if(fvd1 == null)
-            return;
-        fvd1.setLocation(0, 0);
-
-        try {
-            for(VertexTriple<V> v2 : vertices[indexConnectedComponent]) {
+	protected void calcRepulsion(int v1, int indexConnectedComponent) {
+		FRComponentArrays<V> component = componentArrays[indexConnectedComponent];
+		double x1 = component.x[v1];
+		double y1 = component.y[v1];
+		double xDisp = 0;
+		double yDisp = 0;
 
-//	                if (isLocked(v2)) continue;
-                if (v1 != v2) {
-                    Point2D p1 = apply(v1);
-                    Point2D p2 = apply(v2);
-                    if(p1 == null || p2 == null) continue;
-                    double xDelta = p1.getX() - p2.getX();
-                    double yDelta = p1.getY() - p2.getY();
+		for(int v2=0; v2<component.size; v2++) {
+			if (v1 != v2) {
+				double xDelta = x1 - component.x[v2];
+				double yDelta = y1 - component.y[v2];
 
-                    double deltaLength = Math.max(EPSILON, Math
-                            .sqrt((xDelta * xDelta) + (yDelta * yDelta)));
+				double deltaLength = Math.max(EPSILON, Math
+						.sqrt((xDelta * xDelta) + (yDelta * yDelta)));
 
-                    double force = (repulsion_constant * repulsion_constant) / deltaLength;
+				double force = (repulsion_constant * repulsion_constant) / deltaLength;
 
-                    if (Double.isNaN(force)) { throw new RuntimeException(
-                    "Unexpected mathematical result in FRLayout:calcPositions [repulsion]"); }
+				if (Double.isNaN(force)) { throw new RuntimeException(
+				"Unexpected mathematical result in FRLayout:calcPositions [repulsion]"); }
 
-                    fvd1.offset((xDelta / deltaLength) * force,
-                            (yDelta / deltaLength) * force);
-                }
-            }
-        } catch(ConcurrentModificationException cme) {
-            calcRepulsion(v1);
-        }
+				xDisp += (xDelta / deltaLength) * force;
+				yDisp += (yDelta / deltaLength) * force;
+			}
+		}
+		component.dx[v1] = xDisp;
+		component.dy[v1] = yDisp;
     }
 	
-	@Override
-    protected synchronized void calcPositions(VertexTriple<V> t) {
-        FRVertexData fvd = getFRData(t);
-        if(fvd == null) return;
-        Point2D xyd = apply(t);
-        double deltaLength = Math.max(EPSILON, fvd.norm());
+	/**
+	 * @return
+	 * 		true if v was moved by more than {@link FRLayoutNoMapsNoFrame#threshold}
+	 */
+    protected boolean calcPositions(int v, int indexConnectedComponent) {
+    	FRComponentArrays<V> component = componentArrays[indexConnectedComponent];
+    	double xDisp = component.dx[v];
+    	double yDisp = component.dy[v];
+        double deltaLength = Math.max(EPSILON, Math.sqrt(xDisp*xDisp + yDisp*yDisp));
 
-        double newXDisp = fvd.getX() / deltaLength
+        double newXDisp = xDisp / deltaLength
                 * Math.min(deltaLength, temperature);
 
         if (Double.isNaN(newXDisp)) {
         	throw new IllegalArgumentException(
                 "Unexpected mathematical result in FRLayout:calcPositions [xdisp]"); }
 
-        double newYDisp = fvd.getY() / deltaLength
+        double newYDisp = yDisp / deltaLength
                 * Math.min(deltaLength, temperature);     
         
-        xyd.setLocation(xyd.getX()+newXDisp, xyd.getY()+newYDisp);
-        if (newXDisp*newXDisp + newYDisp*newYDisp > threshold*threshold) {
-        	converged = false;
-        }
+        component.x[v] += newXDisp;
+        component.y[v] += newYDisp;
+        return newXDisp*newXDisp + newYDisp*newYDisp > threshold*threshold;
     }
 	
 	
@@ -567,6 +826,12 @@ public class FRLayoutNoMapsNoFrame<V, E> extends FRLayoutNoMaps<V, E> implements
     	if(/*graph != null &&*/ d != null) {
     		currentIteration = 0;
     		temperature = d.getWidth() / 10;
+    		initialTemperature = temperature;
+    		energyOfThePreviousIteration = Double.POSITIVE_INFINITY;
+    		progress = 0;
+    		if(convergenceCriterion != null){
+    			convergenceCriterion.reset();
+    		}
 
     		forceConstant =
     			Math
@@ -588,6 +853,10 @@ public class FRLayoutNoMapsNoFrame<V, E> extends FRLayoutNoMaps<V, E> implements
 			
 			Dimension oldSize = this.size;
 			this.size = size;
+			//the locations of the running computation are the ones to be adjusted
+			if(componentArrays != null && currentIteration > 0) {
+				writeLocationsToVertexTriples();
+			}
 			initialize();
 			
 			if(oldSize != null) {
@@ -596,6 +865,25 @@ public class FRLayoutNoMapsNoFrame<V, E> extends FRLayoutNoMaps<V, E> implements
 		}
         max_dimension = Math.max(size.height, size.width);
     }
+	@Override
+	public void setLocation(VertexTriple<V> picked, double x, double y) {
+		super.setLocation(picked, x, y);
+		setLocationInComponentArrays(picked, x, y);
+	}
+	
+	@Override
+	public void setLocation(VertexTriple<V> picked, Point2D p) {
+		super.setLocation(picked, p);
+		setLocationInComponentArrays(picked, p.getX(), p.getY());
+	}
+	
+	private void setLocationInComponentArrays(VertexTriple<V> picked, double x, double y) {
+		if(componentArrays != null && picked.getIndex() >= 0) {
+			componentArrays[picked.getComponentIndex()].x[picked.getIndex()] = x;
+			componentArrays[picked.getComponentIndex()].y[picked.getIndex()] = y;
+		}
+	}
+	
     private void adjustLocations(Dimension oldSize, Dimension size) {
 
 		int xOffset = (size.width - oldSize.width) / 2;
@@ -626,7 +914,34 @@ public class FRLayoutNoMapsNoFrame<V, E> extends FRLayoutNoMaps<V, E> implements
     
     @Override
     protected void cool() {
+    	if(adaptiveCooling){
+    		coolAdaptively();
+    		return;
+    	}
     	// Copied from OGDF
         temperature *= 0.9;
     }
+    
+    /**
+     * see {@link FRLayoutNoMapsNoFrame#setAdaptiveCooling(boolean)}.
+     * The energy of an iteration without repulsive forces is not comparable, so the temperature is kept there.
+     */
+    private void coolAdaptively() {
+    	if(!isIterationWithRepulsiveForces()){
+    		return;
+    	}
+    	double energy = getEnergy();
+    	if(energy < energyOfThePreviousIteration){
+    		++progress;
+    		if(progress >= adaptiveCoolingProgressIterations){
+    			progress = 0;
+    			temperature = Math.min(temperature / coolDownFactorEachIteration, initialTemperature);
+    		}
+    	}
+    	else{
+    		progress = 0;
+    		temperature *= coolDownFactorEachIteration;
+    	}
+    	energyOfThePreviousIteration = energy;
+    }
 }
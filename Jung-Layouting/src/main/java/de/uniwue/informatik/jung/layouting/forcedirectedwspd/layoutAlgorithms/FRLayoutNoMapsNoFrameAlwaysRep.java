@@ -1,10 +1,8 @@
 package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms;
 
 import edu.uci.ics.jung.graph.Graph;
-import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.VertexTriple;
 
 import java.awt.*;
-import java.util.ConcurrentModificationException;
 
 /**
  * Same as {@link FRLayoutNoMapsNoFrame}.
@@ -24,17 +22,12 @@ public class FRLayoutNoMapsNoFrameAlwaysRep<V, E> extends FRLayoutNoMapsNoFrame<
 	 */
 	@Override
 	protected void calcRepulsion(){
-		//Individually done for every component, see calcRepulsion(t)
-        for(int i=0; i<vertices.length; i++){
-//        	if(converged[i]==true) continue;
-	        while(true) {
-	            try {
-	                for(VertexTriple<V> t : vertices[i]) {
-	                    calcRepulsion(t, i);
-	                }
-	                break;
-	            } catch(ConcurrentModificationException cme) {}
-	        }
-        }
+		//Individually done for every component, see calcRepulsion(v, i)
+		forEachVertex(this::calcRepulsion);
+	}
+	
+	@Override
+	public boolean isIterationWithRepulsiveForces() {
+		return true;
 	}
 }
@@ -0,0 +1,135 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms;
+
+/**
+ * {@link ConvergenceCriterion} saying that the drawing has converged as soon as the order of the vertices
+ * of every component by their y-coordinates (ties broken by their x-coordinates) and by their x-coordinates
+ * (ties broken by their y-coordinates) has not changed in {@link RankOrderConvergenceCriterion#getIterations()}
+ * iterations in a row.
+ * An order counts as unchanged if at most the fraction
+ * {@link RankOrderConvergenceCriterion#getMaximumFractionOfChangedRanks()} of the vertices got another rank.
+ * <p>
+ * This is for drawings that are only used for the relative positions of the vertices, e.g. to direct the edges
+ * from bottom to top.
+ * Both orders are checked because the components may be rotated by 90 degree when they are scaled at the end
+ * (see {@link FRLayoutNoMapsNoFrame#scaleComponents(java.util.List[], boolean)}).
+ */
+public class RankOrderConvergenceCriterion extends ConvergenceCriterion {
+
+	private int iterations;
+	private double maximumFractionOfChangedRanks;
+
+	private int iterationsWithStableOrder;
+	/**
+	 * for every component: rank of every vertex in the previous iteration
+	 */
+	private int[][] rankByY;
+	private int[][] rankByX;
+	private int[] order = new int[0];
+	private int[] orderBuffer = new int[0];
+
+	/**
+	 * @param iterations
+	 * @param maximumFractionOfChangedRanks
+	 * 		0 if the orders have to be exactly the same
+	 */
+	public RankOrderConvergenceCriterion(int iterations, double maximumFractionOfChangedRanks) {
+		super();
+		this.iterations = iterations;
+		this.maximumFractionOfChangedRanks = maximumFractionOfChangedRanks;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	public double getMaximumFractionOfChangedRanks() {
+		return maximumFractionOfChangedRanks;
+	}
+
+	@Override
+	public void reset() {
+		iterationsWithStableOrder = 0;
+		rankByY = null;
+		rankByX = null;
+	}
+
+	@Override
+	public Boolean apply(FRLayoutNoMapsNoFrame<?,?> layout) {
+		FRComponentArrays<?>[] components = layout.getComponentArrays();
+		boolean firstIteration = rankByY == null;
+		if(firstIteration){
+			rankByY = new int[components.length][];
+			rankByX = new int[components.length][];
+			for(int i=0; i<components.length; i++){
+				rankByY[i] = new int[components[i].size];
+				rankByX[i] = new int[components[i].size];
+			}
+		}
+		long n = 0;
+		long changedRanks = 0;
+		for(int i=0; i<components.length; i++){
+			n += components[i].size;
+			changedRanks += updateRanks(components[i].y, components[i].x, components[i].size, rankByY[i]);
+			changedRanks += updateRanks(components[i].x, components[i].y, components[i].size, rankByX[i]);
+		}
+		if(!firstIteration && changedRanks <= maximumFractionOfChangedRanks * 2 * n){
+			++iterationsWithStableOrder;
+		}
+		else{
+			iterationsWithStableOrder = 0;
+		}
+		return iterationsWithStableOrder >= iterations;
+	}
+
+	/**
+	 * Sorts the vertices by primary (ties broken by secondary) and writes the new ranks into rank
+	 *
+	 * @return
+	 * 		number of vertices whose rank changed
+	 */
+	private int updateRanks(double[] primary, double[] secondary, int size, int[] rank){
+		if(order.length < size){
+			order = new int[size];
+			orderBuffer = new int[size];
+		}
+		for(int v=0; v<size; v++){
+			order[v] = v;
+		}
+		//bottom-up merge sort
+		for(int width=1; width<size; width*=2){
+			for(int left=0; left<size-width; left+=2*width){
+				int mid = left+width;
+				int right = Math.min(left+2*width, size);
+				int i = left;
+				int j = mid;
+				int k = left;
+				while(i<mid && j<right){
+					orderBuffer[k++] = isLess(order[j], order[i], primary, secondary) ? order[j++] : order[i++];
+				}
+				while(i<mid){
+					orderBuffer[k++] = order[i++];
+				}
+				while(j<right){
+					orderBuffer[k++] = order[j++];
+				}
+				System.arraycopy(orderBuffer, left, order, left, right-left);
+			}
+		}
+		int changedRanks = 0;
+		for(int r=0; r<size; r++){
+			if(rank[order[r]] != r){
+				rank[order[r]] = r;
+				++changedRanks;
+			}
+		}
+		return changedRanks;
+	}
+
+	private static boolean isLess(int v, int w, double[] primary, double[] secondary){
+		int comparison = Double.compare(primary[v], primary[w]);
+		if(comparison == 0){
+			comparison = Double.compare(secondary[v], secondary[w]);
+		}
+		return comparison < 0;
+	}
+}
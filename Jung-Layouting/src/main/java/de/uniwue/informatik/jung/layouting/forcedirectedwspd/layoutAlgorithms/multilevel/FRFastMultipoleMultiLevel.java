@@ -0,0 +1,19 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.multilevel;
+
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.Constants;
+import edu.uci.ics.jung.graph.Graph;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.quadtree.FRFastMultipole;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.main.objectManager.AlgorithmReference;
+
+import java.awt.*;
+
+public class FRFastMultipoleMultiLevel<V, E> extends MultiLevelLayout<V, E>{
+	public FRFastMultipoleMultiLevel(Graph<V, E> graph, double sOrTheta, Dimension size) {
+		this(graph, sOrTheta, size, Constants.random.nextLong());
+	}
+
+
+	public FRFastMultipoleMultiLevel(Graph<V, E> graph, double sOrTheta, Dimension size, long seed) {
+		super(graph, size, new AlgorithmReference(FRFastMultipole.class), sOrTheta, seed);
+	}
+}
@@ -93,6 +93,17 @@ public abstract class FRWSPDMultiLevel<V, E> extends MultiLevelLayout<V, E> impl
 		}
 	}
 
+	@SuppressWarnings("rawtypes")
+	@Override
+	public boolean updateSplitTreeAndWSPDIncrementally(double maximumFractionOfInvalidatedPairs) {
+		boolean updated = true;
+		for(int i=0; i<super.singleComponentMLLayouts.size(); i++){
+			updated &= ((LayoutWithWSPD)singleComponentMLLayouts.get(i).currentLayoutingAlgorithm)
+					.updateSplitTreeAndWSPDIncrementally(maximumFractionOfInvalidatedPairs);
+		}
+		return updated;
+	}
+
 	@Override
 	public double getSForTheWSPD() {
 		return sOrTheta;
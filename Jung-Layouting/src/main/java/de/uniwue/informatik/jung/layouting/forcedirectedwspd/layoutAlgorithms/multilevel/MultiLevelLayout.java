@@ -1,7 +1,6 @@
 package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.multilevel;
 
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.Constants;
-import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.Randomness;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.Tuple;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.jungmodify.UndirectedSparseGraph;
 import edu.uci.ics.jung.algorithms.cluster.WeakComponentClusterer;
@@ -10,6 +9,7 @@ import edu.uci.ics.jung.algorithms.layout.util.RandomLocationTransformer;
 import edu.uci.ics.jung.algorithms.util.IterativeContext;
 import edu.uci.ics.jung.graph.Graph;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.AlgorithmMeasureRepulsiveTime;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.ConvergenceCriterion;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRLayoutNoMaps;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRLayoutNoMapsNoFrame;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd.LayoutWithWSPD;
@@ -23,6 +23,10 @@ import java.awt.*;
 import java.awt.geom.Point2D;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntToLongFunction;
+import java.util.function.Supplier;
 
 /**
  * This Java implementation follows in many points regarding the multi level treatment
@@ -40,9 +44,35 @@ public class MultiLevelLayout<V,E> extends AbstractLayout<V, E> implements Itera
 	 */
 	private boolean allow90DegreeRotationOfEachComponentLayout = true;
 	
+	/**
+	 * see {@link MultiLevelLayout#setArrayBackedCoarsening(boolean)}
+	 */
+	private boolean arrayBackedCoarsening = false;
+	/**
+	 * see {@link MultiLevelLayout#setParallelCoarsening(boolean)}
+	 */
+	private boolean parallelCoarsening = false;
+	/**
+	 * see {@link MultiLevelLayout#setParallelComponentLayouts(boolean)}
+	 */
+	private boolean parallelComponentLayouts = false;
+	/**
+	 * see {@link MultiLevelLayout#setConvergenceCriterion(Supplier)}
+	 */
+	private Supplier<? extends ConvergenceCriterion> convergenceCriterion = null;
+	/**
+	 * see {@link MultiLevelLayout#setAdaptiveCooling(boolean)}
+	 */
+	private boolean adaptiveCooling = false;
+
 	private AlgorithmReference layoutingAlgorithmType;
 	protected double sOrTheta;
 	protected long seed;
+	/**
+	 * Initialized with {@link MultiLevelLayout#seed}; used for coarsening and for placing vertices when expanding a
+	 * level so that layouts with the same seed do not depend on other layouts computed concurrently.
+	 */
+	protected Random random;
 	
 	/**
 	 * see {@link FRLayoutNoMapsNoFrame#numberOfComponents}
@@ -99,6 +129,7 @@ public class MultiLevelLayout<V,E> extends AbstractLayout<V, E> implements Itera
 		this.layoutingAlgorithmType = layoutingAlgorithmType;
 		this.sOrTheta = sOrTheta;
 		this.seed = seed;
+		this.random = new Random(seed);
 		
 		//Find connected components
 		WeakComponentClusterer<V, E> clusterer = new WeakComponentClusterer<V, E>();
@@ -148,13 +179,177 @@ public class MultiLevelLayout<V,E> extends AbstractLayout<V, E> implements Itera
 		}
 	}
 	
+	public boolean isArrayBackedCoarsening() {
+		return arrayBackedCoarsening;
+	}
+	
+	/**
+	 * If true, the levels are created by the {@link ArrayGalaxyMultiLevelBuilder} and stored as
+	 * {@link ArrayGalaxyMultiLevel}s instead of {@link GalaxyMultiLevel}s with their {@link LevelNodeInfo}s and
+	 * {@link LevelEdgeInfo}s.
+	 * The graph of a level is only created when the level is drawn.
+	 * The levels and so the drawings are the same.
+	 * Must be set before {@link MultiLevelLayout#initialize()}.
+	 * Default is false.
+	 * 
+	 * @param arrayBackedCoarsening
+	 */
+	public void setArrayBackedCoarsening(boolean arrayBackedCoarsening) {
+		this.arrayBackedCoarsening = arrayBackedCoarsening;
+	}
+	
+	public boolean isParallelCoarsening() {
+		return parallelCoarsening;
+	}
+	
+	/**
+	 * If true and {@link MultiLevelLayout#isArrayBackedCoarsening()}, system masses and edges of the coarser levels
+	 * are computed concurrently (see {@link ArrayGalaxyMultiLevelBuilder}).
+	 * Default is false.
+	 * 
+	 * @param parallelCoarsening
+	 */
+	public void setParallelCoarsening(boolean parallelCoarsening) {
+		this.parallelCoarsening = parallelCoarsening;
+	}
+
+	public boolean isParallelComponentLayouts() {
+		return parallelComponentLayouts;
+	}
+
+	/**
+	 * If true, every component is coarsened in {@link MultiLevelLayout#initialize()} and drawn through all its levels
+	 * in the first {@link MultiLevelLayout#step()} as a task of its own on the common {@link ForkJoinPool}
+	 * (largest component first).
+	 * The components are combined only once at the end, so the drawing is done after one step.
+	 * Every component gets its own {@link Random} (initialized from {@link MultiLevelLayout#random}), so
+	 * the drawing does not depend on the order in which the tasks are executed, but it is not the same as
+	 * without this option.
+	 * Must be set before {@link MultiLevelLayout#initialize()}.
+	 * Default is false.
+	 *
+	 * @param parallelComponentLayouts
+	 */
+	public void setParallelComponentLayouts(boolean parallelComponentLayouts) {
+		this.parallelComponentLayouts = parallelComponentLayouts;
+	}
+
+	public Supplier<? extends ConvergenceCriterion> getConvergenceCriterion() {
+		return convergenceCriterion;
+	}
+
+	/**
+	 * If not null, every layouting algorithm of a level that is a {@link FRLayoutNoMapsNoFrame} gets a new
+	 * {@link ConvergenceCriterion} from this supplier
+	 * (see {@link FRLayoutNoMapsNoFrame#setConvergenceCriterion(ConvergenceCriterion)}).
+	 * Must be set before {@link MultiLevelLayout#initialize()}.
+	 * Default is null.
+	 *
+	 * @param convergenceCriterion
+	 */
+	public void setConvergenceCriterion(Supplier<? extends ConvergenceCriterion> convergenceCriterion) {
+		this.convergenceCriterion = convergenceCriterion;
+	}
+
+	public boolean isAdaptiveCooling() {
+		return adaptiveCooling;
+	}
+
+	/**
+	 * see {@link FRLayoutNoMapsNoFrame#setAdaptiveCooling(boolean)}; is passed to every layouting algorithm of a level
+	 * that is a {@link FRLayoutNoMapsNoFrame}.
+	 * Must be set before {@link MultiLevelLayout#initialize()}.
+	 * Default is false.
+	 *
+	 * @param adaptiveCooling
+	 */
+	public void setAdaptiveCooling(boolean adaptiveCooling) {
+		this.adaptiveCooling = adaptiveCooling;
+	}
+
 	@Override
 	public void initialize() {
+		assignRandomToComponentLayouts();
+		if(parallelComponentLayouts){
+			runOnComponentLayouts(i -> {
+				singleComponentMLLayouts.get(i).initialize();
+				return 0L;
+			});
+			return;
+		}
 		for(SingleComponentMultiLevelLayout componentLayout: singleComponentMLLayouts){
 			componentLayout.initialize();
 		}
 	}
 
+	private void assignRandomToComponentLayouts(){
+		for(SingleComponentMultiLevelLayout componentLayout: singleComponentMLLayouts){
+			componentLayout.random = parallelComponentLayouts ? new Random(random.nextLong()) : random;
+		}
+	}
+
+	/**
+	 * Runs operation for every index of {@link MultiLevelLayout#singleComponentMLLayouts} as a task of its own on the
+	 * common {@link ForkJoinPool}; the tasks of larger components are submitted first.
+	 *
+	 * @param operation
+	 * @return
+	 * 		the values returned by operation for each index
+	 */
+	private long[] runOnComponentLayouts(IntToLongFunction operation){
+		Integer[] bySize = new Integer[singleComponentMLLayouts.size()];
+		for(int i=0; i<bySize.length; i++){
+			bySize[i] = i;
+		}
+		Arrays.sort(bySize, Comparator.comparingInt(
+				(Integer i) -> singleComponentMLLayouts.get(i).getGraph().getVertexCount()).reversed());
+
+		List<ForkJoinTask<Long>> tasks = new ArrayList<ForkJoinTask<Long>>(bySize.length);
+		for(int i: bySize){
+			tasks.add(ForkJoinPool.commonPool().submit(() -> operation.applyAsLong(i)));
+		}
+		long[] results = new long[bySize.length];
+		for(int k=0; k<bySize.length; k++){
+			results[bySize[k]] = tasks.get(k).join();
+		}
+		return results;
+	}
+
+	/**
+	 * Draws every component through all its levels (see {@link MultiLevelLayout#setParallelComponentLayouts(boolean)})
+	 *
+	 * @param measureRepulsiveTime
+	 * @return
+	 * 		sum of the times needed for the repulsive forces if measureRepulsiveTime, else 0
+	 */
+	private long runComponentLayoutsUntilDone(boolean measureRepulsiveTime){
+		long[] iterations = new long[singleComponentMLLayouts.size()];
+		long[] repulsiveTimes = runOnComponentLayouts(i -> {
+			SingleComponentMultiLevelLayout componentLayout = singleComponentMLLayouts.get(i);
+			long repulsiveTime = 0;
+			while(!componentLayout.done()){
+				if(measureRepulsiveTime){
+					repulsiveTime += componentLayout.stepMeasureRepulsiveTime();
+				}
+				else{
+					componentLayout.step();
+				}
+				++iterations[i];
+			}
+			return repulsiveTime;
+		});
+
+		applyVertexLocationsFromSingleComponentsToThisTotalLayout();
+		long maxIterations = 0;
+		long sum = 0;
+		for(int i=0; i<iterations.length; i++){
+			maxIterations = Math.max(maxIterations, iterations[i]);
+			sum += repulsiveTimes[i];
+		}
+		currentIteration += maxIterations;
+		return sum;
+	}
+
 
 	@Override
 	public void reset() {
@@ -162,6 +357,8 @@ public class MultiLevelLayout<V,E> extends AbstractLayout<V, E> implements Itera
 	}
 
 	public void reset(long seed) {
+		this.random = new Random(seed);
+		assignRandomToComponentLayouts();
 		int i=0; //counter
 		for(SingleComponentMultiLevelLayout componentLayout: singleComponentMLLayouts){
 
@@ -182,6 +379,12 @@ public class MultiLevelLayout<V,E> extends AbstractLayout<V, E> implements Itera
 
 	@Override
 	public void step() {
+		if(parallelComponentLayouts){
+			if(!done()){
+				runComponentLayoutsUntilDone(false);
+			}
+			return;
+		}
 		for(SingleComponentMultiLevelLayout componentLayout: singleComponentMLLayouts){
 			componentLayout.step();
 		}
@@ -192,6 +395,9 @@ public class MultiLevelLayout<V,E> extends AbstractLayout<V, E> implements Itera
 	
 	@Override
 	public long stepMeasureRepulsiveTime() {
+		if(parallelComponentLayouts){
+			return done() ? 0 : runComponentLayoutsUntilDone(true);
+		}
 		long sum = 0;
 		for(SingleComponentMultiLevelLayout componentLayout: singleComponentMLLayouts){
 			sum += componentLayout.stepMeasureRepulsiveTime();
@@ -316,10 +522,19 @@ public class MultiLevelLayout<V,E> extends AbstractLayout<V, E> implements Itera
 		
 		private GalaxyMultiLevel<V, E> currentLevel;
 		private GalaxyMultiLevel<V, E> finestLevel;
+		/**
+		 * used instead of currentLevel and finestLevel if {@link MultiLevelLayout#isArrayBackedCoarsening()}
+		 */
+		private ArrayGalaxyMultiLevel<V, E> currentArrayLevel;
+		private ArrayGalaxyMultiLevel<V, E> finestArrayLevel;
 		private int currentLevelNumber;
 		private int coarsestLevelNumber;
 		private int totalNrOfLevels;
-		
+		/**
+		 * {@link MultiLevelLayout#random} or an own one if {@link MultiLevelLayout#isParallelComponentLayouts()}
+		 */
+		private Random random;
+
 		
 		
 		/**
@@ -348,6 +563,10 @@ public class MultiLevelLayout<V,E> extends AbstractLayout<V, E> implements Itera
 		}
 		
 		public void createMultiLevelGraphs(){
+			if(arrayBackedCoarsening){
+				createArrayMultiLevels();
+				return;
+			}
 			finestLevel = new GalaxyMultiLevel<V,E>(graph);
 			Tuple<List<LevelNodeInfo<V>>, List<LevelEdgeInfo<V, E>>> levelInfos = finestLevel.initialize();
 			
@@ -355,7 +574,7 @@ public class MultiLevelLayout<V,E> extends AbstractLayout<V, E> implements Itera
 			currentLevelNumber = 0;
 			totalNrOfLevels = 1;
 			
-			GalaxyMultiLevelBuilder<V, E> builder = new GalaxyMultiLevelBuilder<V, E>();
+			GalaxyMultiLevelBuilder<V, E> builder = new GalaxyMultiLevelBuilder<V, E>(random);
 			
 			while(currentLevel.graph.getVertexCount() > multiLevelNumNodesBound){
 				Tuple<GalaxyMultiLevel<V, E>, Tuple<List<LevelNodeInfo<V>>, List<LevelEdgeInfo<V, E>>>> newLevelPlusLevelInfos =
@@ -369,6 +588,30 @@ public class MultiLevelLayout<V,E> extends AbstractLayout<V, E> implements Itera
 			coarsestLevelNumber = currentLevelNumber;
 		}
 		
+		private void createArrayMultiLevels(){
+			finestArrayLevel = new ArrayGalaxyMultiLevel<V,E>(graph);
+			
+			currentArrayLevel = finestArrayLevel;
+			currentLevelNumber = 0;
+			totalNrOfLevels = 1;
+			
+			ArrayGalaxyMultiLevelBuilder<V, E> builder = new ArrayGalaxyMultiLevelBuilder<V, E>(random, parallelCoarsening);
+			
+			while(currentArrayLevel.numberOfNodes > multiLevelNumNodesBound){
+				currentArrayLevel = builder.build(currentArrayLevel);
+				++currentLevelNumber;
+				++totalNrOfLevels;
+			}
+			coarsestLevelNumber = currentLevelNumber;
+		}
+		
+		private Graph<V,E> getGraphOfTheCurrentLevel(){
+			if(arrayBackedCoarsening){
+				return currentArrayLevel.getGraph();
+			}
+			return currentLevel.graph;
+		}
+		
 	
 		@Override
 		public void reset() {
@@ -453,7 +696,12 @@ public class MultiLevelLayout<V,E> extends AbstractLayout<V, E> implements Itera
 		
 		@SuppressWarnings({ "unchecked", "rawtypes" })
 		private void expandNextLevel(){
-			currentLevel = currentLevel.finerMultiLevel;
+			if(arrayBackedCoarsening){
+				currentArrayLevel = currentArrayLevel.finerMultiLevel;
+			}
+			else{
+				currentLevel = currentLevel.finerMultiLevel;
+			}
 			--currentLevelNumber;
 			if(currentLevelNumber<0){
 				return;
@@ -462,41 +710,60 @@ public class MultiLevelLayout<V,E> extends AbstractLayout<V, E> implements Itera
 			
 			//assign positions from level before (if not coarsest level)
 			if(currentLevelNumber+1 != coarsestLevelNumber){
-				for(RelevantLevelNodeInfo<V> relevantLevelNodeInfo: currentLevel.relevantNodeInfos){
-					Point2D parentLocation;
-					//check cases!
-					if(currentLayoutingAlgorithm instanceof FRLayoutNoMaps){
-						parentLocation = ((FRLayoutNoMaps) prevLayoutingAlgorithm).transformVertexData(
-								relevantLevelNodeInfo.parentRelevantLevelNodeInfo.vertex);
-					}
-					else{
-						parentLocation = prevLayoutingAlgorithm.apply(relevantLevelNodeInfo.parentRelevantLevelNodeInfo.vertex);
+				if(arrayBackedCoarsening){
+					for(int k=0; k<currentArrayLevel.numberOfNodes; k++){
+						placeNearParent(currentArrayLevel.vertex[k],
+								currentArrayLevel.coarserMultiLevel.vertex[currentArrayLevel.parent[k]]);
 					}
-					double newX = (parentLocation.getX()
-							+ (Randomness.random.nextDouble()-0.5)*multiLevelRandomPlacingSpan) * multiLevelScaleFactor;
-					double newY = (parentLocation.getY()
-							+ (Randomness.random.nextDouble()-0.5)*multiLevelRandomPlacingSpan) * multiLevelScaleFactor;
-					
-					Point2D childLocation;
-					//check cases!
-					if(currentLayoutingAlgorithm instanceof FRLayoutNoMaps){
-						childLocation = ((FRLayoutNoMaps) currentLayoutingAlgorithm).transformVertexData(relevantLevelNodeInfo.vertex);
-					}
-					else{
-						childLocation = currentLayoutingAlgorithm.apply(relevantLevelNodeInfo.vertex);
+				}
+				else{
+					for(RelevantLevelNodeInfo<V> relevantLevelNodeInfo: currentLevel.relevantNodeInfos){
+						placeNearParent(relevantLevelNodeInfo.vertex, relevantLevelNodeInfo.parentRelevantLevelNodeInfo.vertex);
 					}
-					childLocation.setLocation(newX, newY);
 				}
 			}
 		}
 		
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private void placeNearParent(V vertex, V parentVertex){
+			Point2D parentLocation;
+			//check cases!
+			if(currentLayoutingAlgorithm instanceof FRLayoutNoMaps){
+				parentLocation = ((FRLayoutNoMaps) prevLayoutingAlgorithm).transformVertexData(parentVertex);
+			}
+			else{
+				parentLocation = prevLayoutingAlgorithm.apply(parentVertex);
+			}
+			double newX = (parentLocation.getX()
+					+ (random.nextDouble()-0.5)*multiLevelRandomPlacingSpan) * multiLevelScaleFactor;
+			double newY = (parentLocation.getY()
+					+ (random.nextDouble()-0.5)*multiLevelRandomPlacingSpan) * multiLevelScaleFactor;
+			
+			Point2D childLocation;
+			//check cases!
+			if(currentLayoutingAlgorithm instanceof FRLayoutNoMaps){
+				childLocation = ((FRLayoutNoMaps) currentLayoutingAlgorithm).transformVertexData(vertex);
+			}
+			else{
+				childLocation = currentLayoutingAlgorithm.apply(vertex);
+			}
+			childLocation.setLocation(newX, newY);
+		}
+		
 		private void switchToNextLayoutingLevelAlgorithm(boolean applyVertexLocationsFromThisMultiLevelLayoutToLayoutingAlgorithm){
 			this.prevLayoutingAlgorithm = this.currentLayoutingAlgorithm;
-			this.currentLayoutingAlgorithm = layoutingAlgorithmType.getNewInstance(currentLevel.graph, size, sOrTheta
+			this.currentLayoutingAlgorithm = layoutingAlgorithmType.getNewInstance(getGraphOfTheCurrentLevel(), size, sOrTheta
 					, seed);
 			if(currentLayoutingAlgorithm instanceof LayoutWithWSPD){
 				((LayoutWithWSPD<?>) currentLayoutingAlgorithm).setRecomputationOfSplitTreeAndWSPDFunction(recomputationFunction);
 			}
+			if(currentLayoutingAlgorithm instanceof FRLayoutNoMapsNoFrame){
+				FRLayoutNoMapsNoFrame<?,?> frLayout = (FRLayoutNoMapsNoFrame<?,?>) currentLayoutingAlgorithm;
+				frLayout.setAdaptiveCooling(adaptiveCooling);
+				if(convergenceCriterion != null){
+					frLayout.setConvergenceCriterion(convergenceCriterion.get());
+				}
+			}
 			if(applyVertexLocationsFromThisMultiLevelLayoutToLayoutingAlgorithm){
 				applyVertexLocationsFromThisMultiLevelLayoutToLayoutingAlgorithm();
 			}
@@ -0,0 +1,160 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.multilevel.galaxy;
+
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.jungmodify.UndirectedSparseGraph;
+import edu.uci.ics.jung.graph.Graph;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Alternative to {@link GalaxyMultiLevel} (together with its {@link LevelNodeInfo}s and {@link LevelEdgeInfo}s)
+ * storing one level in primitive arrays (see {@link ArrayGalaxyMultiLevelBuilder}).
+ * <p>
+ * The nodes are 0, ..., numberOfNodes-1; node k stands for vertex[k] and is merged into the node parent[k]
+ * of the coarser level.
+ * The edges are 0, ..., numberOfEdges-1; edge j is edge[j] between the nodes edgeSource[j] and edgeTarget[j].
+ * As in {@link GalaxyMultiLevelBuilder}, an edge of a coarser level exists for every edge between two different
+ * systems of the finer level, so there may be more than one edge between two nodes (all with their own length).
+ * The incident edges of node k are adjacentEdge[adjacencyStart[k]] to adjacentEdge[adjacencyStart[k+1]-1]
+ * (in the order of the edges, leading to the other endpoint adjacentNode[...]);
+ * this is the order of {@link LevelNodeInfo#neighbors}.
+ * <p>
+ * The graph of a level (without multiple edges) is only created when it is requested via
+ * {@link ArrayGalaxyMultiLevel#getGraph()}.
+ *
+ * @param <V> Type of vertices
+ * @param <E> Type of edges
+ */
+public class ArrayGalaxyMultiLevel<V,E> {
+
+	public ArrayGalaxyMultiLevel<V,E> finerMultiLevel;
+	public ArrayGalaxyMultiLevel<V,E> coarserMultiLevel;
+	private int levelNumber;
+	private Graph<V,E> graph;
+
+	public int numberOfNodes;
+	public V[] vertex;
+	public float[] mass;
+	public int[] parent;
+
+	public int numberOfEdges;
+	public E[] edge;
+	public int[] edgeSource;
+	public int[] edgeTarget;
+	public float[] edgeLength;
+
+	public int[] adjacencyStart;
+	public int[] adjacentNode;
+	public int[] adjacentEdge;
+
+
+	/**
+	 * Creates the finest level for the passed graph
+	 *
+	 * @param graph
+	 */
+	@SuppressWarnings("unchecked")
+	public ArrayGalaxyMultiLevel(Graph<V,E> graph) {
+		this.graph = graph;
+		this.levelNumber = 0;
+		allocateNodes(graph.getVertexCount());
+		Map<V,Integer> index = new HashMap<V,Integer>(2*graph.getVertexCount());
+		for(V v: graph.getVertices()){
+			index.put(v, index.size());
+			vertex[index.size()-1] = v;
+			mass[index.size()-1] = 1.0f;
+		}
+		allocateEdges(graph.getEdgeCount());
+		int j = 0;
+		for(E e: graph.getEdges()){
+			Iterator<V> incidentVerticesIterator = graph.getIncidentVertices(e).iterator();
+			edge[j] = e;
+			edgeSource[j] = index.get(incidentVerticesIterator.next());
+			edgeTarget[j] = index.get(incidentVerticesIterator.next());
+			edgeLength[j] = LevelEdgeInfo.INITIAL_EDGE_LENGTH + LevelNodeInfo.INITIAL_VERTEX_RADIUS
+					+ LevelNodeInfo.INITIAL_VERTEX_RADIUS;
+			++j;
+		}
+		computeAdjacencies();
+	}
+
+	/**
+	 * Creates an empty level coarser than prev.
+	 * The arrays are allocated by {@link ArrayGalaxyMultiLevel#allocateNodes(int)} and
+	 * {@link ArrayGalaxyMultiLevel#allocateEdges(int)}
+	 *
+	 * @param prev
+	 */
+	public ArrayGalaxyMultiLevel(ArrayGalaxyMultiLevel<V,E> prev) {
+		coarserMultiLevel = null;
+		finerMultiLevel = prev;
+		finerMultiLevel.coarserMultiLevel = this;
+		levelNumber = prev.levelNumber + 1;
+	}
+
+	public int getLevelNumber(){
+		return levelNumber;
+	}
+
+	/**
+	 * @return
+	 * 		the graph of this level; is created with the first call (except for the finest level)
+	 */
+	public Graph<V,E> getGraph(){
+		if(graph==null){
+			graph = new UndirectedSparseGraph<V,E>();
+			for(int k=0; k<numberOfNodes; k++){
+				graph.addVertex(vertex[k]);
+			}
+			for(int j=0; j<numberOfEdges; j++){
+				//not adding multiple edges (rejected by the graph)
+				graph.addEdge(edge[j], vertex[edgeSource[j]], vertex[edgeTarget[j]]);
+			}
+		}
+		return graph;
+	}
+
+	@SuppressWarnings("unchecked")
+	void allocateNodes(int numberOfNodes){
+		this.numberOfNodes = numberOfNodes;
+		this.vertex = (V[]) new Object[numberOfNodes];
+		this.mass = new float[numberOfNodes];
+		this.parent = new int[numberOfNodes];
+	}
+
+	@SuppressWarnings("unchecked")
+	void allocateEdges(int numberOfEdges){
+		this.numberOfEdges = numberOfEdges;
+		this.edge = (E[]) new Object[numberOfEdges];
+		this.edgeSource = new int[numberOfEdges];
+		this.edgeTarget = new int[numberOfEdges];
+		this.edgeLength = new float[numberOfEdges];
+	}
+
+	/**
+	 * Builds the adjacencies from the edges in O(numberOfNodes + numberOfEdges)
+	 */
+	void computeAdjacencies(){
+		adjacencyStart = new int[numberOfNodes+1];
+		for(int j=0; j<numberOfEdges; j++){
+			++adjacencyStart[edgeSource[j]+1];
+			++adjacencyStart[edgeTarget[j]+1];
+		}
+		for(int k=0; k<numberOfNodes; k++){
+			adjacencyStart[k+1] += adjacencyStart[k];
+		}
+		adjacentNode = new int[2*numberOfEdges];
+		adjacentEdge = new int[2*numberOfEdges];
+		int[] nextEntry = new int[numberOfNodes];
+		System.arraycopy(adjacencyStart, 0, nextEntry, 0, numberOfNodes);
+		for(int j=0; j<numberOfEdges; j++){
+			int entry = nextEntry[edgeSource[j]]++;
+			adjacentNode[entry] = edgeTarget[j];
+			adjacentEdge[entry] = j;
+			entry = nextEntry[edgeTarget[j]]++;
+			adjacentNode[entry] = edgeSource[j];
+			adjacentEdge[entry] = j;
+		}
+	}
+}
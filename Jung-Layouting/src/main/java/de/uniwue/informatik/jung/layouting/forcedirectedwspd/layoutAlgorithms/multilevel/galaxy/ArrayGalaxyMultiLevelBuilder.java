@@ -0,0 +1,265 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.multilevel.galaxy;
+
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.Randomness;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Same as {@link GalaxyMultiLevelBuilder}, but on {@link ArrayGalaxyMultiLevel}s.
+ * With the same {@link Random} it creates the same levels (and the same graphs) as {@link GalaxyMultiLevelBuilder}.
+ * <p>
+ * No objects are created per node or edge, the working arrays are reused from level to level.
+ * If parallel, the system masses and the edges of the coarser level are computed concurrently.
+ * Sorting and labeling the systems depend on the order of the nodes and are sequential.
+ *
+ * @param <V> Type of vertices
+ * @param <E> Type of edges
+ */
+public class ArrayGalaxyMultiLevelBuilder<V,E> {
+
+	public final int M_DIST = 2;
+
+
+	private Random random;
+	private boolean parallel;
+
+	/*
+	 * state of the nodes of the finer level (see LevelNodeState)
+	 */
+	private double[] sysMass = new double[0];
+	private int[] order = new int[0];
+	private int[] orderBuffer = new int[0];
+	private int[] label = new int[0];
+	private int[] lastVisitor = new int[0];
+	private float[] edgeLengthFromSun = new float[0];
+	/**
+	 * index of the node in the coarser level for every sun
+	 */
+	private int[] coarserNode = new int[0];
+
+
+	public ArrayGalaxyMultiLevelBuilder() {
+		this(Randomness.random, false);
+	}
+
+	/**
+	 * @param random
+	 * 		used to shuffle the nodes before sorting them by system mass
+	 * @param parallel
+	 * 		if the system masses and the edges of the coarser level are computed concurrently
+	 */
+	public ArrayGalaxyMultiLevelBuilder(Random random, boolean parallel) {
+		this.random = random;
+		this.parallel = parallel;
+	}
+
+
+	public ArrayGalaxyMultiLevel<V,E> build(ArrayGalaxyMultiLevel<V,E> prevMultiLevel){
+		ensureCapacity(prevMultiLevel.numberOfNodes);
+
+		this.computeSystemMass(prevMultiLevel);
+		this.sortNodesBySystemMass(prevMultiLevel);
+		int numberOfSuns = this.labelSystem(prevMultiLevel);
+		ArrayGalaxyMultiLevel<V,E> resultingMultiLevel = new ArrayGalaxyMultiLevel<V,E>(prevMultiLevel);
+		this.createResult(prevMultiLevel, resultingMultiLevel, numberOfSuns);
+
+		return resultingMultiLevel;
+	}
+
+
+	private void computeSystemMass(ArrayGalaxyMultiLevel<V,E> prev) {
+		forEach(prev.numberOfNodes, v -> {
+			double systemMass = prev.mass[v];
+			for(int entry=prev.adjacencyStart[v]; entry<prev.adjacencyStart[v+1]; entry++){
+				systemMass += prev.mass[prev.adjacentNode[entry]];
+			}
+			if(prev.adjacencyStart[v+1]-prev.adjacencyStart[v]==1){
+				systemMass *= prev.numberOfNodes;
+			}
+			sysMass[v] = systemMass;
+		});
+	}
+
+
+	private void sortNodesBySystemMass(ArrayGalaxyMultiLevel<V,E> prev) {
+		int n = prev.numberOfNodes;
+		for(int v=0; v<n; v++){
+			order[v] = v;
+		}
+		/*
+		 * Has to be shuffled to a random order first (see GalaxyMultiLevelBuilder).
+		 * Same swaps as in Collections.shuffle(List, Random).
+		 */
+		for(int i=n; i>1; i--){
+			int j = random.nextInt(i);
+			int swap = order[i-1];
+			order[i-1] = order[j];
+			order[j] = swap;
+		}
+		//stable like Collections.sort(List)
+		mergeSortBySystemMass(0, n);
+	}
+
+	/**
+	 * Stable sort of order[from] to order[to-1] by sysMass
+	 */
+	private void mergeSortBySystemMass(int from, int to){
+		for(int width=1; width<to-from; width*=2){
+			for(int left=from; left<to-width; left+=2*width){
+				int mid = left+width;
+				int right = Math.min(left+2*width, to);
+				int i = left;
+				int j = mid;
+				int k = left;
+				while(i<mid && j<right){
+					orderBuffer[k++] = Double.compare(sysMass[order[j]], sysMass[order[i]])<0 ? order[j++] : order[i++];
+				}
+				while(i<mid){
+					orderBuffer[k++] = order[i++];
+				}
+				while(j<right){
+					orderBuffer[k++] = order[j++];
+				}
+				System.arraycopy(orderBuffer, left, order, left, right-left);
+			}
+		}
+	}
+
+
+	/**
+	 * @return
+	 * 		number of suns; they are numbered in coarserNode in the order they are found
+	 */
+	private int labelSystem(ArrayGalaxyMultiLevel<V,E> prev) {
+		int n = prev.numberOfNodes;
+		for(int v=0; v<n; v++){
+			label[v] = 0;
+			lastVisitor[v] = v;
+		}
+
+		int numberOfSuns = 0;
+		for(int i=0; i<n; i++){
+			int v = order[i];
+			if(label[v]==0){
+				coarserNode[v] = numberOfSuns++;
+				label[v] = M_DIST+1;
+				edgeLengthFromSun[v] = 0.0f;
+				labelSystem(prev, v, v, M_DIST, edgeLengthFromSun[v]);
+			}
+		}
+		return numberOfSuns;
+	}
+
+
+	private void labelSystem(ArrayGalaxyMultiLevel<V,E> prev, int u, int v, int distance, float distanceFloat) {
+		if(distance>0){
+			for(int entry=prev.adjacencyStart[v]; entry<prev.adjacencyStart[v+1]; entry++){
+				int w = prev.adjacentNode[entry];
+				//original comment from OGDF: this node may have been labeled before but its closer to the current sun
+				if(label[w] < distance){
+					float currDistFromSun = prev.edgeLength[prev.adjacentEdge[entry]] + distanceFloat;
+					//original comment from OGDF: check if we relabeling by a new sun
+					if(lastVisitor[w]!=u){
+						lastVisitor[w] = u;
+						edgeLengthFromSun[w] = currDistFromSun;
+					}
+					//original comment from OGDF: finally relabel it
+					edgeLengthFromSun[w] = Math.min(edgeLengthFromSun[w], currDistFromSun);
+					label[w] = distance;
+					labelSystem(prev, u, w, distance-1, currDistFromSun);
+				}
+			}
+		}
+	}
+
+
+	private void createResult(ArrayGalaxyMultiLevel<V,E> prev, ArrayGalaxyMultiLevel<V,E> result, int numberOfSuns) {
+		//original comment from OGDF: create all sun nodes
+		result.allocateNodes(numberOfSuns);
+		for(int v=0; v<prev.numberOfNodes; v++){
+			if(lastVisitor[v]==v){
+				result.vertex[coarserNode[v]] = prev.vertex[v];
+			}
+		}
+		//original comment from OGDF: calculate the real system mass. this may not be the same as calculated before
+		for(int v=0; v<prev.numberOfNodes; v++){
+			prev.parent[v] = coarserNode[lastVisitor[v]];
+			result.mass[prev.parent[v]] += prev.mass[v];
+		}
+
+		//edges between different systems, in the order of the edges of prev
+		int[] blockStart = blocks(prev.numberOfEdges);
+		int numberOfBlocks = blockStart.length-1;
+		int[] edgesInBlock = new int[numberOfBlocks+1];
+		forEach(numberOfBlocks, b -> {
+			int count = 0;
+			for(int j=blockStart[b]; j<blockStart[b+1]; j++){
+				if(lastVisitor[prev.edgeSource[j]]!=lastVisitor[prev.edgeTarget[j]]){
+					++count;
+				}
+			}
+			edgesInBlock[b+1] = count;
+		});
+		for(int b=0; b<numberOfBlocks; b++){
+			edgesInBlock[b+1] += edgesInBlock[b];
+		}
+		result.allocateEdges(edgesInBlock[numberOfBlocks]);
+		forEach(numberOfBlocks, b -> {
+			int k = edgesInBlock[b];
+			for(int j=blockStart[b]; j<blockStart[b+1]; j++){
+				int v1 = prev.edgeSource[j];
+				int v2 = prev.edgeTarget[j];
+				if(lastVisitor[v1]!=lastVisitor[v2]){
+					result.edge[k] = prev.edge[j];
+					result.edgeSource[k] = prev.parent[v1];
+					result.edgeTarget[k] = prev.parent[v2];
+					result.edgeLength[k] = edgeLengthFromSun[v1] + prev.edgeLength[j] + edgeLengthFromSun[v2];
+					++k;
+				}
+			}
+		});
+		result.computeAdjacencies();
+	}
+
+	/**
+	 * Splits 0, ..., n-1 into blocks for {@link ArrayGalaxyMultiLevelBuilder#forEach(int, IntConsumer)}
+	 *
+	 * @return
+	 * 		block b is blockStart[b] to blockStart[b+1]-1
+	 */
+	private int[] blocks(int n){
+		int numberOfBlocks = parallel ? Math.max(1, Math.min(n/1024, 4*ForkJoinPool.getCommonPoolParallelism())) : 1;
+		int[] blockStart = new int[numberOfBlocks+1];
+		for(int b=0; b<=numberOfBlocks; b++){
+			blockStart[b] = (int) ((long) n*b/numberOfBlocks);
+		}
+		return blockStart;
+	}
+
+	private void forEach(int n, IntConsumer operation){
+		if(parallel){
+			IntStream.range(0, n).parallel().forEach(operation);
+		}
+		else{
+			for(int i=0; i<n; i++){
+				operation.accept(i);
+			}
+		}
+	}
+
+	private void ensureCapacity(int n){
+		if(sysMass.length>=n){
+			return;
+		}
+		sysMass = new double[n];
+		order = new int[n];
+		orderBuffer = new int[n];
+		label = new int[n];
+		lastVisitor = new int[n];
+		edgeLengthFromSun = new float[n];
+		coarserNode = new int[n];
+	}
+}
@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * GalaxyMultiLevelBuilder as Java implementation of
@@ -27,6 +28,20 @@ public class GalaxyMultiLevelBuilder<V,E> {
 	private List<LevelNodeInfo<V>> prevNodeInfos;
 	private List<LevelEdgeInfo<V,E>> prevEdgeInfos;
 	private List<LevelNodeState<V, E>> nodeStates;
+	private Random random;
+	
+	
+	public GalaxyMultiLevelBuilder() {
+		this(Randomness.random);
+	}
+	
+	/**
+	 * @param random
+	 * 		used to shuffle the nodes before sorting them by system mass
+	 */
+	public GalaxyMultiLevelBuilder(Random random) {
+		this.random = random;
+	}
 	
 	
 	public Tuple<GalaxyMultiLevel<V,E>,  Tuple<List<LevelNodeInfo<V>>, List<LevelEdgeInfo<V,E>>>> build(
@@ -76,7 +91,7 @@ public class GalaxyMultiLevelBuilder<V,E> {
 		 * which may not be random but depend on the not random order of nodes
 		 * in the graph source file.
 		 */
-		Collections.shuffle(nodeStates, Randomness.random);
+		Collections.shuffle(nodeStates, random);
 		Collections.sort(nodeStates);
 	}
 
@@ -0,0 +1,127 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.quadtree;
+
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.jungmodify.FRLayout;
+import edu.uci.ics.jung.graph.Graph;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRComponentArrays;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRLayoutNoMapsNoFrame;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.main.io.cPlusPlus.CPlusPlusExternLayout;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.quadtree.MultipoleQuadTree;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * FR+FastMultipole
+ * <p>
+ * Modifies the {@link FRLayout}-algorithm (respectively the {@link FRLayoutNoMapsNoFrame})
+ * by approximating the repulsive forces with the fast multipole method on a quadtree ({@link MultipoleQuadTree}).
+ * Differently from {@link FRQuadtree}, not every vertex computes its forces on its own, but cells of the quadtree
+ * interact with each other via series expansions, so one iteration needs O(|V|) time
+ * for drawings that are not extremely clustered.
+ * <p>
+ * It is a native alternative to {@link CPlusPlusExternLayout.FastMultipoleEmbedder}, but the drawing is computed
+ * like with the other FR variants of this package (forces, cooling, no repulsion in every fifth iteration).
+ * <p>
+ * Theta has to be at most 1 (else there may be cells interacting via their expansions although they overlap).
+ * The smaller theta and the greater the precision, the more exact are the repulsive forces.
+ */
+public class FRFastMultipole<V, E> extends FRLayoutNoMapsNoFrame<V, E> {
+
+
+	public static final int DEFAULT_PRECISION = 4; //4; same value as in OGDF-FastMultipoleEmbedder
+
+	private double theta;
+	private int precision = DEFAULT_PRECISION;
+	protected MultipoleQuadTree[] multipoleQuadtree;
+
+
+
+
+    /*
+     * Constructors
+     */
+
+	/**
+	 * @param theta
+	 * must be in (0, 1]
+	 */
+	public FRFastMultipole(Graph<V, E> g, double theta, Dimension d) {
+		super(g, d);
+		this.theta = checkTheta(theta);
+	}
+
+	/**
+	 * @param theta
+	 * must be in (0, 1]
+	 */
+	public FRFastMultipole(Graph<V, E> g, double theta, Dimension d, long seed) {
+		super(g, d, seed);
+		this.theta = checkTheta(theta);
+	}
+
+	private static double checkTheta(double theta){
+		if(!(theta>0 && theta<=1)){
+			throw new IllegalArgumentException("theta must be in (0, 1] for the multipole expansions to be valid, " +
+					"but was " + theta);
+		}
+		return theta;
+	}
+
+
+	/*
+	 * Some Setters and Getters
+	 */
+
+
+    public double getTheta(){
+    	return theta;
+    }
+
+	public int getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * Number of coefficients of the multipole and local expansions.
+	 * Default is {@link FRFastMultipole#DEFAULT_PRECISION}.
+	 *
+	 * @param precision
+	 * must be at least 1
+	 */
+	public void setPrecision(int precision) {
+		if(precision<1){
+			throw new IllegalArgumentException("precision must be at least 1, but was " + precision);
+		}
+		this.precision = precision;
+		this.multipoleQuadtree = null;
+	}
+
+
+
+
+	/*
+	 * Methods for calculation
+	 */
+
+	@Override
+	protected void calcRepulsion() {
+		for(FRComponentArrays<V> component: componentArrays){
+			Arrays.fill(component.dx, 0);
+			Arrays.fill(component.dy, 0);
+		}
+		if(currentIteration%intervalForLeavingOutCalculationOfRepulsiveForces==0){ //In some iteartions no repulsive forces are computed
+			return;
+		}
+		if(multipoleQuadtree==null || multipoleQuadtree.length!=componentArrays.length){
+			multipoleQuadtree = new MultipoleQuadTree[componentArrays.length];
+			for(int i=0; i<multipoleQuadtree.length; i++){
+				multipoleQuadtree[i] = new MultipoleQuadTree(precision);
+			}
+		}
+		forEachComponent(i -> {
+			FRComponentArrays<V> component = componentArrays[i];
+			multipoleQuadtree[i].computeRepulsion(component.x, component.y, component.size, theta,
+					repulsion_constant * repulsion_constant, EPSILON, component.dx, component.dy);
+		});
+	}
+}
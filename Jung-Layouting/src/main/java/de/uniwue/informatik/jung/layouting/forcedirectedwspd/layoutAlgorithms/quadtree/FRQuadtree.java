@@ -2,14 +2,15 @@ package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.q
 
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.jungmodify.FRLayout;
 import edu.uci.ics.jung.graph.Graph;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRComponentArrays;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRLayoutNoMapsNoFrame;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.quadtree.LinearQuadTree;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.quadtree.QuadTree;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.quadtree.QuadTreeNode;
-import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.VertexTriple;
 
 import java.awt.*;
 import java.awt.geom.Point2D;
-import java.util.ConcurrentModificationException;
+import java.util.stream.IntStream;
 
 /**
  * FR+Quadtree
@@ -25,6 +26,14 @@ public class FRQuadtree<V, E> extends FRLayoutNoMapsNoFrame<V, E> {
 	
     private double theta;
     protected QuadTree<V>[] quadtree;
+    protected LinearQuadTree[] linearQuadtree;
+    private boolean arrayBackedQuadtree = false;
+    /**
+     * Stack for traversing the {@link LinearQuadTree}, one per thread because the forces may be computed in parallel.
+     * At most 3 open siblings per level and the children of the deepest node are on it.
+     */
+    private final ThreadLocal<int[]> traversalStack =
+            ThreadLocal.withInitial(() -> new int[3*LinearQuadTree.MAX_DEPTH+4]);
 	
 	
 	
@@ -53,6 +62,23 @@ public class FRQuadtree<V, E> extends FRLayoutNoMapsNoFrame<V, E> {
     	return theta;
     }
 	
+	public boolean isArrayBackedQuadtree() {
+		return arrayBackedQuadtree;
+	}
+	
+	/**
+	 * If true, the {@link LinearQuadTree} (flat arrays, rebuilt in place in every iteration) is used
+	 * instead of the {@link QuadTree} and traversed iteratively.
+	 * Differently from the {@link QuadTree}, the vertices in a leaf not satisfying the theta criterion
+	 * are summed up exactly.
+	 * Default is false.
+	 * 
+	 * @param arrayBackedQuadtree
+	 */
+	public void setArrayBackedQuadtree(boolean arrayBackedQuadtree) {
+		this.arrayBackedQuadtree = arrayBackedQuadtree;
+	}
+	
 	
 	
 	
@@ -62,14 +88,39 @@ public class FRQuadtree<V, E> extends FRLayoutNoMapsNoFrame<V, E> {
 	 */
 	
 	protected void recomputeQuadtree(){
-		quadtree = new QuadTree[vertices.length];
+		QuadTree<V>[] quadtree = new QuadTree[vertices.length];
 		
-		for(int i=0; i<vertices.length; i++){
-			quadtree[i] = new QuadTree<V>(vertices[i]);
+		if(parallelForceComputation){
+			IntStream.range(0, vertices.length).parallel().forEach(i -> quadtree[i] = new QuadTree<V>(vertices[i]));
 		}
+		else{
+			for(int i=0; i<vertices.length; i++){
+				quadtree[i] = new QuadTree<V>(vertices[i]);
+			}
+		}
+		this.quadtree = quadtree;
 
 	}
 	
+	protected void recomputeLinearQuadtree(){
+		if(linearQuadtree==null || linearQuadtree.length!=componentArrays.length){
+			linearQuadtree = new LinearQuadTree[componentArrays.length];
+			for(int i=0; i<linearQuadtree.length; i++){
+				linearQuadtree[i] = new LinearQuadTree();
+			}
+		}
+		
+		if(parallelForceComputation){
+			IntStream.range(0, componentArrays.length).parallel().forEach(i -> linearQuadtree[i].build(
+					componentArrays[i].x, componentArrays[i].y, componentArrays[i].size));
+		}
+		else{
+			for(int i=0; i<componentArrays.length; i++){
+				linearQuadtree[i].build(componentArrays[i].x, componentArrays[i].y, componentArrays[i].size);
+			}
+		}
+	}
+	
 	
 	
 	/*
@@ -83,71 +134,134 @@ public class FRQuadtree<V, E> extends FRLayoutNoMapsNoFrame<V, E> {
      */
 	@Override
 	protected void calcRepulsion() {
-		recomputeQuadtree();
+		if(arrayBackedQuadtree){
+			recomputeLinearQuadtree();
+		}
+		else{
+			//the quadtree is built from the locations in the vertex triples
+			writeLocationsToVertexTriples();
+			recomputeQuadtree();
+		}
 		
 		super.calcRepulsion();
     }
 	
 	@Override
-	protected void calcRepulsion(VertexTriple<V> t, int indexConnectedComponent) {
-		FRVertexData fvd = getFRData(t);
-	    if(fvd == null)
-	        return;
-	    fvd.setLocation(0, 0);
-	    	    
-	    try {
-		    calcRepulsion(t, quadtree[indexConnectedComponent], quadtree[indexConnectedComponent].getRoot());
-		    
-	    } catch(ConcurrentModificationException cme) {
-	        calcRepulsion(t);
-	    }
+	protected void calcRepulsion(int v, int indexConnectedComponent) {
+		FRComponentArrays<V> component = componentArrays[indexConnectedComponent];
+		component.dx[v] = 0;
+		component.dy[v] = 0;
+		if(arrayBackedQuadtree){
+			calcRepulsion(v, component, linearQuadtree[indexConnectedComponent]);
+			return;
+		}
+		calcRepulsion(v, component, quadtree[indexConnectedComponent], quadtree[indexConnectedComponent].getRoot());
 	};
 	
 	/**
 	 * Recursive method that is needed by
-	 * {@link FRQuadtree#calcRepulsion(VertexTriple, int)}
+	 * {@link FRQuadtree#calcRepulsion(int, int)}
 	 * 
-	 * @param t
-	 * {@link VertexTriple} of the currently considered vertex
+	 * @param v
+	 * index of the currently considered vertex
+	 * @param component
+	 * {@link FRComponentArrays} of the component of v
 	 * @param quadTreeOfItsComponent
-	 * {@link QuadTree} of t
+	 * {@link QuadTree} of v
 	 * @param qtn
-	 * {@link QuadTreeNode} containing t
+	 * {@link QuadTreeNode} containing v
 	 */
-	private void calcRepulsion(VertexTriple<V> t, QuadTree<V> quadTreeOfItsComponent, QuadTreeNode<V> qtn){
-		try {
-            Point2D barycenter = quadTreeOfItsComponent.getBarycenter(qtn);
-            
-            double l = quadTreeOfItsComponent.getSquare(qtn).getSideLength(); //length of qtn
-            double d = Point2D.distance(t.get2().getX(), t.get2().getY(), barycenter.getX(), barycenter.getY()); //distance barycenter(qtn)<->pV
-            
-            //if this is true then calc force between pV and the barycenter
-            if(l/d < theta){
-            
-	            double xDelta = t.get2().getX() - barycenter.getX();
-	            double yDelta = t.get2().getY() - barycenter.getY();
-	
-	            double deltaLength = Math.max(EPSILON, Math
-	                    .sqrt((xDelta * xDelta) + (yDelta * yDelta)));
-	
-	            double force = (repulsion_constant * repulsion_constant) / deltaLength;
-	
-	            if (Double.isNaN(force)) { throw new RuntimeException(
-	            "Unexpected mathematical result in FRLayout:calcPositions [repulsion]"); }
-	
-	            t.get3().offset((xDelta / deltaLength) * force * quadTreeOfItsComponent.getTripleSet(qtn).size(),
-	                    (yDelta / deltaLength) * force * quadTreeOfItsComponent.getTripleSet(qtn).size());
-	            
-            }
-            //otherwise calc force between pV and the children of qtn
-            else{
-            	for(QuadTreeNode<V> child: quadTreeOfItsComponent.getChildren(qtn)){
-            		calcRepulsion(t, quadTreeOfItsComponent, child);
-            	}
-            }
+	private void calcRepulsion(int v, FRComponentArrays<V> component, QuadTree<V> quadTreeOfItsComponent,
+			QuadTreeNode<V> qtn){
+        Point2D barycenter = quadTreeOfItsComponent.getBarycenter(qtn);
+        
+        double l = quadTreeOfItsComponent.getSquare(qtn).getSideLength(); //length of qtn
+        double d = Point2D.distance(component.x[v], component.y[v], barycenter.getX(), barycenter.getY()); //distance barycenter(qtn)<->pV
+        
+        //if this is true then calc force between pV and the barycenter
+        if(l/d < theta){
+        
+            double xDelta = component.x[v] - barycenter.getX();
+            double yDelta = component.y[v] - barycenter.getY();
+
+            double deltaLength = Math.max(EPSILON, Math
+                    .sqrt((xDelta * xDelta) + (yDelta * yDelta)));
+
+            double force = (repulsion_constant * repulsion_constant) / deltaLength;
+
+            if (Double.isNaN(force)) { throw new RuntimeException(
+            "Unexpected mathematical result in FRLayout:calcPositions [repulsion]"); }
+
+            component.dx[v] += (xDelta / deltaLength) * force * quadTreeOfItsComponent.getTripleSet(qtn).size();
+            component.dy[v] += (yDelta / deltaLength) * force * quadTreeOfItsComponent.getTripleSet(qtn).size();
             
-	    } catch(ConcurrentModificationException cme) {
-	        calcRepulsion(t, quadTreeOfItsComponent, qtn);
-	    }
+        }
+        //otherwise calc force between pV and the children of qtn
+        else{
+        	for(QuadTreeNode<V> child: quadTreeOfItsComponent.getChildren(qtn)){
+        		calcRepulsion(v, component, quadTreeOfItsComponent, child);
+        	}
+        }
+	}
+	
+	/**
+	 * Iterative counterpart of {@link FRQuadtree#calcRepulsion(int, FRComponentArrays, QuadTree, QuadTreeNode)}
+	 * for the {@link LinearQuadTree}
+	 * 
+	 * @param v
+	 * index of the currently considered vertex
+	 * @param component
+	 * {@link FRComponentArrays} of the component of v
+	 * @param tree
+	 * {@link LinearQuadTree} of v
+	 */
+	private void calcRepulsion(int v, FRComponentArrays<V> component, LinearQuadTree tree){
+		if(tree.numberOfNodes==0){
+			return;
+		}
+		int[] stack = traversalStack.get();
+		int stackSize = 0;
+		stack[stackSize++] = 0;
+		while(stackSize>0){
+			int u = stack[--stackSize];
+			double l = tree.sideLength[u]; //length of u
+			double d = Point2D.distance(component.x[v], component.y[v], tree.barycenterX[u], tree.barycenterY[u]);
+			
+			//if this is true then calc force between pV and the barycenter
+			if(l/d < theta){
+				addRepulsion(v, component, tree.barycenterX[u], tree.barycenterY[u], tree.getSizeOfThePointSet(u));
+			}
+			//in a leaf calc force between pV and every vertex
+			else if(tree.isLeaf(u)){
+				for(int k=tree.start[u]; k<tree.end[u]; k++){
+					int w = tree.point[k];
+					if(w!=v){
+						addRepulsion(v, component, component.x[w], component.y[w], 1);
+					}
+				}
+			}
+			//otherwise calc force between pV and the children of u
+			else{
+				for(int c=tree.firstChild[u]; c<tree.firstChild[u]+tree.numberOfChildren[u]; c++){
+					stack[stackSize++] = c;
+				}
+			}
+		}
+	}
+	
+	private void addRepulsion(int v, FRComponentArrays<V> component, double x, double y, int multiplicity){
+		double xDelta = component.x[v] - x;
+		double yDelta = component.y[v] - y;
+		
+		double deltaLength = Math.max(EPSILON, Math
+				.sqrt((xDelta * xDelta) + (yDelta * yDelta)));
+		
+		double force = (repulsion_constant * repulsion_constant) / deltaLength;
+		
+		if (Double.isNaN(force)) { throw new RuntimeException(
+		"Unexpected mathematical result in FRLayout:calcPositions [repulsion]"); }
+		
+		component.dx[v] += (xDelta / deltaLength) * force * multiplicity;
+		component.dy[v] += (yDelta / deltaLength) * force * multiplicity;
 	}
 }
@@ -0,0 +1,45 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd;
+
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.SplitTree;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.WellSeparatedPairDecomposition;
+
+/**
+ * {@link RecomputationOfSplitTreeAndWSPDFunction} that keeps {@link SplitTree} and
+ * {@link WellSeparatedPairDecomposition} as long as the vertices move little.
+ * <p>
+ * The bounding rectangles and barycenters are updated and only the pairs that are
+ * no longer well-separated are split again
+ * (see {@link LayoutWithWSPD#updateSplitTreeAndWSPDIncrementally(double)}).
+ * If more than {@link AdaptiveRecomputationOfSplitTreeAndWSPDFunction#getMaximumFractionOfInvalidatedPairs()}
+ * of the pairs are invalidated, the vertices have moved too much since the last construction
+ * and both are computed new.
+ * So while the layout changes a lot (at the beginning) they are computed new in (nearly) every iteration
+ * and while it converges (at the end) rarely.
+ */
+public class AdaptiveRecomputationOfSplitTreeAndWSPDFunction extends RecomputationOfSplitTreeAndWSPDFunction {
+
+	private double maximumFractionOfInvalidatedPairs;
+
+	public AdaptiveRecomputationOfSplitTreeAndWSPDFunction(double maximumFractionOfInvalidatedPairs) {
+		super();
+		this.maximumFractionOfInvalidatedPairs = maximumFractionOfInvalidatedPairs;
+	}
+
+	public AdaptiveRecomputationOfSplitTreeAndWSPDFunction(String name, double maximumFractionOfInvalidatedPairs) {
+		super(name);
+		this.maximumFractionOfInvalidatedPairs = maximumFractionOfInvalidatedPairs;
+	}
+
+	public double getMaximumFractionOfInvalidatedPairs() {
+		return maximumFractionOfInvalidatedPairs;
+	}
+
+	public void setMaximumFractionOfInvalidatedPairs(double maximumFractionOfInvalidatedPairs) {
+		this.maximumFractionOfInvalidatedPairs = maximumFractionOfInvalidatedPairs;
+	}
+
+	@Override
+	public Boolean apply(LayoutWithWSPD<?> layout) {
+		return !layout.updateSplitTreeAndWSPDIncrementally(maximumFractionOfInvalidatedPairs);
+	}
+}
@@ -2,15 +2,19 @@ package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.w
 
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.jungmodify.FRLayout;
 import edu.uci.ics.jung.graph.Graph;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRComponentArrays;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRLayoutNoMapsNoFrame;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.VertexTriple;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.ArraySplitTree;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.IndexedWellSeparatedPairDecomposition;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.SplitTree;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.SplitTreeNode;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.WellSeparatedPairDecomposition;
 
 import java.awt.*;
 import java.awt.geom.Point2D;
-import java.util.ConcurrentModificationException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 /**
  * FR+WSPD
@@ -41,6 +45,11 @@ public abstract class FRWSPD<V, E> extends FRLayoutNoMapsNoFrame<V, E> implement
      * For every connected graph-component one {@link WellSeparatedPairDecomposition}
      */
 	private WellSeparatedPairDecomposition<V>[] wspd;
+	/**
+	 * For every connected graph-component the number of pairs in its {@link WellSeparatedPairDecomposition}
+	 * when it was computed new the last time
+	 */
+	private int[] numberOfWellSeparatedPairsAfterConstruction;
 	/**
 	 * can be used for {@link RecomputationOfSplitTreeAndWSPDFunction}.
 	 * (Get via its getter)
@@ -48,6 +57,16 @@ public abstract class FRWSPD<V, E> extends FRLayoutNoMapsNoFrame<V, E> implement
 	private int iterationInWhichTheSplitTreeWasBuildNewLastTime = 1;
 	private RecomputationOfSplitTreeAndWSPDFunction recomputationOfSplitTreeAndWSPDFunction =
 			new RecomputationOfSplitTreeAndWSPDFunction(); //init with default recomp-function
+	/**
+	 * If true, an {@link ArraySplitTree} is built for every component in every iteration instead of
+	 * {@link SplitTree} and {@link WellSeparatedPairDecomposition}.
+	 * Default is false
+	 */
+	private boolean arrayBackedSplitTree = false;
+	/**
+	 * For every connected graph-component one {@link ArraySplitTree} (if {@link FRWSPD#arrayBackedSplitTree})
+	 */
+	protected ArraySplitTree[] arraySplitTree;
 	
 	
 	
@@ -97,11 +116,58 @@ public abstract class FRWSPD<V, E> extends FRLayoutNoMapsNoFrame<V, E> implement
 		return iterationInWhichTheSplitTreeWasBuildNewLastTime;
 	}
     
+	/**
+	 * Default is false
+	 * 
+	 * @return
+	 */
+	public boolean isArrayBackedSplitTree() {
+		return arrayBackedSplitTree;
+	}
+	
+	/**
+	 * If set to true, the split tree and the well-separated pairs are built on arrays
+	 * in every iteration (see {@link ArraySplitTree}).
+	 * Then no {@link SplitTree} and {@link WellSeparatedPairDecomposition} are built and
+	 * {@link FRWSPD#getSplitTree()} and {@link FRWSPD#getWSPD()} are not updated.
+	 * Hence only the default {@link RecomputationOfSplitTreeAndWSPDFunction} (new built in every iteration)
+	 * can be used together with it.
+	 * Default is false
+	 * 
+	 * @param arrayBackedSplitTree
+	 * @throws IllegalStateException
+	 * if set to true while another {@link RecomputationOfSplitTreeAndWSPDFunction} than the default one is set
+	 */
+	public void setArrayBackedSplitTree(boolean arrayBackedSplitTree) {
+		if(arrayBackedSplitTree && !isBuildingNewInEveryIteration(recomputationOfSplitTreeAndWSPDFunction)){
+			throw new IllegalStateException("the array-backed split tree is built new in every iteration, " +
+					"but another than the default recomputation function is set");
+		}
+		this.arrayBackedSplitTree = arrayBackedSplitTree;
+	}
+	
+	/**
+	 * @throws IllegalArgumentException
+	 * if {@link FRWSPD#isArrayBackedSplitTree()} and function is not the default
+	 * {@link RecomputationOfSplitTreeAndWSPDFunction}
+	 */
 	@Override
 	public void setRecomputationOfSplitTreeAndWSPDFunction(RecomputationOfSplitTreeAndWSPDFunction function) {
+		if(arrayBackedSplitTree && !isBuildingNewInEveryIteration(function)){
+			throw new IllegalArgumentException("the array-backed split tree is built new in every iteration, " +
+					"so only the default recomputation function can be used");
+		}
 		this.recomputationOfSplitTreeAndWSPDFunction = function;
 	}
 	
+	/**
+	 * Only the default {@link RecomputationOfSplitTreeAndWSPDFunction} (not a subclass overwriting
+	 * {@link RecomputationOfSplitTreeAndWSPDFunction#apply(LayoutWithWSPD)}) builds new in every iteration
+	 */
+	private static boolean isBuildingNewInEveryIteration(RecomputationOfSplitTreeAndWSPDFunction function){
+		return function.getClass()==RecomputationOfSplitTreeAndWSPDFunction.class;
+	}
+	
 	@Override
 	public RecomputationOfSplitTreeAndWSPDFunction getRecomputationOfSplitTreeAndWSPDFunction() {
 		return recomputationOfSplitTreeAndWSPDFunction;
@@ -114,14 +180,22 @@ public abstract class FRWSPD<V, E> extends FRLayoutNoMapsNoFrame<V, E> implement
 	
 
 	protected void recomputeSplitTreeAndWSPD(){
-		splitTree = new SplitTree[vertices.length];
-		for(int i=0; i<vertices.length; i++){
+		SplitTree<V>[] splitTree = new SplitTree[vertices.length];
+		WellSeparatedPairDecomposition<V>[] wspd = new WellSeparatedPairDecomposition[vertices.length];
+		forEachComponent(i -> {
 			splitTree[i] = new SplitTree<V>(vertices[i]);
-		}
-        iterationInWhichTheSplitTreeWasBuildNewLastTime = currentIteration;
-        wspd = new WellSeparatedPairDecomposition[vertices.length];
-		for(int i=0; i<vertices.length; i++){
 			wspd[i] = new WellSeparatedPairDecomposition<V>(splitTree[i], sForTheWSPD);
+		});
+		this.splitTree = splitTree;
+		this.wspd = wspd;
+		recordNumberOfWellSeparatedPairsAfterConstruction();
+        iterationInWhichTheSplitTreeWasBuildNewLastTime = currentIteration;
+	}
+	
+	private void recordNumberOfWellSeparatedPairsAfterConstruction(){
+		numberOfWellSeparatedPairsAfterConstruction = new int[wspd.length];
+		for(int i=0; i<wspd.length; i++){
+			numberOfWellSeparatedPairsAfterConstruction[i] = wspd[i].getWellSeparatedPairs().size();
 		}
 	}
 	
@@ -149,6 +223,28 @@ public abstract class FRWSPD<V, E> extends FRLayoutNoMapsNoFrame<V, E> implement
 		for(int i=0; i<wspd.length; i++){
 			wspd[i] = new WellSeparatedPairDecomposition<V>(splitTree[i], sForTheWSPD);
 		}
+		recordNumberOfWellSeparatedPairsAfterConstruction();
+	}
+	
+	@Override
+	public boolean updateSplitTreeAndWSPDIncrementally(double maximumFractionOfInvalidatedPairs){
+		boolean[] updated = new boolean[wspd.length];
+		forEachComponent(i -> {
+			splitTree[i].recalculateAllBoundingRectangles();
+			splitTree[i].recalculateAllBarycenters();
+			int maximumNumberOfInvalidatedPairs =
+					(int) (maximumFractionOfInvalidatedPairs*wspd[i].getWellSeparatedPairs().size());
+			//splitting the pairs of a split tree whose points have moved a lot may also create too many new pairs
+			updated[i] = wspd[i].update(maximumNumberOfInvalidatedPairs)<=maximumNumberOfInvalidatedPairs
+					&& wspd[i].getWellSeparatedPairs().size()
+					<= (1+maximumFractionOfInvalidatedPairs)*numberOfWellSeparatedPairsAfterConstruction[i];
+		});
+		for(boolean updatedComponent: updated){
+			if(!updatedComponent){
+				return false;
+			}
+		}
+		return true;
 	}
 	
 	
@@ -175,16 +271,16 @@ public abstract class FRWSPD<V, E> extends FRLayoutNoMapsNoFrame<V, E> implement
          * As the repulsive forces are not calculated point by point using the WSPD,
          * this necessary step is done here initially
          */
-        for(int i=0; i<vertices.length; i++){
-	        while(true) {
-	            try {
-	                for(VertexTriple<V> t : vertices[i]) {
-	                    t.get3().setLocation(0, 0);
-	                }
-	                break;
-	            } catch(ConcurrentModificationException cme) {}
-	        }
+        for(FRComponentArrays<V> component: componentArrays){
+        	Arrays.fill(component.dx, 0);
+        	Arrays.fill(component.dy, 0);
         }
+        if(arrayBackedSplitTree){
+        	calcRepulsionWithArraySplitTrees();
+        	return;
+        }
+        //the split tree is built from (and updated with) the locations in the vertex triples
+        writeLocationsToVertexTriples();
         /**
          * Calculate repulsion via WSPD
          */
@@ -193,29 +289,46 @@ public abstract class FRWSPD<V, E> extends FRLayoutNoMapsNoFrame<V, E> implement
     		recomputeSplitTreeAndWSPD();
     	}
     	else{
-    		for(SplitTree<V> st: splitTree){
-    			st.resetRepulsiveForceOfAllSplitTreeNodes();
-    		}
+    		forEachComponent(i -> splitTree[i].resetRepulsiveForceOfAllSplitTreeNodes());
     	}
 		if(currentIteration%intervalForLeavingOutCalculationOfRepulsiveForces!=0){ //In some iteartions no repulsive forces are computed
-			//2. Calc repulsive forces by going throug all WSPD-pairs
-	        while(true) {
-	            try {
-	            	for(int i=0; i<wspd.length; i++){
-		                for(SplitTreeNode<V>[] paar: wspd[i].getWellSeparatedPairs()) {
-		                	calcAndRecordRepulsiveForces(paar, i);
-		                }
-	            	}
-	                break;
-	            } catch(ConcurrentModificationException cme) {}
-	        }
-	        //3. recored the calculated forces
-	        while(true) {
-	            try {
-	            	propagateRepulsiveForcesToLeaves();
-	                break;
-	            } catch(ConcurrentModificationException cme) {}
-	        }
+			if(parallelForceComputation){
+				//2. and 3. for every component (concurrently) on an array-snapshot of its split tree and WSPD
+				forEachComponent(i -> calcAndRecordRepulsiveForcesInParallel(
+						new IndexedWellSeparatedPairDecomposition<V>(splitTree[i], wspd[i]), i));
+			}
+			else{
+				//2. Calc repulsive forces by going throug all WSPD-pairs
+	        	for(int i=0; i<wspd.length; i++){
+	                for(SplitTreeNode<V>[] paar: wspd[i].getWellSeparatedPairs()) {
+	                	calcAndRecordRepulsiveForces(paar, i);
+	                }
+	        	}
+		        //3. recored the calculated forces
+	        	propagateRepulsiveForcesToLeaves();
+			}
+		}
+	}
+	
+	/**
+	 * Builds the {@link ArraySplitTree}s with their well-separated pairs on the locations in
+	 * {@link FRLayoutNoMapsNoFrame#componentArrays} and computes the repulsive forces with them
+	 */
+	private void calcRepulsionWithArraySplitTrees(){
+		if(arraySplitTree==null || arraySplitTree.length!=componentArrays.length){
+			arraySplitTree = new ArraySplitTree[componentArrays.length];
+			for(int i=0; i<arraySplitTree.length; i++){
+				arraySplitTree[i] = new ArraySplitTree();
+			}
+		}
+		if(currentIteration%intervalForLeavingOutCalculationOfRepulsiveForces!=0){ //In some iteartions no repulsive forces are computed
+			iterationInWhichTheSplitTreeWasBuildNewLastTime = currentIteration;
+			forEachComponent(i -> {
+				FRComponentArrays<V> component = componentArrays[i];
+				arraySplitTree[i].build(component.x, component.y, component.size);
+				arraySplitTree[i].computeWellSeparatedPairs(sForTheWSPD);
+				calcAndRecordRepulsiveForces(arraySplitTree[i], i);
+			});
 		}
 	}
 	
@@ -225,7 +338,7 @@ public abstract class FRWSPD<V, E> extends FRLayoutNoMapsNoFrame<V, E> implement
 	 * has to be calculated.
 	 * The result has either to be recorded via {@link SplitTree#addRepulsiveForce(SplitTreeNode, double, double)}
 	 * in every {@link SplitTreeNode} and propageted via {@link FRWSPD#propagateRepulsiveForcesToLeaves()} afterwards
-	 * or to be written in for every vertex directly via {@link FRWSPD#recordRepulsion(Point2D, double, double)}.
+	 * or to be written in for every vertex directly via {@link FRWSPD#recordRepulsion(VertexTriple, double, double)}.
 	 * The first possibility should allow lying in a better running time class.
 	 * 
 	 * @param wsPair
@@ -245,6 +358,36 @@ public abstract class FRWSPD<V, E> extends FRLayoutNoMapsNoFrame<V, E> implement
 	 */
 	protected abstract void propagateRepulsiveForcesToLeaves();
 	
+	/**
+	 * This method has to be implemented by every non-abstract class inheriting from this class.
+	 * It is called instead of {@link FRWSPD#calcAndRecordRepulsiveForces(SplitTreeNode[], int)} and
+	 * {@link FRWSPD#propagateRepulsiveForcesToLeaves()} if {@link FRLayoutNoMapsNoFrame#isParallelForceComputation()},
+	 * once for every component (possibly for several components at the same time).
+	 * It has to record the same forces as these two methods, but may use several threads for that.
+	 * To have the same drawing as with one thread, the forces acting on one {@link SplitTreeNode} or vertex
+	 * should be summed up in the order of the pairs.
+	 * 
+	 * @param indexedWSPD
+	 * {@link SplitTree} and {@link WellSeparatedPairDecomposition} of the component
+	 * @param indexConnectedComponent
+	 */
+	protected abstract void calcAndRecordRepulsiveForcesInParallel(
+			IndexedWellSeparatedPairDecomposition<V> indexedWSPD, int indexConnectedComponent);
+	
+	/**
+	 * This method has to be implemented by every non-abstract class inheriting from this class.
+	 * It is called instead of {@link FRWSPD#calcAndRecordRepulsiveForces(SplitTreeNode[], int)} and
+	 * {@link FRWSPD#propagateRepulsiveForcesToLeaves()} if {@link FRWSPD#isArrayBackedSplitTree()},
+	 * once for every component (possibly for several components at the same time).
+	 * It has to add the repulsive forces of all pairs of the passed tree to the displacements in
+	 * {@link FRLayoutNoMapsNoFrame#componentArrays}.
+	 * 
+	 * @param tree
+	 * {@link ArraySplitTree} with well-separated pairs of the component
+	 * @param indexConnectedComponent
+	 */
+	protected abstract void calcAndRecordRepulsiveForces(ArraySplitTree tree, int indexConnectedComponent);
+	
 	/**
 	 * Recursive method to bring the calculated repulsive force recorded in {@link SplitTreeNode}s
 	 * to the {@link VertexTriple}s.
@@ -271,16 +414,39 @@ public abstract class FRWSPD<V, E> extends FRLayoutNoMapsNoFrame<V, E> implement
 		}
 	}
 	
+	/**
+	 * Same as {@link FRWSPD#propagateRecordedRepulsiveForceInTheSplitTree(SplitTreeNode, Point2D, int)} for the root,
+	 * but level by level and in parallel within each level.
+	 * 
+	 * @param indexedWSPD
+	 */
+	protected void propagateRecordedRepulsiveForceInTheSplitTreeInParallel(
+			IndexedWellSeparatedPairDecomposition<V> indexedWSPD){
+		double[] xSum = new double[indexedWSPD.nodes.length];
+		double[] ySum = new double[indexedWSPD.nodes.length];
+		for(int level=0; level<indexedWSPD.numberOfLevels; level++){
+			IntStream.range(indexedWSPD.levelStart[level], indexedWSPD.levelStart[level+1]).parallel().forEach(u -> {
+				int parent = indexedWSPD.parent[u];
+				xSum[u] = (parent<0 ? 0 : xSum[parent]) + indexedWSPD.nodes[u].repulsiveForce.getX();
+				ySum[u] = (parent<0 ? 0 : ySum[parent]) + indexedWSPD.nodes[u].repulsiveForce.getY();
+				if(indexedWSPD.isLeaf(u)){
+					recordRepulsion(indexedWSPD.nodes[u].getTriple(), xSum[u], ySum[u]);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Adds the passed offset to the displacement of the vertex of the passed triple in
+	 * {@link FRLayoutNoMapsNoFrame#componentArrays}
+	 * 
+	 * @param triple
+	 * @param xOffset
+	 * @param yOffset
+	 */
 	protected void recordRepulsion(VertexTriple<V> triple, double xOffset, double yOffset){
-		Point2D fvd = triple.get3(); //FRData from v
-        if(fvd == null){ //Why? I can not say. It is taken from FRLayout. To see cases this occurs -> console output
-        	System.out.println("fvd == null in FRLayoutMitWSPD, please check!\n\r"+Thread.currentThread().getStackTrace()[1]);
-        	return;
-        }
-        try {
-        	fvd.setLocation(fvd.getX()+xOffset, fvd.getY()+yOffset);
-        } catch(ConcurrentModificationException cme) {
-        	recordRepulsion(triple, xOffset, yOffset);
-        }
+		FRComponentArrays<V> component = componentArrays[triple.getComponentIndex()];
+		component.dx[triple.getIndex()] += xOffset;
+		component.dy[triple.getIndex()] += yOffset;
 	}
 }
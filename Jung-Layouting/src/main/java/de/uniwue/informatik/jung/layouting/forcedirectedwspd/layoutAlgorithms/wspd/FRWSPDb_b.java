@@ -1,11 +1,15 @@
 package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd;
 
 import edu.uci.ics.jung.graph.Graph;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRComponentArrays;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.ArraySplitTree;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.IndexedWellSeparatedPairDecomposition;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.SplitTreeNode;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.WellSeparatedPairDecomposition;
 
 import java.awt.*;
 import java.awt.geom.Point2D;
+import java.util.stream.IntStream;
 
 /**
  * <u>FR</u>+<u>WSPD</u> with repulsive forces between <u>b</u>arycenter-<u>b</u>arycenter
@@ -44,11 +48,27 @@ public class FRWSPDb_b<V, E> extends FRWSPD<V, E> {
         	barycenter[i] = splitTree[indexConnectedComponent].getBarycenter(wsPair[i]);
         	sizeOfThePointSet[i] = splitTree[indexConnectedComponent].getSizeOfTheTripleSetInTheSubtreeBelow(wsPair[i]);
     	}
+    	double[] xOffset = new double[2];
+    	double[] yOffset = new double[2];
+    	calcRepulsiveForces(barycenter[0].getX(), barycenter[0].getY(), sizeOfThePointSet[0],
+    			barycenter[1].getX(), barycenter[1].getY(), sizeOfThePointSet[1], xOffset, yOffset, 0);
+    	for(int i=0; i<wsPair.length; i++){
+    		splitTree[indexConnectedComponent].addRepulsiveForce(wsPair[i], xOffset[i], yOffset[i]);
+    	}
+	}
+	
+	/**
+	 * Computes the repulsive forces between the two pair-parts with the passed barycenters and sizes and
+	 * saves them for the first part at index entry and for the second part at index entry+1
+	 */
+	private void calcRepulsiveForces(double x0, double y0, int size0, double x1, double y1, int size1,
+			double[] xOffset, double[] yOffset, int entry){
+		int[] sizeOfThePointSet = {size0, size1};
 		//deltaX and deltaY as distance between the 2 barycenters in x- and y-dimension
-    	double xDelta = barycenter[0].getX() - barycenter[1].getX();
-    	double yDelta = barycenter[0].getY() - barycenter[1].getY();
+    	double xDelta = x0 - x1;
+    	double yDelta = y0 - y1;
 
-    	double distance = Point2D.distance(barycenter[0].getX(), barycenter[0].getY(), barycenter[1].getX(), barycenter[1].getY());
+    	double distance = Point2D.distance(x0, y0, x1, y1);
         double deltaLength = Math.max(EPSILON, distance);
         
         double force = (repulsion_constant * repulsion_constant) / deltaLength;                	
@@ -56,10 +76,9 @@ public class FRWSPDb_b<V, E> extends FRWSPD<V, E> {
         if (Double.isNaN(force)) { throw new RuntimeException(
                 "Unexpected mathematical result in FRLayout:calcPositions [repulsion]"); }
         
-    	for(int i=0; i<wsPair.length; i++){
-    		double xOffset = (xDelta / deltaLength) * force * sizeOfThePointSet[1-i];
-    		double yOffset = (yDelta / deltaLength) * force * sizeOfThePointSet[1-i];
-    		splitTree[indexConnectedComponent].addRepulsiveForce(wsPair[i], xOffset, yOffset);
+    	for(int i=0; i<2; i++){
+    		xOffset[entry+i] = (xDelta / deltaLength) * force * sizeOfThePointSet[1-i];
+    		yOffset[entry+i] = (yDelta / deltaLength) * force * sizeOfThePointSet[1-i];
     		
         	xDelta = -xDelta; //xDelta and yDelta must be multiplied by -1 when i=1 (2nd pair-part)
         	yDelta = -yDelta; //in order to switch signs (both forces acting away from the other, thus opposite direction)
@@ -72,4 +91,65 @@ public class FRWSPDb_b<V, E> extends FRWSPD<V, E> {
 			propagateRecordedRepulsiveForceInTheSplitTree(splitTree[i].getRoot(), new Point2D.Double(0, 0), i);
 		}
 	}
+	
+	@Override
+	protected void calcAndRecordRepulsiveForcesInParallel(IndexedWellSeparatedPairDecomposition<V> indexedWSPD,
+			int indexConnectedComponent) {
+		//forces of all pairs
+		double[] xOffset = new double[indexedWSPD.pairNode.length];
+		double[] yOffset = new double[indexedWSPD.pairNode.length];
+		IntStream.range(0, indexedWSPD.numberOfPairs).parallel().forEach(p -> {
+			int node0 = indexedWSPD.pairNode[2*p];
+			int node1 = indexedWSPD.pairNode[2*p+1];
+			calcRepulsiveForces(indexedWSPD.barycenterX[node0], indexedWSPD.barycenterY[node0],
+					indexedWSPD.sizeOfTheTripleSet[node0], indexedWSPD.barycenterX[node1], indexedWSPD.barycenterY[node1],
+					indexedWSPD.sizeOfTheTripleSet[node1], xOffset, yOffset, 2*p);
+		});
+		//every split tree node sums up its forces in the order of the pairs
+		IntStream.range(0, indexedWSPD.nodes.length).parallel().forEach(u -> {
+			if(indexedWSPD.nodeEntryStart[u] == indexedWSPD.nodeEntryStart[u+1]){
+				return;
+			}
+			Point2D repulsiveForce = indexedWSPD.nodes[u].repulsiveForce;
+			double xSum = repulsiveForce.getX();
+			double ySum = repulsiveForce.getY();
+			for(int i=indexedWSPD.nodeEntryStart[u]; i<indexedWSPD.nodeEntryStart[u+1]; i++){
+				xSum += xOffset[indexedWSPD.nodeEntry[i]];
+				ySum += yOffset[indexedWSPD.nodeEntry[i]];
+			}
+			repulsiveForce.setLocation(xSum, ySum);
+		});
+		
+		propagateRecordedRepulsiveForceInTheSplitTreeInParallel(indexedWSPD);
+	}
+	
+	@Override
+	protected void calcAndRecordRepulsiveForces(ArraySplitTree tree, int indexConnectedComponent) {
+		FRComponentArrays<V> component = componentArrays[indexConnectedComponent];
+		double[] xOffset = new double[2];
+		double[] yOffset = new double[2];
+		for(int p=0; p<tree.numberOfPairs; p++){
+			int node0 = tree.pairNode[2*p];
+			int node1 = tree.pairNode[2*p+1];
+			calcRepulsiveForces(tree.barycenterX[node0], tree.barycenterY[node0], tree.getSizeOfThePointSet(node0),
+					tree.barycenterX[node1], tree.barycenterY[node1], tree.getSizeOfThePointSet(node1),
+					xOffset, yOffset, 0);
+			tree.repulsiveForceX[node0] += xOffset[0];
+			tree.repulsiveForceY[node0] += yOffset[0];
+			tree.repulsiveForceX[node1] += xOffset[1];
+			tree.repulsiveForceY[node1] += yOffset[1];
+		}
+		//propagate downwards: parents are numbered before their children
+		for(int u=0; u<tree.numberOfNodes; u++){
+			if(tree.parent[u]>=0){
+				tree.repulsiveForceX[u] += tree.repulsiveForceX[tree.parent[u]];
+				tree.repulsiveForceY[u] += tree.repulsiveForceY[tree.parent[u]];
+			}
+			if(tree.isLeaf(u)){
+				int v = tree.point[tree.start[u]];
+				component.dx[v] += tree.repulsiveForceX[u];
+				component.dy[v] += tree.repulsiveForceY[u];
+			}
+		}
+	}
 }
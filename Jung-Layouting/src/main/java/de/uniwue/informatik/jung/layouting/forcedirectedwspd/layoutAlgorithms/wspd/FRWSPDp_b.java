@@ -1,12 +1,17 @@
 package de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd;
 
 import edu.uci.ics.jung.graph.Graph;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRComponentArrays;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.VertexTriple;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.ArraySplitTree;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.IndexedWellSeparatedPairDecomposition;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.SplitTreeNode;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd.WellSeparatedPairDecomposition;
 
 import java.awt.*;
 import java.awt.geom.Point2D;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 /**
  * <u>FR</u>+<u>WSPD</u> with repulsive forces between <u>p</u>oint-<u>b</u>arycenter
@@ -47,32 +52,106 @@ public class FRWSPDp_b<V, E> extends FRWSPD<V, E> {
     	}
     	
         
+    	double[] offset = new double[2];
     	for(int i=0; i<wsPair.length; i++){
     		
         	for(VertexTriple<V> triple: splitTree[indexConnectedComponent].getTripleSetInTheSubtreeBelow(wsPair[i])){
-        		//deltaX and deltaY as distance between point and barycenter of the other pair-part in x- and y-dimension
-            	double xDelta = triple.get2().getX() - barycenter[1-i].getX();
-            	double yDelta = triple.get2().getY() - barycenter[1-i].getY();
-
-            	double distance = Point2D.distance(triple.get2().getX(), triple.get2().getY(), barycenter[1-i].getX(), barycenter[1-i].getY());
-                double deltaLength = Math.max(EPSILON, distance);
-                
-                double force = (repulsion_constant * repulsion_constant) / deltaLength;                	
-            	
-                if (Double.isNaN(force)) { throw new RuntimeException(
-                        "Unexpected mathematical result in FRLayout:calcPositions [repulsion]"); }
-        		
+        		calcRepulsiveForce(triple.get2().getX(), triple.get2().getY(), barycenter[1-i].getX(), barycenter[1-i].getY(),
+        				sizeOfThePointSet[1-i], offset);
         		
-        		double xOffset = (xDelta / deltaLength) * force * sizeOfThePointSet[1-i];
-        		double yOffset = (yDelta / deltaLength) * force * sizeOfThePointSet[1-i];
-        		
-        		recordRepulsion(triple, xOffset, yOffset);
+        		recordRepulsion(triple, offset[0], offset[1]);
         	}
         }
 	}
+	
+	/**
+	 * Computes the repulsive force between the point (x, y) and the pair-part with the passed barycenter and size
+	 * and saves it in offset
+	 */
+	private void calcRepulsiveForce(double x, double y, double barycenterX, double barycenterY, int sizeOfThePointSet,
+			double[] offset){
+		//deltaX and deltaY as distance between point and barycenter of the other pair-part in x- and y-dimension
+    	double xDelta = x - barycenterX;
+    	double yDelta = y - barycenterY;
+
+    	double distance = Point2D.distance(x, y, barycenterX, barycenterY);
+        double deltaLength = Math.max(EPSILON, distance);
+        
+        double force = (repulsion_constant * repulsion_constant) / deltaLength;                	
+    	
+        if (Double.isNaN(force)) { throw new RuntimeException(
+                "Unexpected mathematical result in FRLayout:calcPositions [repulsion]"); }
+		
+		
+		offset[0] = (xDelta / deltaLength) * force * sizeOfThePointSet;
+		offset[1] = (yDelta / deltaLength) * force * sizeOfThePointSet;
+	}
 
 	@Override
 	protected void propagateRepulsiveForcesToLeaves() {
 		//do nothing; forces to every point were already recorded/stored after their computation
 	}
+	
+	@Override
+	protected void calcAndRecordRepulsiveForcesInParallel(IndexedWellSeparatedPairDecomposition<V> indexedWSPD,
+			int indexConnectedComponent) {
+		FRComponentArrays<V> component = componentArrays[indexConnectedComponent];
+		/*
+		 * Every leaf (vertex) gets the forces of all pairs that have one of its ancestors (or itself) as pair-part.
+		 * It sums them up in the order of the pairs.
+		 */
+		IntStream.range(0, indexedWSPD.nodes.length).parallel().forEach(leaf -> {
+			if(!indexedWSPD.isLeaf(leaf)){
+				return;
+			}
+			int numberOfEntries = 0;
+			for(int u=leaf; u>=0; u=indexedWSPD.parent[u]){
+				numberOfEntries += indexedWSPD.nodeEntryStart[u+1] - indexedWSPD.nodeEntryStart[u];
+			}
+			if(numberOfEntries == 0){
+				return;
+			}
+			int[] entries = new int[numberOfEntries];
+			numberOfEntries = 0;
+			for(int u=leaf; u>=0; u=indexedWSPD.parent[u]){
+				for(int i=indexedWSPD.nodeEntryStart[u]; i<indexedWSPD.nodeEntryStart[u+1]; i++){
+					entries[numberOfEntries++] = indexedWSPD.nodeEntry[i];
+				}
+			}
+			Arrays.sort(entries);
+			
+			int v = indexedWSPD.nodes[leaf].getTriple().getIndex();
+			double xSum = component.dx[v];
+			double ySum = component.dy[v];
+			double[] offset = new double[2];
+			for(int entry: entries){
+				int otherPart = indexedWSPD.pairNode[entry ^ 1];
+				calcRepulsiveForce(component.x[v], component.y[v], indexedWSPD.barycenterX[otherPart],
+						indexedWSPD.barycenterY[otherPart], indexedWSPD.sizeOfTheTripleSet[otherPart], offset);
+				xSum += offset[0];
+				ySum += offset[1];
+			}
+			component.dx[v] = xSum;
+			component.dy[v] = ySum;
+		});
+	}
+	
+	@Override
+	protected void calcAndRecordRepulsiveForces(ArraySplitTree tree, int indexConnectedComponent) {
+		FRComponentArrays<V> component = componentArrays[indexConnectedComponent];
+		double[] offset = new double[2];
+		for(int p=0; p<tree.numberOfPairs; p++){
+			for(int i=0; i<2; i++){
+				int part = tree.pairNode[2*p+i];
+				int otherPart = tree.pairNode[2*p+1-i];
+				for(int k=tree.start[part]; k<tree.end[part]; k++){
+					int v = tree.point[k];
+					calcRepulsiveForce(component.x[v], component.y[v], tree.barycenterX[otherPart],
+							tree.barycenterY[otherPart], tree.getSizeOfThePointSet(otherPart), offset);
+					component.dx[v] += offset[0];
+					component.dy[v] += offset[1];
+				}
+			}
+		}
+	}
 }
@@ -66,6 +66,25 @@ public interface LayoutWithWSPD<V> {
 	 */
 	public void recomputeWSPD();
 	
+	/**
+	 * Updates bounding rectangles and barycenters in the {@link SplitTree} currently in use
+	 * and after that the {@link WellSeparatedPairDecomposition} via {@link WellSeparatedPairDecomposition#update(int)}:
+	 * Only the pairs that are no longer well-separated are split (or merged) again.
+	 * As with {@link LayoutWithWSPD#recomputeWSPD()} the {@link SplitTree} itself is not built new.
+	 * <p>
+	 * If in a {@link WellSeparatedPairDecomposition} more than the passed fraction of its pairs is not well-separated
+	 * any more, that {@link WellSeparatedPairDecomposition} is left unchanged and false is returned.
+	 * False is also returned if the number of pairs has grown by more than that fraction
+	 * since the {@link WellSeparatedPairDecomposition} was computed new.
+	 * Then {@link SplitTree} and {@link WellSeparatedPairDecomposition} should be computed new, i.e.
+	 * a {@link RecomputationOfSplitTreeAndWSPDFunction} calling that method should return true.
+	 * 
+	 * @param maximumFractionOfInvalidatedPairs
+	 * @return
+	 * true if all {@link WellSeparatedPairDecomposition}s were updated
+	 */
+	public boolean updateSplitTreeAndWSPDIncrementally(double maximumFractionOfInvalidatedPairs);
+	
 	public double getSForTheWSPD();
 	
 	public int getIterationInWhichTheSplitTreeWasBuildNewLastTime();
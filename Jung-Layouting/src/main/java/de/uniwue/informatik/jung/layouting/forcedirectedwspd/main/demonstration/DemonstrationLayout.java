@@ -66,6 +66,8 @@ public class DemonstrationLayout<V,E> implements Layout<V,E>, IterativeContext,
 		long cpuStartTime = ManagementFactory.getThreadMXBean().getCurrentThreadCpuTime();
 		
 		referencedLayout.initialize();
+		//the locations of every iteration are read
+		referencedLayout.setWriteLocationsToVertexTriplesEveryIteration(true);
 		while(true){
 			/*
 			 * Read all point-locations, scale and save
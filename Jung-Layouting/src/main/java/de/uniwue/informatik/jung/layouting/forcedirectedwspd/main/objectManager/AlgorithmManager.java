@@ -10,6 +10,7 @@ import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FR
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRLayoutNoMapsNoFrame;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRLayoutNoMapsNoFrameAlwaysRep;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.multilevel.*;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.quadtree.FRFastMultipole;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.quadtree.FRQuadtree;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd.FRWSPDb_b;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd.FRWSPDp_b;
@@ -45,6 +46,7 @@ public class AlgorithmManager extends Manager<AlgorithmReference>{
 		 *  - without maps and frame and with grid
 		 *  - without maps and frame and with WSPD (in 2 variants)
 		 *  - without maps and frame and with Quadtree
+		 *  - without maps and frame and with fast multipole method
 		 */
 		algorithmsToBeAdded.add(new AlgorithmReference(FRLayout.class));
 		algorithmsToBeAdded.add(new AlgorithmReference(FRLayoutNoMaps.class));
@@ -54,6 +56,7 @@ public class AlgorithmManager extends Manager<AlgorithmReference>{
 		algorithmsToBeAdded.add(new AlgorithmReference(FRWSPDp_b.class));
 		algorithmsToBeAdded.add(new AlgorithmReference(FRWSPDb_b.class));
 		algorithmsToBeAdded.add(new AlgorithmReference(FRQuadtree.class));
+		algorithmsToBeAdded.add(new AlgorithmReference(FRFastMultipole.class));
 		/*
 		 * FRLayout2 in these Variations:
 		 *  - original Jung
@@ -75,6 +78,7 @@ public class AlgorithmManager extends Manager<AlgorithmReference>{
 		algorithmsToBeAdded.add(new AlgorithmReference(FRWSPDp_bMultiLevel.class));
 		algorithmsToBeAdded.add(new AlgorithmReference(FRWSPDb_bMultiLevel.class));
 		algorithmsToBeAdded.add(new AlgorithmReference(FRQuadtreeMultiLevel.class));
+		algorithmsToBeAdded.add(new AlgorithmReference(FRFastMultipoleMultiLevel.class));
 		algorithmsToBeAdded.add(new AlgorithmReference(KKLayoutMultiLevel.class));
 		
 		//read all class names and use them as object-names
@@ -6,7 +6,9 @@ import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.jungmodify.FRL
 import edu.uci.ics.jung.algorithms.layout.KKLayout;
 import edu.uci.ics.jung.graph.Graph;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.AlgorithmType;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.multilevel.FRFastMultipoleMultiLevel;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.multilevel.FRQuadtreeMultiLevel;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.quadtree.FRFastMultipole;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.quadtree.FRQuadtree;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd.LayoutWithWSPD;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.main.io.cPlusPlus.CPlusPlusExternLayout;
@@ -71,7 +73,9 @@ public class AlgorithmReference {
 		if(LayoutWithWSPD.class.isAssignableFrom(layoutClass)){
 			this.algorithmType = AlgorithmType.WITH_WSPD;
 		}
-		else if(FRQuadtree.class.isAssignableFrom(layoutClass) || FRQuadtreeMultiLevel.class.isAssignableFrom(layoutClass)){
+		else if(FRQuadtree.class.isAssignableFrom(layoutClass) || FRQuadtreeMultiLevel.class.isAssignableFrom(layoutClass)
+				|| FRFastMultipole.class.isAssignableFrom(layoutClass)
+				|| FRFastMultipoleMultiLevel.class.isAssignableFrom(layoutClass)){
 			this.algorithmType = AlgorithmType.WITH_QUADTREE;
 		}
 		else if(CPlusPlusExternLayout.class.isAssignableFrom(layoutClass)){
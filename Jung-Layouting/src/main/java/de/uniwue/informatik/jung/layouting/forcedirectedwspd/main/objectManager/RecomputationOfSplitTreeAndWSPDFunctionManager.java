@@ -1,5 +1,6 @@
 package de.uniwue.informatik.jung.layouting.forcedirectedwspd.main.objectManager;
 
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd.AdaptiveRecomputationOfSplitTreeAndWSPDFunction;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd.LayoutWithWSPD;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd.RecomputationOfSplitTreeAndWSPDFunction;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.Tuple;
@@ -131,6 +132,15 @@ public class RecomputationOfSplitTreeAndWSPDFunctionManager extends Manager<Reco
 					}, "When 1 ws-pair not well-sparated w.r. to s*"+c+" new, else update barycenters");
 		}
 		
+		/*
+		 * Update SplitTree and WSPD incrementally (only the pairs not being well-separated any more are split again)
+		 * and compute both new as soon as more than a fraction c of the pairs is not well-separated any more
+		 */
+		for(double c: new double[]{0.01, 0.05, 0.2}){
+			super.addToObjectList(new AdaptiveRecomputationOfSplitTreeAndWSPDFunction(c),
+					"When more than "+c+" of the ws-pairs not well-separated new, else update them");
+		}
+		
 		
 		
 		
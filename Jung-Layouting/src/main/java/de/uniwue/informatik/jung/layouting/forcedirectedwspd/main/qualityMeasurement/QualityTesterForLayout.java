@@ -5,8 +5,8 @@ import edu.uci.ics.jung.algorithms.shortestpath.DijkstraDistance;
 import edu.uci.ics.jung.graph.util.Pair;
 
 import java.awt.geom.Point2D;
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.*;
+import java.util.stream.IntStream;
 
 /**
  * Passed {@link Layout} is interpreted as a straight-line drawing.
@@ -31,6 +31,17 @@ public class QualityTesterForLayout<V, E> {
 	 * number of edge crossings in a straight line drawing
 	 */
 	private int numberOfCrossings = -1;
+	/**
+	 * if true, {@link QualityTesterForLayout#calculateNumberOfEdgeCrossings()} distributes the pairs of edges to be
+	 * tested over the common fork-join pool
+	 */
+	private boolean parallelCrossingCounting = false;
+	
+	/**
+	 * bounding boxes of edges are enlarged by this factor times the largest absolute coordinate when putting them
+	 * into the grid, s.t. rounding errors in ccw() cannot make us miss a pair of touching edges
+	 */
+	private static final double GRID_TOLERANCE = 1e-9;
 	
 	
 	
@@ -54,6 +65,14 @@ public class QualityTesterForLayout<V, E> {
 	public Layout<V, E> getLayout() {
 		return layout;
 	}
+
+	public boolean isParallelCrossingCounting() {
+		return parallelCrossingCounting;
+	}
+
+	public void setParallelCrossingCounting(boolean parallelCrossingCounting) {
+		this.parallelCrossingCounting = parallelCrossingCounting;
+	}
 	
 	/*
 	 * ===== *
@@ -315,85 +334,185 @@ public class QualityTesterForLayout<V, E> {
 	}
 	
 	
+	/**
+	 * Edges are compared as straight-line segments.
+	 * Only pairs of edges whose bounding boxes share a cell of a uniform grid are tested, which takes roughly linear
+	 * time (plus the number of pairs of close edges) for drawings whose edges are spread over the plane.
+	 * The coordinates of the endpoints are read from the layout once and cached in arrays.
+	 * Two edges cross if they intersect, unless they have a common endpoint and do not lie on each other in the same
+	 * direction from it.
+	 * The result is the same as when testing all pairs of edges.
+	 */
 	public void calculateNumberOfEdgeCrossings(){
-		numberOfCrossings = 0; //to count correct set from -1 to 0
-		//1. find all crossings between pairs of edges (indices i and j to not consider the same pair again or itsself as pair)
+		Collection<E> edges = layout.getGraph().getEdges();
+		int n = edges.size();
+		if(n<2){
+			numberOfCrossings = 0;
+			return;
+		}
+
+		//1. cache the endpoints; vertices are compared by identity as in the quadratic version
+		double[] x1 = new double[n];
+		double[] y1 = new double[n];
+		double[] x2 = new double[n];
+		double[] y2 = new double[n];
+		int[] v1 = new int[n];
+		int[] v2 = new int[n];
+		Map<V, Integer> vertexIds = new IdentityHashMap<V, Integer>();
+		double maxAbsCoordinate = 0;
 		int i = 0;
-		for(E e1: layout.getGraph().getEdges()){
-			V v1_1 = layout.getGraph().getEndpoints(e1).getFirst();
-			V v1_2 = layout.getGraph().getEndpoints(e1).getSecond();
-			Point2D p1_1 = layout.apply(v1_1);
-			Point2D p1_2 = layout.apply(v1_2);
-			
-			int j=0;
-			for(E e2: layout.getGraph().getEdges()){
-				
-				if(j>i){
-					V v2_1 = layout.getGraph().getEndpoints(e2).getFirst();
-					V v2_2 = layout.getGraph().getEndpoints(e2).getSecond();
-					
-					Point2D p2_1 = layout.apply(v2_1);
-					Point2D p2_2 = layout.apply(v2_2);
-					
-					/*
-					 * if the two edges have a common endpoint and do not lie on each other
-					 * then skip (no crossing being considered) -> catch that case.
-					 * But if those two neigboured edges are lying on each other (one is contained completely by the other)
-					 * then all 4 points lie on the same line.
-					 * But then also check that these points go in the same direction from the common endpoint,
-					 * otherwise there is no crossing counted
-					 */
-					if(		   v1_1==v2_1 && ( ccw(p1_1, p1_2, p2_2)!=0
-								|| ( Math.signum(p1_2.getX()-p1_1.getX())-Math.signum(p2_2.getX()-p1_1.getX())==0
-								  && Math.signum(p1_2.getY()-p1_1.getY())-Math.signum(p2_2.getY()-p1_1.getY())==0 ) )
-								  
-							|| v1_1==v2_2 && ( ccw(p1_1, p1_2, p2_1)!=0
-								|| ( Math.signum(p1_2.getX()-p1_1.getX())-Math.signum(p2_1.getX()-p1_1.getX())==0
-								  && Math.signum(p1_2.getY()-p1_1.getY())-Math.signum(p2_1.getY()-p1_1.getY())==0 ) )
-								  
-							|| v1_2==v2_1 && ( ccw(p1_1, p1_2, p2_2)!=0
-								|| ( Math.signum(p1_1.getX()-p1_2.getX())-Math.signum(p2_2.getX()-p1_2.getX())==0
-								  && Math.signum(p1_1.getY()-p1_2.getY())-Math.signum(p2_2.getY()-p1_2.getY())==0 ) )
-								  
-							|| v1_2==v2_2 && ( ccw(p1_1, p1_2, p2_1)!=0
-								|| ( Math.signum(p1_1.getX()-p1_2.getX())-Math.signum(p2_1.getX()-p1_2.getX())==0
-								  && Math.signum(p1_1.getY()-p1_2.getY())-Math.signum(p2_1.getY()-p1_2.getY())==0 ) )
-							){
-						continue;
-					}
-					
-					/*
-					 * That way it is checked if 2 line segments intersect.
-					 * This method is taken from
-					 * http://www.imn.htwk-leipzig.de/~medocpro/buecher/sedge1/k24t3.html
-					 */
-					if(ccw(p1_1,p1_2,p2_1)*ccw(p1_1,p1_2,p2_2)<=0 && (ccw(p2_1,p2_2,p1_1)*ccw(p2_1,p2_2,p1_2)<=0)){
-						numberOfCrossings++;
-					}
+		for(E e: edges){
+			Pair<V> endpoints = layout.getGraph().getEndpoints(e);
+			v1[i] = vertexIds.computeIfAbsent(endpoints.getFirst(), v -> vertexIds.size());
+			v2[i] = vertexIds.computeIfAbsent(endpoints.getSecond(), v -> vertexIds.size());
+			Point2D p1 = layout.apply(endpoints.getFirst());
+			Point2D p2 = layout.apply(endpoints.getSecond());
+			x1[i] = p1.getX();
+			y1[i] = p1.getY();
+			x2[i] = p2.getX();
+			y2[i] = p2.getY();
+			for(double coordinate: new double[]{x1[i], y1[i], x2[i], y2[i]}){
+				if(Double.isFinite(coordinate)){
+					maxAbsCoordinate = Math.max(maxAbsCoordinate, Math.abs(coordinate));
 				}
-				j++;
 			}
 			i++;
 		}
+
+		//2. uniform grid over the bounding boxes; cell size = average extent of an edge
+		double sumOfExtents = 0;
+		int numberOfFiniteEdges = 0;
+		for(i=0; i<n; i++){
+			double extent = Math.max(Math.abs(x2[i]-x1[i]), Math.abs(y2[i]-y1[i]));
+			if(Double.isFinite(extent)){
+				sumOfExtents += extent;
+				numberOfFiniteEdges++;
+			}
+		}
+		double cellSize = sumOfExtents>0 ? sumOfExtents/numberOfFiniteEdges : 1;
+		double tolerance = GRID_TOLERANCE*maxAbsCoordinate + Double.MIN_NORMAL;
+		int[] fromX = new int[n];
+		int[] fromY = new int[n];
+		//edges that would occupy too many cells (or have non-finite coordinates) are tested against all others
+		boolean[] isUnbounded = new boolean[n];
+		List<Integer> unboundedEdges = new ArrayList<Integer>();
+		Map<Long, List<Integer>> grid = new HashMap<Long, List<Integer>>();
+		for(i=0; i<n; i++){
+			double minX = Math.floor((Math.min(x1[i], x2[i])-tolerance)/cellSize);
+			double maxX = Math.floor((Math.max(x1[i], x2[i])+tolerance)/cellSize);
+			double minY = Math.floor((Math.min(y1[i], y2[i])-tolerance)/cellSize);
+			double maxY = Math.floor((Math.max(y1[i], y2[i])+tolerance)/cellSize);
+			double numberOfCells = (maxX-minX+1)*(maxY-minY+1);
+			if(!(numberOfCells<=n) || Math.abs(minX)>Integer.MAX_VALUE/2 || Math.abs(maxX)>Integer.MAX_VALUE/2
+					|| Math.abs(minY)>Integer.MAX_VALUE/2 || Math.abs(maxY)>Integer.MAX_VALUE/2){
+				isUnbounded[i] = true;
+				unboundedEdges.add(i);
+				continue;
+			}
+			fromX[i] = (int) minX;
+			fromY[i] = (int) minY;
+			for(int x=fromX[i]; x<=(int) maxX; x++){
+				for(int y=fromY[i]; y<=(int) maxY; y++){
+					grid.computeIfAbsent(((long) x << 32) | (y & 0xffffffffL), k -> new ArrayList<Integer>()).add(i);
+				}
+			}
+		}
+
+		//3. test the pairs of edges sharing a cell (each pair only in the first cell shared by both)
+		long[] cellKeys = new long[grid.size()];
+		int[][] cellContents = new int[grid.size()][];
+		int c = 0;
+		for(Map.Entry<Long, List<Integer>> cell: grid.entrySet()){
+			cellKeys[c] = cell.getKey();
+			//indices are added in increasing order, so i < j as in the quadratic version
+			cellContents[c] = cell.getValue().stream().mapToInt(Integer::intValue).toArray();
+			c++;
+		}
+		IntStream cells = IntStream.range(0, cellKeys.length);
+		IntStream unbounded = unboundedEdges.stream().mapToInt(Integer::intValue);
+		if(parallelCrossingCounting){
+			cells = cells.parallel();
+			unbounded = unbounded.parallel();
+		}
+		int counter = cells.map(cell -> {
+			int x = (int) (cellKeys[cell] >> 32);
+			int y = (int) cellKeys[cell];
+			int[] cellContent = cellContents[cell];
+			int crossingsInCell = 0;
+			for(int a=0; a<cellContent.length-1; a++){
+				for(int b=a+1; b<cellContent.length; b++){
+					int e1 = cellContent[a];
+					int e2 = cellContent[b];
+					if(x==Math.max(fromX[e1], fromX[e2]) && y==Math.max(fromY[e1], fromY[e2])
+							&& isCrossing(e1, e2, x1, y1, x2, y2, v1, v2)){
+						crossingsInCell++;
+					}
+				}
+			}
+			return crossingsInCell;
+		}).sum();
+		counter += unbounded.map(e1 -> {
+			int crossingsOfEdge = 0;
+			for(int e2=0; e2<n; e2++){
+				//pairs of two unbounded edges only once
+				if(e2!=e1 && (!isUnbounded[e2] || e1<e2)
+						&& isCrossing(Math.min(e1, e2), Math.max(e1, e2), x1, y1, x2, y2, v1, v2)){
+					crossingsOfEdge++;
+				}
+			}
+			return crossingsOfEdge;
+		}).sum();
+		numberOfCrossings = counter;
 	}
-	
+
+	/**
+	 * Rules of {@link QualityTesterForLayout#calculateNumberOfEdgeCrossings()} for the pair of edges i < j.
+	 */
+	private static boolean isCrossing(int i, int j, double[] x1, double[] y1, double[] x2, double[] y2, int[] v1,
+			int[] v2){
+		//common endpoint and not lying on each other (or going in different directions) -> no crossing
+		if(		   v1[i]==v1[j] && ( ccw(x1[i], y1[i], x2[i], y2[i], x2[j], y2[j])!=0
+					|| ( Math.signum(x2[i]-x1[i])-Math.signum(x2[j]-x1[i])==0
+					  && Math.signum(y2[i]-y1[i])-Math.signum(y2[j]-y1[i])==0 ) )
+
+				|| v1[i]==v2[j] && ( ccw(x1[i], y1[i], x2[i], y2[i], x1[j], y1[j])!=0
+					|| ( Math.signum(x2[i]-x1[i])-Math.signum(x1[j]-x1[i])==0
+					  && Math.signum(y2[i]-y1[i])-Math.signum(y1[j]-y1[i])==0 ) )
+
+				|| v2[i]==v1[j] && ( ccw(x1[i], y1[i], x2[i], y2[i], x2[j], y2[j])!=0
+					|| ( Math.signum(x1[i]-x2[i])-Math.signum(x2[j]-x2[i])==0
+					  && Math.signum(y1[i]-y2[i])-Math.signum(y2[j]-y2[i])==0 ) )
+
+				|| v2[i]==v2[j] && ( ccw(x1[i], y1[i], x2[i], y2[i], x1[j], y1[j])!=0
+					|| ( Math.signum(x1[i]-x2[i])-Math.signum(x1[j]-x2[i])==0
+					  && Math.signum(y1[i]-y2[i])-Math.signum(y1[j]-y2[i])==0 ) )
+				){
+			return false;
+		}
+		return ccw(x1[i], y1[i], x2[i], y2[i], x1[j], y1[j])*ccw(x1[i], y1[i], x2[i], y2[i], x2[j], y2[j])<=0
+				&& ccw(x1[j], y1[j], x2[j], y2[j], x1[i], y1[i])*ccw(x1[j], y1[j], x2[j], y2[j], x2[i], y2[i])<=0;
+	}
+
 	/**
 	 * Function taken from:
 	 * http://www.imn.htwk-leipzig.de/~medocpro/buecher/sedge1/k24t3.html
 	 * 
-	 * @param p0
-	 * @param p1
-	 * @param p2
+	 * @param x0
+	 * @param y0
+	 * @param x1
+	 * @param y1
+	 * @param x2
+	 * @param y2
 	 * @return
 	 * 		It is returned if one is going clock-wise when travelling from p0 to p1 to p2 and back to p0
 	 * 		(return -1) or counter-clock-wise (return 1) or p0 and p1 and p2 lie on one line (return 0).
 	 */
-	private int ccw(Point2D p0, Point2D p1, Point2D p2) {
+	private static int ccw(double x0, double y0, double x1, double y1, double x2, double y2) {
 		double dx1,dx2,dy1,dy2;
-		dx1=p1.getX()-p0.getX();
-		dy1=p1.getY()-p0.getY();
-		dx2=p2.getX()-p0.getX();
-		dy2=p2.getY()-p0.getY();
+		dx1=x1-x0;
+		dy1=y1-y0;
+		dx2=x2-x0;
+		dy2=y2-y0;
 		if(dx1*dy2>dy1*dx2) return 1;
 		if(dx1*dy2<dy1*dx2) return -1;
 //		if(dx1*dy2==dy1*dx2) { //commented out because this is the only remaining possibility
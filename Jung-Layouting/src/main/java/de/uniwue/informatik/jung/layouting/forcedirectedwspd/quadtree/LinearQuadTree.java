@@ -0,0 +1,232 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.quadtree;
+
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.quadtree.FRQuadtree;
+
+import java.util.Arrays;
+
+/**
+ * Alternative to {@link QuadTree} working on primitive arrays
+ * (see {@link FRQuadtree#setArrayBackedQuadtree(boolean)}).
+ * <p>
+ * Instead of inserting the points one by one, the points (x[k], y[k]), 0 <= k < n, get a Morton code
+ * (the bits of their cell in a 2^{@link LinearQuadTree#MAX_DEPTH} x 2^{@link LinearQuadTree#MAX_DEPTH} grid over the
+ * bounding square interleaved), are sorted by it (radix sort) and the nodes are read off the sorted codes:
+ * The points of every node are consecutive, they are point[start[u]] to point[end[u]-1].
+ * Barycenters are aggregated bottom-up.
+ * So building needs O(n * {@link LinearQuadTree#MAX_DEPTH}) time.
+ * Only non-empty children are created. A node is a leaf if it contains one point or has depth
+ * {@link LinearQuadTree#MAX_DEPTH} (then its points share one cell).
+ * <p>
+ * The nodes are numbered level by level (breadth-first), so the children of u are
+ * firstChild[u] to firstChild[u]+numberOfChildren[u]-1 and have greater numbers than u.
+ * All arrays are reused when the tree is built again and only grow if necessary.
+ * The fields are only to be read from outside.
+ */
+public class LinearQuadTree {
+
+	public static final int MAX_DEPTH = 30;
+
+	public int numberOfPoints;
+	public int[] point = new int[0];
+	public long[] code = new long[0];
+
+	public int numberOfNodes;
+	public int[] start = new int[0];
+	public int[] end = new int[0];
+	public int[] firstChild = new int[0];
+	public int[] numberOfChildren = new int[0];
+	public int[] depth = new int[0];
+	public double[] sideLength = new double[0];
+	public double[] barycenterX = new double[0];
+	public double[] barycenterY = new double[0];
+
+	/*
+	 * buffers for the radix sort
+	 */
+	private int[] pointBuffer = new int[0];
+	private long[] codeBuffer = new long[0];
+	private final int[] digitCount = new int[257];
+
+
+	public boolean isLeaf(int u){
+		return numberOfChildren[u]==0;
+	}
+
+	public int getSizeOfThePointSet(int u){
+		return end[u]-start[u];
+	}
+
+	/**
+	 * Builds the quadtree for the points (x[k], y[k]), 0 <= k < n
+	 *
+	 * @param x
+	 * @param y
+	 * @param n
+	 */
+	public void build(double[] x, double[] y, int n){
+		numberOfPoints = n;
+		numberOfNodes = 0;
+		if(n==0){
+			return;
+		}
+		if(point.length<n){
+			point = new int[n];
+			code = new long[n];
+			pointBuffer = new int[n];
+			codeBuffer = new long[n];
+		}
+
+		//bounding square
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for(int k=0; k<n; k++){
+			minX = Math.min(minX, x[k]);
+			minY = Math.min(minY, y[k]);
+			maxX = Math.max(maxX, x[k]);
+			maxY = Math.max(maxY, y[k]);
+		}
+		double side = Math.max(maxX-minX, maxY-minY);
+		//cells per unit of length; all points in cell 0 if they are at one location
+		double scale = side>0 ? (1<<MAX_DEPTH)/side : 0;
+
+		//Morton codes, sorted
+		for(int k=0; k<n; k++){
+			point[k] = k;
+			code[k] = (spreadBits(cell(x[k], minX, scale)) << 1) | spreadBits(cell(y[k], minY, scale));
+		}
+		radixSort(n);
+
+		//nodes level by level
+		ensureNodeCapacity(1);
+		addNode(0, n, 0, side);
+		for(int u=0; u<numberOfNodes; u++){
+			if(end[u]-start[u]==1 || depth[u]==MAX_DEPTH){
+				firstChild[u] = -1;
+				numberOfChildren[u] = 0;
+				continue;
+			}
+			int shift = 2*(MAX_DEPTH-1-depth[u]);
+			firstChild[u] = numberOfNodes;
+			numberOfChildren[u] = 0;
+			int from = start[u];
+			while(from<end[u]){
+				long quadrant = (code[from]>>>shift) & 3;
+				int to = firstIndexWithGreaterQuadrant(from, end[u], shift, quadrant);
+				ensureNodeCapacity(numberOfNodes+1);
+				addNode(from, to, depth[u]+1, sideLength[u]/2);
+				++numberOfChildren[u];
+				from = to;
+			}
+		}
+
+		//barycenters bottom-up
+		for(int u=numberOfNodes-1; u>=0; u--){
+			double sumX = 0;
+			double sumY = 0;
+			if(isLeaf(u)){
+				for(int k=start[u]; k<end[u]; k++){
+					sumX += x[point[k]];
+					sumY += y[point[k]];
+				}
+			}
+			else{
+				for(int c=firstChild[u]; c<firstChild[u]+numberOfChildren[u]; c++){
+					sumX += barycenterX[c]*getSizeOfThePointSet(c);
+					sumY += barycenterY[c]*getSizeOfThePointSet(c);
+				}
+			}
+			barycenterX[u] = sumX/(double)getSizeOfThePointSet(u);
+			barycenterY[u] = sumY/(double)getSizeOfThePointSet(u);
+		}
+	}
+
+	private static long cell(double coordinate, double min, double scale){
+		double cell = (coordinate-min)*scale;
+		//also catches undefined coordinates (cell 0)
+		return Math.max(0, Math.min((1<<MAX_DEPTH)-1, (long) cell));
+	}
+
+	/**
+	 * Moves bit i of the passed value to bit 2i
+	 */
+	private static long spreadBits(long value){
+		value = (value | (value << 16)) & 0x0000FFFF0000FFFFL;
+		value = (value | (value << 8)) & 0x00FF00FF00FF00FFL;
+		value = (value | (value << 4)) & 0x0F0F0F0F0F0F0F0FL;
+		value = (value | (value << 2)) & 0x3333333333333333L;
+		value = (value | (value << 1)) & 0x5555555555555555L;
+		return value;
+	}
+
+	/**
+	 * Binary search in the sorted codes
+	 */
+	private int firstIndexWithGreaterQuadrant(int from, int to, int shift, long quadrant){
+		int low = from+1;
+		int high = to;
+		while(low<high){
+			int mid = (low+high)>>>1;
+			if(((code[mid]>>>shift) & 3) <= quadrant){
+				low = mid+1;
+			}
+			else{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Stable LSD radix sort of code[0..n-1] (and point alongside) by bytes
+	 */
+	private void radixSort(int n){
+		for(int shift=0; shift<2*MAX_DEPTH; shift+=8){
+			Arrays.fill(digitCount, 0);
+			for(int k=0; k<n; k++){
+				++digitCount[(int) ((code[k]>>>shift) & 0xFF)+1];
+			}
+			if(digitCount[(int) ((code[0]>>>shift) & 0xFF)+1]==n){
+				continue; //all have the same digit
+			}
+			for(int d=0; d<256; d++){
+				digitCount[d+1] += digitCount[d];
+			}
+			for(int k=0; k<n; k++){
+				int position = digitCount[(int) ((code[k]>>>shift) & 0xFF)]++;
+				codeBuffer[position] = code[k];
+				pointBuffer[position] = point[k];
+			}
+			long[] swapCode = code;
+			code = codeBuffer;
+			codeBuffer = swapCode;
+			int[] swapPoint = point;
+			point = pointBuffer;
+			pointBuffer = swapPoint;
+		}
+	}
+
+	private void addNode(int from, int to, int depthOfTheNode, double side){
+		start[numberOfNodes] = from;
+		end[numberOfNodes] = to;
+		depth[numberOfNodes] = depthOfTheNode;
+		sideLength[numberOfNodes] = side;
+		++numberOfNodes;
+	}
+
+	private void ensureNodeCapacity(int capacity){
+		if(start.length>=capacity){
+			return;
+		}
+		int newCapacity = Math.max(capacity, Math.max(16, 2*start.length));
+		start = Arrays.copyOf(start, newCapacity);
+		end = Arrays.copyOf(end, newCapacity);
+		firstChild = Arrays.copyOf(firstChild, newCapacity);
+		numberOfChildren = Arrays.copyOf(numberOfChildren, newCapacity);
+		depth = Arrays.copyOf(depth, newCapacity);
+		sideLength = Arrays.copyOf(sideLength, newCapacity);
+		barycenterX = Arrays.copyOf(barycenterX, newCapacity);
+		barycenterY = Arrays.copyOf(barycenterY, newCapacity);
+	}
+}
@@ -0,0 +1,406 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.quadtree;
+
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.quadtree.FRFastMultipole;
+
+import java.util.Arrays;
+
+/**
+ * {@link LinearQuadTree} with multipole and local expansions at its nodes for the fast multipole method
+ * (see {@link FRFastMultipole}).
+ * It follows "A fast algorithm for particle simulations" from Leslie Greengard and Vladimir Rokhlin
+ * in Journal of Computational Physics 73 from 1987, here for the repulsive forces
+ * factor * (p - q) / |p - q|^2 of the FR-algorithm.
+ * <p>
+ * Seen as complex numbers, the sum of these forces acting on z is the complex conjugate of
+ * factor * phi'(z) with phi(z) = sum of log(z - q) over all other points q.
+ * Every node u has an expansion of phi for its points around its barycenter (multipole expansion)
+ * and an expansion of phi for the points far away from u around its barycenter (local expansion),
+ * both with {@link MultipoleQuadTree#getPrecision()} coefficients.
+ * <p>
+ * The nodes with at most {@link MultipoleQuadTree#BUCKET_SIZE} points (and the leaves)
+ * are not subdivided further (bucket nodes).
+ * Two nodes A and B interact via their expansions if (r(A) + r(B)) / d(A, B) < theta,
+ * where r is the radius of the disk around the barycenter containing all points of a node and d is the distance
+ * of the barycenters; the points of two bucket nodes not satisfying this interact directly.
+ * That are O(n) interactions for points that are not extremely clustered.
+ * <p>
+ * All arrays are reused when the tree is built again and only grow if necessary.
+ */
+public class MultipoleQuadTree extends LinearQuadTree {
+
+	public static final int BUCKET_SIZE = 16;
+
+	private static final int INNER_NODE = 0;
+	private static final int BUCKET_NODE = 1;
+	private static final int IN_A_BUCKET_NODE = 2;
+
+	private int precision;
+	/**
+	 * binomial[n*(2*precision+1)+k] = n choose k
+	 */
+	private double[] binomial;
+
+	private int[] state = new int[0];
+	private double[] radius = new double[0];
+	/**
+	 * Coefficient k (1 <= k <= precision) of node u is at index u*precision+k-1.
+	 * The coefficient 0 of the multipole expansion is the number of points of u.
+	 * The coefficient 0 of the local expansion does not contribute to forces and is not stored.
+	 */
+	private double[] multipoleRe = new double[0];
+	private double[] multipoleIm = new double[0];
+	private double[] localRe = new double[0];
+	private double[] localIm = new double[0];
+	/**
+	 * Coefficients of one multipole expansion while converting it to a local expansion
+	 */
+	private double[] coefficientRe;
+	private double[] coefficientIm;
+
+	/**
+	 * Stack of pairs of nodes to be checked
+	 */
+	private int[] stack = new int[0];
+
+
+	/**
+	 * @param precision
+	 * 		number of coefficients of every expansion (apart from the 0-th); at least 1
+	 */
+	public MultipoleQuadTree(int precision) {
+		super();
+		if(precision<1){
+			throw new IllegalArgumentException("precision must be at least 1, but was " + precision);
+		}
+		this.precision = precision;
+		this.coefficientRe = new double[precision+1];
+		this.coefficientIm = new double[precision+1];
+		this.binomial = new double[(2*precision+1)*(2*precision+1)];
+		for(int n=0; n<=2*precision; n++){
+			binomial[n*(2*precision+1)] = 1;
+			for(int k=1; k<=n; k++){
+				binomial[n*(2*precision+1)+k] = binomial[(n-1)*(2*precision+1)+k-1]
+						+ (k<n ? binomial[(n-1)*(2*precision+1)+k] : 0);
+			}
+		}
+	}
+
+	public int getPrecision() {
+		return precision;
+	}
+
+	private double binomial(int n, int k){
+		return binomial[n*(2*precision+1)+k];
+	}
+
+	/**
+	 * Builds the tree for the points (x[k], y[k]), 0 <= k < n, and adds
+	 * factor * (p - q) / max(epsilon, |p - q|)^2 over all points q != p to (dx[k], dy[k]) for every point p = (x[k], y[k]).
+	 *
+	 * @param x
+	 * @param y
+	 * @param n
+	 * @param theta
+	 * @param factor
+	 * @param epsilon
+	 * @param dx
+	 * @param dy
+	 */
+	public void computeRepulsion(double[] x, double[] y, int n, double theta, double factor, double epsilon,
+			double[] dx, double[] dy){
+		build(x, y, n);
+		if(numberOfNodes==0){
+			return;
+		}
+		ensureExpansionCapacity();
+		computeStatesRadiiAndMultipoleExpansions(x, y);
+
+		//near field directly, far field into the local expansions
+		Arrays.fill(localRe, 0, numberOfNodes*precision, 0);
+		Arrays.fill(localIm, 0, numberOfNodes*precision, 0);
+		for(int u=0; u<numberOfNodes; u++){
+			if(state[u]==BUCKET_NODE){
+				addDirectRepulsionInside(x, y, u, factor, epsilon, dx, dy);
+			}
+			else if(state[u]==INNER_NODE){
+				for(int a=firstChild[u]; a<firstChild[u]+numberOfChildren[u]; a++){
+					for(int b=a+1; b<firstChild[u]+numberOfChildren[u]; b++){
+						interact(x, y, a, b, theta, factor, epsilon, dx, dy);
+					}
+				}
+			}
+		}
+
+		//local expansions top-down and evaluation at the points
+		for(int u=0; u<numberOfNodes; u++){
+			if(state[u]==INNER_NODE){
+				for(int c=firstChild[u]; c<firstChild[u]+numberOfChildren[u]; c++){
+					shiftLocalExpansion(u, c);
+				}
+			}
+			else if(state[u]==BUCKET_NODE){
+				for(int k=start[u]; k<end[u]; k++){
+					evaluateLocalExpansion(u, point[k], x, y, factor, dx, dy);
+				}
+			}
+		}
+	}
+
+	private void computeStatesRadiiAndMultipoleExpansions(double[] x, double[] y){
+		state[0] = isBucketNode(0) ? BUCKET_NODE : INNER_NODE;
+		for(int u=0; u<numberOfNodes; u++){
+			for(int c=firstChild[u]; c<firstChild[u]+numberOfChildren[u]; c++){
+				state[c] = state[u]!=INNER_NODE ? IN_A_BUCKET_NODE : isBucketNode(c) ? BUCKET_NODE : INNER_NODE;
+			}
+		}
+
+		//bottom-up (the children of u have greater numbers than u)
+		for(int u=numberOfNodes-1; u>=0; u--){
+			if(state[u]==IN_A_BUCKET_NODE){
+				continue;
+			}
+			Arrays.fill(multipoleRe, u*precision, (u+1)*precision, 0);
+			Arrays.fill(multipoleIm, u*precision, (u+1)*precision, 0);
+			radius[u] = 0;
+			if(state[u]==BUCKET_NODE){
+				for(int i=start[u]; i<end[u]; i++){
+					double tRe = x[point[i]]-barycenterX[u];
+					double tIm = y[point[i]]-barycenterY[u];
+					radius[u] = Math.max(radius[u], Math.sqrt(tRe*tRe + tIm*tIm));
+					//a_k -= t^k / k
+					double powerRe = tRe;
+					double powerIm = tIm;
+					for(int k=1; k<=precision; k++){
+						multipoleRe[u*precision+k-1] -= powerRe/k;
+						multipoleIm[u*precision+k-1] -= powerIm/k;
+						double re = powerRe*tRe - powerIm*tIm;
+						powerIm = powerRe*tIm + powerIm*tRe;
+						powerRe = re;
+					}
+				}
+			}
+			else{
+				for(int c=firstChild[u]; c<firstChild[u]+numberOfChildren[u]; c++){
+					double tRe = barycenterX[c]-barycenterX[u];
+					double tIm = barycenterY[c]-barycenterY[u];
+					radius[u] = Math.max(radius[u], Math.sqrt(tRe*tRe + tIm*tIm) + radius[c]);
+					shiftMultipoleExpansion(c, u, tRe, tIm);
+				}
+			}
+		}
+	}
+
+	private boolean isBucketNode(int u){
+		return isLeaf(u) || getSizeOfThePointSet(u)<=BUCKET_SIZE;
+	}
+
+	/**
+	 * Adds the multipole expansion of child c (center t relative to the center of u) to that of u:
+	 * b_l += -Q t^l / l + sum_{k=1}^{l} a_k t^(l-k) binomial(l-1, k-1)
+	 */
+	private void shiftMultipoleExpansion(int c, int u, double tRe, double tIm){
+		int q = getSizeOfThePointSet(c);
+		double powerRe = 1; //t^l
+		double powerIm = 0;
+		for(int l=1; l<=precision; l++){
+			double re = powerRe*tRe - powerIm*tIm;
+			powerIm = powerRe*tIm + powerIm*tRe;
+			powerRe = re;
+			double sumRe = -q*powerRe/l;
+			double sumIm = -q*powerIm/l;
+			//t^(l-k) for k = l, l-1, ..., 1
+			double pRe = 1;
+			double pIm = 0;
+			for(int k=l; k>=1; k--){
+				double aRe = multipoleRe[c*precision+k-1];
+				double aIm = multipoleIm[c*precision+k-1];
+				double bin = binomial(l-1, k-1);
+				sumRe += (aRe*pRe - aIm*pIm)*bin;
+				sumIm += (aRe*pIm + aIm*pRe)*bin;
+				re = pRe*tRe - pIm*tIm;
+				pIm = pRe*tIm + pIm*tRe;
+				pRe = re;
+			}
+			multipoleRe[u*precision+l-1] += sumRe;
+			multipoleIm[u*precision+l-1] += sumIm;
+		}
+	}
+
+	/**
+	 * Converts the multipole expansion of node s (center t relative to the center of u) and adds it to the
+	 * local expansion of u:
+	 * b_l += -Q / (l t^l) + (1 / t^l) sum_{k=1}^{precision} (a_k / t^k) binomial(l+k-1, k-1) (-1)^k
+	 */
+	private void addToLocalExpansion(int s, int u, double tRe, double tIm){
+		int q = getSizeOfThePointSet(s);
+		double norm = tRe*tRe + tIm*tIm;
+		double inverseRe = tRe/norm; //1/t
+		double inverseIm = -tIm/norm;
+		//c_k = a_k (-1)^k / t^k
+		double powerRe = 1; //(-1/t)^k
+		double powerIm = 0;
+		for(int k=1; k<=precision; k++){
+			double re = -(powerRe*inverseRe - powerIm*inverseIm);
+			powerIm = -(powerRe*inverseIm + powerIm*inverseRe);
+			powerRe = re;
+			double aRe = multipoleRe[s*precision+k-1];
+			double aIm = multipoleIm[s*precision+k-1];
+			coefficientRe[k] = aRe*powerRe - aIm*powerIm;
+			coefficientIm[k] = aRe*powerIm + aIm*powerRe;
+		}
+		powerRe = 1; //(1/t)^l
+		powerIm = 0;
+		for(int l=1; l<=precision; l++){
+			double re = powerRe*inverseRe - powerIm*inverseIm;
+			powerIm = powerRe*inverseIm + powerIm*inverseRe;
+			powerRe = re;
+			double sumRe = -q/(double) l;
+			double sumIm = 0;
+			for(int k=1; k<=precision; k++){
+				double bin = binomial(l+k-1, k-1);
+				sumRe += coefficientRe[k]*bin;
+				sumIm += coefficientIm[k]*bin;
+			}
+			localRe[u*precision+l-1] += sumRe*powerRe - sumIm*powerIm;
+			localIm[u*precision+l-1] += sumRe*powerIm + sumIm*powerRe;
+		}
+	}
+
+	/**
+	 * Adds the local expansion of u, shifted to the center of its child c, to the local expansion of c:
+	 * d_m += sum_{l=m}^{precision} b_l binomial(l, m) t^(l-m) with t the center of c relative to the center of u
+	 */
+	private void shiftLocalExpansion(int u, int c){
+		double tRe = barycenterX[c]-barycenterX[u];
+		double tIm = barycenterY[c]-barycenterY[u];
+		for(int m=1; m<=precision; m++){
+			double sumRe = 0;
+			double sumIm = 0;
+			double pRe = 1; //t^(l-m)
+			double pIm = 0;
+			for(int l=m; l<=precision; l++){
+				double bRe = localRe[u*precision+l-1];
+				double bIm = localIm[u*precision+l-1];
+				double bin = binomial(l, m);
+				sumRe += (bRe*pRe - bIm*pIm)*bin;
+				sumIm += (bRe*pIm + bIm*pRe)*bin;
+				double re = pRe*tRe - pIm*tIm;
+				pIm = pRe*tIm + pIm*tRe;
+				pRe = re;
+			}
+			localRe[c*precision+m-1] += sumRe;
+			localIm[c*precision+m-1] += sumIm;
+		}
+	}
+
+	/**
+	 * Adds factor * conjugate(phi'(z)) for the local expansion phi of u to the force on point v
+	 */
+	private void evaluateLocalExpansion(int u, int v, double[] x, double[] y, double factor, double[] dx, double[] dy){
+		double tRe = x[v]-barycenterX[u];
+		double tIm = y[v]-barycenterY[u];
+		//Horner: phi'(z) = sum_{l=1}^{precision} l b_l t^(l-1)
+		double sumRe = 0;
+		double sumIm = 0;
+		for(int l=precision; l>=1; l--){
+			double re = sumRe*tRe - sumIm*tIm + l*localRe[u*precision+l-1];
+			sumIm = sumRe*tIm + sumIm*tRe + l*localIm[u*precision+l-1];
+			sumRe = re;
+		}
+		dx[v] += factor*sumRe;
+		dy[v] -= factor*sumIm;
+	}
+
+	/**
+	 * Handles the interaction of the point sets of the nodes a and b (none contains the other)
+	 */
+	private void interact(double[] x, double[] y, int a, int b, double theta, double factor, double epsilon,
+			double[] dx, double[] dy){
+		int stackSize = 0;
+		stackSize = push(stackSize, a, b);
+		while(stackSize>0){
+			stackSize -= 2;
+			int v = stack[stackSize];
+			int w = stack[stackSize+1];
+			double tRe = barycenterX[v]-barycenterX[w];
+			double tIm = barycenterY[v]-barycenterY[w];
+			double d = Math.sqrt(tRe*tRe + tIm*tIm);
+			if((radius[v]+radius[w])/d < theta){
+				addToLocalExpansion(v, w, tRe, tIm);
+				addToLocalExpansion(w, v, -tRe, -tIm);
+			}
+			else if(state[v]==BUCKET_NODE && state[w]==BUCKET_NODE){
+				addDirectRepulsionBetween(x, y, v, w, factor, epsilon, dx, dy);
+			}
+			//split the larger one
+			else if(state[w]==BUCKET_NODE || (state[v]==INNER_NODE && radius[v]>=radius[w])){
+				for(int c=firstChild[v]; c<firstChild[v]+numberOfChildren[v]; c++){
+					stackSize = push(stackSize, c, w);
+				}
+			}
+			else{
+				for(int c=firstChild[w]; c<firstChild[w]+numberOfChildren[w]; c++){
+					stackSize = push(stackSize, v, c);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Repulsion between all pairs of points of u
+	 */
+	private void addDirectRepulsionInside(double[] x, double[] y, int u, double factor, double epsilon,
+			double[] dx, double[] dy){
+		for(int i=start[u]; i<end[u]; i++){
+			for(int j=i+1; j<end[u]; j++){
+				addRepulsion(x, y, point[i], point[j], factor, epsilon, dx, dy);
+			}
+		}
+	}
+
+	/**
+	 * Repulsion between all points of v and all points of w
+	 */
+	private void addDirectRepulsionBetween(double[] x, double[] y, int v, int w, double factor, double epsilon,
+			double[] dx, double[] dy){
+		for(int i=start[v]; i<end[v]; i++){
+			for(int j=start[w]; j<end[w]; j++){
+				addRepulsion(x, y, point[i], point[j], factor, epsilon, dx, dy);
+			}
+		}
+	}
+
+	private static void addRepulsion(double[] x, double[] y, int p, int q, double factor, double epsilon,
+			double[] dx, double[] dy){
+		double xDelta = x[p] - x[q];
+		double yDelta = y[p] - y[q];
+		double deltaLength = Math.max(epsilon, Math.sqrt((xDelta * xDelta) + (yDelta * yDelta)));
+		double force = factor / deltaLength;
+		dx[p] += (xDelta / deltaLength) * force;
+		dy[p] += (yDelta / deltaLength) * force;
+		dx[q] -= (xDelta / deltaLength) * force;
+		dy[q] -= (yDelta / deltaLength) * force;
+	}
+
+	private int push(int stackSize, int v, int w){
+		if(stack.length<stackSize+2){
+			stack = Arrays.copyOf(stack, Math.max(16, 2*stack.length));
+		}
+		stack[stackSize] = v;
+		stack[stackSize+1] = w;
+		return stackSize+2;
+	}
+
+	private void ensureExpansionCapacity(){
+		if(state.length>=numberOfNodes){
+			return;
+		}
+		int capacity = start.length;
+		state = new int[capacity];
+		radius = new double[capacity];
+		multipoleRe = new double[capacity*precision];
+		multipoleIm = new double[capacity*precision];
+		localRe = new double[capacity*precision];
+		localIm = new double[capacity*precision];
+	}
+}
@@ -6,6 +6,7 @@ import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.jungmodify.FRL
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.util.jungmodify.FRLayout2;
 import edu.uci.ics.jung.algorithms.layout.Layout;
 import edu.uci.ics.jung.graph.Graph;
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRComponentArrays;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.FRLayoutNoMaps;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.quadtree.FRQuadtree;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd.FRWSPD;
@@ -58,6 +59,13 @@ import java.util.Map;
  */
 public class VertexTriple<V> extends Triple<V, Point2D, FRVertexData> {
 	
+	/**
+	 * Index of the connected component and index within it, as used by {@link FRComponentArrays}.
+	 * -1 if not used by such an algorithm.
+	 */
+	private int componentIndex = -1;
+	private int index = -1;
+	
 	/**
 	 * Creates vertex for the drawing with initial location (0,0)
 	 * 
@@ -115,4 +123,25 @@ public class VertexTriple<V> extends Triple<V, Point2D, FRVertexData> {
 	public FRVertexData getDisplacementInOneIterationOfTheComputation(){
 		return super.get3();
 	}
+	
+	public int getComponentIndex() {
+		return componentIndex;
+	}
+	
+	public void setComponentIndex(int componentIndex) {
+		this.componentIndex = componentIndex;
+	}
+	
+	/**
+	 * Returns the index of this vertex in the arrays of its component in {@link FRComponentArrays}
+	 * 
+	 * @return
+	 */
+	public int getIndex() {
+		return index;
+	}
+	
+	public void setIndex(int index) {
+		this.index = index;
+	}
 }
@@ -0,0 +1,312 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd;
+
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd.FRWSPD;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+
+/**
+ * Alternative to {@link SplitTree} and {@link WellSeparatedPairDecomposition} working on primitive arrays
+ * (see {@link FRWSPD#setArrayBackedSplitTree(boolean)}).
+ * <p>
+ * The fair split tree is built for the points (x[k], y[k]), 0 <= k < n, like {@link SplitTree} does:
+ * The bounding box of the point set of a node is split at the mid of its longer side
+ * (points on the separating line go to the smaller side).
+ * Instead of sorted lists, the points are partitioned in place in the permutation point,
+ * thereby the points of node u are point[start[u]] to point[end[u]-1].
+ * That needs O(n*h) time with h being the height of the tree, so O(n log n) for points that are not
+ * extremely clustered.
+ * <p>
+ * The nodes are numbered in preorder (root 0, a parent before its children).
+ * Their bounding boxes are stored as the {@link Rectangle}s of {@link SplitTreeNode} are (corner, width and height).
+ * The well-separated pairs are found with the same algorithm and in the same order as in
+ * {@link WellSeparatedPairDecomposition}: Part i (0 or 1) of the p-th pair is the node pairNode[2p+i].
+ * <p>
+ * All arrays are reused when the tree is built again, so after the first time building allocates nothing
+ * (as long as the number of points and pairs does not grow).
+ * The fields are only to be read from outside.
+ */
+public class ArraySplitTree {
+
+	public int numberOfPoints;
+	public int[] point = new int[0];
+
+	public int numberOfNodes;
+	public int[] start = new int[0];
+	public int[] end = new int[0];
+	/**
+	 * -1 for leaves
+	 */
+	public int[] leftChild = new int[0];
+	public int[] rightChild = new int[0];
+	/**
+	 * -1 for the root
+	 */
+	public int[] parent = new int[0];
+	public double[] boxX = new double[0];
+	public double[] boxY = new double[0];
+	public double[] boxWidth = new double[0];
+	public double[] boxHeight = new double[0];
+	public double[] barycenterX = new double[0];
+	public double[] barycenterY = new double[0];
+	/**
+	 * Like {@link SplitTreeNode#repulsiveForce}; set to 0 when building, may be written by the layout
+	 */
+	public double[] repulsiveForceX = new double[0];
+	public double[] repulsiveForceY = new double[0];
+
+	public int numberOfPairs;
+	public int[] pairNode = new int[0];
+
+	/**
+	 * Stack of open tasks while building (4 entries each) or while finding pairs (2 entries each)
+	 */
+	private int[] stack = new int[0];
+
+
+	public boolean isLeaf(int u){
+		return leftChild[u]<0;
+	}
+
+	public int getSizeOfThePointSet(int u){
+		return end[u]-start[u];
+	}
+
+	/**
+	 * Builds the split tree for the points (x[k], y[k]), 0 <= k < n.
+	 * The pairs of a previous call are discarded.
+	 *
+	 * @param x
+	 * @param y
+	 * @param n
+	 */
+	public void build(double[] x, double[] y, int n){
+		numberOfPoints = n;
+		numberOfNodes = 0;
+		numberOfPairs = 0;
+		if(n==0){
+			return;
+		}
+		ensureNodeCapacity(2*n-1);
+		if(point.length<n){
+			point = new int[n];
+		}
+		for(int k=0; k<n; k++){
+			point[k] = k;
+		}
+		if(stack.length<4*n){
+			stack = new int[4*n];
+		}
+
+		//tasks (start, end, parent, isLeftChild); pushing the right child first makes the numbering preorder
+		int stackSize = 0;
+		stackSize = push(stackSize, 0, n, -1, 1);
+		while(stackSize>0){
+			stackSize -= 4;
+			int from = stack[stackSize];
+			int to = stack[stackSize+1];
+			int parentNode = stack[stackSize+2];
+			int u = numberOfNodes++;
+			start[u] = from;
+			end[u] = to;
+			parent[u] = parentNode;
+			leftChild[u] = -1;
+			rightChild[u] = -1;
+			repulsiveForceX[u] = 0;
+			repulsiveForceY[u] = 0;
+			if(parentNode>=0){
+				if(stack[stackSize+3]==1){
+					leftChild[parentNode] = u;
+				}
+				else{
+					rightChild[parentNode] = u;
+				}
+			}
+
+			//bounding box
+			double minX = Double.POSITIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			for(int k=from; k<to; k++){
+				minX = Math.min(minX, x[point[k]]);
+				minY = Math.min(minY, y[point[k]]);
+				maxX = Math.max(maxX, x[point[k]]);
+				maxY = Math.max(maxY, y[point[k]]);
+			}
+			boxX[u] = minX;
+			boxY[u] = minY;
+			boxWidth[u] = maxX-minX;
+			boxHeight[u] = maxY-minY;
+			if(to-from==1){
+				continue;
+			}
+
+			//split at the mid of the longer side
+			double[] coordinate = boxWidth[u]>boxHeight[u] ? x : y;
+			double min = boxWidth[u]>boxHeight[u] ? minX : minY;
+			double max = boxWidth[u]>boxHeight[u] ? maxX : maxY;
+			double h = min+(max-min)*0.5;
+			int mid;
+			if(!(min<max)){
+				//all points at the same location (or undefined coordinates): split off one point
+				mid = from+1;
+			}
+			else{
+				int firstNotBelow = partition(coordinate, from, to, h, false);
+				int firstAbove = partition(coordinate, firstNotBelow, to, h, true);
+				//points on the line go to the side that is smaller without them
+				mid = firstAbove-from <= to-firstNotBelow ? firstAbove : firstNotBelow;
+			}
+			stackSize = push(stackSize, mid, to, u, 0);
+			stackSize = push(stackSize, from, mid, u, 1);
+		}
+
+		//barycenters bottom-up (the children of u have greater numbers than u)
+		for(int u=numberOfNodes-1; u>=0; u--){
+			if(isLeaf(u)){
+				barycenterX[u] = x[point[start[u]]];
+				barycenterY[u] = y[point[start[u]]];
+			}
+			else{
+				int l = leftChild[u];
+				int r = rightChild[u];
+				double sumX = 0;
+				double sumY = 0;
+				sumX += barycenterX[l]*getSizeOfThePointSet(l);
+				sumY += barycenterY[l]*getSizeOfThePointSet(l);
+				sumX += barycenterX[r]*getSizeOfThePointSet(r);
+				sumY += barycenterY[r]*getSizeOfThePointSet(r);
+				barycenterX[u] = sumX/(double)getSizeOfThePointSet(u);
+				barycenterY[u] = sumY/(double)getSizeOfThePointSet(u);
+			}
+		}
+	}
+
+	/**
+	 * Computes the well-separated pairs with respect to s for the tree built last.
+	 * This is the algorithm of {@link WellSeparatedPairDecomposition} with an explicit stack.
+	 *
+	 * @param s
+	 */
+	public void computeWellSeparatedPairs(double s){
+		numberOfPairs = 0;
+		for(int u=0; u<numberOfNodes; u++){
+			if(isLeaf(u)){
+				continue;
+			}
+			//FindPairs(leftChild(u), rightChild(u))
+			int stackSize = 0;
+			stackSize = push(stackSize, leftChild[u], rightChild[u]);
+			while(stackSize>0){
+				stackSize -= 2;
+				int v = stack[stackSize];
+				int w = stack[stackSize+1];
+				if(isWellSeparated(v, w, s) || (isLeaf(v) && isLeaf(w))){
+					addPair(v, w);
+				}
+				else if(getLengthOfTheLongerSide(v) <= getLengthOfTheLongerSide(w)){
+					stackSize = push(stackSize, v, rightChild[w]);
+					stackSize = push(stackSize, v, leftChild[w]);
+				}
+				else{
+					stackSize = push(stackSize, rightChild[v], w);
+					stackSize = push(stackSize, leftChild[v], w);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Same as {@link WellSeparatedPairDecomposition#isWellSeparated(SplitTreeNode, SplitTreeNode, double)}
+	 */
+	public boolean isWellSeparated(int v, int w, double s){
+		double radius = Math.max(getLengthOfTheDiagonal(v)/2, getLengthOfTheDiagonal(w)/2);
+		return Point2D.distance(boxX[v]+boxWidth[v]/2, boxY[v]+boxHeight[v]/2,
+				boxX[w]+boxWidth[w]/2, boxY[w]+boxHeight[w]/2) >= (s+2)*radius;
+	}
+
+	private double getLengthOfTheDiagonal(int u){
+		return Math.sqrt(boxWidth[u]*boxWidth[u]+boxHeight[u]*boxHeight[u]);
+	}
+
+	private double getLengthOfTheLongerSide(int u){
+		if(boxWidth[u]>boxHeight[u]){
+			return boxWidth[u];
+		}
+		return boxHeight[u];
+	}
+
+	/**
+	 * Moves the points of point[from] to point[to-1] with coordinate < h (or <= h if orEqual) to the front
+	 *
+	 * @return
+	 * index of the first point not moved to the front
+	 */
+	private int partition(double[] coordinate, int from, int to, double h, boolean orEqual){
+		int i = from;
+		int j = to-1;
+		while(true){
+			while(i<=j && (coordinate[point[i]]<h || (orEqual && coordinate[point[i]]==h))){
+				i++;
+			}
+			while(i<=j && !(coordinate[point[j]]<h || (orEqual && coordinate[point[j]]==h))){
+				j--;
+			}
+			if(i>=j){
+				return i;
+			}
+			int swap = point[i];
+			point[i] = point[j];
+			point[j] = swap;
+		}
+	}
+
+	private void addPair(int v, int w){
+		if(pairNode.length<2*numberOfPairs+2){
+			pairNode = Arrays.copyOf(pairNode, Math.max(16, 2*pairNode.length));
+		}
+		pairNode[2*numberOfPairs] = v;
+		pairNode[2*numberOfPairs+1] = w;
+		++numberOfPairs;
+	}
+
+	private int push(int stackSize, int v, int w){
+		if(stack.length<stackSize+2){
+			stack = Arrays.copyOf(stack, Math.max(16, 2*stack.length));
+		}
+		stack[stackSize] = v;
+		stack[stackSize+1] = w;
+		return stackSize+2;
+	}
+
+	private int push(int stackSize, int from, int to, int parentNode, int isLeftChild){
+		if(stack.length<stackSize+4){
+			stack = Arrays.copyOf(stack, Math.max(16, 2*stack.length));
+		}
+		stack[stackSize] = from;
+		stack[stackSize+1] = to;
+		stack[stackSize+2] = parentNode;
+		stack[stackSize+3] = isLeftChild;
+		return stackSize+4;
+	}
+
+	private void ensureNodeCapacity(int capacity){
+		if(start.length>=capacity){
+			return;
+		}
+		start = new int[capacity];
+		end = new int[capacity];
+		leftChild = new int[capacity];
+		rightChild = new int[capacity];
+		parent = new int[capacity];
+		boxX = new double[capacity];
+		boxY = new double[capacity];
+		boxWidth = new double[capacity];
+		boxHeight = new double[capacity];
+		barycenterX = new double[capacity];
+		barycenterY = new double[capacity];
+		repulsiveForceX = new double[capacity];
+		repulsiveForceY = new double[capacity];
+	}
+}
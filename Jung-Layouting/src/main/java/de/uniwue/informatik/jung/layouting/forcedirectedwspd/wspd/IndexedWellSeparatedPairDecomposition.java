@@ -0,0 +1,124 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.wspd;
+
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd.FRWSPD;
+
+import java.awt.geom.Point2D;
+import java.util.Arrays;
+
+/**
+ * Snapshot of a {@link SplitTree} and its {@link WellSeparatedPairDecomposition} in arrays,
+ * so that the repulsive forces of the pairs can be computed by several threads (see {@link FRWSPD}).
+ * <p>
+ * The {@link SplitTreeNode}s are numbered level by level (breadth-first).
+ * Part i (0 or 1) of the p-th well-separated pair (in the order of
+ * {@link WellSeparatedPairDecomposition#getWellSeparatedPairs()}) is the node pairNode[2p+i],
+ * 2p+i is called an entry.
+ * The entries of node u are nodeEntry[nodeEntryStart[u]] to nodeEntry[nodeEntryStart[u+1]-1] in increasing order.
+ * <p>
+ * Barycenters and sizes of the point sets are read once here for the nodes of the pairs (in the order of the pairs),
+ * afterwards this object is only read.
+ * Thereby the values cached in the {@link SplitTreeNode}s are the same as after going through the pairs with one thread.
+ */
+public class IndexedWellSeparatedPairDecomposition<V> {
+	
+	public final SplitTree<V> splitTree;
+	public final SplitTreeNode<V>[] nodes;
+	/**
+	 * Index of the parent node; -1 for the root
+	 */
+	public final int[] parent;
+	/**
+	 * The nodes with depth d are levelStart[d] to levelStart[d+1]-1
+	 */
+	public final int[] levelStart;
+	public final int numberOfLevels;
+	
+	public final int numberOfPairs;
+	public final int[] pairNode;
+	public final int[] nodeEntryStart;
+	public final int[] nodeEntry;
+	
+	/**
+	 * Only set for the nodes of the pairs
+	 */
+	public final double[] barycenterX;
+	public final double[] barycenterY;
+	public final int[] sizeOfTheTripleSet;
+	
+	
+	@SuppressWarnings("unchecked")
+	public IndexedWellSeparatedPairDecomposition(SplitTree<V> splitTree, WellSeparatedPairDecomposition<V> wspd){
+		this.splitTree = splitTree;
+		
+		//number nodes level by level
+		SplitTreeNode<V>[] nodeArray = new SplitTreeNode[Math.max(2, 2*splitTree.getSizeOfThePointSet())];
+		int[] parentArray = new int[nodeArray.length];
+		int numberOfNodes = 0;
+		int levels = 0;
+		int[] levelStartArray = new int[16];
+		nodeArray[numberOfNodes] = splitTree.getRoot();
+		parentArray[numberOfNodes] = -1;
+		splitTree.getRoot().index = numberOfNodes++;
+		for(int levelBegin=0; levelBegin<numberOfNodes; ){
+			int levelEnd = numberOfNodes;
+			if(levels+2 > levelStartArray.length){
+				levelStartArray = Arrays.copyOf(levelStartArray, 2*levelStartArray.length);
+			}
+			levelStartArray[levels++] = levelBegin;
+			for(int u=levelBegin; u<levelEnd; u++){
+				if(numberOfNodes+2 > nodeArray.length){
+					nodeArray = Arrays.copyOf(nodeArray, 2*nodeArray.length);
+					parentArray = Arrays.copyOf(parentArray, 2*parentArray.length);
+				}
+				if(nodeArray[u].leftChild!=null){
+					nodeArray[numberOfNodes] = nodeArray[u].leftChild;
+					parentArray[numberOfNodes] = u;
+					nodeArray[u].leftChild.index = numberOfNodes++;
+				}
+				if(nodeArray[u].rightChild!=null){
+					nodeArray[numberOfNodes] = nodeArray[u].rightChild;
+					parentArray[numberOfNodes] = u;
+					nodeArray[u].rightChild.index = numberOfNodes++;
+				}
+			}
+			levelBegin = levelEnd;
+		}
+		levelStartArray[levels] = numberOfNodes;
+		this.nodes = Arrays.copyOf(nodeArray, numberOfNodes);
+		this.parent = Arrays.copyOf(parentArray, numberOfNodes);
+		this.levelStart = Arrays.copyOf(levelStartArray, levels+1);
+		this.numberOfLevels = levels;
+		
+		//pairs
+		this.numberOfPairs = wspd.getWellSeparatedPairs().size();
+		this.pairNode = new int[2*numberOfPairs];
+		this.barycenterX = new double[numberOfNodes];
+		this.barycenterY = new double[numberOfNodes];
+		this.sizeOfTheTripleSet = new int[numberOfNodes];
+		int[] degree = new int[numberOfNodes+1];
+		int entry = 0;
+		for(SplitTreeNode<V>[] pair: wspd.getWellSeparatedPairs()){
+			for(SplitTreeNode<V> part: pair){
+				Point2D barycenter = splitTree.getBarycenter(part);
+				barycenterX[part.index] = barycenter.getX();
+				barycenterY[part.index] = barycenter.getY();
+				sizeOfTheTripleSet[part.index] = splitTree.getSizeOfTheTripleSetInTheSubtreeBelow(part);
+				pairNode[entry++] = part.index;
+				++degree[part.index+1];
+			}
+		}
+		for(int u=0; u<numberOfNodes; u++){
+			degree[u+1] += degree[u];
+		}
+		this.nodeEntryStart = degree;
+		this.nodeEntry = new int[2*numberOfPairs];
+		int[] next = Arrays.copyOf(degree, numberOfNodes);
+		for(entry=0; entry<pairNode.length; entry++){
+			nodeEntry[next[pairNode[entry]]++] = entry;
+		}
+	}
+	
+	public boolean isLeaf(int u){
+		return splitTree.isLeaf(nodes[u]);
+	}
+}
@@ -135,6 +135,13 @@ public class SplitTreeNode<V> {
 	 */
 	protected LinkedList<SplitTreeListElement<V>>[] lists;
 	
+	/**
+	 * Position of this {@link SplitTreeNode} in the last {@link IndexedWellSeparatedPairDecomposition}
+	 * created for its {@link SplitTree}.
+	 * -1 if there was none.
+	 */
+	protected int index = -1;
+	
 	public SplitTreeNode(Rectangle r0) {
 		this.r0 = r0;
 	}
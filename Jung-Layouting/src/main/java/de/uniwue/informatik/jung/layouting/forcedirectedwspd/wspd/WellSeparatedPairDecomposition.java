@@ -108,7 +108,7 @@ public class WellSeparatedPairDecomposition<V> {
 			Collection<SplitTreeNode<V>> children = t.getChildren(u);
 			//1. call FindPairs
 			Iterator<SplitTreeNode<V>> i = children.iterator();
-			findPairs(i.next(), i.next());
+			findPairs(i.next(), i.next(), wellSeparatedPairs);
 			//2. Call the same alg for both kids
 			i = children.iterator();
 			computeWSPDForChildrenOfVertexU(i.next()); //first child
@@ -118,33 +118,119 @@ public class WellSeparatedPairDecomposition<V> {
 	
 	/**
 	 * Algorithm from the book (see {@link WellSeparatedPairDecomposition}).
-	 * Found pairs are saved in the list
-	 * {@link WellSeparatedPairDecomposition#wellSeparatedPairs}.
+	 * Found pairs are appended to the passed list
+	 * (in the constructor {@link WellSeparatedPairDecomposition#wellSeparatedPairs}).
 	 * 
 	 * @param v
 	 * @param w
+	 * @param pairs
 	 */
-	private void findPairs(SplitTreeNode<V> v, SplitTreeNode<V> w) {
-		if(isWellSeparated(v, w)){
+	private void findPairs(SplitTreeNode<V> v, SplitTreeNode<V> w, LinkedList<SplitTreeNode<V>[]> pairs) {
+		//two single points can not be split further (only relevant for points with undefined coordinates)
+		if(isWellSeparated(v, w) || (t.isLeaf(v) && t.isLeaf(w))){
 			SplitTreeNode[] newWellSeparatedPair = {v,w};
-			wellSeparatedPairs.add(newWellSeparatedPair);
+			pairs.add(newWellSeparatedPair);
 		}
 		else{
 			if(v.r.getLengthOfTheLongerSide() <= w.r.getLengthOfTheLongerSide()){
 				Collection<SplitTreeNode<V>> childOfW = t.getChildren(w);
 				Iterator<SplitTreeNode<V>> i = childOfW.iterator();
-				findPairs(v, i.next()); //findPairs(v, leftChild(w))
-				findPairs(v, i.next()); //findPairs(v, rightChild(w))				
+				findPairs(v, i.next(), pairs); //findPairs(v, leftChild(w))
+				findPairs(v, i.next(), pairs); //findPairs(v, rightChild(w))				
 			}
 			else{
 				Collection<SplitTreeNode<V>> childOfV = t.getChildren(v);
 				Iterator<SplitTreeNode<V>> i = childOfV.iterator();
-				findPairs(i.next(), w); //findPairs(leftChild(v), w)
-				findPairs(i.next(), w); //findPairs(rightChild(v), w)	
+				findPairs(i.next(), w, pairs); //findPairs(leftChild(v), w)
+				findPairs(i.next(), w, pairs); //findPairs(rightChild(v), w)	
 			}
 		}
 	}
 
+	/**
+	 * Updates this {@link WellSeparatedPairDecomposition} after the points of its {@link SplitTree} have moved.
+	 * The bounding rectangles in the {@link SplitTree} must have been recalculated before
+	 * (see {@link SplitTree#recalculateAllBoundingRectangles()}), the structure of the tree is not changed.
+	 * <p>
+	 * Pairs that are still well-separated are kept.
+	 * Every other pair {v,w} is replaced by the pairs FindPairs(v,w) finds (like in the constructor),
+	 * so the pairs still cover every pair of points exactly once.
+	 * Two consecutive pairs {v,w1} and {v,w2} where w1 and w2 are the children of w
+	 * are merged to {v,w} if that one is well-separated again.
+	 * <p>
+	 * If more than maximumNumberOfInvalidatedPairs pairs are not well-separated any more,
+	 * the update is aborted and this {@link WellSeparatedPairDecomposition} remains unchanged.
+	 * It should be computed new then.
+	 * 
+	 * @param maximumNumberOfInvalidatedPairs
+	 * @return
+	 * number of pairs that were not well-separated any more
+	 * (maximumNumberOfInvalidatedPairs+1 if the update was aborted)
+	 */
+	public int update(int maximumNumberOfInvalidatedPairs){
+		//1. check all pairs before splitting any (splitting many pairs is expensive)
+		boolean[] isStillWellSeparated = new boolean[wellSeparatedPairs.size()];
+		int numberOfInvalidatedPairs = 0;
+		int pairIndex = 0;
+		for(SplitTreeNode<V>[] pair: wellSeparatedPairs){
+			isStillWellSeparated[pairIndex] = isWellSeparated(pair[0], pair[1]);
+			if(!isStillWellSeparated[pairIndex++] && ++numberOfInvalidatedPairs>maximumNumberOfInvalidatedPairs){
+				return numberOfInvalidatedPairs;
+			}
+		}
+		//2. split and merge
+		LinkedList<SplitTreeNode<V>[]> updatedPairs = new LinkedList<SplitTreeNode<V>[]>();
+		LinkedList<SplitTreeNode<V>[]> foundPairs = new LinkedList<SplitTreeNode<V>[]>();
+		pairIndex = 0;
+		for(SplitTreeNode<V>[] pair: wellSeparatedPairs){
+			if(isStillWellSeparated[pairIndex++]){
+				addAndMergeWithPredecessors(updatedPairs, pair);
+			}
+			else{
+				findPairs(pair[0], pair[1], foundPairs);
+				for(SplitTreeNode<V>[] foundPair: foundPairs){
+					addAndMergeWithPredecessors(updatedPairs, foundPair);
+				}
+				foundPairs.clear();
+			}
+		}
+		wellSeparatedPairs = updatedPairs;
+		return numberOfInvalidatedPairs;
+	}
+	
+	/**
+	 * Appends pair to pairs.
+	 * Before, as long as pair and the last pair in pairs share one part and the other parts are siblings
+	 * in the {@link SplitTree}, both are replaced by the pair with the parent of these siblings
+	 * if that pair is well-separated.
+	 * 
+	 * @param pairs
+	 * @param pair
+	 */
+	@SuppressWarnings("unchecked")
+	private void addAndMergeWithPredecessors(LinkedList<SplitTreeNode<V>[]> pairs, SplitTreeNode<V>[] pair){
+		while(!pairs.isEmpty()){
+			SplitTreeNode<V>[] predecessor = pairs.getLast();
+			SplitTreeNode<V>[] mergedPair = null;
+			if(predecessor[0]==pair[0] && areSiblings(predecessor[1], pair[1])){
+				mergedPair = new SplitTreeNode[]{pair[0], pair[1].parentNode};
+			}
+			else if(predecessor[1]==pair[1] && areSiblings(predecessor[0], pair[0])){
+				mergedPair = new SplitTreeNode[]{pair[0].parentNode, pair[1]};
+			}
+			if(mergedPair==null || !isWellSeparated(mergedPair[0], mergedPair[1])){
+				break;
+			}
+			pairs.removeLast();
+			pair = mergedPair;
+		}
+		pairs.add(pair);
+	}
+	
+	private static boolean areSiblings(SplitTreeNode<?> u, SplitTreeNode<?> w){
+		return u!=w && u.parentNode!=null && u.parentNode==w.parentNode;
+	}
+
 	/**
 	 * Checks if the two point sets, each represented by one {@link SplitTreeNode},
 	 * are well-separated with respect to s.
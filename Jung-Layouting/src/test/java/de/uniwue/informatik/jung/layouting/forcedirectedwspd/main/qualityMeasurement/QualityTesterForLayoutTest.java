@@ -0,0 +1,166 @@
+package de.uniwue.informatik.jung.layouting.forcedirectedwspd.main.qualityMeasurement;
+
+import edu.uci.ics.jung.algorithms.layout.Layout;
+import edu.uci.ics.jung.algorithms.layout.StaticLayout;
+import edu.uci.ics.jung.graph.Graph;
+import edu.uci.ics.jung.graph.UndirectedSparseMultigraph;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the grid-based {@link QualityTesterForLayout#calculateNumberOfEdgeCrossings()} (serial and parallel)
+ * with the original version testing all pairs of edges.
+ * The vertices lie on small integer grids, so there are many collinear edges and edges with common endpoints.
+ */
+public class QualityTesterForLayoutTest {
+	
+	private static final long SEED = 9;
+	private static final int NUMBER_OF_RANDOM_LAYOUTS = 2000;
+	
+	@Test
+	public void randomLayoutsHaveSameNumberOfCrossingsAsQuadraticVersion(){
+		Random random = new Random(SEED);
+		for(int i=0; i<NUMBER_OF_RANDOM_LAYOUTS; i++){
+			Layout<Integer, Integer> layout = randomLayout(random, i);
+			int expected = countCrossingsQuadratic(layout);
+			String message = "random layout " + i + " (seed " + SEED + ")";
+			
+			QualityTesterForLayout<Integer, Integer> serial = new QualityTesterForLayout<>(layout);
+			serial.calculateNumberOfEdgeCrossings();
+			assertEquals(message, expected, serial.getNumberOfCrossings());
+			
+			QualityTesterForLayout<Integer, Integer> parallel = new QualityTesterForLayout<>(layout);
+			parallel.setParallelCrossingCounting(true);
+			parallel.calculateNumberOfEdgeCrossings();
+			assertEquals(message + " parallel", expected, parallel.getNumberOfCrossings());
+		}
+	}
+	
+	/**
+	 * Multigraph (with parallel edges and loops) on a small integer grid; some coordinates are fractional and,
+	 * rarely, very large
+	 */
+	private static Layout<Integer, Integer> randomLayout(Random random, int index){
+		Graph<Integer, Integer> graph = new UndirectedSparseMultigraph<>();
+		int numberOfVertices = 2 + random.nextInt(index%100==0 ? 300 : 30);
+		int gridSize = 1 + random.nextInt(6);
+		List<Integer> vertices = new ArrayList<>();
+		Map<Integer, Point2D> locations = new HashMap<>();
+		for(int v=0; v<numberOfVertices; v++){
+			vertices.add(v);
+			graph.addVertex(v);
+			double x = random.nextInt(4)==0 ? random.nextInt(4*gridSize+1)/4.0 : random.nextInt(gridSize+1);
+			double y = random.nextInt(4)==0 ? random.nextInt(4*gridSize+1)/4.0 : random.nextInt(gridSize+1);
+			if(random.nextInt(200)==0){
+				y = 1e12;
+			}
+			locations.put(v, new Point2D.Double(x, y));
+		}
+		int numberOfEdges = random.nextInt(3*numberOfVertices);
+		for(int e=0; e<numberOfEdges; e++){
+			graph.addEdge(e, vertices.get(random.nextInt(numberOfVertices)),
+					vertices.get(random.nextInt(numberOfVertices)));
+		}
+		return new StaticLayout<>(graph, locations::get);
+	}
+	
+	/**
+	 * Reference: the original version testing all pairs of edges
+	 */
+	private static <V, E> int countCrossingsQuadratic(Layout<V, E> layout){
+		int numberOfCrossings = 0;
+		//1. find all crossings between pairs of edges (indices i and j to not consider the same pair again or itsself as pair)
+		int i = 0;
+		for(E e1: layout.getGraph().getEdges()){
+			V v1_1 = layout.getGraph().getEndpoints(e1).getFirst();
+			V v1_2 = layout.getGraph().getEndpoints(e1).getSecond();
+			Point2D p1_1 = layout.apply(v1_1);
+			Point2D p1_2 = layout.apply(v1_2);
+			
+			int j=0;
+			for(E e2: layout.getGraph().getEdges()){
+				
+				if(j>i){
+					V v2_1 = layout.getGraph().getEndpoints(e2).getFirst();
+					V v2_2 = layout.getGraph().getEndpoints(e2).getSecond();
+					
+					Point2D p2_1 = layout.apply(v2_1);
+					Point2D p2_2 = layout.apply(v2_2);
+					
+					/*
+					 * if the two edges have a common endpoint and do not lie on each other
+					 * then skip (no crossing being considered) -> catch that case.
+					 * But if those two neigboured edges are lying on each other (one is contained completely by the other)
+					 * then all 4 points lie on the same line.
+					 * But then also check that these points go in the same direction from the common endpoint,
+					 * otherwise there is no crossing counted
+					 */
+					if(		   v1_1==v2_1 && ( ccw(p1_1, p1_2, p2_2)!=0
+								|| ( Math.signum(p1_2.getX()-p1_1.getX())-Math.signum(p2_2.getX()-p1_1.getX())==0
+								  && Math.signum(p1_2.getY()-p1_1.getY())-Math.signum(p2_2.getY()-p1_1.getY())==0 ) )
+								  
+							|| v1_1==v2_2 && ( ccw(p1_1, p1_2, p2_1)!=0
+								|| ( Math.signum(p1_2.getX()-p1_1.getX())-Math.signum(p2_1.getX()-p1_1.getX())==0
+								  && Math.signum(p1_2.getY()-p1_1.getY())-Math.signum(p2_1.getY()-p1_1.getY())==0 ) )
+								  
+							|| v1_2==v2_1 && ( ccw(p1_1, p1_2, p2_2)!=0
+								|| ( Math.signum(p1_1.getX()-p1_2.getX())-Math.signum(p2_2.getX()-p1_2.getX())==0
+								  && Math.signum(p1_1.getY()-p1_2.getY())-Math.signum(p2_2.getY()-p1_2.getY())==0 ) )
+								  
+							|| v1_2==v2_2 && ( ccw(p1_1, p1_2, p2_1)!=0
+								|| ( Math.signum(p1_1.getX()-p1_2.getX())-Math.signum(p2_1.getX()-p1_2.getX())==0
+								  && Math.signum(p1_1.getY()-p1_2.getY())-Math.signum(p2_1.getY()-p1_2.getY())==0 ) )
+							){
+						continue;
+					}
+					
+					/*
+					 * That way it is checked if 2 line segments intersect.
+					 * This method is taken from
+					 * http://www.imn.htwk-leipzig.de/~medocpro/buecher/sedge1/k24t3.html
+					 */
+					if(ccw(p1_1,p1_2,p2_1)*ccw(p1_1,p1_2,p2_2)<=0 && (ccw(p2_1,p2_2,p1_1)*ccw(p2_1,p2_2,p1_2)<=0)){
+						numberOfCrossings++;
+					}
+				}
+				j++;
+			}
+			i++;
+		}
+		return numberOfCrossings;
+	}
+	
+	/**
+	 * Function taken from:
+	 * http://www.imn.htwk-leipzig.de/~medocpro/buecher/sedge1/k24t3.html
+	 * 
+	 * @param p0
+	 * @param p1
+	 * @param p2
+	 * @return
+	 * 		It is returned if one is going clock-wise when travelling from p0 to p1 to p2 and back to p0
+	 * 		(return -1) or counter-clock-wise (return 1) or p0 and p1 and p2 lie on one line (return 0).
+	 */
+	private static int ccw(Point2D p0, Point2D p1, Point2D p2) {
+		double dx1,dx2,dy1,dy2;
+		dx1=p1.getX()-p0.getX();
+		dy1=p1.getY()-p0.getY();
+		dx2=p2.getX()-p0.getX();
+		dy2=p2.getY()-p0.getY();
+		if(dx1*dy2>dy1*dx2) return 1;
+		if(dx1*dy2<dy1*dx2) return -1;
+//		if(dx1*dy2==dy1*dx2) { //commented out because this is the only remaining possibility
+			if((dx1*dx2<0) || (dy1*dy2<0)) return-1;
+			if((dx1*dx1+dy1*dy1)>=(dx2*dx2+dy2*dy2)) return 0;
+			else return 1;
+//		}
+	}
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import de.uniwue.informatik.praline.datastructure.utils.EqualLabeling;
+import de.uniwue.informatik.praline.datastructure.utils.IndexedList;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -27,6 +28,9 @@ import static de.uniwue.informatik.praline.datastructure.utils.GraphUtils.newArr
  * Lower-level elements are contained hierarchically in higher-level elements.
  * {@link Port}s are contained in the vertices, {@link PortPairing}s are contained in {@link VertexGroup}s and
  * similar with other elements of the network.
+ *
+ * The vertices and the edges are stored in {@link IndexedList}s, so they are kept in the order in which they were
+ * added, each of them is contained at most once and checking, adding and removing one of them takes O(1) time.
  */
 @JsonIgnoreProperties({ "allRecursivelyContainedVertexGroups", "allRecursivelyContainedEdgeBundles" })
 public class Graph {
@@ -35,9 +39,9 @@ public class Graph {
      * Instance variables
      *==========*/
 
-    private final List<Vertex> vertices;
+    private final IndexedList<Vertex> vertices;
     private final List<VertexGroup> vertexGroups;
-    private final List<Edge> edges;
+    private final IndexedList<Edge> edges;
     private final List<EdgeBundle> edgeBundles;
 
 
@@ -76,9 +80,9 @@ public class Graph {
             @JsonProperty("edges") final Collection<Edge> edges,
             @JsonProperty("edgeBundles") final Collection<EdgeBundle> edgeBundles
     ) {
-        this.vertices = newArrayListNullSafe(vertices);
+        this.vertices = new IndexedList<>(vertices);
         this.vertexGroups = newArrayListNullSafe(vertexGroups);
-        this.edges = newArrayListNullSafe(edges);
+        this.edges = new IndexedList<>(edges);
         this.edgeBundles = newArrayListNullSafe(edgeBundles);
     }
 
@@ -146,6 +150,11 @@ public class Graph {
      * Modifiers
      *==========*/
     
+    /**
+     * Does nothing if v is already contained
+     *
+     * @param v
+     */
     public void addVertex(Vertex v) {
         vertices.add(v);
     }
@@ -176,9 +185,7 @@ public class Graph {
 
     private void addReferencesOfContainedObjects(VertexGroup vg) {
         for (Vertex containedVertex : vg.getContainedVertices()) {
-            if (!vertices.contains(containedVertex)) {
-                vertices.add(containedVertex);
-            }
+            vertices.add(containedVertex);
             containedVertex.setVertexGroup(vg);
         }
         for (VertexGroup containedVertexGroup : vg.getContainedVertexGroups()) {
@@ -199,6 +206,11 @@ public class Graph {
         return vertexGroups.remove(vg);
     }
 
+    /**
+     * Does nothing if e is already contained
+     *
+     * @param e
+     */
     public void addEdge(Edge e) {
         edges.add(e);
     }
@@ -227,9 +239,7 @@ public class Graph {
 
     private void addReferencesOfContainedObjects(EdgeBundle eb) {
         for (Edge containedEdge : eb.getContainedEdges()) {
-            if (!edges.contains(containedEdge)) {
-                edges.add(containedEdge);
-            }
+            edges.add(containedEdge);
             containedEdge.setEdgeBundle(eb);
         }
         for (EdgeBundle containedEdgeBundle : eb.getContainedEdgeBundles()) {
@@ -2,6 +2,8 @@ package de.uniwue.informatik.praline.datastructure.utils;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 public class GraphUtils {
 
@@ -19,12 +21,13 @@ public class GraphUtils {
             return new ArrayList<>();
         }
 
-        ArrayList<T> returnList = new ArrayList<>();
+        ArrayList<T> returnList = new ArrayList<>(elements.size());
+        Set<T> containedElements = new HashSet<>();
         for (T element : elements) {
             if (element == null) {
                 continue;
             }
-            if (!returnList.contains(element)) {
+            if (containedElements.add(element)) {
                 returnList.add(element);
             }
         }
@@ -0,0 +1,319 @@
+package de.uniwue.informatik.praline.datastructure.utils;
+
+import java.util.*;
+
+/**
+ * A {@link List} of distinct non-null elements in the order of insertion with
+ * {@link IndexedList#contains(Object)}, {@link IndexedList#remove(Object)} and {@link IndexedList#indexOf(Object)}
+ * in expected O(1) or O(log n) time, while {@link ArrayList} needs linear time for them.
+ * <p>
+ * It can only be modified via {@link IndexedList#add(Object)}, {@link IndexedList#remove(Object)},
+ * {@link IndexedList#clear()} and the {@link Iterator#remove()} of its iterators.
+ * Adding an element that is already contained does not change the list.
+ * <p>
+ * Every element has a slot in an array and a map stores the slot of every element.
+ * A removed element leaves an empty slot (tombstone).
+ * The remaining elements are moved together (compaction) by {@link IndexedList#add(Object)} and
+ * {@link IndexedList#remove(Object)} when there are more empty slots than elements.
+ * In between, a Fenwick tree over the used slots translates between slots and indices in O(log n) time
+ * ({@link IndexedList#get(int)}, {@link IndexedList#indexOf(Object)}); without empty slots this takes O(1) time.
+ * <p>
+ * Reading (including iterating) never changes the internal state, so, like an {@link ArrayList}, the list can be
+ * read by several threads at the same time as long as nobody modifies it.
+ *
+ * @param <T>
+ */
+public class IndexedList<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int MINIMUM_CAPACITY = 8;
+
+    private Object[] slots;
+    /**
+     * slots 0, ..., end-1 are used (some of them may be empty)
+     */
+    private int end;
+    private int size;
+    private final Map<T, Integer> slotOf;
+    /**
+     * Fenwick tree (1-based) over the slots counting the used ones; it has length slots.length + 1
+     */
+    private int[] usedSlots;
+    /**
+     * number of compactions so far; iterators need it to find their position again
+     */
+    private int compactions;
+
+    public IndexedList() {
+        this.slots = new Object[MINIMUM_CAPACITY];
+        this.usedSlots = new int[MINIMUM_CAPACITY + 1];
+        this.slotOf = new HashMap<>();
+    }
+
+    /**
+     * @param elements
+     *      null entries and duplicate entries are left out
+     */
+    public IndexedList(Collection<? extends T> elements) {
+        this.slots = new Object[Math.max(MINIMUM_CAPACITY, elements == null ? 0 : elements.size())];
+        this.usedSlots = new int[slots.length + 1];
+        this.slotOf = new HashMap<>(Math.max(16, (int) ((elements == null ? 0 : elements.size()) / 0.75f) + 1));
+        if (elements != null) {
+            for (T element : elements) {
+                if (element != null) {
+                    add(element);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return slotOf.containsKey(o);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        return (T) slots[size == end ? index : slotOfIndex(index)];
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        Integer slot = slotOf.get(o);
+        if (slot == null) {
+            return -1;
+        }
+        return size == end ? slot : usedSlotsBefore(slot);
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * @param element
+     *      must not be null
+     * @return
+     *      false if element was contained already
+     */
+    @Override
+    public boolean add(T element) {
+        Objects.requireNonNull(element);
+        if (slotOf.containsKey(element)) {
+            return false;
+        }
+        if (end == slots.length) {
+            if (size < end) {
+                compact();
+            }
+            if (end == slots.length) {
+                slots = Arrays.copyOf(slots, 2 * slots.length);
+                rebuildUsedSlots();
+            }
+        }
+        slotOf.put(element, end);
+        changeUsedSlots(end, 1);
+        slots[end++] = element;
+        ++size;
+        ++modCount;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        Integer slot = slotOf.remove(o);
+        if (slot == null) {
+            return false;
+        }
+        slots[slot] = null;
+        changeUsedSlots(slot, -1);
+        --size;
+        ++modCount;
+        if (slot == end - 1) {
+            end = previousUsedSlot(slot) + 1;
+        }
+        if (end - size > Math.max(size, MINIMUM_CAPACITY)) {
+            compact();
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, 0, end, null);
+        Arrays.fill(usedSlots, 0);
+        slotOf.clear();
+        end = 0;
+        size = 0;
+        ++modCount;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int nextSlot = nextUsedSlot(0);
+            private int returnedElements = 0;
+            private T lastReturned = null;
+            private int expectedModCount = modCount;
+            private int expectedCompactions = compactions;
+
+            @Override
+            public boolean hasNext() {
+                return findNextSlot() < end;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                int slot = findNextSlot();
+                if (slot >= end) {
+                    throw new NoSuchElementException();
+                }
+                lastReturned = (T) slots[slot];
+                ++returnedElements;
+                nextSlot = nextUsedSlot(slot + 1);
+                return lastReturned;
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == null) {
+                    throw new IllegalStateException();
+                }
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                IndexedList.this.remove(lastReturned);
+                lastReturned = null;
+                --returnedElements;
+                expectedModCount = modCount;
+            }
+
+            /**
+             * Only local variables of the iterator are updated here
+             */
+            private int findNextSlot() {
+                if (expectedCompactions != compactions) {
+                    //after a compaction the slot of every element is its index
+                    nextSlot = returnedElements;
+                    expectedCompactions = compactions;
+                }
+                return nextSlot;
+            }
+        };
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size];
+        int index = 0;
+        for (int slot = 0; slot < end; slot++) {
+            if (slots[slot] != null) {
+                array[index++] = slots[slot];
+            }
+        }
+        return array;
+    }
+
+    private int nextUsedSlot(int slot) {
+        while (slot < end && slots[slot] == null) {
+            ++slot;
+        }
+        return slot;
+    }
+
+    private int previousUsedSlot(int slot) {
+        while (slot >= 0 && slots[slot] == null) {
+            --slot;
+        }
+        return slot;
+    }
+
+    /**
+     * @return
+     *      the number of used slots in 0, ..., slot-1, i.e., the index of the element in slot
+     */
+    private int usedSlotsBefore(int slot) {
+        int count = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            count += usedSlots[i];
+        }
+        return count;
+    }
+
+    /**
+     * @return
+     *      the slot of the element with this index
+     */
+    private int slotOfIndex(int index) {
+        int position = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(slots.length); step > 0; step >>= 1) {
+            if (position + step <= slots.length && usedSlots[position + step] < remaining) {
+                position += step;
+                remaining -= usedSlots[position];
+            }
+        }
+        return position;
+    }
+
+    private void changeUsedSlots(int slot, int change) {
+        for (int i = slot + 1; i < usedSlots.length; i += i & -i) {
+            usedSlots[i] += change;
+        }
+    }
+
+    /**
+     * Builds {@link IndexedList#usedSlots} for the current slots in linear time
+     */
+    private void rebuildUsedSlots() {
+        if (usedSlots.length != slots.length + 1) {
+            usedSlots = new int[slots.length + 1];
+        }
+        else {
+            Arrays.fill(usedSlots, 0);
+        }
+        for (int i = 1; i < usedSlots.length; i++) {
+            if (i <= end && slots[i - 1] != null) {
+                usedSlots[i] += 1;
+            }
+            int parent = i + (i & -i);
+            if (parent < usedSlots.length) {
+                usedSlots[parent] += usedSlots[i];
+            }
+        }
+    }
+
+    /**
+     * Moves all elements to the slots 0, ..., size-1 keeping their order.
+     * Does not change {@link AbstractList#modCount} because the list stays the same
+     * (running iterators continue at the same element).
+     */
+    @SuppressWarnings("unchecked")
+    private void compact() {
+        int target = 0;
+        for (int slot = 0; slot < end; slot++) {
+            if (slots[slot] != null) {
+                if (slot != target) {
+                    slots[target] = slots[slot];
+                    slotOf.put((T) slots[target], target);
+                }
+                ++target;
+            }
+        }
+        Arrays.fill(slots, target, end, null);
+        end = target;
+        rebuildUsedSlots();
+        ++compactions;
+    }
+}
@@ -0,0 +1,170 @@
+package de.uniwue.informatik.praline.datastructure.utils;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares {@link IndexedList} with an {@link ArrayList} of distinct elements under random operations, so that
+ * tombstones, compactions and iterators that remove elements are exercised.
+ */
+public class IndexedListTest {
+
+    private static final long SEED = 21;
+    private static final int NUMBER_OF_RUNS = 200;
+    private static final int NUMBER_OF_OPERATIONS = 3000;
+
+    @Test
+    public void randomOperationsBehaveLikeArrayList() {
+        Random random = new Random(SEED);
+        for (int run = 0; run < NUMBER_OF_RUNS; run++) {
+            //small ranges lead to many duplicates, large ones to long lists with many tombstones
+            int range = 1 + random.nextInt(run % 2 == 0 ? 20 : 500);
+            IndexedList<Integer> list = new IndexedList<>();
+            List<Integer> reference = new ArrayList<>();
+            for (int i = 0; i < NUMBER_OF_OPERATIONS; i++) {
+                String message = "run " + run + ", operation " + i + " (seed " + SEED + ")";
+                Integer element = random.nextInt(range);
+                int operation = random.nextInt(100);
+                if (operation < 40) {
+                    assertEquals(message, !reference.contains(element), list.add(element));
+                    if (!reference.contains(element)) {
+                        reference.add(element);
+                    }
+                }
+                else if (operation < 75) {
+                    assertEquals(message, reference.remove(element), list.remove(element));
+                }
+                else if (operation < 85) {
+                    if (!reference.isEmpty()) {
+                        int index = random.nextInt(reference.size());
+                        assertEquals(message, reference.get(index), list.get(index));
+                    }
+                    assertEquals(message, reference.indexOf(element), list.indexOf(element));
+                    assertEquals(message, reference.lastIndexOf(element), list.lastIndexOf(element));
+                    assertEquals(message, reference.contains(element), list.contains(element));
+                }
+                else if (operation < 99) {
+                    removeWithIterators(list, reference, random, message);
+                }
+                else {
+                    list.clear();
+                    reference.clear();
+                }
+                assertEquals(message, reference.size(), list.size());
+            }
+            assertEquals(reference, list);
+            assertArrayEquals(reference.toArray(), list.toArray());
+        }
+    }
+
+    /**
+     * Iterates over both lists and removes each element with the same probability via the iterators
+     */
+    private static void removeWithIterators(IndexedList<Integer> list, List<Integer> reference, Random random,
+                                            String message) {
+        double probability = random.nextDouble();
+        Iterator<Integer> iterator = list.iterator();
+        Iterator<Integer> referenceIterator = reference.iterator();
+        while (referenceIterator.hasNext()) {
+            assertTrue(message, iterator.hasNext());
+            assertEquals(message, referenceIterator.next(), iterator.next());
+            if (random.nextDouble() < probability) {
+                referenceIterator.remove();
+                iterator.remove();
+            }
+        }
+        assertFalse(message, iterator.hasNext());
+    }
+
+    @Test
+    public void iteratorContinuesAfterCompaction() {
+        IndexedList<Integer> list = new IndexedList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        Iterator<Integer> iterator = list.iterator();
+        List<Integer> seen = new ArrayList<>();
+        while (iterator.hasNext()) {
+            Integer element = iterator.next();
+            seen.add(element);
+            //removing all but every tenth element forces compactions while iterating
+            if (element % 10 != 0) {
+                iterator.remove();
+            }
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, seen);
+        assertEquals(Arrays.asList(0, 10, 20, 30, 40, 50, 60, 70, 80, 90), list);
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void addWhileIteratingIsDetected() {
+        IndexedList<Integer> list = new IndexedList<>(Arrays.asList(1, 2, 3));
+        Iterator<Integer> iterator = list.iterator();
+        iterator.next();
+        list.add(4);
+        iterator.next();
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void removeWhileIteratingIsDetected() {
+        IndexedList<Integer> list = new IndexedList<>(Arrays.asList(1, 2, 3));
+        Iterator<Integer> iterator = list.iterator();
+        iterator.next();
+        list.remove(Integer.valueOf(3));
+        iterator.next();
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void iteratorRemoveAfterModificationIsDetected() {
+        IndexedList<Integer> list = new IndexedList<>(Arrays.asList(1, 2, 3));
+        Iterator<Integer> iterator = list.iterator();
+        iterator.next();
+        list.clear();
+        iterator.remove();
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void removeViaOtherIteratorIsDetected() {
+        IndexedList<Integer> list = new IndexedList<>(Arrays.asList(1, 2, 3));
+        Iterator<Integer> iterator = list.iterator();
+        Iterator<Integer> otherIterator = list.iterator();
+        iterator.next();
+        otherIterator.next();
+        otherIterator.remove();
+        iterator.next();
+    }
+
+    @Test
+    public void readsDoNotInvalidateIterators() {
+        IndexedList<Integer> list = new IndexedList<>();
+        for (int i = 0; i < 50; i++) {
+            list.add(i);
+        }
+        for (int i = 0; i < 50; i += 3) {
+            list.remove(Integer.valueOf(i));
+        }
+        Iterator<Integer> iterator = list.iterator();
+        iterator.next();
+        list.get(10);
+        list.indexOf(40);
+        list.contains(7);
+        list.toArray();
+        assertEquals(Integer.valueOf(2), iterator.next());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void iteratorRemoveTwiceIsRejected() {
+        IndexedList<Integer> list = new IndexedList<>(Arrays.asList(1, 2, 3));
+        Iterator<Integer> iterator = list.iterator();
+        iterator.next();
+        iterator.remove();
+        iterator.remove();
+    }
+}
@@ -0,0 +1,181 @@
+package de.uniwue.informatik.praline.io.output.svg;
+
+import de.uniwue.informatik.praline.datastructure.graphs.Vertex;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.*;
+
+/**
+ * The corners of the vertices, which bezier edges in {@link SVGDrawer} should avoid, together with a uniform grid over
+ * the bounding boxes of the vertices.
+ * So an edge only needs to look at the vertices close to it instead of all vertices of the drawing.
+ */
+public class NodeBannedAreas {
+
+    //tolerance for the query boxes, s.t. rounding errors in the triangle tests of SVGDrawer cannot make us miss a
+    // corner
+    private static final double EPSILON = 1e-6;
+
+    private final List<Vertex> vertices;
+    private final Map<Vertex, List<Point2D>> corners;
+    private final Rectangle2D[] boxes;
+    private final Map<Long, List<Integer>> grid = new HashMap<>();
+    private double cellSize;
+    private int minCellX = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    /**
+     * @param corners
+     *      for each vertex the points an edge should avoid
+     */
+    public NodeBannedAreas(Map<Vertex, List<Point2D>> corners) {
+        this.corners = corners;
+        this.vertices = new ArrayList<>(corners.keySet());
+        this.boxes = new Rectangle2D[vertices.size()];
+        for (int i = 0; i < vertices.size(); i++) {
+            boxes[i] = boundingBox(corners.get(vertices.get(i)));
+        }
+        buildGrid();
+    }
+
+    public Map<Vertex, List<Point2D>> getCorners() {
+        return Collections.unmodifiableMap(corners);
+    }
+
+    public List<Point2D> getCorners(Vertex vertex) {
+        return corners.get(vertex);
+    }
+
+    /**
+     * @return
+     *      all vertices whose corners may lie in the passed (closed) rectangle, in the order of the map passed to the
+     *      constructor
+     */
+    public List<Vertex> getVerticesNear(double minX, double minY, double maxX, double maxY) {
+        minX -= EPSILON;
+        minY -= EPSILON;
+        maxX += EPSILON;
+        maxY += EPSILON;
+        List<Vertex> result = new ArrayList<>();
+        if (vertices.isEmpty()) {
+            return result;
+        }
+        int fromX = Math.max(cell(minX), minCellX);
+        int toX = Math.min(cell(maxX), maxCellX);
+        int fromY = Math.max(cell(minY), minCellY);
+        int toY = Math.min(cell(maxY), maxCellY);
+        if (fromX > toX || fromY > toY) {
+            return result;
+        }
+
+        //large query -> scanning all vertices is cheaper than looking at all cells
+        if ((long) (toX - fromX + 1) * (toY - fromY + 1) > vertices.size()) {
+            for (int i = 0; i < vertices.size(); i++) {
+                if (intersects(boxes[i], minX, minY, maxX, maxY)) {
+                    result.add(vertices.get(i));
+                }
+            }
+            return result;
+        }
+
+        BitSet found = new BitSet(vertices.size());
+        for (int x = fromX; x <= toX; x++) {
+            for (int y = fromY; y <= toY; y++) {
+                List<Integer> cellContent = grid.get(key(x, y));
+                if (cellContent != null) {
+                    for (int i : cellContent) {
+                        if (!found.get(i) && intersects(boxes[i], minX, minY, maxX, maxY)) {
+                            found.set(i);
+                        }
+                    }
+                }
+            }
+        }
+        for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1)) {
+            result.add(vertices.get(i));
+        }
+        return result;
+    }
+
+    public List<Vertex> getVerticesNear(Point2D... points) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Point2D point : points) {
+            minX = Math.min(minX, point.getX());
+            minY = Math.min(minY, point.getY());
+            maxX = Math.max(maxX, point.getX());
+            maxY = Math.max(maxY, point.getY());
+        }
+        return getVerticesNear(minX, minY, maxX, maxY);
+    }
+
+    private void buildGrid() {
+        //cell size: average extent of a vertex, s.t. a vertex is contained in few cells
+        double sumOfExtents = 0;
+        int numberOfFiniteBoxes = 0;
+        for (Rectangle2D box : boxes) {
+            if (isFinite(box)) {
+                sumOfExtents += Math.max(box.getWidth(), box.getHeight());
+                ++numberOfFiniteBoxes;
+            }
+        }
+        cellSize = numberOfFiniteBoxes == 0 || sumOfExtents <= 0 ? 1 : sumOfExtents / numberOfFiniteBoxes;
+
+        for (int i = 0; i < boxes.length; i++) {
+            if (!isFinite(boxes[i])) {
+                //non-finite corners cannot lie in the triangle of a drawn edge
+                continue;
+            }
+            int fromX = cell(boxes[i].getMinX());
+            int toX = cell(boxes[i].getMaxX());
+            int fromY = cell(boxes[i].getMinY());
+            int toY = cell(boxes[i].getMaxY());
+            minCellX = Math.min(minCellX, fromX);
+            maxCellX = Math.max(maxCellX, toX);
+            minCellY = Math.min(minCellY, fromY);
+            maxCellY = Math.max(maxCellY, toY);
+            for (int x = fromX; x <= toX; x++) {
+                for (int y = fromY; y <= toY; y++) {
+                    grid.computeIfAbsent(key(x, y), k -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+    }
+
+    private int cell(double coordinate) {
+        double cell = Math.floor(coordinate / cellSize);
+        return (int) Math.max(Integer.MIN_VALUE / 2, Math.min(Integer.MAX_VALUE / 2, cell));
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private static boolean intersects(Rectangle2D box, double minX, double minY, double maxX, double maxY) {
+        return box.getMinX() <= maxX && box.getMaxX() >= minX && box.getMinY() <= maxY && box.getMaxY() >= minY;
+    }
+
+    private static boolean isFinite(Rectangle2D box) {
+        return Double.isFinite(box.getMinX()) && Double.isFinite(box.getMaxX()) && Double.isFinite(box.getMinY())
+                && Double.isFinite(box.getMaxY());
+    }
+
+    private static Rectangle2D boundingBox(List<Point2D> points) {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (Point2D point : points) {
+            minX = Math.min(minX, point.getX());
+            minY = Math.min(minY, point.getY());
+            maxX = Math.max(maxX, point.getX());
+            maxY = Math.max(maxY, point.getY());
+        }
+        return new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+    }
+}
@@ -22,10 +22,11 @@ import java.awt.geom.Line2D;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.io.IOException;
-import java.io.Writer;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 public class SVGDrawer {
 
@@ -67,6 +68,50 @@ public class SVGDrawer {
         }
     }
 
+    /**
+     * Like {@link SVGDrawer#draw(String, DrawingInformation)}, but the SVG elements are written directly to the file
+     * by a {@link StreamingSVGGraphics2D} instead of building a DOM first. This needs much less memory and time for
+     * large graphs.
+     * If savePath ends with ".svgz", the file is gzip-compressed.
+     */
+    public void drawStreaming(String savePath, DrawingInformation drawInfo) throws IOException {
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(savePath))) {
+            drawStreaming(outputStream, drawInfo, savePath.toLowerCase().endsWith(".svgz"));
+        }
+    }
+
+    /**
+     * @param gzip
+     *      if true, the output is gzip-compressed (svgz)
+     */
+    public void drawStreaming(OutputStream outputStream, DrawingInformation drawInfo, boolean gzip)
+            throws IOException {
+        if (gzip) {
+            GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
+            drawStreaming(new OutputStreamWriter(gzipOutputStream, StandardCharsets.UTF_8), drawInfo);
+            gzipOutputStream.finish();
+        }
+        else {
+            drawStreaming(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), drawInfo);
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * The writer is flushed, but not closed.
+     */
+    public void drawStreaming(Writer writer, DrawingInformation drawInfo) throws IOException {
+        this.drawInfo = drawInfo;
+        StreamingSVGGraphics2D svgGenerator = new StreamingSVGGraphics2D(writer);
+        try {
+            paint(svgGenerator);
+            svgGenerator.finish();
+        } catch (UncheckedIOException e) {
+            //the graphics cannot throw checked exceptions -> unwrap the failure of the writer
+            throw e.getCause();
+        }
+    }
+
     private SVGGraphics2D getSvgGenerator() {
         // Get a DOMImplementation.
         DOMImplementation domImpl =
@@ -85,13 +130,18 @@ public class SVGDrawer {
         return svgGenerator;
     }
 
-    public void paint(SVGGraphics2D g2d) {
+    public void paint(Graphics2D g2d) {
         //set canvas
         Rectangle2D bounds = DrawingUtils.determineDrawingBounds(graph, drawInfo, EMPTY_MARGIN_WIDTH);
         g2d.translate(-bounds.getX(), -bounds.getY());
         int canvasWidth = (int) (bounds.getWidth());
         int canvasHeight = (int) (bounds.getHeight());
-        g2d.setSVGCanvasSize(new Dimension(canvasWidth, canvasHeight));
+        if (g2d instanceof SVGGraphics2D) {
+            ((SVGGraphics2D) g2d).setSVGCanvasSize(new Dimension(canvasWidth, canvasHeight));
+        }
+        else if (g2d instanceof StreamingSVGGraphics2D) {
+            ((StreamingSVGGraphics2D) g2d).setSVGCanvasSize(new Dimension(canvasWidth, canvasHeight));
+        }
 
         LinkedHashSet<Port> portPairingsAlreadyDrawn = new LinkedHashSet<>();
 
@@ -173,8 +223,8 @@ public class SVGDrawer {
                     drawEdgeDirection(g2d, edge);
             }
         } else {
+            NodeBannedAreas banned = new NodeBannedAreas(calcNodeBannedArea());
             for (Edge edge : graph.getEdges()) {
-                Map<Vertex, List<Point2D>> banned = calcNodeBannedArea();
                 if (drawInfo.getLineShape().equals(SVGLineShape.BEZIER2D))
                     drawBezier2dEdge(g2d, edge, banned);
                 else if (drawInfo.getLineShape().equals(SVGLineShape.BEZIER3D))
@@ -185,7 +235,7 @@ public class SVGDrawer {
         }
     }
 
-    private void drawNodeLabel(SVGGraphics2D g2d, Vertex node) {
+    private void drawNodeLabel(Graphics2D g2d, Vertex node) {
         Rectangle2D nodeRectangle = (Rectangle2D) node.getShape();
         Label<? extends LabelStyle> mainLabel = node.getLabelManager().getMainLabel(); //TODO: draw all labels, not only main label
         if (mainLabel instanceof TextLabel) {
@@ -307,7 +357,7 @@ public class SVGDrawer {
 
     Map<Vertex, List<Point2D>> calcNodeBannedArea() {
 
-        Map<Vertex, List<Point2D>> nodeBannedArea = new HashMap<>();
+        Map<Vertex, List<Point2D>> nodeBannedArea = new LinkedHashMap<>();
         for (Vertex node : graph.getVertices()) {
 
             List<Point2D> banned = new ArrayList<>();
@@ -322,7 +372,16 @@ public class SVGDrawer {
         return nodeBannedArea;
     }
 
-    public void drawBezier2dEdge(SVGGraphics2D g2d, Edge edge, Map<Vertex, List<Point2D>> nodeBannedArea) {
+    /**
+     * Use {@link SVGDrawer#drawBezier2dEdge(Graphics2D, Edge, NodeBannedAreas)} instead and create the
+     * {@link NodeBannedAreas} only once per drawing.
+     */
+    @Deprecated
+    public void drawBezier2dEdge(Graphics2D g2d, Edge edge, Map<Vertex, List<Point2D>> nodeBannedArea) {
+        drawBezier2dEdge(g2d, edge, new NodeBannedAreas(nodeBannedArea));
+    }
+
+    public void drawBezier2dEdge(Graphics2D g2d, Edge edge, NodeBannedAreas nodeBannedArea) {
 
         List<List<Point2D>> edgeSegments = new ArrayList<>();
         Path2D bezierPath = new Path2D.Double();
@@ -426,10 +485,10 @@ public class SVGDrawer {
                             iteration += 1;
 
                             List<Vertex> verticesInTriangle = new ArrayList<>();
-                            for (Vertex node : nodeBannedArea.keySet()) {
+                            for (Vertex node : nodeBannedArea.getVerticesNear(p0, p1, p2)) {
                                 if (!node.equals(edge.getPorts().get(0).getVertex())
                                         && !node.equals(edge.getPorts().get(1).getVertex())) {
-                                    List<Point2D> corners = nodeBannedArea.get(node);
+                                    List<Point2D> corners = nodeBannedArea.getCorners(node);
                                     for (Point2D corner : corners) {
                                         if (!verticesInTriangle.contains(node)
                                                 && triangleInnerArea(p0, p1, corner) + triangleInnerArea(p0, p2, corner)
@@ -443,10 +502,10 @@ public class SVGDrawer {
                             // Falls Knoten innerhalb des Dreiecks liegen
                             if (!verticesInTriangle.isEmpty()) {
                                 // Finde den nächsten Knoten an P1 liegt und bestimme die nächste Ecke
-                                Point2D nearest = nodeBannedArea.get(verticesInTriangle.get(0)).get(0);
+                                Point2D nearest = nodeBannedArea.getCorners(verticesInTriangle.get(0)).get(0);
                                 double nearestDistance = distance(p1, nearest);
                                 for (Vertex vertex : verticesInTriangle) {
-                                    for (Point2D point : nodeBannedArea.get(vertex)) {
+                                    for (Point2D point : nodeBannedArea.getCorners(vertex)) {
                                         if (distance(p1, point) < nearestDistance) {
                                             nearest = point;
                                             nearestDistance = distance(p1, point);
@@ -584,7 +643,16 @@ public class SVGDrawer {
                 + p3.getX() * (p1.getY() - p2.getY()));
     }
 
-    public void drawBezier3dEdge(SVGGraphics2D g2d, Edge edge, Map<Vertex, List<Point2D>> nodeBannedArea) {
+    /**
+     * Use {@link SVGDrawer#drawBezier3dEdge(Graphics2D, Edge, NodeBannedAreas)} instead and create the
+     * {@link NodeBannedAreas} only once per drawing.
+     */
+    @Deprecated
+    public void drawBezier3dEdge(Graphics2D g2d, Edge edge, Map<Vertex, List<Point2D>> nodeBannedArea) {
+        drawBezier3dEdge(g2d, edge, new NodeBannedAreas(nodeBannedArea));
+    }
+
+    public void drawBezier3dEdge(Graphics2D g2d, Edge edge, NodeBannedAreas nodeBannedArea) {
 
         List<List<Point2D>> edgeSegments = new ArrayList<>();
         //graph.addSegment(edgeSegments);
@@ -694,8 +762,8 @@ public class SVGDrawer {
                         verticesInTriangle.put(0, new ArrayList<>());
                         verticesInTriangle.put(1, new ArrayList<>());
 
-                        for (Vertex node : nodeBannedArea.keySet()) {
-                            List<Point2D> corners = nodeBannedArea.get(node);
+                        for (Vertex node : nodeBannedArea.getVerticesNear(p0, p1, p2, p3)) {
+                            List<Point2D> corners = nodeBannedArea.getCorners(node);
                             for (Point2D corner : corners) {
                                 if (!verticesInTriangle.get(0).contains(node)
                                         && triangleInnerArea(p0, p1, corner) + triangleInnerArea(p0, p2, corner)
@@ -723,10 +791,11 @@ public class SVGDrawer {
                                 pointsInAnyTriangle = true;
 
                                 // Finde den nächsten Knoten am Kontrollpunkt liegt und bestimme die nächste Ecke
-                                Point2D nearest = nodeBannedArea.get(verticesInTriangle.get(triangleIndex).get(0)).get(0);
+                                Point2D nearest =
+                                        nodeBannedArea.getCorners(verticesInTriangle.get(triangleIndex).get(0)).get(0);
                                 double nearestDistance = distance(control, nearest);
                                 for (Vertex vertex : verticesInTriangle.get(triangleIndex)) {
-                                    for (Point2D point : nodeBannedArea.get(vertex)) {
+                                    for (Point2D point : nodeBannedArea.getCorners(vertex)) {
                                         if (distance(control, point) < nearestDistance) {
                                             nearest = point;
                                             nearestDistance = distance(control, point);
@@ -856,11 +925,11 @@ public class SVGDrawer {
                 point.getX(), nearest.getY() - (nearest.getX() - point.getX()) * slope);
     }
 
-    public static void drawStraightEdge(SVGGraphics2D g2d, double x1, double y1, double x2, double y2) {
+    public static void drawStraightEdge(Graphics2D g2d, double x1, double y1, double x2, double y2) {
         g2d.draw(new Line2D.Double(x1, y1, x2, y2));
     }
 
-    private void drawEdgeLabel(SVGGraphics2D g2d, Edge edge, float xCoordinate, float yCoordinate) {
+    private void drawEdgeLabel(Graphics2D g2d, Edge edge, float xCoordinate, float yCoordinate) {
         Label mainLabel = edge.getLabelManager().getMainLabel();
         if (mainLabel instanceof TextLabel) {
             g2d.setFont(FontManager.fontOf((TextLabel) mainLabel));
@@ -885,7 +954,7 @@ public class SVGDrawer {
         }
     }
 
-    public void drawEdgeDirection(SVGGraphics2D g2d, Edge edge) {
+    public void drawEdgeDirection(Graphics2D g2d, Edge edge) {
         if (!edge.getDirection().equals(EdgeDirection.UNDIRECTED)) {
             Point2D arrowHead = new Point2D.Double(), arrowOrigin = new Point2D.Double();
             if (edge.getDirection().equals(EdgeDirection.OUTGOING)) {
@@ -0,0 +1,525 @@
+package de.uniwue.informatik.praline.io.output.svg;
+
+import org.apache.batik.ext.awt.g2d.AbstractGraphics2D;
+import org.apache.batik.ext.awt.g2d.GraphicContext;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.awt.image.RenderedImage;
+import java.awt.image.renderable.RenderableImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.text.AttributedCharacterIterator;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+
+/**
+ * A {@link Graphics2D} that writes each drawn shape or string directly as SVG element to a {@link Writer} instead of
+ * building a DOM like {@link org.apache.batik.svggen.SVGGraphics2D}. So the memory needed does not grow with the
+ * size of the drawing.
+ *
+ * Styles (colors, strokes, fonts) are shared via CSS classes, which are defined in a style element at the end of the
+ * document. Supported are shapes, strings, colors, {@link BasicStroke}s, transformations and images (embedded as PNG
+ * data URIs); clips, gradients, composites and copyArea are ignored.
+ *
+ * {@link StreamingSVGGraphics2D#finish()} must be called after painting to complete the document.
+ * Not thread-safe.
+ */
+public class StreamingSVGGraphics2D extends AbstractGraphics2D {
+
+    private static final String ROOT_STYLE = "fill:black; stroke:black; stroke-width:1; stroke-linecap:square; " +
+            "stroke-linejoin:miter; stroke-miterlimit:10; font-family:'Dialog'; font-size:12; font-style:normal; " +
+            "font-weight:normal";
+
+    private final Output output;
+
+    /**
+     * @param writer
+     *      is neither flushed nor closed by this class, except by {@link StreamingSVGGraphics2D#finish()}, which
+     *      flushes it
+     */
+    public StreamingSVGGraphics2D(Writer writer) {
+        super(true);
+        this.gc = new GraphicContext();
+        this.output = new Output(writer);
+    }
+
+    private StreamingSVGGraphics2D(StreamingSVGGraphics2D g) {
+        super(g);
+        this.output = g.output;
+    }
+
+    /**
+     * Must be called before anything is drawn, otherwise the document has no size.
+     */
+    public void setSVGCanvasSize(Dimension canvasSize) {
+        if (output.headerWritten) {
+            throw new IllegalStateException("The canvas size must be set before anything is drawn.");
+        }
+        output.canvasSize = canvasSize;
+    }
+
+    /**
+     * Writes the style definitions and closes the document.
+     */
+    public void finish() {
+        try {
+            output.writeHeaderIfNecessary();
+            output.closeGroup();
+            if (!output.styleClasses.isEmpty()) {
+                output.writer.write("  <style type=\"text/css\"><![CDATA[\n");
+                for (Map.Entry<String, String> styleClass : output.styleClasses.entrySet()) {
+                    output.writer.write("    .");
+                    output.writer.write(styleClass.getValue());
+                    output.writer.write(" {");
+                    output.writer.write(styleClass.getKey());
+                    output.writer.write("}\n");
+                }
+                output.writer.write("  ]]></style>\n");
+            }
+            output.writer.write("</svg>\n");
+            output.writer.flush();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void draw(Shape s) {
+        if (!(getStroke() instanceof BasicStroke)) {
+            fill(getStroke().createStrokedShape(s));
+            return;
+        }
+        StringBuilder style = new StringBuilder("fill:none; ");
+        appendColor(style, "stroke", getColor());
+        BasicStroke stroke = (BasicStroke) getStroke();
+        if (stroke.getLineWidth() != 1) {
+            style.append("; stroke-width:");
+            appendNumber(style, stroke.getLineWidth());
+        }
+        if (stroke.getEndCap() != BasicStroke.CAP_SQUARE) {
+            style.append("; stroke-linecap:").append(stroke.getEndCap() == BasicStroke.CAP_BUTT ? "butt" : "round");
+        }
+        if (stroke.getLineJoin() != BasicStroke.JOIN_MITER) {
+            style.append("; stroke-linejoin:").append(stroke.getLineJoin() == BasicStroke.JOIN_BEVEL ? "bevel" :
+                    "round");
+        }
+        if (stroke.getDashArray() != null) {
+            style.append("; stroke-dasharray:");
+            float[] dashArray = stroke.getDashArray();
+            for (int i = 0; i < dashArray.length; i++) {
+                if (i > 0) {
+                    style.append(',');
+                }
+                appendNumber(style, dashArray[i]);
+            }
+        }
+        writeShape(s, style.toString());
+    }
+
+    @Override
+    public void fill(Shape s) {
+        StringBuilder style = new StringBuilder();
+        appendColor(style, "fill", getColor());
+        style.append("; stroke:none");
+        writeShape(s, style.toString());
+    }
+
+    @Override
+    public void drawString(String str, float x, float y) {
+        Font font = getFont();
+        StringBuilder style = new StringBuilder();
+        appendColor(style, "fill", getColor());
+        style.append("; stroke:none; font-family:").append(fontFamily(font)).append("; font-size:");
+        appendNumber(style, font.getSize2D());
+        if (font.isBold()) {
+            style.append("; font-weight:bold");
+        }
+        if (font.isItalic()) {
+            style.append("; font-style:italic");
+        }
+
+        StringBuilder element = new StringBuilder("<text x=\"");
+        appendNumber(element, x);
+        element.append("\" y=\"");
+        appendNumber(element, y);
+        element.append("\" class=\"").append(output.styleClass(style.toString())).append("\" xml:space=\"preserve\">");
+        appendEscaped(element, str);
+        element.append("</text>");
+        output.writeElement(element, getTransform());
+    }
+
+    @Override
+    public void drawString(AttributedCharacterIterator iterator, float x, float y) {
+        StringBuilder text = new StringBuilder();
+        for (char c = iterator.first(); c != AttributedCharacterIterator.DONE; c = iterator.next()) {
+            text.append(c);
+        }
+        drawString(text.toString(), x, y);
+    }
+
+    @Override
+    public void drawGlyphVector(GlyphVector g, float x, float y) {
+        fill(g.getOutline(x, y));
+    }
+
+    @Override
+    public FontMetrics getFontMetrics(Font f) {
+        return output.fontMetricsGraphics.getFontMetrics(f);
+    }
+
+    @Override
+    public GraphicsConfiguration getDeviceConfiguration() {
+        return null;
+    }
+
+    @Override
+    public Graphics create() {
+        return new StreamingSVGGraphics2D(this);
+    }
+
+    @Override
+    public void dispose() {
+        //nothing to release -- the document is completed by finish()
+    }
+
+    @Override
+    public void setXORMode(Color c1) {
+        //not supported in SVG -> ignored
+    }
+
+    /**
+     * There is no pixel buffer in a vector document, so there is nothing to copy -> ignored
+     */
+    @Override
+    public void copyArea(int x, int y, int width, int height, int dx, int dy) {
+    }
+
+    @Override
+    public boolean drawImage(Image img, int x, int y, ImageObserver observer) {
+        RenderedImage image = toRenderedImage(img, observer);
+        if (image == null) {
+            return false;
+        }
+        writeImage(image, x, y, image.getWidth(), image.getHeight(), getTransform());
+        return true;
+    }
+
+    @Override
+    public boolean drawImage(Image img, int x, int y, int width, int height, ImageObserver observer) {
+        RenderedImage image = toRenderedImage(img, observer);
+        if (image == null) {
+            return false;
+        }
+        writeImage(image, x, y, width, height, getTransform());
+        return true;
+    }
+
+    @Override
+    public void drawRenderedImage(RenderedImage img, AffineTransform xform) {
+        AffineTransform transform = getTransform();
+        if (xform != null) {
+            transform.concatenate(xform);
+        }
+        writeImage(img, img.getMinX(), img.getMinY(), img.getWidth(), img.getHeight(), transform);
+    }
+
+    @Override
+    public void drawRenderableImage(RenderableImage img, AffineTransform xform) {
+        drawRenderedImage(img.createDefaultRendering(), xform);
+    }
+
+    /**
+     * @return
+     *      null if the image is not (yet) loaded completely
+     */
+    private static RenderedImage toRenderedImage(Image img, ImageObserver observer) {
+        if (img instanceof RenderedImage) {
+            return (RenderedImage) img;
+        }
+        int width = img.getWidth(observer);
+        int height = img.getHeight(observer);
+        if (width < 0 || height < 0) {
+            return null;
+        }
+        BufferedImage bufferedImage = new BufferedImage(Math.max(width, 1), Math.max(height, 1), TYPE_INT_ARGB);
+        Graphics2D g = bufferedImage.createGraphics();
+        boolean complete = g.drawImage(img, 0, 0, observer);
+        g.dispose();
+        return complete ? bufferedImage : null;
+    }
+
+    /**
+     * Embeds the image as PNG data URI (like the Batik generator does by default).
+     */
+    private void writeImage(RenderedImage image, double x, double y, double width, double height,
+                            AffineTransform transform) {
+        if (image.getWidth() <= 0 || image.getHeight() <= 0) {
+            return;
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        try {
+            if (!ImageIO.write(image, "png", png)) {
+                throw new IllegalArgumentException("The image cannot be encoded as PNG.");
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        StringBuilder element = new StringBuilder("<image x=\"");
+        appendNumber(element, x);
+        element.append("\" y=\"");
+        appendNumber(element, y);
+        element.append("\" width=\"");
+        appendNumber(element, width);
+        element.append("\" height=\"");
+        appendNumber(element, height);
+        element.append("\" preserveAspectRatio=\"none\" xlink:href=\"data:image/png;base64,");
+        element.append(Base64.getEncoder().encodeToString(png.toByteArray()));
+        element.append("\"/>");
+        output.writeElement(element, transform);
+    }
+
+    private void writeShape(Shape s, String style) {
+        StringBuilder element = new StringBuilder();
+        boolean evenOdd = false;
+        if (s instanceof Rectangle2D) {
+            Rectangle2D rectangle = (Rectangle2D) s;
+            element.append("<rect x=\"");
+            appendNumber(element, rectangle.getX());
+            element.append("\" y=\"");
+            appendNumber(element, rectangle.getY());
+            element.append("\" width=\"");
+            appendNumber(element, rectangle.getWidth());
+            element.append("\" height=\"");
+            appendNumber(element, rectangle.getHeight());
+        }
+        else if (s instanceof Line2D) {
+            Line2D line = (Line2D) s;
+            element.append("<line x1=\"");
+            appendNumber(element, line.getX1());
+            element.append("\" y1=\"");
+            appendNumber(element, line.getY1());
+            element.append("\" x2=\"");
+            appendNumber(element, line.getX2());
+            element.append("\" y2=\"");
+            appendNumber(element, line.getY2());
+        }
+        else {
+            element.append("<path d=\"");
+            PathIterator pathIterator = s.getPathIterator(null);
+            evenOdd = pathIterator.getWindingRule() == PathIterator.WIND_EVEN_ODD;
+            if (pathIterator.isDone()) {
+                //empty shape -> nothing to draw
+                return;
+            }
+            appendPath(element, pathIterator);
+        }
+        element.append('"');
+        if (evenOdd) {
+            element.append(" fill-rule=\"evenodd\"");
+        }
+        element.append(" class=\"").append(output.styleClass(style)).append("\"/>");
+        output.writeElement(element, getTransform());
+    }
+
+    private static void appendPath(StringBuilder sb, PathIterator pathIterator) {
+        double[] coordinates = new double[6];
+        for (; !pathIterator.isDone(); pathIterator.next()) {
+            int numberOfPoints;
+            switch (pathIterator.currentSegment(coordinates)) {
+                case PathIterator.SEG_MOVETO:
+                    sb.append('M');
+                    numberOfPoints = 1;
+                    break;
+                case PathIterator.SEG_LINETO:
+                    sb.append('L');
+                    numberOfPoints = 1;
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    sb.append('Q');
+                    numberOfPoints = 2;
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    sb.append('C');
+                    numberOfPoints = 3;
+                    break;
+                default:
+                    sb.append("Z ");
+                    continue;
+            }
+            for (int i = 0; i < 2 * numberOfPoints; i++) {
+                appendNumber(sb, coordinates[i]);
+                sb.append(' ');
+            }
+        }
+        if (sb.charAt(sb.length() - 1) == ' ') {
+            sb.setLength(sb.length() - 1);
+        }
+    }
+
+    private static void appendColor(StringBuilder sb, String property, Color color) {
+        sb.append(property).append(":rgb(").append(color.getRed()).append(',').append(color.getGreen()).append(',')
+                .append(color.getBlue()).append(')');
+        if (color.getAlpha() != 255) {
+            sb.append("; ").append(property).append("-opacity:");
+            appendNumber(sb, color.getAlpha() / 255.0);
+        }
+    }
+
+    private static String fontFamily(Font font) {
+        String family = font.getFamily();
+        switch (family) {
+            case Font.SANS_SERIF:
+                return "sans-serif";
+            case Font.SERIF:
+                return "serif";
+            case Font.MONOSPACED:
+                return "monospace";
+            default:
+                return "'" + family.replace("'", "") + "'";
+        }
+    }
+
+    /**
+     * Appends the value rounded to 4 decimal places without trailing zeros (like the Batik generator).
+     */
+    static void appendNumber(StringBuilder sb, double value) {
+        if (!Double.isFinite(value) || Math.abs(value) >= 1e14) {
+            sb.append(value);
+            return;
+        }
+        long scaled = Math.round(value * 10000);
+        if (scaled < 0) {
+            sb.append('-');
+            scaled = -scaled;
+        }
+        sb.append(scaled / 10000);
+        int fraction = (int) (scaled % 10000);
+        if (fraction != 0) {
+            sb.append('.');
+            for (int divisor = 1000; fraction != 0; divisor /= 10) {
+                sb.append((char) ('0' + fraction / divisor));
+                fraction %= divisor;
+            }
+        }
+    }
+
+    private static void appendEscaped(StringBuilder sb, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    sb.append("&lt;");
+                    break;
+                case '>':
+                    sb.append("&gt;");
+                    break;
+                case '&':
+                    sb.append("&amp;");
+                    break;
+                case '"':
+                    sb.append("&quot;");
+                    break;
+                default:
+                    //characters not allowed in XML are dropped
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        sb.append(c);
+                    }
+            }
+        }
+    }
+
+    /**
+     * State shared by all graphics objects created from the same root.
+     */
+    private static class Output {
+        private final Writer writer;
+        private final Map<String, String> styleClasses = new LinkedHashMap<>();
+        private final Graphics2D fontMetricsGraphics = new BufferedImage(1, 1, TYPE_INT_ARGB).createGraphics();
+        private Dimension canvasSize;
+        private boolean headerWritten;
+        private AffineTransform groupTransform;
+
+        private Output(Writer writer) {
+            this.writer = writer;
+        }
+
+        private String styleClass(String style) {
+            return styleClasses.computeIfAbsent(style, s -> "s" + styleClasses.size());
+        }
+
+        private void writeElement(CharSequence element, AffineTransform transform) {
+            try {
+                writeHeaderIfNecessary();
+                if (groupTransform == null || !groupTransform.equals(transform)) {
+                    closeGroup();
+                    StringBuilder group = new StringBuilder("  <g");
+                    if (!transform.isIdentity()) {
+                        group.append(" transform=\"");
+                        if (transform.getType() == AffineTransform.TYPE_TRANSLATION) {
+                            group.append("translate(");
+                            appendNumber(group, transform.getTranslateX());
+                            group.append(',');
+                            appendNumber(group, transform.getTranslateY());
+                        }
+                        else {
+                            double[] matrix = new double[6];
+                            transform.getMatrix(matrix);
+                            group.append("matrix(");
+                            for (int i = 0; i < matrix.length; i++) {
+                                if (i > 0) {
+                                    group.append(',');
+                                }
+                                appendNumber(group, matrix[i]);
+                            }
+                        }
+                        group.append(")\"");
+                    }
+                    group.append(">\n");
+                    writer.append(group);
+                    groupTransform = transform;
+                }
+                writer.write("    ");
+                writer.append(element);
+                writer.write('\n');
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeHeaderIfNecessary() throws IOException {
+            if (headerWritten) {
+                return;
+            }
+            headerWritten = true;
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"");
+            if (canvasSize != null) {
+                writer.write(" width=\"" + canvasSize.width + "\" height=\"" + canvasSize.height + "\"");
+            }
+            writer.write(" style=\"" + ROOT_STYLE.replace("'", "&apos;") + "\">\n");
+        }
+
+        private void closeGroup() throws IOException {
+            if (groupTransform != null) {
+                writer.write("  </g>\n");
+                groupTransform = null;
+            }
+        }
+    }
+}
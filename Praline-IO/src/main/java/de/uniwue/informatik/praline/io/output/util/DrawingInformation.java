@@ -46,9 +46,11 @@ public class DrawingInformation {
     public final static SVGLineShape DEFAULT_LINE_SHAPE = SVGLineShape.STRAIGHT;
 
 
-    //TODO: JZ: I think this should not be static, but instance-wide, moreover set font in constructor
-    //          currently this is done on various other places
-    public static Graphics2D g2d = new BufferedImage(4000,2000,TYPE_INT_ARGB).createGraphics();
+    /**
+     * Not used any more for measuring labels -- use {@link TextMetrics} instead, which is thread-safe and caches.
+     */
+    @Deprecated
+    public static Graphics2D g2d = new BufferedImage(1,1,TYPE_INT_ARGB).createGraphics();
 
     private double borderWidth;
     private double vertexHeight; //TODO: as minimum height/flexible for diff. heights (multiple labels above each other)
@@ -204,10 +206,8 @@ public class DrawingInformation {
         double minWidth = 0;
         for (Label<? extends LabelStyle> label : labels) {
             if (label instanceof TextLabel) {
-                g2d.setFont(FontManager.fontOf((TextLabel) label));
                 if (((TextLabel) label).getLayoutText() != null) {
-                    minWidth = Math.max(minWidth,
-                            g2d.getFontMetrics().getStringBounds(((TextLabel) label).getLayoutText(), g2d).getWidth());
+                    minWidth = Math.max(minWidth, TextMetrics.getStringBounds((TextLabel) label).getWidth());
                 }
             }
         }
@@ -232,10 +232,8 @@ public class DrawingInformation {
         double minHeight = vertexHeight;
         for (Label<? extends LabelStyle> label : labels) {
             if (label instanceof TextLabel) {
-                g2d.setFont(FontManager.fontOf((TextLabel) label));
                 if (((TextLabel) label).getLayoutText() != null) {
-                    minHeight = Math.max(minHeight,
-                            g2d.getFontMetrics().getStringBounds(((TextLabel) label).getLayoutText(), g2d).getHeight());
+                    minHeight = Math.max(minHeight, TextMetrics.getStringBounds((TextLabel) label).getHeight());
                 }
             }
         }
@@ -0,0 +1,151 @@
+package de.uniwue.informatik.praline.io.output.util;
+
+import de.uniwue.informatik.praline.datastructure.labels.TextLabel;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.awt.image.BufferedImage.TYPE_INT_ARGB;
+
+/**
+ * Measures text in the same way as {@link FontMetrics#getStringBounds(String, Graphics)} on the {@link Graphics2D} of
+ * a {@link BufferedImage}, but without such an image and thread-safe.
+ *
+ * For fonts without layout attributes (e.g. the monospace {@link FontManager#DEFAULT_FONT}) and texts consisting of
+ * Latin-1 characters only, the bounds are assembled from a per-font table of glyph advances, which is what java.awt
+ * does internally for such "simple" texts. All other texts are measured via
+ * {@link Font#getStringBounds(String, FontRenderContext)}. In both cases the results are cached (bounded).
+ */
+public class TextMetrics {
+
+    public static final int MAX_CACHE_SIZE = 1 << 16;
+
+    private static final int NUMBER_OF_TABULATED_CHARS = 0x100;
+
+    //the font render context of an image's graphics as used before (identity transform, no anti-aliasing,
+    // no fractional metrics); it is immutable and can thus be shared
+    private static final FontRenderContext FONT_RENDER_CONTEXT = createFontRenderContext();
+
+    private static final Map<Font, GlyphAdvances> glyphAdvances = new ConcurrentHashMap<>();
+    private static final Map<CacheKey, Rectangle2D> cache = new ConcurrentHashMap<>();
+
+    private TextMetrics() {
+    }
+
+    public static FontRenderContext getFontRenderContext() {
+        return FONT_RENDER_CONTEXT;
+    }
+
+    /**
+     * @return
+     *      bounds of the layout text of this label in the font returned by {@link FontManager#fontOf(TextLabel)}
+     */
+    public static Rectangle2D getStringBounds(TextLabel label) {
+        return getStringBounds(FontManager.fontOf(label), label.getLayoutText());
+    }
+
+    /**
+     * @return
+     *      a new rectangle, so the caller may modify it
+     */
+    public static Rectangle2D getStringBounds(Font font, String text) {
+        CacheKey key = new CacheKey(font, text);
+        Rectangle2D bounds = cache.get(key);
+        if (bounds == null) {
+            bounds = measure(font, text);
+            //simple bound: if the cache is full, start over instead of evicting single entries
+            if (cache.size() >= MAX_CACHE_SIZE) {
+                cache.clear();
+            }
+            cache.put(key, bounds);
+        }
+        return (Rectangle2D) bounds.clone();
+    }
+
+    public static double getStringWidth(Font font, String text) {
+        return getStringBounds(font, text).getWidth();
+    }
+
+    public static double getStringHeight(Font font, String text) {
+        return getStringBounds(font, text).getHeight();
+    }
+
+    public static void clearCache() {
+        cache.clear();
+        glyphAdvances.clear();
+    }
+
+    private static Rectangle2D measure(Font font, String text) {
+        if (!font.hasLayoutAttributes() && isTabulated(text)) {
+            GlyphAdvances advances = glyphAdvances.computeIfAbsent(font, GlyphAdvances::new);
+            //sum up in float and in the same order as java.awt does
+            float width = 0;
+            for (int i = 0; i < text.length(); i++) {
+                width += advances.advances[text.charAt(i)];
+            }
+            return new Rectangle2D.Float(0, advances.y, width, advances.height);
+        }
+        return font.getStringBounds(text, FONT_RENDER_CONTEXT);
+    }
+
+    private static boolean isTabulated(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= NUMBER_OF_TABULATED_CHARS) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static FontRenderContext createFontRenderContext() {
+        Graphics2D g2d = new BufferedImage(1, 1, TYPE_INT_ARGB).createGraphics();
+        FontRenderContext fontRenderContext = g2d.getFontRenderContext();
+        g2d.dispose();
+        return fontRenderContext;
+    }
+
+    private static class GlyphAdvances {
+        private final float[] advances = new float[NUMBER_OF_TABULATED_CHARS];
+        private final float y;
+        private final float height;
+
+        private GlyphAdvances(Font font) {
+            for (char c = 0; c < NUMBER_OF_TABULATED_CHARS; c++) {
+                advances[c] = (float) font.getStringBounds(String.valueOf(c), FONT_RENDER_CONTEXT).getWidth();
+            }
+            Rectangle2D emptyBounds = font.getStringBounds("", FONT_RENDER_CONTEXT);
+            y = (float) emptyBounds.getY();
+            height = (float) emptyBounds.getHeight();
+        }
+    }
+
+    private static class CacheKey {
+        private final Font font;
+        private final String text;
+        private final int hashCode;
+
+        private CacheKey(Font font, String text) {
+            this.font = font;
+            this.text = text;
+            this.hashCode = Objects.hash(font, text);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CacheKey)) return false;
+            CacheKey cacheKey = (CacheKey) o;
+            return font.equals(cacheKey.font) && text.equals(cacheKey.text);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
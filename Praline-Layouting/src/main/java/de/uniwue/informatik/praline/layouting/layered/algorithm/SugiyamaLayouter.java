@@ -7,6 +7,7 @@ import de.uniwue.informatik.praline.io.output.svg.SVGDrawer;
 import de.uniwue.informatik.praline.io.output.util.DrawingInformation;
 import de.uniwue.informatik.praline.io.output.util.DrawingUtils;
 import de.uniwue.informatik.praline.layouting.PralineLayouter;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.crossingreduction.BilayerCrossingCounter;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.crossingreduction.CrossingMinimization;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.crossingreduction.CrossingMinimizationMethod;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.crossingreduction.HandlingDeadEnds;
@@ -23,10 +24,17 @@ import de.uniwue.informatik.praline.layouting.layered.algorithm.preprocessing.Co
 import de.uniwue.informatik.praline.layouting.layered.algorithm.preprocessing.DummyCreationResult;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.preprocessing.DummyNodeCreation;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.preprocessing.GraphPreprocessor;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.util.Constants;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.util.DummyNodeType;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.util.SortingOrder;
+import org.eclipse.elk.core.util.Pair;
 
 import java.awt.geom.Rectangle2D;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class SugiyamaLayouter implements PralineLayouter {
 
@@ -47,6 +55,7 @@ public class SugiyamaLayouter implements PralineLayouter {
 
     private Graph graph;
     private DrawingInformation drawInfo;
+    private Random random;
 
     private boolean isSingleComponent;
 
@@ -69,6 +78,8 @@ public class SugiyamaLayouter implements PralineLayouter {
     private Map<Vertex, Vertex> dummyTurningNodes;
     private Set<Vertex> dummyNodesForEdgesOfDeg1or0;
     private Set<Vertex> dummyNodesForNodelessPorts;
+    //all dummy vertices of the maps and sets above, so that they can be identified without labels
+    private Map<Vertex, DummyNodeType> dummyNodeTypes;
     private Map<Port, Port> replacedPorts;
     private Map<Port, List<Port>> multipleEdgePort2replacePorts;
     private Map<Port, Port> keptPortPairings;
@@ -100,6 +111,9 @@ public class SugiyamaLayouter implements PralineLayouter {
 
     //internal
     private boolean useFDLayoutForInitialNodeOrder;
+    private ExecutorService crossingMinimizationExecutor;
+    private ExecutorService componentExecutor;
+    private boolean stopForceDirectedWhenVertexOrderIsStable;
     private DirectionAssignment da;
     private CycleBreaker cb;
 
@@ -108,12 +122,23 @@ public class SugiyamaLayouter implements PralineLayouter {
     }
 
     public SugiyamaLayouter(Graph graph, DrawingInformation drawInfo) {
-        this(graph, drawInfo, false);
+        this(graph, drawInfo, Constants.SEED);
     }
 
-    private SugiyamaLayouter(Graph graph, DrawingInformation drawInfo, boolean isSingleComponent) {
+    /**
+     * @param seed
+     *      all random decisions of this layouter are drawn from its own {@link Random} initialized with this seed.
+     *      Hence, the same seed yields the same layout and several layouters may run concurrently without
+     *      influencing each other.
+     */
+    public SugiyamaLayouter(Graph graph, DrawingInformation drawInfo, long seed) {
+        this(graph, drawInfo, false, seed);
+    }
+
+    private SugiyamaLayouter(Graph graph, DrawingInformation drawInfo, boolean isSingleComponent, long seed) {
         this.graph = graph;
         this.drawInfo = drawInfo;
+        this.random = new Random(seed);
 
         //find components
         List<Graph> components = null;
@@ -136,7 +161,7 @@ public class SugiyamaLayouter implements PralineLayouter {
             componentLayouters = new ArrayList<>(components.size());
 
             for (Graph component : components) {
-                componentLayouters.add(new SugiyamaLayouter(component, drawInfo, true));
+                componentLayouters.add(new SugiyamaLayouter(component, drawInfo, true, random.nextLong()));
             }
         }
 
@@ -166,6 +191,11 @@ public class SugiyamaLayouter implements PralineLayouter {
                               int numberOfIterationsFD, CrossingMinimizationMethod cmMethod, int numberOfIterationsCM,
                               AlignmentParameters.Method alignmentMethod,
                               AlignmentParameters.Preference alignmentPreference) {
+        if (!isSingleComponent && componentExecutor != null) {
+            computeLayoutsOfComponentsConcurrently(cycleBreakingMethod, directionMethod, layerAssignmentMethod,
+                    numberOfIterationsFD, cmMethod, numberOfIterationsCM, alignmentMethod, alignmentPreference);
+            return;
+        }
         construct();
         assignDirections(cycleBreakingMethod, directionMethod, numberOfIterationsFD);
         assignLayers(layerAssignmentMethod, directionMethod);
@@ -200,6 +230,50 @@ public class SugiyamaLayouter implements PralineLayouter {
         prepareDrawing();
     }
 
+    /**
+     * Runs the whole pipeline of each component as one task on {@link SugiyamaLayouter#getComponentExecutor()}
+     * (largest components first) and afterwards packs the drawings of the components side by side.
+     * As the components are disjoint and each has its own {@link Random}, the result is the same as for serial
+     * execution.
+     */
+    private void computeLayoutsOfComponentsConcurrently(CycleBreakingMethod cycleBreakingMethod,
+                                                        DirectionMethod directionMethod,
+                                                        LayerAssignmentMethod layerAssignmentMethod,
+                                                        int numberOfIterationsFD, CrossingMinimizationMethod cmMethod,
+                                                        int numberOfIterationsCM,
+                                                        AlignmentParameters.Method alignmentMethod,
+                                                        AlignmentParameters.Preference alignmentPreference) {
+        //componentLayouters are sorted by size (descending), so the largest components are submitted first
+        List<Future<?>> futures = new ArrayList<>(componentLayouters.size());
+        for (SugiyamaLayouter componentLayouter : componentLayouters) {
+            futures.add(componentExecutor.submit(() -> componentLayouter.computeLayout(cycleBreakingMethod,
+                    directionMethod, layerAssignmentMethod, numberOfIterationsFD, cmMethod, numberOfIterationsCM,
+                    alignmentMethod, alignmentPreference)));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        catch (InterruptedException e) {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during computing the layouts of the components.", e);
+        }
+        catch (ExecutionException e) {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() :
+                    new IllegalStateException(e.getCause());
+        }
+
+        //combine drawings of separate layouters
+        unifyDrawings();
+    }
+
     // change graph so that
     // each Edge has exactly two Ports
     // each Port has max one Edge
@@ -327,6 +401,9 @@ public class SugiyamaLayouter implements PralineLayouter {
             if (layerAssignmentMethod == LayerAssignmentMethod.NETWORK_SIMPLEX) {
                 la = new LayerAssignmentNetworkSimplex(this, da);
             }
+            else if (layerAssignmentMethod == LayerAssignmentMethod.FAST_NETWORK_SIMPLEX) {
+                la = new FastLayerAssignmentNetworkSimplex(this, da);
+            }
             else if (layerAssignmentMethod == LayerAssignmentMethod.OLD_NETWORK_SIMPLEX) {
                 la = new OldLayerAssignmentNetworkSimplex(this);
             }
@@ -385,20 +462,13 @@ public class SugiyamaLayouter implements PralineLayouter {
             dnc.assignWrongSidePortsTemporaryToOtherSide();
             dnc.createDummyNodesForEdges();
             CrossingMinimization cm1 = new CrossingMinimization(this);
-            SortingOrder result = cm1.layerSweepWithBarycenterHeuristic(cmMethod, orders,
+            orders = cm1.layerSweepWithBarycenterHeuristic(cmMethod, orders,
                     !useFDLayoutForInitialNodeOrder, movePortsAdjToTurningDummiesToTheOutside,
                     placeTurningDummiesNextToTheirVertex, false, handlingDeadEnds);
-            orders = result;
-            int crossings = countCrossings(result);
-            for (int i = 1; i < numberOfIterations; i++) {
-                result = cm1.layerSweepWithBarycenterHeuristic(cmMethod, orders, true,
-                        movePortsAdjToTurningDummiesToTheOutside, placeTurningDummiesNextToTheirVertex, false,
+            if (numberOfIterations > 1) {
+                orders = doRandomRestartsOfCrossingMinimization(orders, numberOfIterations - 1, cmMethod,
+                        movePortsAdjToTurningDummiesToTheOutside, placeTurningDummiesNextToTheirVertex,
                         handlingDeadEnds);
-                int crossingsNew = countCrossings(result);
-                if (crossingsNew < crossings) {
-                    crossings = crossingsNew;
-                    orders = result;
-                }
             }
             //second crossing minimization phase with all ports on their "real" side
             dnc.undoAssigningPortsTemporaryToOtherSide();
@@ -406,6 +476,7 @@ public class SugiyamaLayouter implements PralineLayouter {
             this.dummyNodesLongEdges = dummyNodeData.getDummyNodesLongEdges();
             this.dummyNodesSelfLoops = dummyNodeData.getDummyNodesSelfLoops();
             this.dummyTurningNodes = dummyNodeData.getDummyTurningNodes();
+            this.dummyNodeTypes.putAll(dummyNodeData.getDummyNodeTypes());
             this.nodeToLowerDummyTurningPoint = dummyNodeData.getNodeToLowerDummyTurningPoint();
             this.nodeToUpperDummyTurningPoint = dummyNodeData.getNodeToUpperDummyTurningPoint();
             this.correspondingPortsAtDummy = dummyNodeData.getCorrespondingPortsAtDummy();
@@ -426,6 +497,79 @@ public class SugiyamaLayouter implements PralineLayouter {
         }
     }
 
+    /**
+     * Each restart starts from startOrders with a random permutation and has its own {@link CrossingMinimization}
+     * and its own {@link Random}, whose seed is drawn before any restart is run.
+     * Hence, the restarts are independent and may run in parallel on
+     * {@link SugiyamaLayouter#setCrossingMinimizationExecutor(ExecutorService)}.
+     * Among the orders with the fewest crossings the one of the first restart is chosen,
+     * so the result is the same for serial and parallel execution.
+     *
+     * @return
+     *      startOrders or the result of a restart if it has fewer crossings
+     */
+    private SortingOrder doRandomRestartsOfCrossingMinimization(SortingOrder startOrders, int numberOfRestarts,
+                                                                CrossingMinimizationMethod cmMethod,
+                                                                boolean movePortsAdjToTurningDummiesToTheOutside,
+                                                                boolean placeTurningDummiesNextToTheirVertex,
+                                                                HandlingDeadEnds handlingDeadEnds) {
+        List<Callable<Pair<SortingOrder, Integer>>> restarts = new ArrayList<>(numberOfRestarts);
+        for (int i = 0; i < numberOfRestarts; i++) {
+            long seed = random.nextLong();
+            restarts.add(() -> {
+                CrossingMinimization cm = new CrossingMinimization(this, new Random(seed));
+                SortingOrder result = cm.layerSweepWithBarycenterHeuristic(cmMethod, startOrders, true,
+                        movePortsAdjToTurningDummiesToTheOutside, placeTurningDummiesNextToTheirVertex, false,
+                        handlingDeadEnds);
+                return new Pair<>(result, new BilayerCrossingCounter().countCrossings(result));
+            });
+        }
+
+        List<Pair<SortingOrder, Integer>> results = new ArrayList<>(numberOfRestarts);
+        if (crossingMinimizationExecutor == null) {
+            for (Callable<Pair<SortingOrder, Integer>> restart : restarts) {
+                results.add(call(restart));
+            }
+        }
+        else {
+            try {
+                for (Future<Pair<SortingOrder, Integer>> future : crossingMinimizationExecutor.invokeAll(restarts)) {
+                    results.add(future.get());
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during crossing minimization.", e);
+            }
+            catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() :
+                        new IllegalStateException(e.getCause());
+            }
+        }
+
+        SortingOrder bestOrders = startOrders;
+        int fewestCrossings = new BilayerCrossingCounter().countCrossings(startOrders);
+        for (Pair<SortingOrder, Integer> result : results) {
+            if (result.getSecond() < fewestCrossings) {
+                fewestCrossings = result.getSecond();
+                bestOrders = result.getFirst();
+            }
+        }
+        return bestOrders;
+    }
+
+    private static <T> T call(Callable<T> callable) {
+        try {
+            return callable.call();
+        }
+        catch (RuntimeException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public void nodePositioning(AlignmentParameters.Method alignmentMethod,
                                 AlignmentParameters.Preference alignmentPreference) {
         if (isSingleComponent) {
@@ -527,6 +671,7 @@ public class SugiyamaLayouter implements PralineLayouter {
         dummyNodesLongEdges = new LinkedHashMap<>();
         dummyNodesForEdgesOfDeg1or0 = new LinkedHashSet<>();
         dummyNodesForNodelessPorts = new LinkedHashSet<>();
+        dummyNodeTypes = new HashMap<>();
         replacedPorts = new LinkedHashMap<>();
         multipleEdgePort2replacePorts = new LinkedHashMap<>();
         keptPortPairings = new LinkedHashMap<>();
@@ -573,48 +718,7 @@ public class SugiyamaLayouter implements PralineLayouter {
         }
     }
     public int countCrossings(SortingOrder sortingOrder) {
-        // create Port lists
-        List<List<Port>> topPorts = new ArrayList<>();
-        List<List<Port>> bottomPorts = new ArrayList<>();
-        Map<Port, Integer> positions = new LinkedHashMap<>();
-        for (int layer = 0; layer < sortingOrder.getNodeOrder().size(); layer++) {
-            topPorts.add(new ArrayList<>());
-            bottomPorts.add(new ArrayList<>());
-            int position = 0;
-            for (Vertex node : sortingOrder.getNodeOrder().get(layer)) {
-                for (Port topPort : sortingOrder.getTopPortOrder().get(node)) {
-                    topPorts.get(layer).add(topPort);
-                }
-                for (Port bottomPort : sortingOrder.getBottomPortOrder().get(node)) {
-                    bottomPorts.get(layer).add(bottomPort);
-                    positions.put(bottomPort, position++);
-                }
-            }
-        }
-        // count crossings
-        int crossings = 0;
-        for (int layer = 0; layer < (sortingOrder.getNodeOrder().size() - 1); layer++) {
-            for (int topPortPosition = 0; topPortPosition < topPorts.get(layer).size(); topPortPosition++) {
-                Port topPort = topPorts.get(layer).get(topPortPosition);
-                for (Edge edge : topPort.getEdges()) {
-                    Port bottomPort = edge.getPorts().get(0);
-                    if (topPort.equals(bottomPort)) bottomPort = edge.getPorts().get(1);
-                    int bottomPortPosition = 0;
-                    bottomPortPosition = positions.get(bottomPort);
-                    for (int topPosition = (topPortPosition + 1); topPosition < topPorts.get(layer).size();
-                         topPosition++) {
-                        Port crossingTopPort = topPorts.get(layer).get(topPosition);
-                        for (Edge crossingEdge : crossingTopPort.getEdges()) {
-                            Port crossingBottomPort = crossingEdge.getPorts().get(0);
-                            if (crossingTopPort.equals(crossingBottomPort))
-                                crossingBottomPort = crossingEdge.getPorts().get(1);
-                            if (positions.get(crossingBottomPort) < bottomPortPosition) crossings++;
-                        }
-                    }
-                }
-            }
-        }
-        return crossings;
+        return new BilayerCrossingCounter().countCrossings(sortingOrder);
     }
 
 
@@ -809,13 +913,25 @@ public class SugiyamaLayouter implements PralineLayouter {
     }
 
     public boolean isDummy(Vertex node) {
-        return isDummyNodeOfLongEdge(node) || isDummyNodeOfSelfLoop(node) || isDummyTurningNode(node) ||
-                isDummyNodeForEdgesOfDeg1or0(node) || isDummyNodeForNodelessPorts(node) ||
-                isHyperEdgeDummy(node);
+        return dummyNodeTypes.containsKey(node);
+    }
+
+    /**
+     * @param node
+     * @return
+     *      the kind of dummy vertex node is or null if node is not a dummy vertex
+     */
+    public DummyNodeType getDummyNodeType(Vertex node) {
+        return dummyNodeTypes.get(node);
     }
 
     public boolean isHyperEdgeDummy(Vertex node) {
-        return getHyperEdges().containsKey(node);
+        return getDummyNodeType(node) == DummyNodeType.HYPEREDGE;
+    }
+
+    public void addHyperEdgeDummy(Vertex representative, Edge hyperEdge) {
+        hyperEdges.put(representative, hyperEdge);
+        dummyNodeTypes.put(representative, DummyNodeType.HYPEREDGE);
     }
 
     public Map<Vertex, Edge> getDummyNodesLongEdges() {
@@ -823,24 +939,15 @@ public class SugiyamaLayouter implements PralineLayouter {
     }
 
     public boolean isDummyNodeOfLongEdge(Vertex node) {
-        if (dummyNodesLongEdges == null) {
-            return false;
-        }
-        return dummyNodesLongEdges.containsKey(node);
+        return getDummyNodeType(node) == DummyNodeType.LONG_EDGE;
     }
 
     public boolean isDummyNodeOfSelfLoop(Vertex node) {
-        if (dummyNodesSelfLoops == null) {
-            return false;
-        }
-        return dummyNodesSelfLoops.containsKey(node);
+        return getDummyNodeType(node) == DummyNodeType.SELF_LOOP;
     }
 
     public boolean isDummyTurningNode(Vertex node) {
-        if (dummyTurningNodes == null) {
-            return false;
-        }
-        return dummyTurningNodes.containsKey(node);
+        return getDummyNodeType(node) == DummyNodeType.TURNING_POINT;
     }
 
     public Vertex getVertexOfTurningDummy(Vertex turningDummy) {
@@ -856,19 +963,21 @@ public class SugiyamaLayouter implements PralineLayouter {
     }
 
     public boolean isDummyNodeForEdgesOfDeg1or0(Vertex node) {
-        return dummyNodesForEdgesOfDeg1or0.contains(node);
+        return getDummyNodeType(node) == DummyNodeType.EDGE_OF_DEG_1_OR_0;
     }
 
     public void addDummyNodeForEdgesOfDeg1or0(Vertex dummyNode) {
         dummyNodesForEdgesOfDeg1or0.add(dummyNode);
+        dummyNodeTypes.put(dummyNode, DummyNodeType.EDGE_OF_DEG_1_OR_0);
     }
 
     public boolean isDummyNodeForNodelessPorts(Vertex node) {
-        return dummyNodesForNodelessPorts.contains(node);
+        return getDummyNodeType(node) == DummyNodeType.NODELESS_PORT;
     }
 
     public void addDummyNodeForNodelessPorts(Vertex dummyNode) {
         dummyNodesForNodelessPorts.add(dummyNode);
+        dummyNodeTypes.put(dummyNode, DummyNodeType.NODELESS_PORT);
     }
 
     public Map<Edge, Edge> getDummyEdge2RealEdge() {
@@ -1078,6 +1187,15 @@ public class SugiyamaLayouter implements PralineLayouter {
         return this.graph;
     }
 
+    /**
+     * @return
+     *      the source of randomness of this layouter; each component of the graph has its own one.
+     *      Use it in all phases instead of a global {@link Random} to keep layouts reproducible.
+     */
+    public Random getRandom() {
+        return random;
+    }
+
     @Override
     public DrawingInformation getDrawingInformation() {
         return this.drawInfo;
@@ -1121,6 +1239,65 @@ public class SugiyamaLayouter implements PralineLayouter {
         this.orders = orders;
     }
 
+    public ExecutorService getCrossingMinimizationExecutor() {
+        return crossingMinimizationExecutor;
+    }
+
+    /**
+     * @param crossingMinimizationExecutor
+     *      if set, the random restarts of the crossing minimization phase run in parallel on this executor.
+     *      The result is the same as for serial execution, which is used if this is null (default).
+     *      The executor is not shut down by this class.
+     */
+    public void setCrossingMinimizationExecutor(ExecutorService crossingMinimizationExecutor) {
+        this.crossingMinimizationExecutor = crossingMinimizationExecutor;
+        if (!isSingleComponent) {
+            for (SugiyamaLayouter componentLayouter : componentLayouters) {
+                componentLayouter.setCrossingMinimizationExecutor(crossingMinimizationExecutor);
+            }
+        }
+    }
+
+    public ExecutorService getComponentExecutor() {
+        return componentExecutor;
+    }
+
+    /**
+     * @param componentExecutor
+     *      if set and the graph has several connected components,
+     *      {@link SugiyamaLayouter#computeLayout(CycleBreakingMethod, DirectionMethod, LayerAssignmentMethod, int,
+     *      CrossingMinimizationMethod, int, AlignmentParameters.Method, AlignmentParameters.Preference)} lays out the
+     *      components concurrently on this executor. The result is the same as for serial execution, which is used if
+     *      this is null (default). The executor is not shut down by this class.
+     *      If the same executor is also passed to
+     *      {@link SugiyamaLayouter#setCrossingMinimizationExecutor(ExecutorService)}, it should be a
+     *      {@link java.util.concurrent.ForkJoinPool} -- a fixed thread pool may run out of threads while the
+     *      components wait for their restarts.
+     */
+    public void setComponentExecutor(ExecutorService componentExecutor) {
+        this.componentExecutor = componentExecutor;
+    }
+
+    public boolean isStopForceDirectedWhenVertexOrderIsStable() {
+        return stopForceDirectedWhenVertexOrderIsStable;
+    }
+
+    /**
+     * @param stopForceDirectedWhenVertexOrderIsStable
+     *      if true, the force-directed drawings of {@link DirectionMethod#FORCE} are stopped as soon as the order of
+     *      the vertices does not change any more (see {@link DirectionAssignment#forceDirected(SugiyamaLayouter, int)})
+     *      instead of when the vertices do not move any more (default, false).
+     *      Only this order is used for directing the edges, but the edges may be directed differently.
+     */
+    public void setStopForceDirectedWhenVertexOrderIsStable(boolean stopForceDirectedWhenVertexOrderIsStable) {
+        this.stopForceDirectedWhenVertexOrderIsStable = stopForceDirectedWhenVertexOrderIsStable;
+        if (!isSingleComponent) {
+            for (SugiyamaLayouter componentLayouter : componentLayouters) {
+                componentLayouter.setStopForceDirectedWhenVertexOrderIsStable(stopForceDirectedWhenVertexOrderIsStable);
+            }
+        }
+    }
+
     public Map<Vertex, VertexGroup> getPlugs() {
         if (isSingleComponent) {
             return plugs;
@@ -0,0 +1,253 @@
+package de.uniwue.informatik.praline.layouting.layered.algorithm.crossingreduction;
+
+import de.uniwue.informatik.praline.datastructure.graphs.Port;
+import de.uniwue.informatik.praline.datastructure.graphs.Vertex;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.util.SortingOrder;
+
+import java.util.*;
+
+/**
+ * Counts the crossings between the top ports of each layer and the bottom ports they are connected to in
+ * O(|E| log |V|) per pair of layers via an accumulator tree (Fenwick tree) as described by
+ * Barth, Juenger, Mutzel: "Simple and Efficient Bilayer Cross Counting" (2004).
+ * It yields the same number as checking every pair of edges between two layers, i.e., two edges at the same top
+ * port never cross and edges ending at the same bottom port do not cross either.
+ *
+ * An instance remembers the port orders and the per-layer numbers of crossings of the last count.
+ * Via {@link BilayerCrossingCounter#updateCrossings(SortingOrder)} or
+ * {@link BilayerCrossingCounter#updateCrossings(SortingOrder, Collection)} only the pairs of layers that are affected
+ * by a change since the last count are re-counted.
+ * This assumes that the edges of the ports have not changed in the meantime -- if they have, call
+ * {@link BilayerCrossingCounter#countCrossings(SortingOrder)} again.
+ *
+ * The ports and edges are read from a {@link LayeredGraph}, so counting works on int arrays.
+ * Such a snapshot is created for every call of {@link BilayerCrossingCounter#countCrossings(SortingOrder)}.
+ */
+public class BilayerCrossingCounter {
+
+    private LayeredGraph layeredGraph;
+    //ids of the ports of each layer as in the last count
+    private int[][] topPorts;
+    private int[][] bottomPorts;
+    //position of a bottom port (by id) within its layer or -1
+    private int[] bottomPortPositions;
+    //crossings between layer i and the layer above it
+    private int[] crossingsPerLayer;
+    private int totalCrossings;
+
+    //re-used working arrays
+    private int[] accumulatorTree = new int[0];
+    private int[] edgeBottomPositions = new int[0];
+
+    public int countCrossings(SortingOrder sortingOrder) {
+        layeredGraph = new LayeredGraph(sortingOrder);
+        int numberOfLayers = sortingOrder.getNodeOrder().size();
+        topPorts = new int[numberOfLayers][];
+        bottomPorts = new int[numberOfLayers][];
+        bottomPortPositions = new int[layeredGraph.getNumberOfPorts()];
+        Arrays.fill(bottomPortPositions, -1);
+        crossingsPerLayer = new int[numberOfLayers];
+
+        for (int layer = 0; layer < numberOfLayers; layer++) {
+            //the snapshot has just been created from sortingOrder, so its ports are already in this order
+            readLayerFromLayeredGraph(layer);
+        }
+        totalCrossings = 0;
+        for (int layer = 0; layer < numberOfLayers - 1; layer++) {
+            crossingsPerLayer[layer] = countCrossingsOfLayer(layer);
+            totalCrossings += crossingsPerLayer[layer];
+        }
+        return totalCrossings;
+    }
+
+    /**
+     * Re-counts only the pairs of layers for which the port order of the lower or the upper layer differs from the
+     * last count.
+     * Determining the changed layers takes linear time in the number of ports.
+     */
+    public int updateCrossings(SortingOrder sortingOrder) {
+        if (!isComparable(sortingOrder)) {
+            return countCrossings(sortingOrder);
+        }
+        List<Integer> changedLayers = new ArrayList<>();
+        for (int layer = 0; layer < topPorts.length; layer++) {
+            if (hasChanged(sortingOrder, layer)) {
+                changedLayers.add(layer);
+            }
+        }
+        return updateCrossings(sortingOrder, changedLayers);
+    }
+
+    /**
+     * Re-counts only the pairs of layers adjacent to the passed layers (ranks).
+     * The caller is responsible that no other layer has changed since the last count.
+     */
+    public int updateCrossings(SortingOrder sortingOrder, Collection<Integer> changedLayers) {
+        if (!isComparable(sortingOrder)) {
+            return countCrossings(sortingOrder);
+        }
+        int numberOfLayers = topPorts.length;
+        boolean[] recount = new boolean[numberOfLayers];
+        for (int layer : changedLayers) {
+            if (layer < 0 || layer >= numberOfLayers) {
+                continue;
+            }
+            for (int bottomPort : bottomPorts[layer]) {
+                bottomPortPositions[bottomPort] = -1;
+            }
+            if (!readLayer(sortingOrder, layer)) {
+                //a port that has been added since the last count
+                return countCrossings(sortingOrder);
+            }
+            recount[layer] = true;
+            if (layer > 0) {
+                recount[layer - 1] = true;
+            }
+        }
+        for (int layer = 0; layer < numberOfLayers - 1; layer++) {
+            if (recount[layer]) {
+                totalCrossings -= crossingsPerLayer[layer];
+                crossingsPerLayer[layer] = countCrossingsOfLayer(layer);
+                totalCrossings += crossingsPerLayer[layer];
+            }
+        }
+        return totalCrossings;
+    }
+
+    public int getNumberOfCrossings() {
+        return totalCrossings;
+    }
+
+    private boolean isComparable(SortingOrder sortingOrder) {
+        return topPorts != null && topPorts.length == sortingOrder.getNodeOrder().size();
+    }
+
+    /**
+     * @return
+     *      false if a port is not contained in {@link BilayerCrossingCounter#layeredGraph} (then nothing has been
+     *      read)
+     */
+    private boolean readLayer(SortingOrder sortingOrder, int layer) {
+        int numberOfTopPorts = 0;
+        int numberOfBottomPorts = 0;
+        for (Vertex node : sortingOrder.getNodeOrder().get(layer)) {
+            numberOfTopPorts += sortingOrder.getTopPortOrder().get(node).size();
+            numberOfBottomPorts += sortingOrder.getBottomPortOrder().get(node).size();
+        }
+        int[] top = new int[numberOfTopPorts];
+        int[] bottom = new int[numberOfBottomPorts];
+        int topIndex = 0;
+        int bottomIndex = 0;
+        for (Vertex node : sortingOrder.getNodeOrder().get(layer)) {
+            for (Port port : sortingOrder.getTopPortOrder().get(node)) {
+                top[topIndex++] = layeredGraph.getPortId(port);
+            }
+            for (Port port : sortingOrder.getBottomPortOrder().get(node)) {
+                bottom[bottomIndex++] = layeredGraph.getPortId(port);
+            }
+        }
+        for (int port : top) {
+            if (port < 0) {
+                return false;
+            }
+        }
+        for (int port : bottom) {
+            if (port < 0) {
+                return false;
+            }
+        }
+        topPorts[layer] = top;
+        bottomPorts[layer] = bottom;
+        for (int position = 0; position < bottom.length; position++) {
+            bottomPortPositions[bottom[position]] = position;
+        }
+        return true;
+    }
+
+    private void readLayerFromLayeredGraph(int layer) {
+        int[] top = new int[layeredGraph.getNumberOfTopPortsOfLayer(layer)];
+        for (int position = 0; position < top.length; position++) {
+            top[position] = layeredGraph.getTopPortOfLayer(layer, position);
+        }
+        int[] bottom = new int[layeredGraph.getNumberOfBottomPortsOfLayer(layer)];
+        for (int position = 0; position < bottom.length; position++) {
+            bottom[position] = layeredGraph.getBottomPortOfLayer(layer, position);
+            bottomPortPositions[bottom[position]] = position;
+        }
+        topPorts[layer] = top;
+        bottomPorts[layer] = bottom;
+    }
+
+    private boolean hasChanged(SortingOrder sortingOrder, int layer) {
+        int topIndex = 0;
+        int bottomIndex = 0;
+        for (Vertex node : sortingOrder.getNodeOrder().get(layer)) {
+            for (Port port : sortingOrder.getTopPortOrder().get(node)) {
+                if (topIndex >= topPorts[layer].length || layeredGraph.getPort(topPorts[layer][topIndex++]) != port) {
+                    return true;
+                }
+            }
+            for (Port port : sortingOrder.getBottomPortOrder().get(node)) {
+                if (bottomIndex >= bottomPorts[layer].length
+                        || layeredGraph.getPort(bottomPorts[layer][bottomIndex++]) != port) {
+                    return true;
+                }
+            }
+        }
+        return topIndex != topPorts[layer].length || bottomIndex != bottomPorts[layer].length;
+    }
+
+    /**
+     * Counts the crossings between the top ports of layer and the bottom ports adjacent to them.
+     */
+    private int countCrossingsOfLayer(int layer) {
+        //collect the bottom positions of all edges sorted lexicographically by (top position, bottom position)
+        int numberOfEdges = 0;
+        int maxBottomPosition = -1;
+        for (int topPort : topPorts[layer]) {
+            int firstEdgeOfPort = numberOfEdges;
+            for (int i = 0; i < layeredGraph.getDegree(topPort); i++) {
+                int otherPort = layeredGraph.getOtherPort(layeredGraph.getEdgeOfPort(topPort, i), topPort);
+                if (otherPort < 0 || bottomPortPositions[otherPort] < 0) {
+                    continue;
+                }
+                int bottomPosition = bottomPortPositions[otherPort];
+                if (numberOfEdges == edgeBottomPositions.length) {
+                    edgeBottomPositions = Arrays.copyOf(edgeBottomPositions, Math.max(16, 2 * numberOfEdges));
+                }
+                edgeBottomPositions[numberOfEdges++] = bottomPosition;
+                maxBottomPosition = Math.max(maxBottomPosition, bottomPosition);
+            }
+            if (numberOfEdges - firstEdgeOfPort > 1) {
+                Arrays.sort(edgeBottomPositions, firstEdgeOfPort, numberOfEdges);
+            }
+        }
+        if (numberOfEdges < 2) {
+            return 0;
+        }
+
+        //accumulator tree over bottom positions (1-based Fenwick tree)
+        int treeSize = maxBottomPosition + 2;
+        if (accumulatorTree.length < treeSize) {
+            accumulatorTree = new int[Math.max(treeSize, 2 * accumulatorTree.length)];
+        }
+        else {
+            Arrays.fill(accumulatorTree, 0, treeSize, 0);
+        }
+
+        //for each edge count the previously inserted edges having a strictly larger bottom position
+        int crossings = 0;
+        for (int i = 0; i < numberOfEdges; i++) {
+            int index = edgeBottomPositions[i] + 1;
+            int insertedUpToHere = 0;
+            for (int j = index; j > 0; j -= j & -j) {
+                insertedUpToHere += accumulatorTree[j];
+            }
+            crossings += i - insertedUpToHere;
+            for (int j = index; j < treeSize; j += j & -j) {
+                ++accumulatorTree[j];
+            }
+        }
+        return crossings;
+    }
+}
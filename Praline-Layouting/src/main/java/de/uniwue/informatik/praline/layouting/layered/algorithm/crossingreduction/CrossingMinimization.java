@@ -1,13 +1,11 @@
 package de.uniwue.informatik.praline.layouting.layered.algorithm.crossingreduction;
 
 import de.uniwue.informatik.praline.datastructure.graphs.*;
-import de.uniwue.informatik.praline.datastructure.labels.TextLabel;
 import de.uniwue.informatik.praline.datastructure.shapes.Rectangle;
 import de.uniwue.informatik.praline.datastructure.utils.PortUtils;
 import de.uniwue.informatik.praline.io.output.svg.SVGRectangleDrawer;
 import de.uniwue.informatik.praline.io.output.util.DrawingInformation;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.SugiyamaLayouter;
-import de.uniwue.informatik.praline.layouting.layered.algorithm.util.Constants;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.util.SortingOrder;
 import org.eclipse.elk.core.util.Pair;
 
@@ -41,13 +39,25 @@ public class CrossingMinimization {
     private Set<Vertex> adjacentToDummyTurningPoints;
     private int maxRank;
     private int numberOfCrossings;
+    private BilayerCrossingCounter crossingCounter;
     private CrossingMinimizationMethod method;
     private boolean movePortsAdjToTurningDummiesToTheOutside;
     private boolean placeTurningDummiesNextToTheirVertex;
     private SortingOrder originalOrders;
+    private Random random;
 
     public CrossingMinimization(SugiyamaLayouter sugy) {
+        this(sugy, sugy.getRandom());
+    }
+
+    /**
+     * @param random
+     *      source of randomness for random start permutations and the placement of turning dummies.
+     *      Pass an own instance per {@link CrossingMinimization} to run several of them independently in parallel.
+     */
+    public CrossingMinimization(SugiyamaLayouter sugy, Random random) {
         this.sugy = sugy;
+        this.random = random;
     }
 
     public SortingOrder layerSweepWithBarycenterHeuristic(CrossingMinimizationMethod method, SortingOrder orders,
@@ -128,11 +138,11 @@ public class CrossingMinimization {
         if (randomStartPermutation) {
             //compute random start position for each layer
             for (List<Vertex> layer : orders.getNodeOrder()) {
-                Collections.shuffle(layer, Constants.random);
+                Collections.shuffle(layer, random);
             }
 
             //shuffle ports
-            orders.shufflePorts();
+            orders.shufflePorts(random);
         }
         //place dummy turning points close to their vertices
         if (this.placeTurningDummiesNextToTheirVertex) {
@@ -280,6 +290,7 @@ public class CrossingMinimization {
         List<List<SortingNode>> lastStepLayers;
 
         numberOfCrossings = Integer.MAX_VALUE;
+        crossingCounter = new BilayerCrossingCounter();
         int currentIteration = 0;
         boolean hasChanged = true;
         while (hasChanged) {
@@ -577,7 +588,7 @@ public class CrossingMinimization {
                 }
             }
             //re-insert them in random order close to their corresponding vertex
-            Collections.shuffle(turningDummiesOnLayer, Constants.random);
+            Collections.shuffle(turningDummiesOnLayer, random);
             for (Vertex turningDummy : turningDummiesOnLayer) {
                 Vertex vertex = sugy.getVertexOfTurningDummy(turningDummy);
                 List<Vertex> adjacentLayer = orders.getNodeOrder().get(sugy.getRank(vertex));
@@ -772,12 +783,12 @@ public class CrossingMinimization {
             }
         } else {
             // check for changes in number of crossings due to possibility of an endless loop
-            // todo: in case of runtime issues change to more intelligent counting method
+            // only the layers that changed since the last check are re-counted
             SortingOrder currentLayersCopy = transformSortingNodes2SortingOrder(layers, ignorePorts, referenceOrders);
             orderPortsFinally(currentLayersCopy, currentLayersCopy.getTopPortOrder(),
                     currentLayersCopy.getBottomPortOrder(),false, true,
                     handlePortPairings, allowPortPermuting);
-            int newNumberOfCrossings = sugy.countCrossings(currentLayersCopy);
+            int newNumberOfCrossings = crossingCounter.updateCrossings(currentLayersCopy);
             if (newNumberOfCrossings < numberOfCrossings) {
                 numberOfCrossings = newNumberOfCrossings;
                 hasChanged = true;
@@ -1257,8 +1268,6 @@ public class CrossingMinimization {
         List<Port> firstOrderPairedPorts = preferredSwapSideTop ? topPairingOrder : bottomPairingOrder;
         List<Port> secondOrderPairedPorts = preferredSwapSideTop ? bottomPairingOrder : topPairingOrder;
 
-        int dummyPortCounter = 0; //only used for dummyPortsForAbsoluteIndex; see javadoc of this method
-
         for (int i = 0; i < allPortPairings.size(); i++) {
             Pair<Port, Port> portPairing = allPortPairings.get(i);
             Port firstPort = portPairing.getSecond();
@@ -1311,8 +1320,8 @@ public class CrossingMinimization {
                             //we may also insert dummy vertices if the absolute order matters
                             if (!forceSwapping && portsNeedAbsoluteSameIndex && dummyPortsForAbsoluteIndex != null) {
                                 while (indexFirstPort < indexSecondPort) {
-                                    dummyPortCounter = addDummyPort(firstPort, indexFirstPort, false, firstOrder,
-                                            dummyPortCounter, dummyPortsForAbsoluteIndex);
+                                    addDummyPort(firstPort, indexFirstPort, false, firstOrder,
+                                            dummyPortsForAbsoluteIndex);
                                     ++indexFirstPort;
                                 }
                                 if (preferredSwapSideTop) {
@@ -1353,8 +1362,8 @@ public class CrossingMinimization {
                             //we may also insert dummy vertices if the absolute order matters
                             if (!forceSwapping && portsNeedAbsoluteSameIndex && dummyPortsForAbsoluteIndex != null) {
                                 while (indexSecondPort < indexFirstPort) {
-                                    dummyPortCounter = addDummyPort(secondPort, indexSecondPort, false, secondOrder,
-                                            dummyPortCounter, dummyPortsForAbsoluteIndex);
+                                    addDummyPort(secondPort, indexSecondPort, false, secondOrder,
+                                            dummyPortsForAbsoluteIndex);
                                     ++indexSecondPort;
                                 }
                                 if (preferredSwapSideTop) {
@@ -1372,12 +1381,12 @@ public class CrossingMinimization {
         //we may also insert dummy vertices to have the same amount of ports on both sides if the absolute order matters
         if (portsNeedAbsoluteSameIndex && dummyPortsForAbsoluteIndex != null) {
             while (bottomOrder.size() < topOrder.size()) {
-                dummyPortCounter = addDummyPort(bottomOrder.get(bottomOrder.size() - 1), bottomOrder.size() - 1,
-                        true, bottomOrder, dummyPortCounter, dummyPortsForAbsoluteIndex);
+                addDummyPort(bottomOrder.get(bottomOrder.size() - 1), bottomOrder.size() - 1,
+                        true, bottomOrder, dummyPortsForAbsoluteIndex);
             }
             while (topOrder.size() < bottomOrder.size()) {
-                dummyPortCounter = addDummyPort(topOrder.get(topOrder.size() - 1), topOrder.size() - 1,
-                        true, topOrder, dummyPortCounter, dummyPortsForAbsoluteIndex);
+                addDummyPort(topOrder.get(topOrder.size() - 1), topOrder.size() - 1,
+                        true, topOrder, dummyPortsForAbsoluteIndex);
             }
         }
 
@@ -1399,11 +1408,9 @@ public class CrossingMinimization {
         return false;
     }
 
-    private static int addDummyPort(Port pairedPort, int indexPairedPort, boolean addAfter, List<Port> portOrdering,
-                                    int dummyPortCounter, Collection<Port> dummyPortsForAbsoluteIndex) {
+    private static void addDummyPort(Port pairedPort, int indexPairedPort, boolean addAfter, List<Port> portOrdering,
+                                     Collection<Port> dummyPortsForAbsoluteIndex) {
         Port dummyPort = new Port();
-        dummyPort.getLabelManager().addLabel(new TextLabel(
-                "dummyPortForPairings_" + dummyPortCounter++));
         dummyPortsForAbsoluteIndex.add(dummyPort);
         if (pairedPort.getPortGroup() != null) {
             pairedPort.getPortGroup().addPortComposition(dummyPort);
@@ -1412,7 +1419,6 @@ public class CrossingMinimization {
             pairedPort.getVertex().addPortComposition(dummyPort);
         }
         portOrdering.add(indexPairedPort + (addAfter ? 1 : 0), dummyPort);
-        return dummyPortCounter;
     }
 
     private static List<Port> extractOrderingOfPairedPorts(List<Port> orderingOfAllPorts, Set<Port> allPairedPorts) {
@@ -0,0 +1,217 @@
+package de.uniwue.informatik.praline.layouting.layered.algorithm.crossingreduction;
+
+import de.uniwue.informatik.praline.datastructure.graphs.Edge;
+import de.uniwue.informatik.praline.datastructure.graphs.Port;
+import de.uniwue.informatik.praline.datastructure.graphs.Vertex;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.util.SortingOrder;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of a layered graph given by a {@link SortingOrder} on which the {@link BilayerCrossingCounter}
+ * counts.
+ * Every port and edge gets an int id and the ports of the layers and the edges at the ports are stored in int
+ * arrays, so that counting crossings only needs {@link LayeredGraph#getPortId(Port)} at its boundary.
+ * <p>
+ * The ports get their ids layer by layer in the node order and vertex by vertex (first the bottom ports, then the
+ * top ports, each in the port order).
+ * An edge is contained if it is incident to at least one port of the snapshot.
+ * Its first two ports are its end points ({@link LayeredGraph#getOtherPort(int, int)}); an end point that is not
+ * contained in the snapshot has id -1.
+ * <p>
+ * Changes of the graph or of the sortingOrder after the creation are not reflected.
+ * For another order of the same graph, a {@link SortingOrder} can be mapped to the ids of this snapshot.
+ */
+class LayeredGraph {
+
+    private final Port[] ports;
+    private final Map<Port, Integer> portIds;
+    private final boolean[] repeatedPort;
+    //top (bottom) ports of layer i in their order are topPortsOfLayer[firstTopPortOfLayer[i]], ...
+    private final int[] firstTopPortOfLayer;
+    private final int[] topPortsOfLayer;
+    private final int[] firstBottomPortOfLayer;
+    private final int[] bottomPortsOfLayer;
+    //edges at port p are edgesOfPort[firstEdgeOfPort[p]], ..., edgesOfPort[firstEdgeOfPort[p + 1] - 1]
+    private final int[] firstEdgeOfPort;
+    private final int[] edgesOfPort;
+    private final int[] port0OfEdge;
+    private final int[] port1OfEdge;
+
+    LayeredGraph(SortingOrder sortingOrder) {
+        List<List<Vertex>> nodeOrder = sortingOrder.getNodeOrder();
+        int numberOfLayers = nodeOrder.size();
+        int numberOfVertices = 0;
+        for (List<Vertex> layer : nodeOrder) {
+            numberOfVertices += layer.size();
+        }
+        //look up the port orders only once
+        List<?>[] bottomPortOrders = new List<?>[numberOfVertices];
+        List<?>[] topPortOrders = new List<?>[numberOfVertices];
+        int numberOfPorts = 0;
+        int numberOfTopPorts = 0;
+        int v = 0;
+        for (List<Vertex> layer : nodeOrder) {
+            for (Vertex vertex : layer) {
+                bottomPortOrders[v] = sortingOrder.getBottomPortOrder().get(vertex);
+                topPortOrders[v] = sortingOrder.getTopPortOrder().get(vertex);
+                numberOfPorts += bottomPortOrders[v].size() + topPortOrders[v].size();
+                numberOfTopPorts += topPortOrders[v].size();
+                ++v;
+            }
+        }
+
+        ports = new Port[numberOfPorts];
+        portIds = new HashMap<>(2 * numberOfPorts);
+        repeatedPort = new boolean[numberOfPorts];
+        firstTopPortOfLayer = new int[numberOfLayers + 1];
+        firstBottomPortOfLayer = new int[numberOfLayers + 1];
+        topPortsOfLayer = new int[numberOfTopPorts];
+        bottomPortsOfLayer = new int[numberOfPorts - numberOfTopPorts];
+
+        v = 0;
+        int p = 0;
+        int t = 0;
+        int b = 0;
+        for (int layer = 0; layer < numberOfLayers; layer++) {
+            firstTopPortOfLayer[layer] = t;
+            firstBottomPortOfLayer[layer] = b;
+            for (int j = 0; j < nodeOrder.get(layer).size(); j++) {
+                for (Object port : bottomPortOrders[v]) {
+                    addPort((Port) port, p);
+                    bottomPortsOfLayer[b++] = p++;
+                }
+                for (Object port : topPortOrders[v]) {
+                    addPort((Port) port, p);
+                    topPortsOfLayer[t++] = p++;
+                }
+                ++v;
+            }
+        }
+        firstTopPortOfLayer[numberOfLayers] = t;
+        firstBottomPortOfLayer[numberOfLayers] = b;
+
+        //edges in the order in which they are found at the ports.
+        // An edge gets its id at its end point with the smaller id; at the other end point it is looked up among the
+        // few edges of the first one, so we need a map only for edges with more than two ports
+        firstEdgeOfPort = new int[numberOfPorts + 1];
+        int numberOfIncidences = 0;
+        for (Port port : ports) {
+            numberOfIncidences += port.getEdges().size();
+        }
+        edgesOfPort = new int[numberOfIncidences];
+        List<Edge> edgeList = new ArrayList<>();
+        int[] port0 = new int[numberOfIncidences];
+        int[] port1 = new int[numberOfIncidences];
+        Map<Edge, Integer> hyperEdgeIds = new HashMap<>();
+        int i = 0;
+        for (p = 0; p < numberOfPorts; p++) {
+            firstEdgeOfPort[p] = i;
+            if (repeatedPort[p]) {
+                //port is contained several times in the sorting order; its edges are at its first occurrence
+                continue;
+            }
+            for (Edge edge : ports[p].getEdges()) {
+                List<Port> portsOfEdge = edge.getPorts();
+                int p0;
+                int p1;
+                int e;
+                if (portsOfEdge.size() > 2) {
+                    p0 = getPortId(portsOfEdge.get(0));
+                    p1 = getPortId(portsOfEdge.get(1));
+                    e = hyperEdgeIds.getOrDefault(edge, -1);
+                }
+                else {
+                    //only the end point other than this port needs a look-up
+                    boolean isFirstEndPoint = !portsOfEdge.isEmpty() && portsOfEdge.get(0) == ports[p];
+                    Port other = isFirstEndPoint ? (portsOfEdge.size() > 1 ? portsOfEdge.get(1) : null) :
+                            (portsOfEdge.isEmpty() ? null : portsOfEdge.get(0));
+                    int q = other == ports[p] ? p : other == null ? -1 : getPortId(other);
+                    p0 = isFirstEndPoint ? p : q;
+                    p1 = isFirstEndPoint ? q : portsOfEdge.size() > 1 && portsOfEdge.get(1) == ports[p] ? p : -1;
+                    e = q >= 0 && q < p ? findEdge(edge, q, edgeList) : -1;
+                }
+                if (e < 0) {
+                    e = edgeList.size();
+                    edgeList.add(edge);
+                    port0[e] = p0;
+                    port1[e] = p1;
+                    if (portsOfEdge.size() > 2) {
+                        hyperEdgeIds.put(edge, e);
+                    }
+                }
+                edgesOfPort[i++] = e;
+            }
+        }
+        firstEdgeOfPort[numberOfPorts] = i;
+        port0OfEdge = Arrays.copyOf(port0, edgeList.size());
+        port1OfEdge = Arrays.copyOf(port1, edgeList.size());
+    }
+
+    private int findEdge(Edge edge, int p, List<Edge> edgeList) {
+        for (int i = firstEdgeOfPort[p]; i < firstEdgeOfPort[p + 1]; i++) {
+            if (edgeList.get(edgesOfPort[i]) == edge) {
+                return edgesOfPort[i];
+            }
+        }
+        return -1;
+    }
+
+    private void addPort(Port port, int p) {
+        ports[p] = port;
+        repeatedPort[p] = portIds.putIfAbsent(port, p) != null;
+    }
+
+    public int getNumberOfPorts() {
+        return ports.length;
+    }
+
+    public Port getPort(int p) {
+        return ports[p];
+    }
+
+    /**
+     * @return
+     *      id of port or -1 if it is not contained
+     */
+    public int getPortId(Port port) {
+        Integer p = portIds.get(port);
+        return p == null ? -1 : p;
+    }
+
+    public int getNumberOfTopPortsOfLayer(int layer) {
+        return firstTopPortOfLayer[layer + 1] - firstTopPortOfLayer[layer];
+    }
+
+    public int getTopPortOfLayer(int layer, int position) {
+        return topPortsOfLayer[firstTopPortOfLayer[layer] + position];
+    }
+
+    public int getNumberOfBottomPortsOfLayer(int layer) {
+        return firstBottomPortOfLayer[layer + 1] - firstBottomPortOfLayer[layer];
+    }
+
+    public int getBottomPortOfLayer(int layer, int position) {
+        return bottomPortsOfLayer[firstBottomPortOfLayer[layer] + position];
+    }
+
+    public int getDegree(int p) {
+        return firstEdgeOfPort[p + 1] - firstEdgeOfPort[p];
+    }
+
+    /**
+     * @param index
+     *      between 0 and {@link LayeredGraph#getDegree(int)} - 1
+     */
+    public int getEdgeOfPort(int p, int index) {
+        return edgesOfPort[firstEdgeOfPort[p] + index];
+    }
+
+    /**
+     * @return
+     *      the first end point of edge e that is not p or -1 if that one is not contained
+     */
+    public int getOtherPort(int e, int p) {
+        return port0OfEdge[e] == p ? port1OfEdge[e] : port0OfEdge[e];
+    }
+}
@@ -10,8 +10,8 @@ import java.util.*;
 public class CycleBreaker {
 
     public void greedyFas(SugiyamaLayouter sugy) {
-        List<Vertex> vertices = new LinkedList<>(sugy.getGraph().getVertices());
-        List<Edge> edges = new LinkedList<>(sugy.getGraph().getEdges());
+        List<Vertex> vertices = new ArrayList<>(sugy.getGraph().getVertices());
+        List<Edge> edges = new ArrayList<>(sugy.getGraph().getEdges());
         linearArrange(vertices, edges);
         assignEdgeDirectionsWithoutCycles(sugy, vertices, edges);
     }
@@ -245,11 +245,16 @@ public class CycleBreaker {
 
 
     public void assignEdgeDirectionsWithoutCycles(SugiyamaLayouter sugy, List<Vertex> vertices, List<Edge> edges) {
+        Map<Vertex, Integer> positions = new HashMap<>(2 * vertices.size());
+        int position = 0;
+        for (Vertex vertex : vertices) {
+            positions.putIfAbsent(vertex, position++);
+        }
         // Weise den Kanten die richtigen Richtungen zu
         for (Edge edge : edges) {
             Vertex node0 = edge.getPorts().get(0).getVertex();
             Vertex node1 = edge.getPorts().get(1).getVertex();
-            if (vertices.indexOf(node0) < vertices.indexOf(node1)) {
+            if (positions.getOrDefault(node0, -1) < positions.getOrDefault(node1, -1)) {
                 sugy.assignDirection(edge, node0, node1);
             } else {
                 sugy.assignDirection(edge, node1, node0);
@@ -257,95 +262,184 @@ public class CycleBreaker {
         }
     }
 
+    /**
+     * Linear-time greedy heuristic of Eades, Lin, Smyth: "A fast and effective heuristic for the feedback arc set
+     * problem" https://doi.org/10.1016/0020-0190(93)90079-O
+     *
+     * Repeatedly removes all sinks (appended to the back), then all sources (appended to the front) and then a vertex
+     * with maximum outdegree - indegree (appended to the front).
+     * The vertices that are neither sinks nor sources are kept in buckets by outdegree - indegree (doubly-linked lists
+     * over int arrays), so the whole arrangement takes O(|V| + |E|) time.
+     * Self loops are ignored.
+     *
+     * @param vertices
+     *      will be re-ordered to the linear arrangement
+     * @param edges
+     *      edges between vertices; the first port is the start, the second port is the end
+     */
     public void linearArrange(List<Vertex> vertices, List<Edge> edges) {
+        int n = vertices.size();
+        Map<Vertex, Integer> vertexIds = new HashMap<>(2 * n);
+        int id = 0;
+        for (Vertex vertex : vertices) {
+            vertexIds.put(vertex, id++);
+        }
 
-        List<Edge> edgesToRemove = new ArrayList<>();
-        List<Edge> removedEdges = new ArrayList<>();
-        LinkedList<Vertex> s1 = new LinkedList<>();
-        LinkedList<Vertex> s2 = new LinkedList<>();
-        LinkedList<Vertex> s3 = new LinkedList<>();
-        boolean sinksPresent = true;
-        boolean sourcesPresent = true;
-
-        // Prüfe, ob der Graph sinks hat
-        while (sinksPresent) {
-            Optional<Vertex> sink = findSinkSourceOrMaxDegVertex(vertices, edges, CycleBreakingNodeType.SINK);
-            if (sink.isPresent()) {
-                Vertex presentSink = sink.get();
-                s3.addFirst(presentSink);
-                vertices.remove(presentSink);
-
-                // Entferne alle ausgehenden Kanten der Senke
-                for (Edge edge : edges) {
-                    if (edge.getPorts().get(1).getVertex() == presentSink) {
-                        edgesToRemove.add(edge);
-                    }
-                }
-                for (Edge edge : edgesToRemove) {
-                    edges.remove(edge);
-                    removedEdges.add(edge);
-                }
-                edgesToRemove.clear();
-            } else {
-                sinksPresent = false;
+        //arcs as int arrays in CSR format (outgoing and incoming separately)
+        int[] tail = new int[edges.size()];
+        int[] head = new int[edges.size()];
+        int[] outDeg = new int[n];
+        int[] inDeg = new int[n];
+        int m = 0;
+        for (Edge edge : edges) {
+            if (edge.getPorts().size() < 2) {
+                continue;
+            }
+            Integer t = vertexIds.get(edge.getPorts().get(0).getVertex());
+            Integer h = vertexIds.get(edge.getPorts().get(1).getVertex());
+            if (t == null || h == null || t.equals(h)) {
+                continue;
             }
+            tail[m] = t;
+            head[m] = h;
+            ++outDeg[t];
+            ++inDeg[h];
+            ++m;
+        }
+        int[] firstOut = new int[n + 1];
+        int[] firstIn = new int[n + 1];
+        int maxDeg = 0;
+        for (int v = 0; v < n; v++) {
+            firstOut[v + 1] = firstOut[v] + outDeg[v];
+            firstIn[v + 1] = firstIn[v] + inDeg[v];
+            maxDeg = Math.max(maxDeg, Math.max(outDeg[v], inDeg[v]));
+        }
+        int[] successors = new int[m];
+        int[] predecessors = new int[m];
+        int[] nextOut = Arrays.copyOf(firstOut, n);
+        int[] nextIn = Arrays.copyOf(firstIn, n);
+        for (int e = 0; e < m; e++) {
+            successors[nextOut[tail[e]]++] = head[e];
+            predecessors[nextIn[head[e]]++] = tail[e];
         }
 
-        // Prüfe, ob der Graph sources hat
-        while (sourcesPresent) {
-            Optional<Vertex> source = findSinkSourceOrMaxDegVertex(vertices, edges, CycleBreakingNodeType.SOURCE);
-            if (source.isPresent()) {
-                Vertex presentSource = source.get();
-                s1.add(presentSource);
-                vertices.remove(presentSource);
-
-                // Entferne alle ausgehenden Kanten der Quelle
-                for (Edge edge : edges) {
-                    if (edge.getPorts().get(0).getVertex() == presentSource) {
-                        edgesToRemove.add(edge);
-                    }
-                }
-                for (Edge edge : edgesToRemove) {
-                    edges.remove(edge);
-                    removedEdges.add(edge);
-                }
-                edgesToRemove.clear();
-            } else {
-                sourcesPresent = false;
+        //state of the vertices: sinks and sources wait on stacks, all others are in bucket outDeg - inDeg + maxDeg
+        int[] bucketFirst = new int[2 * maxDeg + 1];
+        Arrays.fill(bucketFirst, -1);
+        int[] bucketNext = new int[n];
+        int[] bucketPrev = new int[n];
+        int[] bucket = new int[n];
+        boolean[] removed = new boolean[n];
+        int[] sinks = new int[n];
+        int numberOfSinks = 0;
+        int[] sources = new int[n];
+        int numberOfSources = 0;
+        int maxBucket = -1;
+        for (int v = 0; v < n; v++) {
+            if (outDeg[v] == 0) {
+                sinks[numberOfSinks++] = v;
+                bucket[v] = -1;
+            }
+            else if (inDeg[v] == 0) {
+                sources[numberOfSources++] = v;
+                bucket[v] = -1;
+            }
+            else {
+                bucket[v] = outDeg[v] - inDeg[v] + maxDeg;
+                insertIntoBucket(v, bucket[v], bucketFirst, bucketNext, bucketPrev);
+                maxBucket = Math.max(maxBucket, bucket[v]);
             }
         }
 
-        while (!vertices.isEmpty()) {
-            // Finde den Knoten mit max. Diff. zwischen ein- und ausgehenden Kanten
-            Optional<Vertex> maxDegVertex = findSinkSourceOrMaxDegVertex(vertices, edges, CycleBreakingNodeType.OTHER);
-            if (maxDegVertex.isPresent()) {
-                Vertex presentMaxDegVertex = maxDegVertex.get();
-                s2.add(presentMaxDegVertex);
-                vertices.remove(presentMaxDegVertex);
-
-                // Entferne alle aus- und eingehenden Kanten des Knotens
-                for (Edge edge : edges) {
-                    if (edge.getPorts().get(0).getVertex() == presentMaxDegVertex
-                            || edge.getPorts().get(1).getVertex() == presentMaxDegVertex) {
-                        edgesToRemove.add(edge);
+        //s1 is filled from the front, s3 from the back of this array
+        int[] arrangement = new int[n];
+        int front = 0;
+        int back = n - 1;
+        while (front <= back) {
+            int v;
+            if (numberOfSinks > 0) {
+                v = sinks[--numberOfSinks];
+                arrangement[back--] = v;
+            }
+            else if (numberOfSources > 0) {
+                v = sources[--numberOfSources];
+                arrangement[front++] = v;
+            }
+            else {
+                while (bucketFirst[maxBucket] < 0) {
+                    --maxBucket;
+                }
+                v = bucketFirst[maxBucket];
+                removeFromBucket(v, bucket[v], bucketFirst, bucketNext, bucketPrev);
+                bucket[v] = -1;
+                arrangement[front++] = v;
+            }
+            removed[v] = true;
+
+            //update the degrees of the remaining neighbors; vertices in buckets may become sinks or sources
+            for (int i = firstOut[v]; i < firstOut[v + 1]; i++) {
+                int w = successors[i];
+                if (!removed[w]) {
+                    --inDeg[w];
+                    if (bucket[w] >= 0) {
+                        removeFromBucket(w, bucket[w], bucketFirst, bucketNext, bucketPrev);
+                        if (inDeg[w] == 0) {
+                            sources[numberOfSources++] = w;
+                            bucket[w] = -1;
+                        }
+                        else {
+                            ++bucket[w];
+                            insertIntoBucket(w, bucket[w], bucketFirst, bucketNext, bucketPrev);
+                            maxBucket = Math.max(maxBucket, bucket[w]);
+                        }
                     }
                 }
-                for (Edge edge : edgesToRemove) {
-                    edges.remove(edge);
-                    removedEdges.add(edge);
+            }
+            for (int i = firstIn[v]; i < firstIn[v + 1]; i++) {
+                int u = predecessors[i];
+                if (!removed[u]) {
+                    --outDeg[u];
+                    if (bucket[u] >= 0) {
+                        removeFromBucket(u, bucket[u], bucketFirst, bucketNext, bucketPrev);
+                        if (outDeg[u] == 0) {
+                            sinks[numberOfSinks++] = u;
+                            bucket[u] = -1;
+                        }
+                        else {
+                            --bucket[u];
+                            insertIntoBucket(u, bucket[u], bucketFirst, bucketNext, bucketPrev);
+                        }
+                    }
                 }
-                edgesToRemove.clear();
             }
         }
 
-        // Hänge die beiden geordneten Listen von Knoten aneinander
-        //List<Vertex> verticesOrdered = new ArrayList<>();
-        vertices.addAll(s1);
-        vertices.addAll(s2);
-        vertices.addAll(s3);
+        List<Vertex> verticesById = new ArrayList<>(vertices);
+        vertices.clear();
+        for (int v : arrangement) {
+            vertices.add(verticesById.get(v));
+        }
+    }
 
-        //vertices = verticesOrdered;
-        edges.addAll(removedEdges);
+    private static void insertIntoBucket(int v, int b, int[] bucketFirst, int[] bucketNext, int[] bucketPrev) {
+        bucketPrev[v] = -1;
+        bucketNext[v] = bucketFirst[b];
+        if (bucketFirst[b] >= 0) {
+            bucketPrev[bucketFirst[b]] = v;
+        }
+        bucketFirst[b] = v;
+    }
+
+    private static void removeFromBucket(int v, int b, int[] bucketFirst, int[] bucketNext, int[] bucketPrev) {
+        if (bucketPrev[v] >= 0) {
+            bucketNext[bucketPrev[v]] = bucketNext[v];
+        }
+        else {
+            bucketFirst[b] = bucketNext[v];
+        }
+        if (bucketNext[v] >= 0) {
+            bucketPrev[bucketNext[v]] = bucketPrev[v];
+        }
     }
 
     public Optional<Vertex> findSinkSourceOrMaxDegVertex(List<Vertex> vertices, List<Edge> edges, CycleBreakingNodeType type) {
@@ -1,11 +1,11 @@
 package de.uniwue.informatik.praline.layouting.layered.algorithm.edgeorienting;
 
+import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.RankOrderConvergenceCriterion;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.multilevel.FRWSPDb_bMultiLevel;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.layoutAlgorithms.wspd.RecomputationOfSplitTreeAndWSPDFunction;
 import de.uniwue.informatik.jung.layouting.forcedirectedwspd.main.qualityMeasurement.QualityTesterForLayout;
 import de.uniwue.informatik.praline.datastructure.graphs.*;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.SugiyamaLayouter;
-import de.uniwue.informatik.praline.layouting.layered.algorithm.util.Constants;
 import edu.uci.ics.jung.algorithms.layout.AbstractLayout;
 import edu.uci.ics.jung.graph.UndirectedSparseGraph;
 
@@ -15,13 +15,20 @@ import java.util.*;
 
 public class DirectionAssignment {
 
+    /**
+     * Used if {@link SugiyamaLayouter#isStopForceDirectedWhenVertexOrderIsStable()}:
+     * a force-directed drawing is done if the order of the vertices is the same for so many iterations
+     * (see {@link RankOrderConvergenceCriterion})
+     */
+    public static final int ITERATIONS_WITH_STABLE_VERTEX_ORDER = 10;
+
     public AbstractLayout<Long, Long> bestFDLayout = null;
     public Map<Vertex, Long> nodeToLongBestFDLayout = null;
 
     public void randomDirected(SugiyamaLayouter sugy) {
         Map<Vertex, Integer> values = new LinkedHashMap<>();
         List<Vertex> vertices = new LinkedList<>(sugy.getGraph().getVertices());
-        Collections.shuffle(vertices, Constants.random);
+        Collections.shuffle(vertices, sugy.getRandom());
         for (int i = 0; i < vertices.size(); i++) {
             values.put(vertices.get(i), i);
         }
@@ -77,12 +84,16 @@ public class DirectionAssignment {
             Dimension dimension = new Dimension(width, height);
             // create new force directed layout
             FRWSPDb_bMultiLevel<Long, Long> layout = new FRWSPDb_bMultiLevel<>(junggraph, 1.0, dimension,
-                    Constants.random.nextLong());
+                    sugy.getRandom().nextLong());
             layout.setRecomputationOfSplitTreeAndWSPDFunction(new RecomputationOfSplitTreeAndWSPDFunction());
+            if (sugy.isStopForceDirectedWhenVertexOrderIsStable()) {
+                layout.setConvergenceCriterion(
+                        () -> new RankOrderConvergenceCriterion(ITERATIONS_WITH_STABLE_VERTEX_ORDER, 0.0));
+            }
 //            layout.setMaxIterations(2000);
 //            layout.setAttractionMultiplier(0.75); //higher value equals weaker force
 //            layout.setRepulsionMultiplier(0.75); //lower value equals weaker force
-//            layout.setInitializer(new RandomLocationTransformer<>(dimension, Constants.random.nextLong()));
+//            layout.setInitializer(new RandomLocationTransformer<>(dimension, sugy.getRandom().nextLong()));
             layout.initialize();
             // calculate layout
             while (!layout.done()) {
@@ -126,7 +137,7 @@ public class DirectionAssignment {
         Set<Vertex> doneVertices = new LinkedHashSet<>();
         LinkedList<Vertex> queue = new LinkedList<>();
         // use start node by random
-        int random = (int) Math.floor(Constants.random.nextDouble() * sugy.getGraph().getVertices().size());
+        int random = (int) Math.floor(sugy.getRandom().nextDouble() * sugy.getGraph().getVertices().size());
         queue.add(sugy.getGraph().getVertices().get(random));
         while (!queue.isEmpty()) {
             Vertex currentNode = queue.removeFirst();
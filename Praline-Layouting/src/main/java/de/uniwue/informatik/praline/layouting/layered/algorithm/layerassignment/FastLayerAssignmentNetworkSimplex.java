@@ -0,0 +1,648 @@
+package de.uniwue.informatik.praline.layouting.layered.algorithm.layerassignment;
+
+import de.uniwue.informatik.praline.datastructure.graphs.Edge;
+import de.uniwue.informatik.praline.datastructure.graphs.Vertex;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.SugiyamaLayouter;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.edgeorienting.DirectionAssignment;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.util.SortingOrder;
+
+import java.util.*;
+
+/**
+ * Network simplex for the layer assignment as in {@link LayerAssignmentNetworkSimplex}, but implemented as described
+ * by Gansner, Koutsofios, North, Vo: "A technique for drawing directed graphs"
+ * https://ieeexplore.ieee.org/document/221135
+ * (and as in its implementation in graphviz):
+ * <ul>
+ *     <li>the vertices and edges are numbered and everything is stored in int arrays,</li>
+ *     <li>the feasible tree is grown by always adding the incident edge with minimum slack (kept in heaps),</li>
+ *     <li>the spanning tree is numbered in postorder (low/lim), so testing whether a vertex is in a subtree takes
+ *     O(1) time and every subtree is a contiguous range of that numbering,</li>
+ *     <li>after an exchange only the cut values on the tree path between the end points of the entering edge are
+ *     updated and only the subtree of their lowest common ancestor is renumbered,</li>
+ *     <li>the leaving edge is the one with the most negative cut value among a bounded number of tree edges with
+ *     negative cut value, searched cyclically through a list of them starting where the previous search stopped;
+ *     since the pivots are often degenerate here, we switch to Bland's rule (smallest index) after many degenerate
+ *     pivots in a row to avoid stalling,</li>
+ *     <li>ranks are shifted and entering edges are searched on the smaller side of the cut.</li>
+ * </ul>
+ * Every edge has weight 1 and minimum length 1, so the sum of the edge lengths is minimized.
+ * Self loops are ignored.
+ */
+public class FastLayerAssignmentNetworkSimplex implements LayerAssignment {
+
+    /**
+     * after this many pivots in a row that do not change the ranks, the leaving and entering edges are chosen by
+     * Bland's smallest index rule, which cannot cycle
+     */
+    private static final int DEGENERATE_PIVOTS_BEFORE_SMALLEST_INDEX_RULE = 1000;
+    /**
+     * number of tree edges with negative cut value compared when searching the leaving edge (search size of graphviz)
+     */
+    private static final int SEARCH_SIZE = 30;
+
+    private final DirectionAssignment fdBaseDirectionAssignment;
+    private final SugiyamaLayouter sugy;
+    private SortingOrder orders;
+    private final Map<Vertex, Integer> ranks = new LinkedHashMap<>();
+
+    private int n;
+    private int m;
+    private int[] tail;
+    private int[] head;
+    //edges incident to vertex v are incidentEdges[firstIncidence[v]], ..., incidentEdges[firstIncidence[v + 1] - 1]
+    private int[] firstIncidence;
+    private int[] incidentEdges;
+    private int[] rank;
+
+    //spanning tree: tree edge e is treeEdges[treeIndex[e]]; treeIndex[e] == -1 for non-tree edges
+    private int[] treeEdges;
+    private int numberOfTreeEdges;
+    private int[] treeIndex;
+    private int[] cutValue;
+    //parent tree edge of each vertex (-1 for roots) and postorder numbering: the subtree of v are the vertices with
+    // low[v] <= lim <= lim[v]
+    private int[] parentEdge;
+    private int[] low;
+    private int[] lim;
+    private int[] vertexOfLim;
+    //numbers of the tree of the forest containing v are treeLow[v], ..., treeLim[v] (they do not change)
+    private int[] treeLow;
+    private int[] treeLim;
+    //tree edges with negative cut value (in arbitrary order) and the position of each edge there (or -1)
+    private int[] negativeTreeEdges;
+    private int numberOfNegativeTreeEdges;
+    private int[] negativePosition;
+    private int searchIndex;
+    private int enteringEdge;
+    private int enteringSlack;
+    private int degeneratePivotsInARow;
+    private boolean smallestIndexRule;
+    private int[] dfsStack;
+    private int[] dfsPosition;
+    //vertices on the tree path between the end points of the entering edge, which have to be renumbered
+    private boolean[] onTreePath;
+    private int[] oldVertexOfLim;
+
+    public FastLayerAssignmentNetworkSimplex(SugiyamaLayouter sugy, DirectionAssignment fdBaseDirectionAssignment) {
+        this.sugy = sugy;
+        this.fdBaseDirectionAssignment = fdBaseDirectionAssignment;
+        this.orders = sugy.getOrders();
+        if (this.orders == null) {
+            this.orders = new SortingOrder();
+            sugy.setOrders(this.orders);
+        }
+    }
+
+    @Override
+    public Map<Vertex, Integer> assignLayers() {
+        List<Vertex> vertices = new ArrayList<>(sugy.getGraph().getVertices());
+        if (vertices.isEmpty()) {
+            return ranks;
+        }
+        buildArrays(vertices);
+        initRank();
+        feasibleTree();
+        initCutValues();
+        int e = leaveEdge();
+        while (e >= 0) {
+            int f = enterEdge(e);
+            if (f < 0) {
+                throw new IllegalStateException("No entering edge found for a tree edge with negative cut value.");
+            }
+            degeneratePivotsInARow = getSlack(f) == 0 ? degeneratePivotsInARow + 1 : 0;
+            smallestIndexRule = degeneratePivotsInARow >= DEGENERATE_PIVOTS_BEFORE_SMALLEST_INDEX_RULE;
+            update(e, f);
+            e = leaveEdge();
+        }
+
+        normalize();
+        for (int v = 0; v < n; v++) {
+            ranks.put(vertices.get(v), rank[v]);
+        }
+        LayerOrders.computeInitialOrder(orders, ranks);
+        LayerOrders.sortLayers(orders, fdBaseDirectionAssignment);
+        return ranks;
+    }
+
+    private void buildArrays(List<Vertex> vertices) {
+        n = vertices.size();
+        Map<Vertex, Integer> vertexIds = new HashMap<>(2 * n);
+        for (int v = 0; v < n; v++) {
+            vertexIds.put(vertices.get(v), v);
+        }
+        List<Edge> edges = sugy.getGraph().getEdges();
+        tail = new int[edges.size()];
+        head = new int[edges.size()];
+        int[] degree = new int[n];
+        m = 0;
+        for (Edge edge : edges) {
+            Integer t = vertexIds.get(sugy.getStartNode(edge));
+            Integer h = vertexIds.get(sugy.getEndNode(edge));
+            if (t == null || h == null || t.equals(h)) {
+                continue;
+            }
+            tail[m] = t;
+            head[m] = h;
+            ++degree[t];
+            ++degree[h];
+            ++m;
+        }
+        firstIncidence = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            firstIncidence[v + 1] = firstIncidence[v] + degree[v];
+        }
+        incidentEdges = new int[firstIncidence[n]];
+        int[] next = Arrays.copyOf(firstIncidence, n);
+        for (int e = 0; e < m; e++) {
+            incidentEdges[next[tail[e]]++] = e;
+            incidentEdges[next[head[e]]++] = e;
+        }
+    }
+
+    /**
+     * just a longest-path layering
+     */
+    private void initRank() {
+        rank = new int[n];
+        int[] remainingInDegree = new int[n];
+        for (int e = 0; e < m; e++) {
+            ++remainingInDegree[head[e]];
+        }
+        int[] queue = new int[n];
+        int queueEnd = 0;
+        for (int v = 0; v < n; v++) {
+            if (remainingInDegree[v] == 0) {
+                queue[queueEnd++] = v;
+            }
+        }
+        for (int queueStart = 0; queueStart < queueEnd; queueStart++) {
+            int v = queue[queueStart];
+            for (int i = firstIncidence[v]; i < firstIncidence[v + 1]; i++) {
+                int e = incidentEdges[i];
+                if (tail[e] == v) {
+                    rank[head[e]] = Math.max(rank[head[e]], rank[v] + 1);
+                    if (--remainingInDegree[head[e]] == 0) {
+                        queue[queueEnd++] = head[e];
+                    }
+                }
+            }
+        }
+        if (queueEnd < n) {
+            throw new IllegalStateException("The edge directions contain a cycle.");
+        }
+    }
+
+    /**
+     * Grows a tree of tight edges from a start vertex.
+     * The tree is shifted as a whole (via offset) to make the incident edge with minimum slack tight, which is then
+     * added to the tree.
+     * The incident edges are kept in two heaps: those leaving the tree and those entering it.
+     * If the graph is not connected, we get a spanning forest.
+     */
+    private void feasibleTree() {
+        treeIndex = new int[m];
+        Arrays.fill(treeIndex, -1);
+        treeEdges = new int[Math.max(0, n - 1)];
+        numberOfTreeEdges = 0;
+        boolean[] inTree = new boolean[n];
+        //rank of a tree vertex is storedRank + offset
+        int[] storedRank = new int[n];
+        int[] treeVertices = new int[n];
+        //keys such that the slack is key - offset (leaving edges) and key + offset (entering edges)
+        EdgeHeap leavingEdges = new EdgeHeap(m);
+        EdgeHeap enteringEdges = new EdgeHeap(m);
+
+        for (int start = 0; start < n; start++) {
+            if (inTree[start]) {
+                continue;
+            }
+            int offset = 0;
+            int numberOfTreeVertices = 0;
+            int newVertex = start;
+            while (newVertex >= 0) {
+                inTree[newVertex] = true;
+                storedRank[newVertex] = rank[newVertex] - offset;
+                treeVertices[numberOfTreeVertices++] = newVertex;
+                for (int i = firstIncidence[newVertex]; i < firstIncidence[newVertex + 1]; i++) {
+                    int e = incidentEdges[i];
+                    if (tail[e] == newVertex && !inTree[head[e]]) {
+                        leavingEdges.add(e, rank[head[e]] - storedRank[newVertex] - 1);
+                    }
+                    else if (head[e] == newVertex && !inTree[tail[e]]) {
+                        enteringEdges.add(e, storedRank[newVertex] - rank[tail[e]] - 1);
+                    }
+                }
+
+                //discard edges that are inside the tree by now
+                while (!leavingEdges.isEmpty() && inTree[head[leavingEdges.peekEdge()]]) {
+                    leavingEdges.poll();
+                }
+                while (!enteringEdges.isEmpty() && inTree[tail[enteringEdges.peekEdge()]]) {
+                    enteringEdges.poll();
+                }
+                newVertex = -1;
+                int e;
+                if (!leavingEdges.isEmpty() && (enteringEdges.isEmpty()
+                        || leavingEdges.peekKey() - offset <= enteringEdges.peekKey() + offset)) {
+                    //move the tree up
+                    offset += leavingEdges.peekKey() - offset;
+                    e = leavingEdges.poll();
+                    newVertex = head[e];
+                }
+                else if (!enteringEdges.isEmpty()) {
+                    //move the tree down
+                    offset -= enteringEdges.peekKey() + offset;
+                    e = enteringEdges.poll();
+                    newVertex = tail[e];
+                }
+                else {
+                    e = -1;
+                }
+                if (e >= 0) {
+                    treeIndex[e] = numberOfTreeEdges;
+                    treeEdges[numberOfTreeEdges++] = e;
+                }
+            }
+            for (int i = 0; i < numberOfTreeVertices; i++) {
+                rank[treeVertices[i]] = storedRank[treeVertices[i]] + offset;
+            }
+        }
+    }
+
+    private void initCutValues() {
+        parentEdge = new int[n];
+        low = new int[n];
+        lim = new int[n];
+        vertexOfLim = new int[n];
+        cutValue = new int[m];
+        negativeTreeEdges = new int[Math.max(0, n - 1)];
+        numberOfNegativeTreeEdges = 0;
+        negativePosition = new int[m];
+        Arrays.fill(negativePosition, -1);
+        dfsStack = new int[n];
+        dfsPosition = new int[n];
+        oldVertexOfLim = new int[n];
+        onTreePath = new boolean[n];
+        //initially every vertex has to be numbered
+        Arrays.fill(onTreePath, true);
+        Arrays.fill(lim, -1);
+        treeLow = new int[n];
+        treeLim = new int[n];
+        int nextLim = 0;
+        for (int v = 0; v < n; v++) {
+            if (lim[v] < 0) {
+                //v is not yet numbered -> it is the root of the next tree of the forest
+                int firstLim = nextLim;
+                nextLim = dfsRange(v, -1, nextLim);
+                for (int l = firstLim; l < nextLim; l++) {
+                    treeLow[vertexOfLim[l]] = firstLim;
+                    treeLim[vertexOfLim[l]] = nextLim - 1;
+                }
+            }
+        }
+        //in postorder, so the cut values of the children are known
+        for (int i = 0; i < n; i++) {
+            int v = vertexOfLim[i];
+            if (parentEdge[v] >= 0) {
+                computeCutValue(parentEdge[v]);
+            }
+        }
+    }
+
+    /**
+     * Numbers the subtree of root in postorder starting with low.
+     * A subtree below root that is not marked in {@link #onTreePath} has not changed, so its numbers are only shifted
+     * (or kept if its low stays the same).
+     *
+     * @return
+     *      the next unused number
+     */
+    private int dfsRange(int root, int parent, int low) {
+        int[] stack = dfsStack;
+        int[] position = dfsPosition;
+        int stackSize = 0;
+        int nextLim = low;
+        if (lim[root] >= 0) {
+            System.arraycopy(vertexOfLim, this.low[root], oldVertexOfLim, this.low[root], lim[root] - this.low[root] + 1);
+        }
+        parentEdge[root] = parent;
+        this.low[root] = low;
+        stack[stackSize++] = root;
+        position[0] = firstIncidence[root];
+        while (stackSize > 0) {
+            int v = stack[stackSize - 1];
+            if (position[stackSize - 1] < firstIncidence[v + 1]) {
+                int e = incidentEdges[position[stackSize - 1]++];
+                if (treeIndex[e] >= 0 && e != parentEdge[v]) {
+                    int w = tail[e] == v ? head[e] : tail[e];
+                    if (!onTreePath[w]) {
+                        nextLim = shiftSubtree(w, nextLim);
+                        continue;
+                    }
+                    onTreePath[w] = false;
+                    parentEdge[w] = e;
+                    this.low[w] = nextLim;
+                    stack[stackSize] = w;
+                    position[stackSize++] = firstIncidence[w];
+                }
+            }
+            else {
+                lim[v] = nextLim;
+                vertexOfLim[nextLim++] = v;
+                --stackSize;
+            }
+        }
+        return nextLim;
+    }
+
+    /**
+     * @return
+     *      the next unused number after moving the numbers of the subtree of v to start with low
+     */
+    private int shiftSubtree(int v, int low) {
+        int oldLow = this.low[v];
+        int size = lim[v] - oldLow + 1;
+        int shift = low - oldLow;
+        if (shift != 0) {
+            for (int i = 0; i < size; i++) {
+                int w = oldVertexOfLim[oldLow + i];
+                this.low[w] += shift;
+                lim[w] += shift;
+                vertexOfLim[low + i] = w;
+            }
+        }
+        return low + size;
+    }
+
+    private boolean isInSubtree(int w, int v) {
+        return low[v] <= lim[w] && lim[w] <= lim[v];
+    }
+
+    /**
+     * Computes the cut value of tree edge f from the cut values of the tree edges below it
+     */
+    private void computeCutValue(int f) {
+        int v;
+        boolean dir;
+        if (parentEdge[tail[f]] == f) {
+            v = tail[f];
+            dir = true;
+        }
+        else {
+            v = head[f];
+            dir = false;
+        }
+        int sum = 0;
+        for (int i = firstIncidence[v]; i < firstIncidence[v + 1]; i++) {
+            int e = incidentEdges[i];
+            int other = tail[e] == v ? head[e] : tail[e];
+            boolean leavesSubtree = !isInSubtree(other, v);
+            int value;
+            if (leavesSubtree) {
+                value = 1;
+            }
+            else {
+                value = (treeIndex[e] >= 0 ? cutValue[e] : 0) - 1;
+            }
+            boolean positive = dir ? head[e] == v : tail[e] == v;
+            if (leavesSubtree) {
+                positive = !positive;
+            }
+            sum += positive ? value : -value;
+        }
+        setCutValue(f, sum);
+    }
+
+    /**
+     * Sets the cut value of a tree edge and keeps {@link #negativeTreeEdges} up to date
+     */
+    private void setCutValue(int e, int value) {
+        cutValue[e] = value;
+        if (value < 0 && negativePosition[e] < 0) {
+            negativePosition[e] = numberOfNegativeTreeEdges;
+            negativeTreeEdges[numberOfNegativeTreeEdges++] = e;
+        }
+        else if (value >= 0 && negativePosition[e] >= 0) {
+            int last = negativeTreeEdges[--numberOfNegativeTreeEdges];
+            negativeTreeEdges[negativePosition[e]] = last;
+            negativePosition[last] = negativePosition[e];
+            negativePosition[e] = -1;
+        }
+    }
+
+    /**
+     * @return
+     *      a tree edge with negative cut value or -1 if there is none.
+     *      Usually it is the one with the most negative cut value among the next {@link #SEARCH_SIZE} tree edges with
+     *      negative cut value, searched cyclically from where the previous search stopped (as in graphviz).
+     *      After many degenerate pivots in a row it is the one with the smallest index of all of them (Bland's rule).
+     */
+    private int leaveEdge() {
+        if (numberOfNegativeTreeEdges == 0) {
+            return -1;
+        }
+        if (searchIndex >= numberOfNegativeTreeEdges) {
+            searchIndex = 0;
+        }
+        int numberOfCandidates = smallestIndexRule ? numberOfNegativeTreeEdges :
+                Math.min(SEARCH_SIZE, numberOfNegativeTreeEdges);
+        int bestEdge = -1;
+        for (int i = 0; i < numberOfCandidates; i++) {
+            int f = negativeTreeEdges[(searchIndex + i) % numberOfNegativeTreeEdges];
+            if (bestEdge < 0 || (smallestIndexRule ? f < bestEdge : cutValue[f] < cutValue[bestEdge])) {
+                bestEdge = f;
+            }
+        }
+        searchIndex = (searchIndex + numberOfCandidates) % numberOfNegativeTreeEdges;
+        return bestEdge;
+    }
+
+    /**
+     * @return
+     *      the non-tree edge with minimum slack going from the head component of e to its tail component (e removed
+     *      from the tree).
+     *      Only the edges of the component below e are checked, which is a contiguous range in postorder.
+     */
+    private int enterEdge(int e) {
+        int v;
+        boolean searchOutgoing;
+        if (lim[tail[e]] < lim[head[e]]) {
+            v = tail[e];
+            searchOutgoing = false;
+        }
+        else {
+            v = head[e];
+            searchOutgoing = true;
+        }
+        enteringEdge = -1;
+        enteringSlack = Integer.MAX_VALUE;
+        //search from the smaller side of the cut
+        if (isSmallerSide(v)) {
+            searchEnteringEdge(low[v], lim[v], v, searchOutgoing, true);
+        }
+        else {
+            searchEnteringEdge(treeLow[v], low[v] - 1, v, searchOutgoing, false);
+            searchEnteringEdge(lim[v] + 1, treeLim[v], v, searchOutgoing, false);
+        }
+        return enteringEdge;
+    }
+
+    /**
+     * @return
+     *      true if the subtree of v contains at most half of the vertices of its tree
+     */
+    private boolean isSmallerSide(int v) {
+        return 2 * (lim[v] - low[v] + 1) <= treeLim[v] - treeLow[v] + 1;
+    }
+
+    /**
+     * Checks the non-tree edges at the vertices with lim in [from, to], which are all inside or all outside the
+     * subtree of v
+     */
+    private void searchEnteringEdge(int from, int to, int v, boolean searchOutgoing, boolean insideSubtree) {
+        //are the vertices of [from, to] the tails of the candidate edges?
+        boolean tails = searchOutgoing == insideSubtree;
+        for (int l = from; l <= to && (enteringSlack > 0 || smallestIndexRule); l++) {
+            int w = vertexOfLim[l];
+            for (int i = firstIncidence[w]; i < firstIncidence[w + 1]; i++) {
+                int f = incidentEdges[i];
+                if (treeIndex[f] < 0 && (tails ? tail[f] : head[f]) == w
+                        && isInSubtree(tails ? head[f] : tail[f], v) != insideSubtree) {
+                    int slack = getSlack(f);
+                    if (slack < enteringSlack || (slack == enteringSlack && f < enteringEdge)) {
+                        enteringSlack = slack;
+                        enteringEdge = f;
+                    }
+                }
+            }
+        }
+    }
+
+    private void update(int e, int f) {
+        //make f tight by moving the component below e
+        int delta = getSlack(f);
+        if (delta > 0) {
+            int v = lim[tail[e]] < lim[head[e]] ? tail[e] : head[e];
+            int shift = v == tail[e] ? -delta : delta;
+            //only the difference of the two sides matters, so we move the smaller one
+            if (isSmallerSide(v)) {
+                shiftRanks(low[v], lim[v], shift);
+            }
+            else {
+                shiftRanks(treeLow[v], low[v] - 1, -shift);
+                shiftRanks(lim[v] + 1, treeLim[v], -shift);
+            }
+        }
+        //only the cut values on the tree path between the end points of f change
+        int cutValueE = cutValue[e];
+        int lca = updateTreePath(tail[f], head[f], cutValueE, true);
+        updateTreePath(head[f], tail[f], cutValueE, false);
+        setCutValue(f, -cutValueE);
+        setCutValue(e, 0);
+        treeIndex[f] = treeIndex[e];
+        treeEdges[treeIndex[f]] = f;
+        treeIndex[e] = -1;
+        //renumber the subtree of the lca, which contains both e and f; only the vertices on the tree path of f (marked
+        // in updateTreePath) get other subtrees
+        dfsRange(lca, parentEdge[lca], low[lca]);
+    }
+
+    /**
+     * Walks up from v until the subtree contains w and adds/subtracts cutValueE to/from the tree edges on the way.
+     * The vertices on the way (without the lca) are marked in {@link #onTreePath}.
+     *
+     * @return
+     *      the lowest common ancestor of v and w
+     */
+    private int updateTreePath(int v, int w, int cutValueE, boolean dir) {
+        while (!isInSubtree(w, v)) {
+            int e = parentEdge[v];
+            boolean add = v == tail[e] ? dir : !dir;
+            setCutValue(e, cutValue[e] + (add ? cutValueE : -cutValueE));
+            onTreePath[v] = true;
+            v = lim[tail[e]] > lim[head[e]] ? tail[e] : head[e];
+        }
+        return v;
+    }
+
+    private void shiftRanks(int from, int to, int shift) {
+        for (int l = from; l <= to; l++) {
+            rank[vertexOfLim[l]] += shift;
+        }
+    }
+
+    private int getSlack(int e) {
+        return rank[head[e]] - rank[tail[e]] - 1;
+    }
+
+    private void normalize() {
+        int minRank = Integer.MAX_VALUE;
+        for (int v = 0; v < n; v++) {
+            minRank = Math.min(minRank, rank[v]);
+        }
+        for (int v = 0; v < n; v++) {
+            rank[v] -= minRank;
+        }
+    }
+
+    /**
+     * binary min-heap of edges by an int key
+     */
+    private static class EdgeHeap {
+        private final int[] edges;
+        private final int[] keys;
+        private int size;
+
+        EdgeHeap(int capacity) {
+            //every edge is added at most once to each heap
+            edges = new int[capacity];
+            keys = new int[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int peekEdge() {
+            return edges[0];
+        }
+
+        int peekKey() {
+            return keys[0];
+        }
+
+        void add(int edge, int key) {
+            int i = size++;
+            while (i > 0 && keys[(i - 1) / 2] > key) {
+                edges[i] = edges[(i - 1) / 2];
+                keys[i] = keys[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            edges[i] = edge;
+            keys[i] = key;
+        }
+
+        int poll() {
+            int top = edges[0];
+            int edge = edges[--size];
+            int key = keys[size];
+            int i = 0;
+            while (2 * i + 1 < size) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    ++child;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                edges[i] = edges[child];
+                keys[i] = keys[child];
+                i = child;
+            }
+            edges[i] = edge;
+            keys[i] = key;
+            return top;
+        }
+    }
+}
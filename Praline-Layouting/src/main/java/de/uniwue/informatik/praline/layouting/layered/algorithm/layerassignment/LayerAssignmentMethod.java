@@ -2,6 +2,16 @@ package de.uniwue.informatik.praline.layouting.layered.algorithm.layerassignment
 
 public enum LayerAssignmentMethod {
 
+    /**
+     * Before {@link LayerAssignmentMethod#NETWORK_SIMPLEX} because {@link LayerAssignmentMethod#string2Enum(String)}
+     * matches by containment
+     */
+    FAST_NETWORK_SIMPLEX {
+        @Override
+        public String toString() {
+            return "fns";
+        }
+    },
     NETWORK_SIMPLEX {
         @Override
         public String toString() {
@@ -49,7 +49,7 @@ public class LayerAssignmentNetworkSimplex implements LayerAssignment {
             for (Vertex vertex : sugy.getGraph().getVertices()) {
                 ranks.put(vertex, 0);
             }
-            computeInitialOrder();
+            LayerOrders.computeInitialOrder(orders, ranks);
             return;
         }
 
@@ -67,9 +67,9 @@ public class LayerAssignmentNetworkSimplex implements LayerAssignment {
         }
 
         normalize();
-        computeInitialOrder();
+        LayerOrders.computeInitialOrder(orders, ranks);
 //        balance(); TODO: commented out because it did not bring improvements :( maybe revisit later
-        sortLayers();
+        LayerOrders.sortLayers(orders, fdBaseDirectionAssignment);
     }
 
     private void normalize() {
@@ -343,19 +343,6 @@ public class LayerAssignmentNetworkSimplex implements LayerAssignment {
         return tree2cutValue.containsKey(e);
     }
 
-    private void computeInitialOrder() {
-        List<List<Vertex>> nodeOrder = this.orders.getNodeOrder();
-        int maxRank = ranks.values().stream().max(Integer::compareTo).get();
-        //init maxRank + 1 many empty layers
-        for (int i = 0; i <= maxRank; i++) {
-            nodeOrder.add(new ArrayList<>());
-        }
-        //fill layers
-        for (Vertex v : ranks.keySet()) {
-            nodeOrder.get(ranks.get(v)).add(v);
-        }
-    }
-
     private void balance() {
         //as proposed by Gansner et al.: move vertices with equal in- and out- degree to less crowded reachable layers
         List<List<Vertex>> nodeOrder = this.orders.getNodeOrder();
@@ -384,15 +371,4 @@ public class LayerAssignmentNetworkSimplex implements LayerAssignment {
             }
         }
     }
-
-    private void sortLayers() {
-        if (fdBaseDirectionAssignment != null && fdBaseDirectionAssignment.bestFDLayout != null
-                && fdBaseDirectionAssignment.nodeToLongBestFDLayout != null) {
-            //sort each layer additionally by x-coordinate in the fd-layout
-            for (List<Vertex> layer : this.orders.getNodeOrder()) {
-                layer.sort(Comparator.comparingDouble(v -> fdBaseDirectionAssignment.bestFDLayout.apply(
-                        fdBaseDirectionAssignment.nodeToLongBestFDLayout.get(v)).getX()));
-            }
-        }
-    }
 }
\ No newline at end of file
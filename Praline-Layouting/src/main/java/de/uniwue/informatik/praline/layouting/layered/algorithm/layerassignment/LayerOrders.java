@@ -0,0 +1,50 @@
+package de.uniwue.informatik.praline.layouting.layered.algorithm.layerassignment;
+
+import de.uniwue.informatik.praline.datastructure.graphs.Vertex;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.edgeorienting.DirectionAssignment;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.util.SortingOrder;
+
+import java.util.*;
+
+/**
+ * Initial node order of the layers after a layer assignment (used by the network simplex implementations)
+ */
+class LayerOrders {
+
+    private LayerOrders() {
+    }
+
+    /**
+     * Appends one layer per rank 0, ..., maximum rank to the node order of orders and puts every vertex into the
+     * layer of its rank (in the order of ranks)
+     */
+    static void computeInitialOrder(SortingOrder orders, Map<Vertex, Integer> ranks) {
+        List<List<Vertex>> nodeOrder = orders.getNodeOrder();
+        int maxRank = ranks.values().stream().max(Integer::compareTo).get();
+        //init maxRank + 1 many empty layers
+        for (int i = 0; i <= maxRank; i++) {
+            nodeOrder.add(new ArrayList<>());
+        }
+        //fill layers
+        for (Vertex v : ranks.keySet()) {
+            nodeOrder.get(ranks.get(v)).add(v);
+        }
+    }
+
+    /**
+     * Sorts each layer by the x-coordinates of the fd-layout of fdBaseDirectionAssignment if there is one
+     *
+     * @param fdBaseDirectionAssignment
+     *      may be null
+     */
+    static void sortLayers(SortingOrder orders, DirectionAssignment fdBaseDirectionAssignment) {
+        if (fdBaseDirectionAssignment != null && fdBaseDirectionAssignment.bestFDLayout != null
+                && fdBaseDirectionAssignment.nodeToLongBestFDLayout != null) {
+            //sort each layer additionally by x-coordinate in the fd-layout
+            for (List<Vertex> layer : orders.getNodeOrder()) {
+                layer.sort(Comparator.comparingDouble(v -> fdBaseDirectionAssignment.bestFDLayout.apply(
+                        fdBaseDirectionAssignment.nodeToLongBestFDLayout.get(v)).getX()));
+            }
+        }
+    }
+}
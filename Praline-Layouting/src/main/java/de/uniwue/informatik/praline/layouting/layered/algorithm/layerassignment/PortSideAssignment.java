@@ -4,7 +4,6 @@ import de.uniwue.informatik.praline.datastructure.graphs.*;
 import de.uniwue.informatik.praline.datastructure.placements.Orientation;
 import de.uniwue.informatik.praline.datastructure.utils.PortUtils;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.SugiyamaLayouter;
-import de.uniwue.informatik.praline.layouting.layered.algorithm.util.Constants;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.util.SortingOrder;
 import edu.uci.ics.jung.graph.util.Pair;
 
@@ -71,7 +70,7 @@ public class PortSideAssignment {
                 }
                 //if they are still the same -> do random decision
                 if (scoreFirst == scoreSecond) {
-                    if (Constants.random.nextBoolean()) {
+                    if (sugy.getRandom().nextBoolean()) {
                         scoreFirst = 1;
                         scoreSecond = -1;
                     } else {
@@ -113,7 +112,7 @@ public class PortSideAssignment {
             for (PortComposition portComposition : freePortCompositions) {
                 int portsTop = PortUtils.countPorts(portCompositionsTop);
                 int portsBottom = PortUtils.countPorts(portCompositionsBottom);
-                if (portsTop < portsBottom || (portsTop == portsBottom && Constants.random.nextDouble() < 0.5)) {
+                if (portsTop < portsBottom || (portsTop == portsBottom && sugy.getRandom().nextDouble() < 0.5)) {
                     portCompositionsTop.add(portComposition);
                 } else {
                     portCompositionsBottom.add(portComposition);
@@ -1,13 +1,9 @@
 package de.uniwue.informatik.praline.layouting.layered.algorithm.nodeplacement;
 
 import de.uniwue.informatik.praline.datastructure.graphs.*;
-import de.uniwue.informatik.praline.datastructure.labels.Label;
-import de.uniwue.informatik.praline.datastructure.labels.LabeledObject;
-import de.uniwue.informatik.praline.datastructure.labels.TextLabel;
 import de.uniwue.informatik.praline.datastructure.placements.Orientation;
 import de.uniwue.informatik.praline.datastructure.shapes.Rectangle;
 import de.uniwue.informatik.praline.datastructure.shapes.Shape;
-import de.uniwue.informatik.praline.datastructure.styles.TextLabelStyle;
 import de.uniwue.informatik.praline.datastructure.utils.PortUtils;
 import de.uniwue.informatik.praline.io.output.svg.SVGRectangleDrawer;
 import de.uniwue.informatik.praline.io.output.util.DrawingInformation;
@@ -29,7 +25,6 @@ public class NodePlacement {
     private Map<Vertex, Set<Port>> dummyPorts;
     private Map<Port, Vertex> dummyPort2unionNode;
     private List<Edge> dummyEdges;
-    private int portNumber;
     // spacing variable according to paper:
     private double delta;
     //new max port spacing within a vertex
@@ -153,9 +148,6 @@ public class NodePlacement {
         dummyPort2unionNode = new LinkedHashMap<>();
         dummyEdges = new LinkedList<>();
         dummyVertex = new Vertex();
-        dummyVertex.getLabelManager().addLabel(new TextLabel("dummyVertex"));
-        dummyVertex.getLabelManager().setMainLabel(dummyVertex.getLabelManager().getLabels().get(0));
-        portNumber = 0;
     }
 
     public void initializeStructure() {
@@ -227,8 +219,6 @@ public class NodePlacement {
     private void addDividingNodePair(List<PortValues> rankBottomPorts, List<PortValues> rankTopPorts) {
         Port p1 = new Port();
         Port p2 = new Port();
-        createMainLabel(p1);
-        createMainLabel(p2);
         List<Port> ports = new ArrayList<>();
         ports.add(p1);
         ports.add(p2);
@@ -354,7 +344,6 @@ public class NodePlacement {
                 // width of the current node, the width of the device node will automatically be increased. Assigning
                 // these ports directly to the device vertex would cause ugly gaps in the compound drawing at the end
                 Port p = new Port();
-                createMainLabel(p);
                 addToCorrectPortGroupOrNode(p, currentUnionNode, currentNode);
                 dummyPorts.putIfAbsent(currentNode, new LinkedHashSet<>());
                 dummyPorts.get(currentNode).add(p);
@@ -398,7 +387,6 @@ public class NodePlacement {
         boolean left = true;
         while (minWidth > currentWidth) {
             Port p = new Port();
-            createMainLabel(p);
             addToCorrectPortGroupOrNode(p, currentUnionNode, currentNode);
             dummyPorts.putIfAbsent(currentNode, new LinkedHashSet<>());
             dummyPorts.get(currentNode).add(p);
@@ -585,12 +573,9 @@ public class NodePlacement {
         //find maximum independent set of the permutation graph defined by the the edges between these two layers;
         // in this graph, the inter-layer-edges are the vertices and their maximum independent set gives us a largest
         // set of edges that do not cross pairwise.
-        //We use the linear time algorithm by Koehler and Mouatadid (InfProcLet'16):
-        // "A linear time algorithm to compute a maximum weighted independent set on cocomparability graphs"
 
-        //first find all relevant edges (these will be the veritices of our permutation graph, which is always also a
-        // cocomparability graph. Both the order of vertices on the top and the bottom layer gives us already a valid
-        // ccorder
+        //first find all relevant edges (these will be the veritices of our permutation graph) in the order of their
+        // top ports
         List<PortValues> topLayer = structure.get(layer);
         List<Pair<PortValues>> ccorder = new ArrayList<>(topLayer.size());
         List<Integer> ccorderEdgeWeights = new ArrayList<>(topLayer.size());
@@ -609,60 +594,142 @@ public class NodePlacement {
             return new LinkedList<>();
         }
 
-        //now find the permutation of is-size-increasing independent sets
-        //tau contains for each vertex as second entry the assigned independent set and as first entry the weight of
-        // that set
-        //remark: different from the paper, tau is a reverse list! so the last entry is actually the one of v_1 (or v_0)
-        // and the more to the beginning, the higher the index in ccorder (or i resp.), so from right to left
-        LinkedList<org.eclipse.elk.core.util.Pair<Integer, LinkedList<Pair<PortValues>>>> tau = new LinkedList<>();
-        for (int i = 0; i < ccorder.size(); i++) {
-            Pair<PortValues> ai = ccorder.get(i); //the i-th alignment
-            Integer wi = ccorderEdgeWeights.get(i); //weight of ai
-            //find weight and indpendent set of rightmost non-neighbor of (v_i, adj(v_i)); this is done in variable u
-            org.eclipse.elk.core.util.Pair<Integer, LinkedList<Pair<PortValues>>> u = null;
-            for (int j = 0; j < i; j++) {
-                Pair<PortValues> aj = tau.get(j).getSecond().get(0); //the 0-th entry of the is is the owning alignment
-                if (!doCross(aj, ai)) {
-                    u = tau.get(j);
-                    break;
+        int n = ccorder.size();
+        int[] topPositions = new int[n];
+        int[] bottomPositions = new int[n];
+        int[] weights = new int[n];
+        for (int i = 0; i < n; i++) {
+            topPositions[i] = ccorder.get(i).getFirst().getPosition();
+            bottomPositions[i] = ccorder.get(i).getSecond().getPosition();
+            weights[i] = ccorderEdgeWeights.get(i);
+        }
+        LinkedList<Pair<PortValues>> independentSet = new LinkedList<>();
+        for (int i : findMaximumWeightNonCrossingAlignments(topPositions, bottomPositions, weights,
+                structure.get(layer + 1).size())) {
+            independentSet.add(ccorder.get(i));
+        }
+        return independentSet;
+    }
+
+    /**
+     * Two alignments cross if their order on the top layer differs from the one on the bottom layer; alignments of
+     * the same top port cross if the later one has a larger bottom position.
+     * Processing the alignments from left to right, each alignment i builds upon the set of maximum weight (ties:
+     * the one owned by the alignment coming first) among the alignments before i that do not cross i.
+     * Different from the linear time algorithm by Koehler and Mouatadid (InfProcLet'16) for cocomparability graphs,
+     * which keeps all sets in a list sorted by weight, we store for each alignment only the weight of its set and
+     * the alignment it builds upon (parent), and find the best one via two prefix-maximum Fenwick trees over the
+     * bottom positions in O(log n) time, so this takes O(m log m) time for m alignments:
+     * - alignments of a previous top port do not cross i iff their bottom position is smaller
+     * - alignments of the same top port do not cross i iff their bottom position is not smaller
+     *
+     * @param topPositions
+     *      positions of the top ports of the alignments; must not decrease
+     * @param bottomPositions
+     *      positions of the bottom ports of the alignments, between 0 and numberOfBottomPositions - 1
+     * @param weights
+     *      weights of the alignments
+     * @param numberOfBottomPositions
+     * @return
+     *      indices of the alignments of the set of maximum weight, starting with the one owning it and followed by
+     *      the ones it builds upon
+     */
+    static int[] findMaximumWeightNonCrossingAlignments(int[] topPositions, int[] bottomPositions, int[] weights,
+                                                        int numberOfBottomPositions) {
+        int n = topPositions.length;
+        if (n == 0) {
+            return new int[0];
+        }
+        int[] weightOfSet = new int[n];
+        int[] parent = new int[n];
+        int[] previousTopPorts = new int[numberOfBottomPositions + 1];
+        int[] sameTopPort = new int[numberOfBottomPositions + 1];
+        Arrays.fill(previousTopPorts, -1);
+        Arrays.fill(sameTopPort, -1);
+        int firstOfGroup = 0;
+        for (int i = 0; i < n; i++) {
+            if (topPositions[i] != topPositions[firstOfGroup]) {
+                //a new top port starts -> move the alignments of the previous one to the other tree
+                for (int k = firstOfGroup; k < i; k++) {
+                    insertIntoMaxTree(previousTopPorts, bottomPositions[k] + 1, k, weightOfSet);
+                    clearMaxTree(sameTopPort, numberOfBottomPositions - bottomPositions[k]);
                 }
+                firstOfGroup = i;
             }
-            //if it has a non-neighbor already handled, we can build upon its independent set; otherwise the new is
-            // will just be ai itself
-            LinkedList<Pair<PortValues>> si = new LinkedList<>(Collections.singletonList(ai));
-            int wsi = wi;
-            if (u != null) {
-                si.addAll(u.getSecond());
-                wsi += u.getFirst();
+            int u = queryMaxTree(previousTopPorts, bottomPositions[i], weightOfSet);
+            int v = queryMaxTree(sameTopPort, numberOfBottomPositions - bottomPositions[i], weightOfSet);
+            if (isBetterSet(v, u, weightOfSet)) {
+                u = v;
             }
-            insert(tau, si, wsi);
+            parent[i] = u;
+            weightOfSet[i] = weights[i] + (u < 0 ? 0 : weightOfSet[u]);
+            insertIntoMaxTree(sameTopPort, numberOfBottomPositions - bottomPositions[i], i, weightOfSet);
         }
 
-        return tau.getFirst().getSecond(); //a maximum independent set is the first entry of tau and the second entry
-        // there is the independent set (the 1st entry there is the weight)
+        //a maximum independent set is the one of maximum weight (ties: the one inserted first); it starts with the
+        // owning alignment followed by the sets it builds upon
+        int best = 0;
+        for (int i = 1; i < n; i++) {
+            if (isBetterSet(i, best, weightOfSet)) {
+                best = i;
+            }
+        }
+        int size = 0;
+        for (int i = best; i >= 0; i = parent[i]) {
+            ++size;
+        }
+        int[] independentSet = new int[size];
+        size = 0;
+        for (int i = best; i >= 0; i = parent[i]) {
+            independentSet[size++] = i;
+        }
+        return independentSet;
     }
 
-    private void insert(LinkedList<org.eclipse.elk.core.util.Pair<Integer, LinkedList<Pair<PortValues>>>> tau,
-                        LinkedList<Pair<PortValues>> si, int wsi) {
-        //remember that tau has inverse order, the it stars with largest indpendent sets and then they become smaller
-        ListIterator<org.eclipse.elk.core.util.Pair<Integer, LinkedList<Pair<PortValues>>>> tauIterator =
-                tau.listIterator(0);
-        while (tauIterator.hasNext()) {
-            org.eclipse.elk.core.util.Pair<Integer, LinkedList<Pair<PortValues>>> curr = tauIterator.next();
-            int wCurr = curr.getFirst();
-            if (wCurr < wsi) {
-                //we have to add si before curr -> go one back and then add si
-                tauIterator.previous();
-                break;
+    /**
+     * @return
+     *      true if the set owned by alignment i has a larger weight than the one of alignment j or the same weight
+     *      and i < j (a negative index means no set)
+     */
+    private static boolean isBetterSet(int i, int j, int[] weightOfSet) {
+        if (i < 0) {
+            return false;
+        }
+        if (j < 0) {
+            return true;
+        }
+        return weightOfSet[i] > weightOfSet[j] || (weightOfSet[i] == weightOfSet[j] && i < j);
+    }
+
+    /**
+     * Fenwick tree storing at each node the best alignment (see isBetterSet()) of its range; index is 1-based
+     */
+    private static void insertIntoMaxTree(int[] tree, int index, int alignment, int[] weightOfSet) {
+        for (int j = index; j < tree.length; j += j & -j) {
+            if (isBetterSet(alignment, tree[j], weightOfSet)) {
+                tree[j] = alignment;
             }
         }
-        tauIterator.add(new org.eclipse.elk.core.util.Pair<>(wsi, si));
     }
 
-    private boolean doCross(Pair<PortValues> alignment0, Pair<PortValues> alignment1) {
-        boolean top0First = alignment0.getFirst().getPosition() < alignment1.getFirst().getPosition();
-        boolean bottom0First = alignment0.getSecond().getPosition() < alignment1.getSecond().getPosition();
-        return top0First != bottom0First;
+    private static void clearMaxTree(int[] tree, int index) {
+        for (int j = index; j < tree.length; j += j & -j) {
+            tree[j] = -1;
+        }
+    }
+
+    /**
+     * @return
+     *      best alignment in the range 1..index or -1 if there is none
+     */
+    private static int queryMaxTree(int[] tree, int index, int[] weightOfSet) {
+        int best = -1;
+        for (int j = index; j > 0; j -= j & -j) {
+            if (isBetterSet(tree[j], best, weightOfSet)) {
+                best = tree[j];
+            }
+        }
+        return best;
     }
 
     private void determineLengthOfLongEdges(Map<Edge, Integer> lengthOfLongEdge) {
@@ -1338,12 +1405,6 @@ public class NodePlacement {
         return nodeInTheGraph;
     }
 
-    private void createMainLabel (LabeledObject lo) {
-        Label<TextLabelStyle> newLabel = new TextLabel("dummyPort" + portNumber++);
-        lo.getLabelManager().addLabel(newLabel);
-        lo.getLabelManager().setMainLabel(newLabel);
-    }
-
     private void drawCurrentStructure(String svgPath) {
         List<Rectangle> blackRectangles = new ArrayList<>();
         List<Pair<Rectangle>> edges = new ArrayList<>();
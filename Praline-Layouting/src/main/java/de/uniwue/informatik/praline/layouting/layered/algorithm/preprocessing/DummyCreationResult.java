@@ -3,6 +3,7 @@ package de.uniwue.informatik.praline.layouting.layered.algorithm.preprocessing;
 import de.uniwue.informatik.praline.datastructure.graphs.Edge;
 import de.uniwue.informatik.praline.datastructure.graphs.Port;
 import de.uniwue.informatik.praline.datastructure.graphs.Vertex;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.util.DummyNodeType;
 
 import java.util.Map;
 
@@ -10,18 +11,21 @@ public class DummyCreationResult {
     private Map<Vertex, Edge> dummyNodesLongEdges;
     private Map<Vertex, Edge> dummyNodesSelfLoops;
     private Map<Vertex, Vertex> dummyTurningNodes;
+    private Map<Vertex, DummyNodeType> dummyNodeTypes;
     private Map<Vertex, Vertex> nodeToLowerDummyTurningPoint;
     private Map<Vertex, Vertex> nodeToUpperDummyTurningPoint;
     private Map<Port, Port> correspondingPortsAtDummy;
     private Map<Edge, Edge> dummyEdge2RealEdge;
 
     public DummyCreationResult(Map<Vertex, Edge> dummyNodesLongEdges, Map<Vertex, Edge> dummyNodesSelfLoops,
-                               Map<Vertex, Vertex> dummyTurningNodes, Map<Vertex, Vertex> nodeToLowerDummyTurningPoint,
+                               Map<Vertex, Vertex> dummyTurningNodes, Map<Vertex, DummyNodeType> dummyNodeTypes,
+                               Map<Vertex, Vertex> nodeToLowerDummyTurningPoint,
                                Map<Vertex, Vertex> nodeToUpperDummyTurningPoint,
                                Map<Port, Port> correspondingPortsAtDummy, Map<Edge, Edge> dummyEdge2RealEdge) {
         this.dummyNodesLongEdges = dummyNodesLongEdges;
         this.dummyNodesSelfLoops = dummyNodesSelfLoops;
         this.dummyTurningNodes = dummyTurningNodes;
+        this.dummyNodeTypes = dummyNodeTypes;
         this.nodeToLowerDummyTurningPoint = nodeToLowerDummyTurningPoint;
         this.nodeToUpperDummyTurningPoint = nodeToUpperDummyTurningPoint;
         this.correspondingPortsAtDummy = correspondingPortsAtDummy;
@@ -40,6 +44,10 @@ public class DummyCreationResult {
         return dummyTurningNodes;
     }
 
+    public Map<Vertex, DummyNodeType> getDummyNodeTypes() {
+        return dummyNodeTypes;
+    }
+
     public Map<Vertex, Vertex> getNodeToLowerDummyTurningPoint() {
         return nodeToLowerDummyTurningPoint;
     }
@@ -1,14 +1,11 @@
 package de.uniwue.informatik.praline.layouting.layered.algorithm.preprocessing;
 
 import de.uniwue.informatik.praline.datastructure.graphs.*;
-import de.uniwue.informatik.praline.datastructure.labels.Label;
-import de.uniwue.informatik.praline.datastructure.labels.TextLabel;
 import de.uniwue.informatik.praline.datastructure.placements.Orientation;
-import de.uniwue.informatik.praline.datastructure.styles.TextLabelStyle;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.SugiyamaLayouter;
 import de.uniwue.informatik.praline.datastructure.utils.PortUtils;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.layerassignment.PortSideAssignment;
-import de.uniwue.informatik.praline.layouting.layered.algorithm.util.Constants;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.util.DummyNodeType;
 import org.eclipse.elk.core.util.Pair;
 
 import java.util.*;
@@ -19,6 +16,7 @@ public class DummyNodeCreation {
     private Map<Vertex, Edge> dummyNodesLongEdges;
     private Map<Vertex, Edge> dummyNodesSelfLoops;
     private Map<Vertex, Vertex> dummyTurningNodes;
+    private Map<Vertex, DummyNodeType> dummyNodeTypes;
     private Map<Port, Boolean> portOnWrongSideHasEdgeGoingOnTheLeftSideAroundNode;
     private Map<Vertex, Vertex> nodeToLowerDummyTurningPoint;
     private Map<Vertex, Vertex> nodeToUpperDummyTurningPoint;
@@ -36,6 +34,7 @@ public class DummyNodeCreation {
         this.dummyNodesLongEdges = new LinkedHashMap<>();
         this.dummyNodesSelfLoops = new LinkedHashMap<>();
         this.dummyTurningNodes = new LinkedHashMap<>();
+        this.dummyNodeTypes = new HashMap<>();
         this.portOnWrongSideHasEdgeGoingOnTheLeftSideAroundNode = new LinkedHashMap<>();
         this.nodeToLowerDummyTurningPoint = new LinkedHashMap<>();
         this.nodeToUpperDummyTurningPoint = new LinkedHashMap<>();
@@ -147,7 +146,7 @@ public class DummyNodeCreation {
         createDummyNodesForEdges();
 
         return new DummyCreationResult(dummyNodesLongEdges, dummyNodesSelfLoops, dummyTurningNodes,
-                nodeToLowerDummyTurningPoint, nodeToUpperDummyTurningPoint, correspondingPortsAtDummy,
+                dummyNodeTypes, nodeToLowerDummyTurningPoint, nodeToUpperDummyTurningPoint, correspondingPortsAtDummy,
                 dummyEdge2RealEdge);
     }
 
@@ -502,8 +501,7 @@ public class DummyNodeCreation {
 
         Port dummyPort0 = new Port();
         Port dummyPort1 = new Port();
-        Vertex dummy = new Vertex(Arrays.asList(dummyPort0, dummyPort1), Collections.singleton(new TextLabel(
-                "selfLoopDummyFor_" + loopEdge)));
+        Vertex dummy = new Vertex(Arrays.asList(dummyPort0, dummyPort1));
 
         // add everything to graph and rank dummy
         sugy.getGraph().addVertex(dummy);
@@ -513,15 +511,13 @@ public class DummyNodeCreation {
             lowerIntermediateLayer.add(dummy);
         }
         dummyNodesSelfLoops.put(dummy, loopEdge);
+        dummyNodeTypes.put(dummy, DummyNodeType.SELF_LOOP);
         correspondingPortsAtDummy.put(dummyPort0, dummyPort1);
         correspondingPortsAtDummy.put(dummyPort1, dummyPort0);
 
         //add new connections
-        int counter = 0;
-        Edge dummyEdge0 = new Edge(Arrays.asList(ports.get(0), dummyPort0), Collections.singleton(new TextLabel(
-                "selfLoopEdge_" + loopEdge + "_#" + counter++)));
-        Edge dummyEdge1 = new Edge(Arrays.asList(ports.get(1), dummyPort1), Collections.singleton(new TextLabel(
-                "selfLoopEdge_" + loopEdge + "_#" + counter++)));
+        Edge dummyEdge0 = new Edge(Arrays.asList(ports.get(0), dummyPort0));
+        Edge dummyEdge1 = new Edge(Arrays.asList(ports.get(1), dummyPort1));
         sugy.getGraph().addEdge(dummyEdge0);
         sugy.getGraph().addEdge(dummyEdge1);
         sugy.assignDirection(dummyEdge0, port0TopSide ? vertex : dummy, port0TopSide ? dummy : vertex);
@@ -533,9 +529,7 @@ public class DummyNodeCreation {
         if (port0TopSide != port1TopSide) {
             Port dummyPort2 = new Port();
             Port dummyPort3 = new Port();
-            Vertex additionalDummy = new Vertex(Arrays.asList(dummyPort2, dummyPort3),
-                    Collections.singleton(new TextLabel(
-                            "additionalSelfLoopDummyFor_" + loopEdge)));
+            Vertex additionalDummy = new Vertex(Arrays.asList(dummyPort2, dummyPort3));
 
             // add everything to graph and rank dummy
             sugy.getGraph().addVertex(additionalDummy);
@@ -545,6 +539,7 @@ public class DummyNodeCreation {
                 lowerIntermediateLayer.add(additionalDummy);
             }
             dummyNodesSelfLoops.put(additionalDummy, loopEdge);
+            dummyNodeTypes.put(additionalDummy, DummyNodeType.SELF_LOOP);
             correspondingPortsAtDummy.put(dummyPort2, dummyPort3);
             correspondingPortsAtDummy.put(dummyPort3, dummyPort2);
 
@@ -554,8 +549,7 @@ public class DummyNodeCreation {
             sugy.removeDirection(dummyEdge1);
             sugy.assignDirection(dummyEdge1,
                     port0TopSide ? additionalDummy : dummy, port0TopSide ? dummy : additionalDummy);
-            Edge dummyEdge2 = new Edge(Arrays.asList(ports.get(1), dummyPort3), Collections.singleton(new TextLabel(
-                    "selfLoopEdge_" + loopEdge + "_#" + counter++)));
+            Edge dummyEdge2 = new Edge(Arrays.asList(ports.get(1), dummyPort3));
             sugy.getGraph().addEdge(dummyEdge2);
             sugy.assignDirection(dummyEdge2,
                     port1TopSide ? vertex : additionalDummy, port1TopSide ? additionalDummy : vertex);
@@ -572,17 +566,14 @@ public class DummyNodeCreation {
             return nodeToUpperDummyTurningPoint.get(vertex);
         }
 
-        // create dummyNode and ID
+        // create dummyNode
         Vertex dummy = new Vertex();
-        String place = lowerTurningPoint ? "lower" : "upper";
-        Label<TextLabelStyle> idDummy = new TextLabel(place + "_turning_dummy_for_" + vertex);
-        dummy.getLabelManager().addLabel(idDummy);
-        dummy.getLabelManager().setMainLabel(idDummy);
 
         // add everything to graph
         sugy.getGraph().addVertex(dummy);
         intermediateLayerToAddItIfCreated.add(dummy);
         dummyTurningNodes.put(dummy, vertex);
+        dummyNodeTypes.put(dummy, DummyNodeType.TURNING_POINT);
         if (lowerTurningPoint) {
             nodeToLowerDummyTurningPoint.put(vertex, dummy);
         }
@@ -599,12 +590,6 @@ public class DummyNodeCreation {
         ArrayList<Port> portsFor2 = new ArrayList<>();
         Port p1 = new Port();
         Port p2 = new Port();
-        Label<TextLabelStyle> idp1 = new TextLabel("DummyPort_to_" + edge.getPorts().get(0));
-        Label<TextLabelStyle> idp2 = new TextLabel("DummyPort_to_" + edge.getPorts().get(1));
-        p1.getLabelManager().addLabel(idp1);
-        p2.getLabelManager().addLabel(idp2);
-        p1.getLabelManager().setMainLabel(idp1);
-        p2.getLabelManager().setMainLabel(idp2);
         dummy.addPortComposition(p1);
         dummy.addPortComposition(p2);
         correspondingPortsAtDummy.put(p1, p2);
@@ -615,12 +600,6 @@ public class DummyNodeCreation {
         portsFor2.add(edge.getPorts().get(1));
         Edge e1 = new Edge(portsFor1);
         Edge e2 = new Edge(portsFor2);
-        Label<TextLabelStyle> ide1 = new TextLabel("TurnedEdge" + edge + "#1");
-        Label<TextLabelStyle> ide2 = new TextLabel("TurnedEdge" + edge + "#2");
-        e1.getLabelManager().addLabel(ide1);
-        e2.getLabelManager().addLabel(ide2);
-        e1.getLabelManager().setMainLabel(ide1);
-        e2.getLabelManager().setMainLabel(ide2);
         dummyEdge2RealEdge.put(e1, edge);
         dummyEdge2RealEdge.put(e2, edge);
 
@@ -645,20 +624,6 @@ public class DummyNodeCreation {
     }
 
     private void createAllDummyNodesForEdge(Edge edge) {
-        String edgeName = edge.toString();
-        Edge refEdge = edge;
-        if (edgeName.startsWith("DummyEdge_to_")) {
-            refEdge = dummyEdge2RealEdge.get(edge);
-            edgeName = refEdge.toString();
-//            if (edge.getPorts().get(0).getVertex().toString().startsWith("Dummy_for_")) {
-//                refEdge = dummyNodesLongEdges.get(edge.getPorts().get(0).getVertex());
-//                edgeName = refEdge.toString();
-//            } else {
-//                refEdge = dummyNodesLongEdges.get(edge.getPorts().get(1).getVertex());
-//                edgeName = refEdge.toString();
-//            }
-        }
-
         // for each layer create a dummynode and connect it with an additional edge
         Vertex lowerNode = sugy.getStartNode(edge);
         Vertex upperNode = sugy.getEndNode(edge);
@@ -672,7 +637,7 @@ public class DummyNodeCreation {
 
         int layer;
         for (layer = (sugy.getRank(lowerNode) + 1); layer < sugy.getRank(upperNode); layer++) {
-            lowerPort = createDummyNodeForLongEdge(edge, edgeName, refEdge, lowerNode, lowerPort,
+            lowerPort = createDummyNodeForLongEdge(edge, lowerNode, lowerPort,
                     layer == sugy.getRank(upperNode) - 1 ? upperNode : null, layer);
             lowerNode = lowerPort.getVertex();
         }
@@ -681,11 +646,6 @@ public class DummyNodeCreation {
         Edge dummyEdge = new Edge(Arrays.asList(upperPort, lowerPort));
         sugy.assignDirection(dummyEdge, lowerNode, upperPort.getVertex());
 
-        // Label/ID
-        Label<TextLabelStyle> ide = new TextLabel("DummyEdge_for_" + edgeName + "_L_" + (layer-1) + "_to_L_" + layer);
-        dummyEdge.getLabelManager().addLabel(ide);
-        dummyEdge.getLabelManager().setMainLabel(ide);
-
         sugy.getGraph().addEdge(dummyEdge);
         dummyEdge2RealEdge.put(dummyEdge, edge);
         sugy.getGraph().removeEdge(edge);
@@ -697,9 +657,6 @@ public class DummyNodeCreation {
      *
      * @param edge
      *      the edge that should be split and is currently in the graph
-     * @param edgeName
-     * @param refEdge
-     *      the same as edge if edge is an orginal one, or the corresponding original edge if edge is a dummy
      * @param lowerNode
      * @param lowerPort
      * @param upperNode
@@ -711,8 +668,8 @@ public class DummyNodeCreation {
      *      the upper port of the new dummy vertex. You can get this dummy vertex by applying .getVertex() to the
      *      returned port. This returned upper port serves as lowerPort for the next edge part of the long edge
      */
-    private Port createDummyNodeForLongEdge(Edge edge, String edgeName, Edge refEdge, Vertex lowerNode,
-                                            Port lowerPort, Vertex upperNode, int layer) {
+    private Port createDummyNodeForLongEdge(Edge edge, Vertex lowerNode, Port lowerPort, Vertex upperNode,
+                                            int layer) {
         // create
         Vertex dummy = new Vertex();
         Port lowerDummyPort = new Port();
@@ -720,26 +677,13 @@ public class DummyNodeCreation {
         Edge dummyEdge = new Edge(Arrays.asList(lowerDummyPort, lowerPort));
         sugy.assignDirection(dummyEdge, lowerNode, dummy);
 
-        // Label/ID
-        Label<TextLabelStyle> idn = new TextLabel("DummyV_" + edgeName + "_#" + layer);
-        Label<TextLabelStyle> idlp = new TextLabel("lDummyPort_" + edgeName + "_#" + layer);
-        Label<TextLabelStyle> idup = new TextLabel("uDummyPort_" + edgeName + "_#" + layer);
-        Label<TextLabelStyle> ide = new TextLabel("DummyE_" + edgeName + "_L_" + (layer-1) + "_to_L_" + layer);
-        dummy.getLabelManager().addLabel(idn);
-        dummy.getLabelManager().setMainLabel(idn);
-        lowerDummyPort.getLabelManager().addLabel(idlp);
-        lowerDummyPort.getLabelManager().setMainLabel(idlp);
-        upperDummyPort.getLabelManager().addLabel(idup);
-        upperDummyPort.getLabelManager().setMainLabel(idup);
-        dummyEdge.getLabelManager().addLabel(ide);
-        dummyEdge.getLabelManager().setMainLabel(ide);
-
         dummy.addPortComposition(lowerDummyPort);
         dummy.addPortComposition(upperDummyPort);
         sugy.getGraph().addVertex(dummy);
         sugy.getGraph().addEdge(dummyEdge);
         dummyEdge2RealEdge.put(dummyEdge, edge);
-        dummyNodesLongEdges.put(dummy, refEdge);
+        dummyNodesLongEdges.put(dummy, edge);
+        dummyNodeTypes.put(dummy, DummyNodeType.LONG_EDGE);
 
         //we have to insert it on the correct position of the node ordering.
         //we only care if we are adjacent to a turning dummy
@@ -789,7 +733,7 @@ public class DummyNodeCreation {
                     //todo: this edge has been taken out before. so we don't know and return sth random. you may do
                     // sth more clever in the future, e.g. return if the adjacent node is to the left or the right of
                     // the base node and its turning dummy
-                    return Constants.random.nextBoolean();
+                    return sugy.getRandom().nextBoolean();
                 }
             }
         }
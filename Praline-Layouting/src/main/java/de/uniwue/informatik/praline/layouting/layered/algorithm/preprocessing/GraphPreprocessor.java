@@ -6,7 +6,6 @@ import de.uniwue.informatik.praline.datastructure.labels.LabeledObject;
 import de.uniwue.informatik.praline.datastructure.labels.LeaderedLabel;
 import de.uniwue.informatik.praline.datastructure.labels.TextLabel;
 import de.uniwue.informatik.praline.datastructure.styles.LabelStyle;
-import de.uniwue.informatik.praline.datastructure.styles.TextLabelStyle;
 import de.uniwue.informatik.praline.datastructure.utils.PortUtils;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.SugiyamaLayouter;
 import de.uniwue.informatik.praline.layouting.layered.algorithm.util.ImplicitCharacteristics;
@@ -160,7 +159,6 @@ public class GraphPreprocessor {
                 if (port.getVertex() == null) {
                     Vertex dummyNode = new Vertex();
                     sugy.getGraph().addVertex(dummyNode);
-                    createMainLabel("addNodeFor" + port , dummyNode);
                     dummyNode.addPortComposition(port);
                     sugy.addDummyNodeForNodelessPorts(dummyNode);
                 }
@@ -171,7 +169,7 @@ public class GraphPreprocessor {
     private void handleNodesWithoutPort() {
         for (Vertex vertex : sugy.getGraph().getVertices()) {
             if (vertex.getPorts().isEmpty()) {
-                Port dummyPort = new Port(null, Collections.singleton(new TextLabel("dummyPortForVertexWithoutPort")));
+                Port dummyPort = new Port();
                 vertex.addPortComposition(dummyPort);
                 sugy.addDummyPortsForNodesWithoutPort(dummyPort);
             }
@@ -179,29 +177,23 @@ public class GraphPreprocessor {
     }
 
     private void handleHyperEdges() {
-        int indexHE = -1;
-
         for (Edge edge : new ArrayList<>(sugy.getGraph().getEdges())) {
             if (edge.getPorts().size() > 2) {
                 //for hyperedges of degree >= 3 we add a central representative vertex which is adjacent with a
                 // "normal" degree 2 edge to all original end points of this hyperedge
                 Vertex representative = new Vertex();
-                createMainLabel(("AddNode_HE_" + edge + "_#" + ++indexHE), representative);
-                int indexEdgePart = 0;
                 for (Port port : edge.getPorts()) {
                     Port p = new Port();
-                    createMainLabel(("PortRep_HE_#" + indexHE + "-" + indexEdgePart), p);
                     representative.addPortComposition(p);
                     List<Port> ps = new LinkedList<>();
                     ps.add(p);
                     ps.add(port);
                     Edge e = new Edge(ps);
-                    createMainLabel(("AddEdge_HE_#" + indexHE + "-" + indexEdgePart++), e);
                     sugy.getGraph().addEdge(e);
                     sugy.getHyperEdgeParts().put(e, representative);
                 }
                 sugy.getGraph().addVertex(representative);
-                sugy.getHyperEdges().put(representative, edge);
+                sugy.addHyperEdgeDummy(representative, edge);
             }
             else{
                 //edges of degree 0 or 1 get dummy nodes as endpoints to have degree 2.
@@ -215,11 +207,9 @@ public class GraphPreprocessor {
                 while (edge.getPorts().size() < 2) {
                     Vertex dummyNode = new Vertex();
                     sugy.getGraph().addVertex(dummyNode);
-                    createMainLabel("addNodeForEdge_" + edge, dummyNode);
                     sugy.addDummyNodeForEdgesOfDeg1or0(dummyNode);
                     Port dummyPort = new Port();
                     dummyNode.addPortComposition(dummyPort);
-                    createMainLabel("", dummyPort);
                     //add this new dummy port as a second port to this edge
                     edge.addPort(dummyPort);
                 }
@@ -240,7 +230,6 @@ public class GraphPreprocessor {
                 contained vertex groups is not even read).
          */
 
-        int indexVG = -1;
         Set<VertexGroup> connectors = new LinkedHashSet<>();
         for (VertexGroup group : new ArrayList<>(sugy.getGraph().getVertexGroups())) {
             //for now we ignore vertex groups without vertices (we do not yet consider vertex groups in vertex groups
@@ -289,18 +278,6 @@ public class GraphPreprocessor {
             List<Vertex> groupVertices = group.getAllRecursivelyContainedVertices();
             Vertex representative = new Vertex();
 
-            // create main Label
-            ++indexVG;
-            StringBuilder idV = new StringBuilder();
-            for (Vertex groupVertex : groupVertices) {
-                if (!idV.toString().equals("")) {
-                    idV.append("|");
-                }
-                idV.append(groupVertex.getLabelManager().getMainLabel().toString());
-            }
-            createMainLabel(idV.toString(), representative);
-            int indexPort = 0;
-
             sugy.getGraph().addVertex(representative);
             Map<Port, Port> originalPort2representative = new LinkedHashMap<>();
 
@@ -311,8 +288,6 @@ public class GraphPreprocessor {
                         // create new port at unification vertex and remove old one on original vertex,
                         // hang the edges from the old to the new port
                         Port replacePort = new Port();
-                        createMainLabel(
-                                ("PortRep_R#" + indexVG + "-" + indexPort++ + "_" + port), replacePort);
 
                         for (Edge edge : new ArrayList<>(port.getEdges())) {
                             edge.removePort(port);
@@ -425,8 +400,6 @@ public class GraphPreprocessor {
     }
 
     private void handlePortsWithMultipleEdges() {
-        int index1 = 0;
-
         Map<PortGroup, Port> replaceGroups = new LinkedHashMap<>();
         for (Vertex node : sugy.getGraph().getVertices()) {
             LinkedHashMap<Port, Set<Edge>> toRemove = new LinkedHashMap<>();
@@ -434,7 +407,6 @@ public class GraphPreprocessor {
             for (Port port : node.getPorts()) {
                 if (port.getEdges().size() > 1) {
                     toRemove.put(port,new LinkedHashSet<>());
-                    index1 = 0;
                     // create a PortGroup with one Port for each connected Edge
                     PortGroup repGroup = new PortGroup();
                     for (Edge edge: port.getEdges()) {
@@ -442,7 +414,6 @@ public class GraphPreprocessor {
                         repGroup.addPortComposition(addPort);
                         toRemove.get(port).add(edge);
                         toAdd.put(addPort, edge);
-                        createMainLabel(("AddPort_for_" + port + "_#" + index1++), addPort);
                         sugy.getReplacedPorts().put(addPort, port);
                     }
                     replaceGroups.put(repGroup, port);
@@ -511,10 +482,4 @@ public class GraphPreprocessor {
             }
         }
     }
-
-    private void createMainLabel (String id, LabeledObject lo) {
-        Label<TextLabelStyle> newLabel = new TextLabel(id);
-        lo.getLabelManager().addLabel(newLabel);
-        lo.getLabelManager().setMainLabel(newLabel);
-    }
 }
\ No newline at end of file
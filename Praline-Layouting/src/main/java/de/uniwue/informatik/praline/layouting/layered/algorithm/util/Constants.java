@@ -4,7 +4,14 @@ import java.util.Random;
 
 public class Constants {
 
+    /**
+     * default seed of a {@link de.uniwue.informatik.praline.layouting.layered.algorithm.SugiyamaLayouter}
+     */
     public static final long SEED = 1234567L;
 
+    /**
+     * shared by all threads; within a layout use
+     * {@link de.uniwue.informatik.praline.layouting.layered.algorithm.SugiyamaLayouter#getRandom()} instead
+     */
     public static final Random random = new Random(SEED);
 }
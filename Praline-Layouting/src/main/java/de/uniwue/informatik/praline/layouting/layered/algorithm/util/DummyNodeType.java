@@ -0,0 +1,15 @@
+package de.uniwue.informatik.praline.layouting.layered.algorithm.util;
+
+/**
+ * Kind of a dummy vertex that is added to the graph during the layouting.
+ * Dummy vertices (and their ports and edges) get no labels; they are identified via
+ * {@link de.uniwue.informatik.praline.layouting.layered.algorithm.SugiyamaLayouter#getDummyNodeType}.
+ */
+public enum DummyNodeType {
+    LONG_EDGE,
+    SELF_LOOP,
+    TURNING_POINT,
+    HYPEREDGE,
+    EDGE_OF_DEG_1_OR_0,
+    NODELESS_PORT
+}
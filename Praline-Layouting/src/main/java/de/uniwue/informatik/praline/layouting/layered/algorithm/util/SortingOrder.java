@@ -42,7 +42,15 @@ public class SortingOrder {
         return bottomPortOrder;
     }
 
+    /**
+     * Use {@link SortingOrder#shufflePorts(Random)} with the {@link Random} of your layouter instead.
+     */
+    @Deprecated
     public void shufflePorts() {
+        shufflePorts(Constants.random);
+    }
+
+    public void shufflePorts(Random random) {
         for (List<Vertex> layer : nodeOrder) {
             for (Vertex vertex : layer) {
                 // top ports
@@ -50,13 +58,13 @@ public class SortingOrder {
                 for (Port port : topPortOrder.get(vertex)) {
                     topPortCompositions.add(PortUtils.getTopMostAncestor(port));
                 }
-                this.topPortOrder.put(vertex, shufflePortCompositions(topPortCompositions));
+                this.topPortOrder.put(vertex, shufflePortCompositions(topPortCompositions, random));
                 // bottom ports
                 Set<PortComposition> bottomPortCompositions = new LinkedHashSet<>();
                 for (Port port : bottomPortOrder.get(vertex)) {
                     bottomPortCompositions.add(PortUtils.getTopMostAncestor(port));
                 }
-                this.bottomPortOrder.put(vertex, shufflePortCompositions(bottomPortCompositions));
+                this.bottomPortOrder.put(vertex, shufflePortCompositions(bottomPortCompositions, random));
             }
         }
     }
@@ -134,24 +142,24 @@ public class SortingOrder {
         }
     }
 
-    private static List<Port> shufflePortCompositions(Collection<PortComposition> portCompositions) {
+    private static List<Port> shufflePortCompositions(Collection<PortComposition> portCompositions, Random random) {
         List<Port> order = new ArrayList<>();
-        shufflePortCompositionsRecursively(portCompositions, order, true);
+        shufflePortCompositionsRecursively(portCompositions, order, true, random);
         return order;
     }
 
     private static void shufflePortCompositionsRecursively(Collection<PortComposition> portCompositions,
-                                                           List<Port> order, boolean doShuffeling) {
+                                                           List<Port> order, boolean doShuffeling, Random random) {
         List<PortComposition> toShuffle = new ArrayList<>(portCompositions);
         if (doShuffeling) {
-            Collections.shuffle(toShuffle, Constants.random);
+            Collections.shuffle(toShuffle, random);
         }
         for (PortComposition portComposition : toShuffle) {
             if (portComposition instanceof Port) {
                 order.add((Port)portComposition);
             } else if (portComposition instanceof PortGroup) {
                 shufflePortCompositionsRecursively(((PortGroup)portComposition).getPortCompositions(), order,
-                        !((PortGroup) portComposition).isOrdered());
+                        !((PortGroup) portComposition).isOrdered(), random);
             }
         }
     }
@@ -14,77 +14,201 @@ import java.util.*;
 
 public class CrossingsCounting {
 
+    private static final double GRID_TOLERANCE = 1e-6;
+
+    /**
+     * Two segments count as crossing if they intersect, unless they are consecutive segments of an edge, both end at
+     * a common port, or they belong to the same edge and one of them ends on the other (hyperedges).
+     *
+     * Only pairs of segments whose bounding boxes share a cell of a uniform grid are tested, which takes roughly linear
+     * time (plus the number of pairs of close segments) for drawings whose segments are spread over the plane.
+     * The result is the same as when testing all pairs of segments.
+     */
     public static int countNumberOfCrossings(Graph graph) {
-        //first find all segments
-        ArrayList<Line2D.Double> allSegments = new ArrayList<>();
-        Map<Line2D.Double, Collection<Line2D.Double>> adjacentSegments = new LinkedHashMap<>();
-        Map<Line2D.Double, List<Port>> segment2Port = new LinkedHashMap<>();
-        Map<Line2D.Double, Edge> segment2Edge = new LinkedHashMap<>();
-        Map<Line2D.Double, Collection<Point2D.Double>> pathEndingSegment2EndPoints = new LinkedHashMap<>();
-        for (Edge edge : graph.getEdges()) {
-            List<Path> paths = edge.getPaths();
-            if (paths != null) {
-                Map<Point2D.Double, Collection<Line2D.Double>> outsideEndPointsOfPaths = new LinkedHashMap<>();
-                List<Line2D.Double> allSegmentsOfThisEdge = new ArrayList<>();
-                for (Path path : paths) {
-                    if (path instanceof PolygonalPath) {
-                        Point2D.Double prevPoint = null;
-                        Line2D.Double prevSegment = null;
-                        for (Point2D.Double curPoint : ((PolygonalPath) path).getTerminalAndBendPoints()) {
-                            if (prevPoint != null) {
-                                Line2D.Double curSegment = new Line2D.Double(prevPoint, curPoint);
-                                allSegments.add(curSegment);
-                                allSegmentsOfThisEdge.add(curSegment);
-                                segment2Edge.put(curSegment, edge);
-                                if (prevSegment == null) {
-                                    registerAdjacentSegmentsOfOtherPaths(adjacentSegments, outsideEndPointsOfPaths,
-                                            prevPoint, curSegment);
-                                    registerPortAtSegment(segment2Port, edge.getPorts(), prevPoint, curSegment);
-                                    pathEndingSegment2EndPoints.computeIfAbsent(curSegment, k -> new ArrayList<>())
-                                            .add(prevPoint);
-                                }
-                                else {
-                                    adjacentSegments.computeIfAbsent(prevSegment, k -> new ArrayList<>())
-                                            .add(curSegment);
-                                }
-                                prevSegment = curSegment;
-                            }
-                            prevPoint = curPoint;
-                        }
-                        registerAdjacentSegmentsOfOtherPaths(adjacentSegments, outsideEndPointsOfPaths, prevPoint,
-                                prevSegment);
-                        registerPortAtSegment(segment2Port, edge.getPorts(), prevPoint, prevSegment);
-                        pathEndingSegment2EndPoints.computeIfAbsent(prevSegment, k -> new ArrayList<>()).add(prevPoint);
-                    }
+        Segments segments = new Segments(graph);
+        int n = segments.allSegments.size();
+        if (n < 2) {
+            return 0;
+        }
+
+        //index everything by the position of a segment in allSegments instead of looking up identity-keyed maps
+        Line2D.Double[] segmentArray = segments.allSegments.toArray(new Line2D.Double[0]);
+        List<Edge> edges = new ArrayList<>(n);
+        List<List<Port>> ports = new ArrayList<>(n);
+        List<Set<Line2D.Double>> adjacent = new ArrayList<>(n);
+        for (Line2D.Double segment : segmentArray) {
+            edges.add(segments.segment2Edge.get(segment));
+            ports.add(segments.segment2Port.get(segment));
+            Collection<Line2D.Double> adjacentOfSegment = segments.adjacentSegments.get(segment);
+            Set<Line2D.Double> adjacentSet = null;
+            if (adjacentOfSegment != null) {
+                adjacentSet = Collections.newSetFromMap(new IdentityHashMap<>());
+                adjacentSet.addAll(adjacentOfSegment);
+            }
+            adjacent.add(adjacentSet);
+        }
+
+        //uniform grid over the bounding boxes; cell size = average extent of a segment
+        double sumOfExtents = 0;
+        int numberOfFiniteSegments = 0;
+        for (Line2D.Double segment : segmentArray) {
+            double extent = Math.max(Math.abs(segment.x2 - segment.x1), Math.abs(segment.y2 - segment.y1));
+            if (Double.isFinite(extent)) {
+                sumOfExtents += extent;
+                ++numberOfFiniteSegments;
+            }
+        }
+        double cellSize = sumOfExtents > 0 ? sumOfExtents / numberOfFiniteSegments : 1;
+        int[] fromX = new int[n];
+        int[] fromY = new int[n];
+        //segments that would occupy too many cells (or have non-finite coordinates) are tested against all others
+        boolean[] isUnbounded = new boolean[n];
+        List<Integer> unboundedSegments = new ArrayList<>();
+        //Line2D#intersectsLine() considers any two segments of length 0 as intersecting, wherever they are
+        boolean[] isPoint = new boolean[n];
+        List<Integer> pointSegments = new ArrayList<>();
+        Map<Long, List<Integer>> grid = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            Line2D.Double segment = segmentArray[i];
+            if (segment.x1 == segment.x2 && segment.y1 == segment.y2) {
+                isPoint[i] = true;
+                pointSegments.add(i);
+            }
+            //slightly enlarged, s.t. rounding in intersectsLine() cannot make us miss a pair of touching segments
+            double minX = Math.floor((Math.min(segment.x1, segment.x2) - GRID_TOLERANCE) / cellSize);
+            double maxX = Math.floor((Math.max(segment.x1, segment.x2) + GRID_TOLERANCE) / cellSize);
+            double minY = Math.floor((Math.min(segment.y1, segment.y2) - GRID_TOLERANCE) / cellSize);
+            double maxY = Math.floor((Math.max(segment.y1, segment.y2) + GRID_TOLERANCE) / cellSize);
+            double numberOfCells = (maxX - minX + 1) * (maxY - minY + 1);
+            if (!(numberOfCells <= n) || Math.abs(minX) > Integer.MAX_VALUE / 2
+                    || Math.abs(maxX) > Integer.MAX_VALUE / 2 || Math.abs(minY) > Integer.MAX_VALUE / 2
+                    || Math.abs(maxY) > Integer.MAX_VALUE / 2) {
+                isUnbounded[i] = true;
+                unboundedSegments.add(i);
+                continue;
+            }
+            fromX[i] = (int) minX;
+            fromY[i] = (int) minY;
+            for (int x = fromX[i]; x <= (int) maxX; x++) {
+                for (int y = fromY[i]; y <= (int) maxY; y++) {
+                    grid.computeIfAbsent(((long) x << 32) | (y & 0xffffffffL), k -> new ArrayList<>()).add(i);
                 }
-                //special case: kick out all segments of this edge that are completely covered by another edge
-                filterOutOverlayingSegments(allSegments, allSegmentsOfThisEdge);
             }
         }
 
-        //now count crossings
-        //TODO currently this is done naively in quadratic time. if necessary make it O(n log n) later
         int counter = 0;
-        for (int i = 0; i < allSegments.size() - 1; i++) {
-            for (int j = i + 1; j < allSegments.size(); j++) {
-                Line2D.Double segment0 = allSegments.get(i);
-                Line2D.Double segment1 = allSegments.get(j);
-                if (!adjacentSegments.containsKey(segment0) || !adjacentSegments.get(segment0).contains(segment1)) {
-                    if (!segment2Port.containsKey(segment0) || !segment2Port.containsKey(segment1) ||
-                            !haveCommonPort(segment2Port.get(segment0), segment2Port.get(segment1))) {
-                        if (segment2Edge.get(segment0) != segment2Edge.get(segment1) ||
-                                !containsEndingPoint(segment0, segment1, pathEndingSegment2EndPoints)) {
-                            if (segment0.intersectsLine(segment1)) {
-                                ++counter;
-                            }
-                        }
+        for (Map.Entry<Long, List<Integer>> cell : grid.entrySet()) {
+            int x = (int) (cell.getKey() >> 32);
+            int y = (int) cell.getKey().longValue();
+            List<Integer> cellContent = cell.getValue();
+            for (int a = 0; a < cellContent.size() - 1; a++) {
+                for (int b = a + 1; b < cellContent.size(); b++) {
+                    //indices are added in increasing order, so i < j as in the quadratic version
+                    int i = cellContent.get(a);
+                    int j = cellContent.get(b);
+                    //consider each pair only in the first cell shared by both
+                    if (x == Math.max(fromX[i], fromX[j]) && y == Math.max(fromY[i], fromY[j])
+                            && !(isPoint[i] && isPoint[j]) && isCrossing(i, j, segmentArray, edges, ports, adjacent, segments)) {
+                        ++counter;
                     }
                 }
             }
         }
+        for (int i : unboundedSegments) {
+            for (int j = 0; j < n; j++) {
+                //pairs of two unbounded segments only once
+                if (j != i && (!isUnbounded[j] || i < j) && !(isPoint[i] && isPoint[j])
+                        && isCrossing(Math.min(i, j), Math.max(i, j), segmentArray, edges, ports, adjacent, segments)) {
+                    ++counter;
+                }
+            }
+        }
+        for (int a = 0; a < pointSegments.size() - 1; a++) {
+            for (int b = a + 1; b < pointSegments.size(); b++) {
+                if (isCrossing(pointSegments.get(a), pointSegments.get(b), segmentArray, edges, ports, adjacent,
+                        segments)) {
+                    ++counter;
+                }
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Rules of {@link CrossingsCounting#countNumberOfCrossings(Graph)} for the pair i < j: not consecutive, no
+     * common port, not ending on each other if of the same edge, and intersecting
+     */
+    private static boolean isCrossing(int i, int j, Line2D.Double[] segmentArray, List<Edge> edges,
+                                      List<List<Port>> ports, List<Set<Line2D.Double>> adjacent, Segments segments) {
+        Line2D.Double segment0 = segmentArray[i];
+        Line2D.Double segment1 = segmentArray[j];
+        if (adjacent.get(i) != null && adjacent.get(i).contains(segment1)) {
+            return false;
+        }
+        if (ports.get(i) != null && ports.get(j) != null && haveCommonPort(ports.get(i), ports.get(j))) {
+            return false;
+        }
+        if (edges.get(i) == edges.get(j)
+                && containsEndingPoint(segment0, segment1, segments.pathEndingSegment2EndPoints)) {
+            return false;
+        }
+        return segment0.intersectsLine(segment1);
+    }
 
+    /**
+     * All segments of the paths of a graph and how they relate to each other
+     */
+    private static class Segments {
+        private final ArrayList<Line2D.Double> allSegments = new ArrayList<>();
+        private final Map<Line2D.Double, Collection<Line2D.Double>> adjacentSegments = new LinkedHashMap<>();
+        private final Map<Line2D.Double, List<Port>> segment2Port = new LinkedHashMap<>();
+        private final Map<Line2D.Double, Edge> segment2Edge = new LinkedHashMap<>();
+        private final Map<Line2D.Double, Collection<Point2D.Double>> pathEndingSegment2EndPoints =
+                new LinkedHashMap<>();
 
-        return counter;
+        private Segments(Graph graph) {
+            for (Edge edge : graph.getEdges()) {
+                List<Path> paths = edge.getPaths();
+                if (paths != null) {
+                    Map<Point2D.Double, Collection<Line2D.Double>> outsideEndPointsOfPaths = new LinkedHashMap<>();
+                    List<Line2D.Double> allSegmentsOfThisEdge = new ArrayList<>();
+                    for (Path path : paths) {
+                        if (path instanceof PolygonalPath) {
+                            Point2D.Double prevPoint = null;
+                            Line2D.Double prevSegment = null;
+                            for (Point2D.Double curPoint : ((PolygonalPath) path).getTerminalAndBendPoints()) {
+                                if (prevPoint != null) {
+                                    Line2D.Double curSegment = new Line2D.Double(prevPoint, curPoint);
+                                    allSegments.add(curSegment);
+                                    allSegmentsOfThisEdge.add(curSegment);
+                                    segment2Edge.put(curSegment, edge);
+                                    if (prevSegment == null) {
+                                        registerAdjacentSegmentsOfOtherPaths(adjacentSegments, outsideEndPointsOfPaths,
+                                                prevPoint, curSegment);
+                                        registerPortAtSegment(segment2Port, edge.getPorts(), prevPoint, curSegment);
+                                        pathEndingSegment2EndPoints.computeIfAbsent(curSegment, k -> new ArrayList<>())
+                                                .add(prevPoint);
+                                    }
+                                    else {
+                                        adjacentSegments.computeIfAbsent(prevSegment, k -> new ArrayList<>())
+                                                .add(curSegment);
+                                    }
+                                    prevSegment = curSegment;
+                                }
+                                prevPoint = curPoint;
+                            }
+                            registerAdjacentSegmentsOfOtherPaths(adjacentSegments, outsideEndPointsOfPaths, prevPoint,
+                                    prevSegment);
+                            registerPortAtSegment(segment2Port, edge.getPorts(), prevPoint, prevSegment);
+                            pathEndingSegment2EndPoints.computeIfAbsent(prevSegment, k -> new ArrayList<>())
+                                    .add(prevPoint);
+                        }
+                    }
+                    //special case: kick out all segments of this edge that are completely covered by another edge
+                    filterOutOverlayingSegments(allSegments, allSegmentsOfThisEdge);
+                }
+            }
+        }
     }
 
     private static boolean haveCommonPort(List<Port> ports0, List<Port> ports1) {
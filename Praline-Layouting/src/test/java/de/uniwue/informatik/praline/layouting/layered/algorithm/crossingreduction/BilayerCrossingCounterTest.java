@@ -0,0 +1,111 @@
+package de.uniwue.informatik.praline.layouting.layered.algorithm.crossingreduction;
+
+import de.uniwue.informatik.praline.datastructure.graphs.Edge;
+import de.uniwue.informatik.praline.datastructure.graphs.Graph;
+import de.uniwue.informatik.praline.datastructure.graphs.Port;
+import de.uniwue.informatik.praline.datastructure.graphs.Vertex;
+import de.uniwue.informatik.praline.datastructure.utils.Serialization;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.SugiyamaLayouter;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.cyclebreaking.CycleBreakingMethod;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.edgeorienting.DirectionMethod;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.layerassignment.LayerAssignmentMethod;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.util.SortingOrder;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the {@link BilayerCrossingCounter} (fresh and incremental) with checking every pair of edges between two
+ * layers on randomly shuffled orders of the example graphs.
+ */
+public class BilayerCrossingCounterTest {
+
+    private static final long SEED = 1;
+    private static final int NUMBER_OF_SHUFFLES = 100;
+    private static final String PATH_EXAMPLE_GRAPHS = "data/example-very-small";
+
+    @Test
+    public void shuffledOrdersHaveSameNumberOfCrossingsAsQuadraticVersion() throws IOException {
+        Random random = new Random(SEED);
+        for (File file : Objects.requireNonNull(new File(PATH_EXAMPLE_GRAPHS).listFiles())) {
+            SortingOrder orders = crossingMinimizedOrders(Serialization.read(file, Graph.class));
+            BilayerCrossingCounter incrementalCounter = new BilayerCrossingCounter();
+            incrementalCounter.countCrossings(orders);
+            for (int i = 0; i < NUMBER_OF_SHUFFLES; i++) {
+                int expected = countCrossingsQuadratic(orders);
+                String message = file.getName() + ", shuffle " + i + " (seed " + SEED + ")";
+                assertEquals(message, expected, new BilayerCrossingCounter().countCrossings(orders));
+                assertEquals(message, expected, incrementalCounter.updateCrossings(orders));
+                shuffle(orders, random, i % 3 == 0);
+            }
+        }
+    }
+
+    private static SortingOrder crossingMinimizedOrders(Graph graph) {
+        SugiyamaLayouter sugy = new SugiyamaLayouter(graph);
+        sugy.construct();
+        sugy.assignDirections(CycleBreakingMethod.IGNORE, DirectionMethod.FORCE, 1);
+        sugy.assignLayers(LayerAssignmentMethod.NETWORK_SIMPLEX, DirectionMethod.FORCE);
+        sugy.createDummyNodesAndDoCrossingMinimization(CrossingMinimizationMethod.PORTS, 1);
+        return new SortingOrder(sugy.getOrders());
+    }
+
+    private static void shuffle(SortingOrder orders, Random random, boolean alsoPorts) {
+        List<Vertex> layer = orders.getNodeOrder().get(random.nextInt(orders.getNodeOrder().size()));
+        Collections.shuffle(layer, random);
+        if (alsoPorts) {
+            for (Vertex vertex : layer) {
+                Collections.shuffle(orders.getTopPortOrder().get(vertex), random);
+                Collections.shuffle(orders.getBottomPortOrder().get(vertex), random);
+            }
+        }
+    }
+
+    /**
+     * Reference: checks every pair of edges between two layers
+     */
+    private static int countCrossingsQuadratic(SortingOrder sortingOrder) {
+        // create Port lists
+        List<List<Port>> topPorts = new ArrayList<>();
+        Map<Port, Integer> positions = new LinkedHashMap<>();
+        for (int layer = 0; layer < sortingOrder.getNodeOrder().size(); layer++) {
+            topPorts.add(new ArrayList<>());
+            int position = 0;
+            for (Vertex node : sortingOrder.getNodeOrder().get(layer)) {
+                topPorts.get(layer).addAll(sortingOrder.getTopPortOrder().get(node));
+                for (Port bottomPort : sortingOrder.getBottomPortOrder().get(node)) {
+                    positions.put(bottomPort, position++);
+                }
+            }
+        }
+        // count crossings
+        int crossings = 0;
+        for (int layer = 0; layer < (sortingOrder.getNodeOrder().size() - 1); layer++) {
+            for (int topPortPosition = 0; topPortPosition < topPorts.get(layer).size(); topPortPosition++) {
+                Port topPort = topPorts.get(layer).get(topPortPosition);
+                for (Edge edge : topPort.getEdges()) {
+                    int bottomPortPosition = positions.get(otherPort(edge, topPort));
+                    for (int topPosition = (topPortPosition + 1); topPosition < topPorts.get(layer).size();
+                         topPosition++) {
+                        Port crossingTopPort = topPorts.get(layer).get(topPosition);
+                        for (Edge crossingEdge : crossingTopPort.getEdges()) {
+                            if (positions.get(otherPort(crossingEdge, crossingTopPort)) < bottomPortPosition) {
+                                crossings++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return crossings;
+    }
+
+    private static Port otherPort(Edge edge, Port port) {
+        Port otherPort = edge.getPorts().get(0);
+        return port.equals(otherPort) ? edge.getPorts().get(1) : otherPort;
+    }
+}
@@ -0,0 +1,144 @@
+package de.uniwue.informatik.praline.layouting.layered.algorithm.layerassignment;
+
+import de.uniwue.informatik.praline.datastructure.graphs.*;
+import de.uniwue.informatik.praline.datastructure.utils.Serialization;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.SugiyamaLayouter;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.cyclebreaking.CycleBreakingMethod;
+import de.uniwue.informatik.praline.layouting.layered.algorithm.edgeorienting.DirectionMethod;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link FastLayerAssignmentNetworkSimplex} minimizes the total edge length.
+ * <p>
+ * {@link LayerAssignmentNetworkSimplex} stops as soon as the first tree edge of its list sorted by the initial cut
+ * values has a non-negative cut value, so it may end with a longer total edge length (e.g. 25 instead of 21 on one
+ * of the very small example graphs). Hence, on the example graphs the fast version must not be longer, and on small
+ * random graphs it must reach the minimum found by trying all layer assignments.
+ */
+public class FastLayerAssignmentNetworkSimplexTest {
+
+    private static final long SEED = 24;
+    private static final int NUMBER_OF_RANDOM_GRAPHS = 500;
+    private static final int MAX_NUMBER_OF_VERTICES = 6;
+    private static final String[] PATHS_EXAMPLE_GRAPHS = {"data/example-very-small", "data/example-cgta"};
+
+    @Test
+    public void exampleGraphsAreNotLongerThanWithNetworkSimplex() throws IOException {
+        for (String path : PATHS_EXAMPLE_GRAPHS) {
+            for (File file : Objects.requireNonNull(new File(path).listFiles())) {
+                for (DirectionMethod directionMethod : DirectionMethod.values()) {
+                    int expected = totalEdgeLength(file, LayerAssignmentMethod.NETWORK_SIMPLEX, directionMethod);
+                    int actual = totalEdgeLength(file, LayerAssignmentMethod.FAST_NETWORK_SIMPLEX, directionMethod);
+                    assertTrue(file.getName() + ", " + directionMethod + ": " + actual + " > " + expected,
+                            actual <= expected);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sum of the rank differences of the end points of all edges of the graph.
+     * All random decisions of a {@link SugiyamaLayouter} depend on its seed only, so both layer assignment methods
+     * get the same directions.
+     */
+    private static int totalEdgeLength(File file, LayerAssignmentMethod layerAssignmentMethod,
+                                       DirectionMethod directionMethod) throws IOException {
+        SugiyamaLayouter sugy = new SugiyamaLayouter(Serialization.read(file, Graph.class));
+        sugy.construct();
+        sugy.assignDirections(CycleBreakingMethod.IGNORE, directionMethod, 1);
+        sugy.assignLayers(layerAssignmentMethod, directionMethod);
+        int length = 0;
+        for (Edge edge : sugy.getGraph().getEdges()) {
+            List<Port> ports = edge.getPorts();
+            for (int i = 1; i < ports.size(); i++) {
+                length += Math.abs(sugy.getRank(ports.get(i).getVertex()) - sugy.getRank(ports.get(0).getVertex()));
+            }
+        }
+        return length;
+    }
+
+    @Test
+    public void randomGraphsHaveMinimumTotalEdgeLength() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < NUMBER_OF_RANDOM_GRAPHS; i++) {
+            int n = 2 + random.nextInt(MAX_NUMBER_OF_VERTICES - 1);
+            List<Vertex> vertices = new ArrayList<>();
+            for (int v = 0; v < n; v++) {
+                vertices.add(new Vertex());
+            }
+            //a random spanning tree and some more edges (maybe parallel ones); each edge is directed from the smaller
+            // to the larger index, so the graph is connected and acyclic
+            List<int[]> endPoints = new ArrayList<>();
+            for (int v = 1; v < n; v++) {
+                endPoints.add(new int[]{random.nextInt(v), v});
+            }
+            int numberOfAdditionalEdges = random.nextInt(n + 1);
+            for (int k = 0; k < numberOfAdditionalEdges; k++) {
+                int v = random.nextInt(n);
+                int w = random.nextInt(n);
+                if (v != w) {
+                    endPoints.add(new int[]{Math.min(v, w), Math.max(v, w)});
+                }
+            }
+            List<Edge> edges = new ArrayList<>();
+            for (int[] edge : endPoints) {
+                Port tail = new Port();
+                Port head = new Port();
+                vertices.get(edge[0]).addPortComposition(tail);
+                vertices.get(edge[1]).addPortComposition(head);
+                edges.add(new Edge(Arrays.asList(tail, head)));
+            }
+            SugiyamaLayouter sugy = new SugiyamaLayouter(new Graph(vertices, edges));
+            for (int k = 0; k < edges.size(); k++) {
+                sugy.assignDirection(edges.get(k), vertices.get(endPoints.get(k)[0]),
+                        vertices.get(endPoints.get(k)[1]));
+            }
+
+            Map<Vertex, Integer> ranks = new FastLayerAssignmentNetworkSimplex(sugy, null).assignLayers();
+            int length = 0;
+            for (int[] edge : endPoints) {
+                int edgeLength = ranks.get(vertices.get(edge[1])) - ranks.get(vertices.get(edge[0]));
+                assertTrue("random graph " + i + " (seed " + SEED + ")", edgeLength >= 1);
+                length += edgeLength;
+            }
+            assertEquals("random graph " + i + " (seed " + SEED + ")", minimumTotalEdgeLength(n, endPoints), length);
+        }
+    }
+
+    /**
+     * Reference: tries all ranks 0, ..., n - 1 for all vertices (there is an optimal layer assignment with a tight
+     * spanning tree, so it needs at most n layers)
+     */
+    private static int minimumTotalEdgeLength(int n, List<int[]> endPoints) {
+        int[] rank = new int[n];
+        int minimum = Integer.MAX_VALUE;
+        while (true) {
+            int length = 0;
+            for (int[] edge : endPoints) {
+                int edgeLength = rank[edge[1]] - rank[edge[0]];
+                if (edgeLength < 1) {
+                    length = Integer.MAX_VALUE;
+                    break;
+                }
+                length += edgeLength;
+            }
+            minimum = Math.min(minimum, length);
+            //next assignment of ranks
+            int v = 0;
+            while (v < n && rank[v] == n - 1) {
+                rank[v++] = 0;
+            }
+            if (v == n) {
+                return minimum;
+            }
+            ++rank[v];
+        }
+    }
+}
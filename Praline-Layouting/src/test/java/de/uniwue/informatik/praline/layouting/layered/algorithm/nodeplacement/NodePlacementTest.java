@@ -0,0 +1,95 @@
+package de.uniwue.informatik.praline.layouting.layered.algorithm.nodeplacement;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Compares {@link NodePlacement#findMaximumWeightNonCrossingAlignments(int[], int[], int[], int)} with the original
+ * version keeping all independent sets in a list sorted by weight (tau) on random bilayer alignments with several
+ * alignments per top and bottom position.
+ */
+public class NodePlacementTest {
+
+    private static final long SEED = 10;
+    private static final int NUMBER_OF_RANDOM_LAYERS = 5000;
+
+    @Test
+    public void randomLayersHaveSameAlignmentsAsOriginalVersion() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < NUMBER_OF_RANDOM_LAYERS; i++) {
+            int numberOfAlignments = random.nextInt(i % 100 == 0 ? 300 : 30);
+            int numberOfTopPositions = 1 + random.nextInt(numberOfAlignments + 1);
+            int numberOfBottomPositions = 1 + random.nextInt(numberOfAlignments + 1);
+            int maxWeight = i % 2 == 0 ? 1 : 1 + random.nextInt(5);
+            int[] topPositions = new int[numberOfAlignments];
+            int[] bottomPositions = new int[numberOfAlignments];
+            int[] weights = new int[numberOfAlignments];
+            for (int k = 0; k < numberOfAlignments; k++) {
+                topPositions[k] = random.nextInt(numberOfTopPositions);
+                bottomPositions[k] = random.nextInt(numberOfBottomPositions);
+                weights[k] = 1 + random.nextInt(maxWeight);
+            }
+            //the alignments are collected top port by top port
+            Arrays.sort(topPositions);
+
+            assertArrayEquals("random layer " + i + " (seed " + SEED + ")",
+                    findAlignmentsOriginally(topPositions, bottomPositions, weights),
+                    NodePlacement.findMaximumWeightNonCrossingAlignments(topPositions, bottomPositions, weights,
+                            numberOfBottomPositions));
+        }
+    }
+
+    /**
+     * Reference: the original version of NodePlacement#findLayerAlignmentsByMIS on indices of alignments
+     */
+    private static int[] findAlignmentsOriginally(int[] topPositions, int[] bottomPositions, int[] weights) {
+        if (topPositions.length == 0) {
+            return new int[0];
+        }
+        //tau contains for each alignment as second entry the assigned independent set and as first entry the weight
+        // of that set; it is sorted by decreasing weight
+        LinkedList<Map.Entry<Integer, LinkedList<Integer>>> tau = new LinkedList<>();
+        for (int i = 0; i < topPositions.length; i++) {
+            //find weight and indpendent set of rightmost non-neighbor of (v_i, adj(v_i)); this is done in variable u
+            Map.Entry<Integer, LinkedList<Integer>> u = null;
+            for (int j = 0; j < i; j++) {
+                int aj = tau.get(j).getValue().get(0); //the 0-th entry of the is is the owning alignment
+                if (!doCross(aj, i, topPositions, bottomPositions)) {
+                    u = tau.get(j);
+                    break;
+                }
+            }
+            LinkedList<Integer> si = new LinkedList<>(Collections.singletonList(i));
+            int wsi = weights[i];
+            if (u != null) {
+                si.addAll(u.getValue());
+                wsi += u.getKey();
+            }
+            insert(tau, si, wsi);
+        }
+        return tau.getFirst().getValue().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void insert(LinkedList<Map.Entry<Integer, LinkedList<Integer>>> tau, LinkedList<Integer> si,
+                               int wsi) {
+        ListIterator<Map.Entry<Integer, LinkedList<Integer>>> tauIterator = tau.listIterator(0);
+        while (tauIterator.hasNext()) {
+            Map.Entry<Integer, LinkedList<Integer>> curr = tauIterator.next();
+            if (curr.getKey() < wsi) {
+                //we have to add si before curr -> go one back and then add si
+                tauIterator.previous();
+                break;
+            }
+        }
+        tauIterator.add(new AbstractMap.SimpleEntry<>(wsi, si));
+    }
+
+    private static boolean doCross(int alignment0, int alignment1, int[] topPositions, int[] bottomPositions) {
+        boolean top0First = topPositions[alignment0] < topPositions[alignment1];
+        boolean bottom0First = bottomPositions[alignment0] < bottomPositions[alignment1];
+        return top0First != bottom0First;
+    }
+}
@@ -0,0 +1,340 @@
+package de.uniwue.informatik.praline.layouting.layered.main.util;
+
+import de.uniwue.informatik.praline.datastructure.graphs.Edge;
+import de.uniwue.informatik.praline.datastructure.graphs.Graph;
+import de.uniwue.informatik.praline.datastructure.graphs.Port;
+import de.uniwue.informatik.praline.datastructure.paths.Path;
+import de.uniwue.informatik.praline.datastructure.paths.PolygonalPath;
+import de.uniwue.informatik.praline.datastructure.shapes.Rectangle;
+import de.uniwue.informatik.praline.datastructure.utils.ArithmeticOperation;
+import org.junit.Test;
+
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the grid-based {@link CrossingsCounting#countNumberOfCrossings(Graph)} with the original version testing
+ * all pairs of segments.
+ */
+public class CrossingsCountingTest {
+
+    private static final long SEED = 42;
+    private static final int NUMBER_OF_RANDOM_GRAPHS = 2000;
+
+    @Test
+    public void randomGraphsHaveSameNumberOfCrossingsAsQuadraticVersion() {
+        Random random = new Random(SEED);
+        for (int i = 0; i < NUMBER_OF_RANDOM_GRAPHS; i++) {
+            Graph graph = randomGraph(random, i);
+            assertEquals("random graph " + i + " (seed " + SEED + ")",
+                    countNumberOfCrossingsQuadratic(graph),
+                    CrossingsCounting.countNumberOfCrossings(graph));
+        }
+    }
+
+    @Test
+    public void zeroLengthSegmentsFarApart() {
+        Graph graph = new Graph();
+        graph.addEdge(edge(new Point2D.Double(0, 0), new Point2D.Double(0, 0)));
+        graph.addEdge(edge(new Point2D.Double(50, 50), new Point2D.Double(50, 50)));
+        graph.addEdge(edge(new Point2D.Double(0, 10), new Point2D.Double(10, 10)));
+        assertSameAsQuadratic(graph);
+    }
+
+    @Test
+    public void segmentsSpanningTooManyCells() {
+        Graph graph = new Graph();
+        for (int i = 0; i < 10; i++) {
+            graph.addEdge(edge(new Point2D.Double(i, 0), new Point2D.Double(i, 1)));
+        }
+        graph.addEdge(edge(new Point2D.Double(-1000, -1000), new Point2D.Double(1000, 1000)));
+        graph.addEdge(edge(new Point2D.Double(-1000, 1000), new Point2D.Double(1000, -1000)));
+        graph.addEdge(edge(new Point2D.Double(-1, 0.5), new Point2D.Double(Double.MAX_VALUE, 0.5)));
+        assertSameAsQuadratic(graph);
+    }
+
+    @Test
+    public void consecutiveSegmentsAndCommonPortsDoNotCross() {
+        Graph graph = new Graph();
+        Port sharedPort = port(new Point2D.Double(0, 0), false);
+        graph.addEdge(edge(sharedPort, port(new Point2D.Double(10, 10), false), new Point2D.Double(0, 0),
+                new Point2D.Double(5, 0), new Point2D.Double(5, 10), new Point2D.Double(10, 10)));
+        graph.addEdge(edge(sharedPort, port(new Point2D.Double(0, 10), false), new Point2D.Double(0, 0),
+                new Point2D.Double(0, 10)));
+        graph.addEdge(edge(new Point2D.Double(0, 5), new Point2D.Double(10, 5)));
+        assertEquals(2, CrossingsCounting.countNumberOfCrossings(graph));
+        assertSameAsQuadratic(graph);
+    }
+
+    private static void assertSameAsQuadratic(Graph graph) {
+        assertEquals(countNumberOfCrossingsQuadratic(graph),
+                CrossingsCounting.countNumberOfCrossings(graph));
+    }
+
+    /**
+     * Orthogonal and diagonal paths on a small integer grid (sometimes with quarter coordinates), with shared ports,
+     * hyperedges, duplicate paths, zero-length segments and, rarely, very long segments.
+     */
+    private static Graph randomGraph(Random random, int index) {
+        int range = 3 + random.nextInt(index % 3 == 0 ? 6 : 40);
+        boolean fractional = random.nextInt(4) == 0;
+        Graph graph = new Graph();
+        List<Port> allPorts = new ArrayList<>();
+        int numberOfEdges = 1 + random.nextInt(index % 50 == 0 ? 200 : 25);
+        for (int e = 0; e < numberOfEdges; e++) {
+            Point2D.Double start = randomPoint(random, range, fractional);
+            Point2D.Double end = randomPoint(random, range, fractional);
+            Port startPort;
+            if (random.nextInt(5) == 0 && !allPorts.isEmpty()) {
+                startPort = allPorts.get(random.nextInt(allPorts.size()));
+                Rectangle shape = (Rectangle) startPort.getShape();
+                start = new Point2D.Double(shape.x, shape.y);
+            }
+            else {
+                startPort = port(start, random.nextBoolean());
+            }
+            Port endPort = port(end, random.nextBoolean());
+            allPorts.add(startPort);
+            allPorts.add(endPort);
+            Edge edge = new Edge(new ArrayList<>(Arrays.asList(startPort, endPort)));
+            boolean orthogonal = random.nextInt(5) != 0;
+            List<Point2D.Double> mainPath = randomPolyline(random, start, end, range, orthogonal);
+            edge.addPath(new PolygonalPath(mainPath));
+            if (random.nextInt(4) == 0) {
+                //hyperedge: another path starting at a point of the main path
+                Point2D.Double other = randomPoint(random, range, fractional);
+                Port otherPort = port(other, random.nextBoolean());
+                edge.addPort(otherPort);
+                Point2D.Double from = mainPath.get(random.nextInt(mainPath.size()));
+                if (random.nextBoolean()) {
+                    Point2D.Double a = mainPath.get(0);
+                    Point2D.Double b = mainPath.get(1);
+                    from = new Point2D.Double((a.x + b.x) / 2, (a.y + b.y) / 2);
+                }
+                edge.addPath(new PolygonalPath(randomPolyline(random, from, other, range, orthogonal)));
+            }
+            if (random.nextInt(10) == 0) {
+                edge.addPath(new PolygonalPath(new ArrayList<>(mainPath)));
+            }
+            graph.addEdge(edge);
+        }
+        if (random.nextInt(10) == 0) {
+            //segment spanning many cells of the grid
+            double far = range * (random.nextBoolean() ? 100 : 1e12);
+            graph.addEdge(edge(new Point2D.Double(-far, random.nextInt(range)),
+                    new Point2D.Double(far, random.nextInt(range) + random.nextInt(2) * far)));
+        }
+        return graph;
+    }
+
+    private static List<Point2D.Double> randomPolyline(Random random, Point2D.Double start, Point2D.Double end,
+                                                       int range, boolean orthogonal) {
+        List<Point2D.Double> points = new ArrayList<>();
+        points.add(start);
+        Point2D.Double current = start;
+        int numberOfBends = random.nextInt(4);
+        for (int i = 0; i < numberOfBends; i++) {
+            Point2D.Double next;
+            if (random.nextInt(8) == 0) {
+                //zero-length segment
+                next = new Point2D.Double(current.x, current.y);
+            }
+            else if (orthogonal) {
+                next = i % 2 == 0 ? new Point2D.Double(current.x, random.nextInt(range))
+                        : new Point2D.Double(random.nextInt(range), current.y);
+            }
+            else {
+                next = randomPoint(random, range, false);
+            }
+            points.add(next);
+            current = next;
+        }
+        if (orthogonal && current.x != end.x && current.y != end.y) {
+            points.add(new Point2D.Double(current.x, end.y));
+        }
+        points.add(end);
+        return points;
+    }
+
+    private static Point2D.Double randomPoint(Random random, int range, boolean fractional) {
+        return new Point2D.Double(random.nextInt(range) + (fractional ? random.nextInt(4) * 0.25 : 0),
+                random.nextInt(range) + (fractional ? random.nextInt(4) * 0.25 : 0));
+    }
+
+    private static Port port(Point2D.Double point, boolean atUpperLeftCorner) {
+        Port port = new Port();
+        port.setShape(new Rectangle(point.x - (atUpperLeftCorner ? 0 : 1), point.y - (atUpperLeftCorner ? 0 : 1), 1,
+                1));
+        return port;
+    }
+
+    private static Edge edge(Point2D.Double start, Point2D.Double end) {
+        return edge(port(start, true), port(end, true), start, end);
+    }
+
+    private static Edge edge(Port startPort, Port endPort, Point2D.Double... points) {
+        Edge edge = new Edge(new ArrayList<>(Arrays.asList(startPort, endPort)));
+        edge.addPath(new PolygonalPath(new ArrayList<>(Arrays.asList(points))));
+        return edge;
+    }
+
+    /**
+     * Reference: the original version testing all pairs of segments
+     */
+    private static int countNumberOfCrossingsQuadratic(Graph graph) {
+        //first find all segments
+        ArrayList<Line2D.Double> allSegments = new ArrayList<>();
+        Map<Line2D.Double, Collection<Line2D.Double>> adjacentSegments = new LinkedHashMap<>();
+        Map<Line2D.Double, List<Port>> segment2Port = new LinkedHashMap<>();
+        Map<Line2D.Double, Edge> segment2Edge = new LinkedHashMap<>();
+        Map<Line2D.Double, Collection<Point2D.Double>> pathEndingSegment2EndPoints = new LinkedHashMap<>();
+        for (Edge edge : graph.getEdges()) {
+            List<Path> paths = edge.getPaths();
+            if (paths != null) {
+                Map<Point2D.Double, Collection<Line2D.Double>> outsideEndPointsOfPaths = new LinkedHashMap<>();
+                List<Line2D.Double> allSegmentsOfThisEdge = new ArrayList<>();
+                for (Path path : paths) {
+                    if (path instanceof PolygonalPath) {
+                        Point2D.Double prevPoint = null;
+                        Line2D.Double prevSegment = null;
+                        for (Point2D.Double curPoint : ((PolygonalPath) path).getTerminalAndBendPoints()) {
+                            if (prevPoint != null) {
+                                Line2D.Double curSegment = new Line2D.Double(prevPoint, curPoint);
+                                allSegments.add(curSegment);
+                                allSegmentsOfThisEdge.add(curSegment);
+                                segment2Edge.put(curSegment, edge);
+                                if (prevSegment == null) {
+                                    registerAdjacentSegmentsOfOtherPaths(adjacentSegments, outsideEndPointsOfPaths,
+                                            prevPoint, curSegment);
+                                    registerPortAtSegment(segment2Port, edge.getPorts(), prevPoint, curSegment);
+                                    pathEndingSegment2EndPoints.computeIfAbsent(curSegment, k -> new ArrayList<>())
+                                            .add(prevPoint);
+                                }
+                                else {
+                                    adjacentSegments.computeIfAbsent(prevSegment, k -> new ArrayList<>())
+                                            .add(curSegment);
+                                }
+                                prevSegment = curSegment;
+                            }
+                            prevPoint = curPoint;
+                        }
+                        registerAdjacentSegmentsOfOtherPaths(adjacentSegments, outsideEndPointsOfPaths, prevPoint,
+                                prevSegment);
+                        registerPortAtSegment(segment2Port, edge.getPorts(), prevPoint, prevSegment);
+                        pathEndingSegment2EndPoints.computeIfAbsent(prevSegment, k -> new ArrayList<>()).add(prevPoint);
+                    }
+                }
+                //special case: kick out all segments of this edge that are completely covered by another edge
+                filterOutOverlayingSegments(allSegments, allSegmentsOfThisEdge);
+            }
+        }
+
+        //now count crossings
+        int counter = 0;
+        for (int i = 0; i < allSegments.size() - 1; i++) {
+            for (int j = i + 1; j < allSegments.size(); j++) {
+                Line2D.Double segment0 = allSegments.get(i);
+                Line2D.Double segment1 = allSegments.get(j);
+                if (!adjacentSegments.containsKey(segment0) || !adjacentSegments.get(segment0).contains(segment1)) {
+                    if (!segment2Port.containsKey(segment0) || !segment2Port.containsKey(segment1) ||
+                            !haveCommonPort(segment2Port.get(segment0), segment2Port.get(segment1))) {
+                        if (segment2Edge.get(segment0) != segment2Edge.get(segment1) ||
+                                !containsEndingPoint(segment0, segment1, pathEndingSegment2EndPoints)) {
+                            if (segment0.intersectsLine(segment1)) {
+                                ++counter;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return counter;
+    }
+
+    private static boolean haveCommonPort(List<Port> ports0, List<Port> ports1) {
+        for (Port port0 : ports0) {
+            for (Port port1 : ports1) {
+                if (port0.equals(port1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * to avoid couting a crossing in hyperedges (where one path ends at a segment of another path)
+     *
+     * @param segment0
+     * @param segment1
+     * @param pathEndingSegment2EndPoints
+     * @return
+     */
+    private static boolean containsEndingPoint(Line2D.Double segment0, Line2D.Double segment1,
+                                               Map<Line2D.Double, Collection<Point2D.Double>> pathEndingSegment2EndPoints) {
+        Collection<Point2D.Double> endPoints0 = pathEndingSegment2EndPoints.get(segment0);
+        Collection<Point2D.Double> endPoints1 = pathEndingSegment2EndPoints.get(segment1);
+        boolean returnValue = containsEndingPoints(segment0, endPoints1);
+        returnValue |= containsEndingPoints(segment1, endPoints0);
+        return returnValue;
+    }
+
+    private static boolean containsEndingPoints(Line2D.Double segment, Collection<Point2D.Double> endPoints) {
+        if (endPoints != null) {
+            for (Point2D.Double endPoint : endPoints) {
+                if (ArithmeticOperation.precisionEqual(segment.ptSegDist(endPoint), 0)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void filterOutOverlayingSegments(ArrayList<Line2D.Double> allSegments,
+                                                    List<Line2D.Double> allSegmentsOfThisEdge) {
+        for (int i = 0; i < allSegmentsOfThisEdge.size(); i++) {
+            for (int j = 0; j < allSegmentsOfThisEdge.size(); j++) {
+                if (i != j) {
+                    Line2D.Double seg0 = allSegmentsOfThisEdge.get(i);
+                    Line2D.Double seg1 = allSegmentsOfThisEdge.get(j);
+
+                    if (ArithmeticOperation.precisionEqual(seg0.ptSegDist(seg1.getP1()), 0)
+                            && ArithmeticOperation.precisionEqual(seg0.ptSegDist(seg1.getP2()), 0)) {
+                        //if they are identical, remove only if i < j (not to remove both
+                        //otherwise seg1 is strictly contained -> we remove it
+                        if (i < j || !((seg0.getP1().equals(seg1.getP1()) && seg0.getP1().equals(seg1.getP1()))
+                            || (seg0.getP1().equals(seg1.getP1()) && seg0.getP1().equals(seg1.getP1())))) {
+                            allSegments.remove(seg1);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void registerAdjacentSegmentsOfOtherPaths(
+            Map<Line2D.Double, Collection<Line2D.Double>> adjacentSegments,
+            Map<Point2D.Double, Collection<Line2D.Double>> outsideEndPointsOfPaths, Point2D.Double prevPoint,
+            Line2D.Double curSegment) {
+        Collection<Line2D.Double> segmentsEndingAtPrevPoint =
+                outsideEndPointsOfPaths.computeIfAbsent(prevPoint, k -> new ArrayList<>());
+        for (Line2D.Double adjacentSegment : segmentsEndingAtPrevPoint) {
+            adjacentSegments.computeIfAbsent(adjacentSegment, k -> new ArrayList<>()).add(curSegment);
+        }
+        segmentsEndingAtPrevPoint.add(curSegment);
+    }
+
+    private static void registerPortAtSegment(Map<Line2D.Double, List<Port>> segment2Port, List<Port> ports,
+                                              Point2D.Double endPoint, Line2D.Double segment) {
+        for (Port port : ports) {
+            if (((Rectangle) port.getShape()).liesOnBoundary(endPoint)) {
+                segment2Port.putIfAbsent(segment, new ArrayList<>(1));
+                segment2Port.get(segment).add(port);
+            }
+        }
+    }
+}